@@ -1,7 +1,8 @@
 #!/bin/bash
 
 # Script to generate Jelly UI config files for all generated Tekton POJOs
-# This analyzes the generated Java classes and creates appropriate Jenkins UI forms
+# The forms are rendered from the CRD schemas while generating the POJOs, so the
+# generated classes do not need to be compiled or loaded
 
 set -e
 
@@ -10,23 +11,19 @@ echo "========================="
 echo ""
 
 # Directories
+CRD_DIR="src/main/resources/crds"
 GENERATED_SOURCES="target/generated-sources/tekton"
 RESOURCES_DIR="src/main/resources"
 TARGET_CLASSES="target/classes"
+BASE_PACKAGE="org.waveywaves.jenkins.plugins.tekton.generated"
 
-# Check if generated sources exist
-if [ ! -d "$GENERATED_SOURCES" ]; then
-    echo "[ERROR] Generated sources not found at: $GENERATED_SOURCES"
-    echo "   Please run: mvn compile first"
-    exit 1
-fi
-
-# Check if classes are compiled
-if [ ! -d "$TARGET_CLASSES" ]; then
-    echo "[WARN] Compiled classes not found. Running mvn compile..."
+# Check if the generator is compiled
+if [ ! -d "$TARGET_CLASSES/org/waveywaves/jenkins/plugins/tekton/generator" ]; then
+    echo "[WARN] Generator classes not found. Running mvn compile..."
     mvn compile -DskipTests
 fi
 
+echo "CRDs: $CRD_DIR"
 echo "Generated sources: $GENERATED_SOURCES"
 echo "Resources output: $RESOURCES_DIR"
 echo ""
@@ -41,13 +38,15 @@ CLASSPATH="$CLASSPATH:$(mvn dependency:build-classpath -Dmdep.outputFile=/dev/st
 echo "[OK] Classpath ready"
 echo ""
 
-# Run the generator
+# Run the generator, rendering the Jelly configs in the same pass as the POJOs
 echo "Running Jelly Config Generator..."
 echo ""
 
 java -cp "$CLASSPATH" \
-    org.waveywaves.jenkins.plugins.tekton.generator.JellyConfigGenerator \
+    org.waveywaves.jenkins.plugins.tekton.generator.TektonPojoGenerator \
+    "$CRD_DIR" \
     "$GENERATED_SOURCES" \
+    "$BASE_PACKAGE" \
     "$RESOURCES_DIR"
 
 echo ""
@@ -0,0 +1,137 @@
+package org.waveywaves.jenkins.plugins.tekton.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.jsonschema2pojo.DefaultGenerationConfig;
+import org.jsonschema2pojo.util.NameHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the cost of generating the classes and the Jelly forms of each bundled CRD.
+ *
+ * Each CRD is generated on the benchmark thread into an empty directory, so that the incremental generation has
+ * nothing to reuse and the allocations reported by the GC profiler are those of the whole generation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class GeneratorBenchmark {
+    static final String CRD_DIRECTORY_PROPERTY = "benchmark.crdDirectory";
+
+    private static final String BASE_PACKAGE = "org.waveywaves.jenkins.plugins.tekton.generated";
+
+    @Param({
+        "300-customrun.yaml",
+        "300-pipeline.yaml",
+        "300-pipelinerun.yaml",
+        "300-resolutionrequest.yaml",
+        "300-stepaction.yaml",
+        "300-task.yaml",
+        "300-taskrun.yaml",
+        "300-verificationpolicy.yaml"
+    })
+    public String crdFile;
+
+    private Path workDirectory;
+    private Path crdDirectory;
+    private Path outputDirectory;
+    private List<JsonNode> schemas;
+    private NameHelper nameHelper;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        Path source = Paths.get(System.getProperty(CRD_DIRECTORY_PROPERTY, "src/main/resources/crds")).resolve(crdFile);
+        workDirectory = Files.createTempDirectory("tekton-generator-benchmark");
+        crdDirectory = workDirectory.resolve("crds");
+        outputDirectory = workDirectory.resolve("generated-sources");
+        Files.createDirectories(crdDirectory);
+        Files.copy(source, crdDirectory.resolve(crdFile));
+
+        schemas = new ArrayList<>();
+        CrdSchemaReader.Crd crd = new CrdSchemaReader(new ObjectMapper(new YAMLFactory())).read(source);
+        for (CrdSchemaReader.Version version : crd.getVersions()) {
+            if (version.getSchema() != null) {
+                schemas.add(version.getSchema());
+            }
+        }
+        nameHelper = new NameHelper(new DefaultGenerationConfig());
+
+        // The generator reports its progress on System.out, which would otherwise dominate the measurements
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Setup(Level.Invocation)
+    public void cleanOutput() throws IOException {
+        delete(outputDirectory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        System.setOut(out);
+        delete(workDirectory);
+    }
+
+    /**
+     * Generate the classes of the CRD as the build does, with base class inheritance and the Jenkins mappings.
+     */
+    @Benchmark
+    public void processDirectory() throws IOException {
+        TektonCrdToJavaProcessor processor = new TektonCrdToJavaProcessor();
+        TektonPojoGenerator.configureJenkinsIntegration(processor, BASE_PACKAGE);
+        processor.setParallelism(1);
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, true);
+    }
+
+    /**
+     * Render the Jelly form of each version of the CRD from its schema.
+     */
+    @Benchmark
+    public void jellyConfig(Blackhole blackhole) {
+        JellyConfigGenerator generator = new JellyConfigGenerator();
+        for (JsonNode schema : schemas) {
+            blackhole.consume(generator.generateJellyConfig(schema, nameHelper));
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
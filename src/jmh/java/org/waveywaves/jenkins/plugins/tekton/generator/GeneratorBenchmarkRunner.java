@@ -0,0 +1,138 @@
+package org.waveywaves.jenkins.plugins.tekton.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Runs {@link GeneratorBenchmark} and {@link JacksonCodecBenchmark} with the GC profiler and compares the allocation
+ * per CRD with the published baseline, failing when it regresses by more than the tolerance. The time is recorded in
+ * the baseline too, but its error bars on shared build agents are too wide to fail the build on.
+ *
+ * Arguments:
+ * args[0] - CRD directory path (e.g., "src/main/resources/crds")
+ * args[1] - Baseline file (e.g., "src/jmh/generator-baseline.json")
+ * args[2] - JMH result file (e.g., "target/jmh-result.json")
+ *
+ * With <code>-Dbenchmark.updateBaseline=true</code> the baseline is replaced by the results instead, and
+ * <code>-Dbenchmark.tolerance</code> sets the allowed regression, 0.25 by default. Otherwise the baseline has to exist,
+ * so that the comparison cannot pass unnoticed without one.
+ */
+public class GeneratorBenchmarkRunner {
+    static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("Usage: GeneratorBenchmarkRunner <crd-directory> <baseline-file> <result-file>");
+        }
+        Path crdDirectory = Paths.get(args[0]).toAbsolutePath();
+        Path baselineFile = Paths.get(args[1]);
+        Path resultFile = Paths.get(args[2]);
+        boolean updateBaseline = Boolean.getBoolean("benchmark.updateBaseline");
+        if (!updateBaseline && !Files.exists(baselineFile)) {
+            throw new IllegalStateException("No benchmark baseline at " + baselineFile
+                + ", run with -Dbenchmark.updateBaseline=true to record one");
+        }
+        Files.createDirectories(resultFile.toAbsolutePath().getParent());
+
+        Options options = new OptionsBuilder()
+            .include(GeneratorBenchmark.class.getName())
+            .include(JacksonCodecBenchmark.class.getName())
+            .addProfiler(GCProfiler.class)
+            .jvmArgsAppend("-D" + GeneratorBenchmark.CRD_DIRECTORY_PROPERTY + "=" + crdDirectory,
+                "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+            .resultFormat(ResultFormatType.JSON)
+            .result(resultFile.toString())
+            .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectNode measured = toBaseline(mapper, results);
+        if (updateBaseline) {
+            mapper.writeValue(baselineFile.toFile(), measured);
+            System.out.println("Updated the benchmark baseline " + baselineFile);
+            return;
+        }
+
+        double tolerance = Double.parseDouble(System.getProperty("benchmark.tolerance", "0.25"));
+        List<String> regressions = compare(mapper.readTree(baselineFile.toFile()), measured, tolerance);
+        if (!regressions.isEmpty()) {
+            regressions.forEach(System.err::println);
+            throw new IllegalStateException(regressions.size() + " generator benchmark(s) allocate more than "
+                + Math.round(tolerance * 100) + "% against " + baselineFile);
+        }
+        System.out.println("No generator benchmark allocates more than " + Math.round(tolerance * 100) + "% over the baseline");
+    }
+
+    /**
+     * @return The time and allocation per operation of each benchmark and its parameters, keyed by both and sorted
+     */
+    static ObjectNode toBaseline(ObjectMapper mapper, Collection<RunResult> results) {
+        Map<String, ObjectNode> entries = new TreeMap<>();
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            StringJoiner params = new StringJoiner(",", "[", "]");
+            for (String param : result.getParams().getParamsKeys()) {
+                params.add(result.getParams().getParam(param));
+            }
+            String key = benchmark.substring(benchmark.lastIndexOf('.') + 1) + params;
+            ObjectNode entry = mapper.createObjectNode();
+            entry.put("score", result.getPrimaryResult().getScore());
+            entry.put("scoreUnit", result.getPrimaryResult().getScoreUnit());
+            for (Map.Entry<String, Result> secondary : result.getSecondaryResults().entrySet()) {
+                // Older JMH versions prefix the profiler results with a middle dot
+                if (secondary.getKey().endsWith(ALLOCATION)) {
+                    entry.put("allocation", secondary.getValue().getScore());
+                    entry.put("allocationUnit", secondary.getValue().getScoreUnit());
+                }
+            }
+            entries.put(key, entry);
+        }
+        ObjectNode baseline = mapper.createObjectNode();
+        entries.forEach(baseline::set);
+        return baseline;
+    }
+
+    /**
+     * @return A description of each allocation which exceeds its baseline by more than the tolerance. Unlike the
+     * time, the allocation per operation hardly varies between runs, so a regression is not noise.
+     */
+    static List<String> compare(JsonNode baseline, JsonNode measured, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        measured.fields().forEachRemaining(entry -> {
+            JsonNode expected = baseline.get(entry.getKey());
+            if (expected == null) {
+                return;
+            }
+            if (expected.has("allocation") && entry.getValue().has("allocation")) {
+                double before = expected.get("allocation").asDouble();
+                double after = entry.getValue().get("allocation").asDouble();
+                if (before > 0 && after > before * (1 + tolerance)) {
+                    regressions.add(String.format("%s allocation: %.3f -> %.3f (+%.0f%%)", entry.getKey(), before, after,
+                        (after / before - 1) * 100));
+                }
+            }
+        });
+        return regressions;
+    }
+}
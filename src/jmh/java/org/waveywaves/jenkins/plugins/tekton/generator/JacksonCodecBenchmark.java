@@ -0,0 +1,218 @@
+package org.waveywaves.jenkins.plugins.tekton.generator;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.tekton.pipeline.v1beta1.PipelineRun;
+import io.fabric8.tekton.pipeline.v1beta1.PipelineRunBuilder;
+import io.fabric8.tekton.pipeline.v1beta1.PipelineTask;
+import io.fabric8.tekton.pipeline.v1beta1.PipelineTaskBuilder;
+import io.fabric8.tekton.pipeline.v1beta1.TaskRun;
+import io.fabric8.tekton.pipeline.v1beta1.TaskRunBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures writing and reading a generated TaskRun and PipelineRun with the generated <code>JacksonModule</code>
+ * registered, against the default binding which introspects the generated classes.
+ *
+ * The classes of the CRD are generated and compiled once per trial, and the value is converted from a fabric8
+ * resource with the generated <code>Fabric8Converter</code>, so both mappers handle the same document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class JacksonCodecBenchmark {
+    private static final String BASE_PACKAGE = "org.waveywaves.jenkins.plugins.tekton.generated";
+
+    @Param({ "300-pipelinerun.yaml", "300-taskrun.yaml" })
+    public String crdFile;
+
+    @Param({ "false", "true" })
+    public boolean jacksonModule;
+
+    private Path workDirectory;
+    private URLClassLoader loader;
+    private ObjectMapper mapper;
+    private Class<?> generatedClass;
+    private Object value;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws Exception {
+        Path source = Paths.get(System.getProperty(GeneratorBenchmark.CRD_DIRECTORY_PROPERTY, "src/main/resources/crds")).resolve(crdFile);
+        workDirectory = Files.createTempDirectory("tekton-codec-benchmark");
+        Path crdDirectory = workDirectory.resolve("crds");
+        Path outputDirectory = workDirectory.resolve("generated-sources");
+        Path classesDirectory = workDirectory.resolve("classes");
+        Files.createDirectories(crdDirectory);
+        Files.createDirectories(classesDirectory);
+        Files.copy(source, crdDirectory.resolve(crdFile));
+
+        // The generator reports its progress on System.out
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            TektonCrdToJavaProcessor processor = new TektonCrdToJavaProcessor();
+            processor.setGenerateJacksonCodecs(true);
+            processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, false);
+        } finally {
+            System.setOut(out);
+        }
+        compile(outputDirectory, classesDirectory);
+
+        boolean pipelineRun = crdFile.contains("pipelinerun");
+        HasMetadata resource = pipelineRun ? pipelineRun() : taskRun();
+        Class<?> resourceClass = pipelineRun ? PipelineRun.class : TaskRun.class;
+        String versionPackage = BASE_PACKAGE + "." + (pipelineRun ? "pipelineruns" : "taskruns") + ".v1beta1";
+        loader = new URLClassLoader(new URL[] { classesDirectory.toUri().toURL() }, getClass().getClassLoader());
+        generatedClass = loader.loadClass(versionPackage + ".Create" + resourceClass.getSimpleName());
+        value = loader.loadClass(versionPackage + ".Fabric8Converter").getMethod("fromFabric8", resourceClass).invoke(null, resource);
+
+        mapper = new ObjectMapper();
+        json = mapper.writeValueAsBytes(value);
+        if (jacksonModule) {
+            mapper.registerModule((Module) loader.loadClass(versionPackage + ".JacksonModule").getConstructor().newInstance());
+            // Both mappers have to write the same document for the comparison to mean anything
+            if (!mapper.readTree(json).equals(mapper.readTree(mapper.writeValueAsBytes(value)))) {
+                throw new IllegalStateException("The JacksonModule of " + versionPackage + " writes a different document");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        loader.close();
+        try (Stream<Path> files = Files.walk(workDirectory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Write the generated value as JSON.
+     */
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    /**
+     * Read the JSON of the generated value back into the generated class.
+     */
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return mapper.readValue(json, generatedClass);
+    }
+
+    private static void compile(Path sourceDirectory, Path classesDirectory) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("The benchmark needs a JDK to compile the generated classes");
+        }
+        List<String> arguments = new ArrayList<>(List.of(
+            "-d", classesDirectory.toString(), "-cp", System.getProperty("java.class.path"), "-proc:none", "-nowarn"));
+        try (Stream<Path> files = Files.walk(sourceDirectory)) {
+            files.filter(p -> p.toString().endsWith(".java")).forEach(p -> arguments.add(p.toString()));
+        }
+        if (compiler.run(null, null, null, arguments.toArray(new String[0])) != 0) {
+            throw new IllegalStateException("The generated classes of " + sourceDirectory + " do not compile");
+        }
+    }
+
+    private static TaskRun taskRun() {
+        return new TaskRunBuilder()
+            .withApiVersion("tekton.dev/v1beta1")
+            .withKind("TaskRun")
+            .withNewMetadata()
+                .withName("build-42").withNamespace("ci")
+                .addToLabels("tekton.jenkins.io/managed-by", "jenkins")
+                .addToLabels("tekton.jenkins.io/build", "42")
+            .endMetadata()
+            .withNewSpec()
+                .withServiceAccountName("builder")
+                .addNewParam().withName("goal").withNewValue("verify").endParam()
+                .addNewWorkspace().withName("source").withNewPersistentVolumeClaim("source-pvc", false).endWorkspace()
+                .withNewTaskSpec()
+                    .withDescription("Builds and tests the project")
+                    .addNewParam().withName("goal").withType("string").withNewDefault("install").endParam()
+                    .addNewWorkspace().withName("source").withMountPath("/workspace/source").endWorkspace()
+                    .addNewStep().withName("checkout").withImage("alpine/git:2.43.0")
+                        .withArgs("clone", "--depth", "1", "https://github.com/jenkinsci/tekton-client-plugin", ".")
+                        .withWorkingDir("$(workspaces.source.path)").endStep()
+                    .addNewStep().withName("maven").withImage("maven:3.9-eclipse-temurin-17")
+                        .withCommand("mvn").withArgs("-B", "$(params.goal)")
+                        .addNewEnv().withName("MAVEN_OPTS").withValue("-Xmx1g").endEnv()
+                        .withWorkingDir("$(workspaces.source.path)").endStep()
+                    .addNewResult().withName("digest").withDescription("The digest of the built image").endResult()
+                .endTaskSpec()
+            .endSpec()
+            .build();
+    }
+
+    private static PipelineRun pipelineRun() {
+        List<PipelineTask> tasks = new ArrayList<>();
+        String previous = null;
+        for (String task : new String[] { "checkout", "build", "test", "publish" }) {
+            tasks.add(new PipelineTaskBuilder()
+                .withName(task)
+                .withNewTaskRef().withName(task).withKind("Task").endTaskRef()
+                .addNewParam().withName("revision").withNewValue("$(params.revision)").endParam()
+                .addNewWorkspace().withName("source").withWorkspace("source").endWorkspace()
+                .withRunAfter(previous == null ? List.of() : List.of(previous))
+                .build());
+            previous = task;
+        }
+        return new PipelineRunBuilder()
+            .withApiVersion("tekton.dev/v1beta1")
+            .withKind("PipelineRun")
+            .withNewMetadata()
+                .withName("release-42").withNamespace("ci")
+                .addToLabels("tekton.jenkins.io/managed-by", "jenkins")
+                .addToLabels("tekton.jenkins.io/build", "42")
+            .endMetadata()
+            .withNewSpec()
+                .withServiceAccountName("builder")
+                .addNewParam().withName("revision").withNewValue("main").endParam()
+                .addNewWorkspace().withName("source").withNewPersistentVolumeClaim("source-pvc", false).endWorkspace()
+                .withNewPipelineSpec()
+                    .withDescription("Builds, tests and publishes the project")
+                    .addNewParam().withName("revision").withType("string").endParam()
+                    .addNewWorkspace().withName("source").endWorkspace()
+                    .withTasks(tasks)
+                .endPipelineSpec()
+            .endSpec()
+            .build();
+    }
+}
@@ -0,0 +1,74 @@
+package org.waveywaves.jenkins.plugins.tekton.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An output stream which prefixes every line before writing it to a shared stream so that the logs of
+ * several concurrent runs can be multiplexed onto one console without interleaving within a line.
+ */
+public class PrefixedOutputStream extends OutputStream {
+    private final OutputStream out;
+    private final byte[] prefix;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+    /**
+     * @param out the shared stream; writes are synchronized on it
+     * @param prefix the prefix to write before each line
+     */
+    public PrefixedOutputStream(OutputStream out, String prefix) {
+        this.out = out;
+        this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        line.write(b);
+        if (b == '\n') {
+            flushLine();
+        }
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        int start = off;
+        int end = off + len;
+        for (int i = off; i < end; i++) {
+            if (b[i] == '\n') {
+                line.write(b, start, i + 1 - start);
+                flushLine();
+                start = i + 1;
+            }
+        }
+        if (start < end) {
+            line.write(b, start, end - start);
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Writes any partial line; the shared stream is left open
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (line.size() > 0) {
+            line.write('\n');
+            flushLine();
+        }
+        out.flush();
+    }
+
+    private void flushLine() throws IOException {
+        synchronized (out) {
+            out.write(prefix);
+            line.writeTo(out);
+        }
+        line.reset();
+    }
+}
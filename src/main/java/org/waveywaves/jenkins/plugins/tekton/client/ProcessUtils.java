@@ -0,0 +1,180 @@
+package org.waveywaves.jenkins.plugins.tekton.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Helper methods for running external tools such as the jx-pipeline-effective binary.
+ *
+ * Both output streams of the child process are drained concurrently so that a tool which writes a lot of output
+ * can never block on a full pipe buffer, and the process is killed if it does not complete within the timeout.
+ */
+public class ProcessUtils {
+    private static final Logger LOGGER = Logger.getLogger(ProcessUtils.class.getName());
+
+    /**
+     * The environment variables which are passed through to child processes
+     */
+    public static final Set<String> ALLOWED_ENV_VARS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "PATH", "HOME", "USER", "TMPDIR", "TMP", "TEMP", "LANG", "LC_ALL", "SYSTEMROOT",
+            "HTTP_PROXY", "HTTPS_PROXY", "NO_PROXY", "http_proxy", "https_proxy", "no_proxy",
+            "BUILD_ID", "BUILD_NUMBER", "BUILD_URL", "JOB_NAME", "BRANCH_NAME", "CHANGE_ID",
+            "GIT_URL", "GIT_BRANCH", "GIT_COMMIT", "GIT_USERNAME"
+    )));
+
+    /**
+     * The prefixes of environment variables which are passed through to child processes
+     */
+    public static final List<String> ALLOWED_ENV_VAR_PREFIXES = Collections.unmodifiableList(Arrays.asList(
+            "PULL_", "REPO_", "JX_"
+    ));
+
+    /**
+     * @param name the environment variable name
+     * @return true if the environment variable can be passed to a child process
+     */
+    public static boolean isAllowedEnvVar(String name) {
+        if (name == null) {
+            return false;
+        }
+        if (ALLOWED_ENV_VARS.contains(name)) {
+            return true;
+        }
+        for (String prefix : ALLOWED_ENV_VAR_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates the environment for a child process from the allow-listed variables of the current process
+     * overlaid with the allow-listed variables of the given environment
+     *
+     * @param envVars the additional environment variables, such as those of the build, may be null
+     * @return the filtered environment
+     */
+    public static Map<String, String> filterEnvironment(Map<String, String> envVars) {
+        Map<String, String> answer = new TreeMap<>();
+        for (Map.Entry<String, String> entry : System.getenv().entrySet()) {
+            if (isAllowedEnvVar(entry.getKey())) {
+                answer.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (envVars != null) {
+            for (Map.Entry<String, String> entry : envVars.entrySet()) {
+                if (isAllowedEnvVar(entry.getKey()) && entry.getValue() != null) {
+                    answer.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Runs the given command, logging its output to the given logger
+     *
+     * @param command the command and its arguments
+     * @param dir the working directory or null to use the current directory
+     * @param env the complete environment of the child process; nothing else is inherited
+     * @param timeout the maximum time to wait for the process to complete
+     * @param unit the unit of the timeout
+     * @param logger the logger used for the output of the process
+     * @return the result of the process
+     * @throws IOException if the process could not be started or timed out
+     * @throws InterruptedException if the current thread is interrupted while waiting for the process
+     */
+    public static ProcessResult run(List<String> command, File dir, Map<String, String> env, long timeout, TimeUnit unit, Logger logger) throws IOException, InterruptedException {
+        ProcessBuilder builder = new ProcessBuilder(command);
+        if (dir != null) {
+            builder.directory(dir);
+        }
+        builder.environment().clear();
+        if (env != null) {
+            builder.environment().putAll(env);
+        }
+        LOGGER.fine("Running " + command + " with environment variables " + builder.environment().keySet());
+
+        long start = System.nanoTime();
+        Process process = builder.start();
+        long forkNanos = System.nanoTime() - start;
+
+        Thread stdout = drain(process.getInputStream(), logger, false, command.get(0) + "-stdout");
+        Thread stderr = drain(process.getErrorStream(), logger, true, command.get(0) + "-stderr");
+
+        boolean completed = process.waitFor(timeout, unit);
+        if (!completed) {
+            process.destroyForcibly();
+            process.waitFor(10, TimeUnit.SECONDS);
+        }
+        stdout.join(TimeUnit.SECONDS.toMillis(10));
+        stderr.join(TimeUnit.SECONDS.toMillis(10));
+        long totalNanos = System.nanoTime() - start;
+
+        ProcessResult result = new ProcessResult(completed ? process.exitValue() : -1,
+                TimeUnit.NANOSECONDS.toMillis(forkNanos), TimeUnit.NANOSECONDS.toMillis(totalNanos - forkNanos));
+        LOGGER.info("Ran " + command.get(0) + " in " + result.getExecutionMillis() + "ms (fork " + result.getForkMillis() + "ms) exit code " + result.getExitCode());
+        if (!completed) {
+            throw new IOException("timed out after " + unit.toSeconds(timeout) + "s waiting for " + command.get(0));
+        }
+        return result;
+    }
+
+    private static Thread drain(InputStream in, Logger logger, boolean error, String name) {
+        Thread thread = new Thread(() -> {
+            try (InputStream stream = in) {
+                LogUtils.logStream(stream, logger, error);
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "stopped reading " + name, e);
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * The outcome of running a process
+     */
+    public static class ProcessResult {
+        private final int exitCode;
+        private final long forkMillis;
+        private final long executionMillis;
+
+        public ProcessResult(int exitCode, long forkMillis, long executionMillis) {
+            this.exitCode = exitCode;
+            this.forkMillis = forkMillis;
+            this.executionMillis = executionMillis;
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        /**
+         * @return the time taken to start the process
+         */
+        public long getForkMillis() {
+            return forkMillis;
+        }
+
+        /**
+         * @return the time taken from starting the process until it completed
+         */
+        public long getExecutionMillis() {
+            return executionMillis;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import io.fabric8.kubernetes.client.ConfigBuilder;
 import io.fabric8.kubernetes.client.DefaultKubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.tekton.client.DefaultTektonClient;
+import io.fabric8.tekton.client.NamespacedTektonClient;
 import io.fabric8.tekton.client.TektonClient;
 import org.waveywaves.jenkins.plugins.tekton.client.global.ClusterConfig;
 
@@ -175,6 +176,21 @@ public class TektonUtils {
     public synchronized static KubernetesClient getKubernetesClient(String name) {
         return kubernetesClientMap.get(name);
     }
+
+    /**
+     * @param client the client of a cluster
+     * @param namespace the namespace, or null for the namespace of the client
+     * @return a client whose operations default to the namespace
+     */
+    public static TektonClient inNamespace(TektonClient client, String namespace) {
+        if (namespace == null) {
+            return client;
+        }
+        if (!(client instanceof NamespacedTektonClient)) {
+            throw new IllegalArgumentException("cannot change the namespace of " + client.getClass().getName());
+        }
+        return ((NamespacedTektonClient) client).inNamespace(namespace);
+    }
     
     /**
      * Determines if the cluster URL is a Kind cluster (localhost or 127.0.0.1)
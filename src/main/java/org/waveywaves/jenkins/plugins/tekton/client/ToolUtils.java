@@ -1,20 +1,43 @@
 package org.waveywaves.jenkins.plugins.tekton.client;
 
+import hudson.PluginWrapper;
+import jenkins.model.Jenkins;
 import org.apache.commons.lang.SystemUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * A helper class for accessing the jx-pipeline-effective binary
+ * A helper class for accessing the jx-pipeline-effective binary.
+ *
+ * The binary is extracted once into a tool cache directory named after the plugin version and platform, next to
+ * a checksum file it is verified against, so it is reused across restarts and concurrent builds on the controller
+ * and on each agent.
  */
 public class ToolUtils {
     private static final Logger LOGGER = Logger.getLogger(ToolUtils.class.getName());
 
+    private static final String BINARY_NAME = "jx-pipeline-effective";
+
+    /**
+     * The system property used to override the tool cache directory
+     */
+    public static final String CACHE_DIR_PROPERTY = ToolUtils.class.getName() + ".cacheDir";
+
+    private static final String CHECKSUM_SUFFIX = ".sha256";
+
     private static String jxPipelineFile = System.getenv("JX_PIPELINE_EFFECTIVE_PATH");
 
     /**
@@ -22,45 +45,190 @@ public class ToolUtils {
      * @throws IOException
      * @param classLoader
      */
-    public static synchronized String getJXPipelineBinary(ClassLoader classLoader) throws IOException {
+    public static String getJXPipelineBinary(ClassLoader classLoader) throws IOException {
+        return getJXPipelineBinary(classLoader, pluginVersion());
+    }
+
+    /**
+     * @param classLoader the class loader containing the binary
+     * @param version the version of this plugin, resolved on the controller as agents cannot look it up, or null if not known
+     * @return the file name location of the jx-pipeline-effective binary
+     * @throws IOException if the binary could not be found or extracted
+     */
+    public static synchronized String getJXPipelineBinary(ClassLoader classLoader, String version) throws IOException {
         if (jxPipelineFile == null) {
-            File f = File.createTempFile("jx-pipeline-effective-", "");
-            boolean success = f.delete();
-            if (!success) {
-                LOGGER.log(Level.WARNING, "unable to delete temporary file " + f);
+            jxPipelineFile = extractJXPipelineBinary(classLoader, getCacheDir(), version);
+        }
+        return jxPipelineFile;
+    }
+
+    /**
+     * @return the directory used to cache tools on this node
+     */
+    public static File getCacheDir() {
+        String dir = System.getProperty(CACHE_DIR_PROPERTY);
+        if (dir == null || dir.isEmpty()) {
+            dir = System.getenv("TEKTON_CLIENT_TOOL_CACHE");
+        }
+        if (dir == null || dir.isEmpty()) {
+            return new File(System.getProperty("user.home"), ".tekton-client" + File.separator + "tools");
+        }
+        return new File(dir);
+    }
+
+    /**
+     * Extracts the jx-pipeline-effective binary into the cache directory of this plugin version and platform
+     * unless it was already extracted there and still matches the checksum file written next to it
+     *
+     * @param classLoader the class loader containing the binary
+     * @param cacheDir the tool cache directory
+     * @param version the version of this plugin or null if not known
+     * @return the path of the binary
+     * @throws IOException if the binary could not be found or extracted
+     */
+    static String extractJXPipelineBinary(ClassLoader classLoader, File cacheDir, String version) throws IOException {
+        String platform = "linux";
+        if (SystemUtils.IS_OS_MAC || SystemUtils.IS_OS_MAC_OSX) {
+            platform = "mac";
+        } else if (SystemUtils.IS_OS_WINDOWS) {
+            platform = "windows";
+        }
+
+        String resource = "org/waveywaves/jenkins/plugins/tekton/client/jxp/" + platform + "/" + BINARY_NAME;
+        File dir = new File(cacheDir, BINARY_NAME + File.separator + cacheVersion(classLoader, resource, version)
+                + File.separator + platform);
+        File f = new File(dir, BINARY_NAME);
+        File checksumFile = new File(dir, BINARY_NAME + CHECKSUM_SUFFIX);
+        String path = f.getPath();
+        if (f.isFile() && checksumFile.isFile() && readChecksum(checksumFile).equals(sha256(f))) {
+            if (!f.canExecute() && !f.setExecutable(true)) {
+                throw new IOException("failed make the file executable: " + path);
             }
-            f.deleteOnExit();
+            LOGGER.info("using cached jx-pipeline-effective binary " + path);
+            return path;
+        }
 
-            String platform = "linux";
-            if (SystemUtils.IS_OS_MAC || SystemUtils.IS_OS_MAC_OSX) {
-                platform = "mac";
-            } else if (SystemUtils.IS_OS_WINDOWS) {
-                platform = "windows";
+        Files.createDirectories(dir.toPath());
+
+        // lets extract into a temporary file in the same directory so concurrent extractions never see a partial binary
+        File tmp = File.createTempFile(BINARY_NAME + "-", ".tmp", dir);
+        try {
+            String checksum;
+            try (InputStream in = classLoader.getResourceAsStream(resource);
+                 OutputStream out = Files.newOutputStream(tmp.toPath())) {
+                if (in == null) {
+                    throw new IOException("could not find resource on classpath: " + resource);
+                }
+                checksum = sha256(in, out);
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "failed to copy jx-pipeline-effective to " + tmp + " due to " + e);
+                throw new IOException("failed to copy jx-pipeline-effective to " + tmp + " cause: " + e, e);
+            }
+
+            boolean chmodSuccess = tmp.setExecutable(true);
+            if (!chmodSuccess) {
+                throw new IOException("failed make the file executable: " + tmp);
             }
+            move(tmp.toPath(), f.toPath());
 
-            String resource = "org/waveywaves/jenkins/plugins/tekton/client/jxp/" + platform + "/jx-pipeline-effective";
-            InputStream in = classLoader.getResourceAsStream(resource);
+            // the checksum file is written last so it only exists next to a complete binary
+            Files.write(tmp.toPath(), (checksum + "  " + BINARY_NAME + "\n").getBytes(StandardCharsets.UTF_8));
+            move(tmp.toPath(), checksumFile.toPath());
+        } finally {
+            if (tmp.exists() && !tmp.delete()) {
+                LOGGER.log(Level.WARNING, "unable to delete temporary file " + tmp);
+            }
+        }
+
+        LOGGER.info("saved jx-pipeline-effective binary to " + path);
+        return path;
+    }
+
+    /**
+     * Released plugin versions always embed the same binary so they name the cache directory. Development builds
+     * may embed a different binary under the same version, so they are named after the checksum of the embedded binary.
+     *
+     * @return the name of the cache directory for the embedded binary
+     */
+    static String cacheVersion(ClassLoader classLoader, String resource, String version) throws IOException {
+        if (version != null && !version.isEmpty() && !version.endsWith("-SNAPSHOT")) {
+            return version;
+        }
+        try (InputStream in = classLoader.getResourceAsStream(resource)) {
             if (in == null) {
                 throw new IOException("could not find resource on classpath: " + resource);
             }
+            return sha256(in, null);
+        }
+    }
 
-            String path = f.getPath();
-            try {
-                Files.copy(in, f.toPath());
-            } catch (IOException e) {
-                LOGGER.log(Level.SEVERE, "failed to copy jx-pipeline-effective to " + path + " due to " + e);
-                throw new IOException("failed to copy jx-pipeline-effective to " + path + " cause: " + e, e);
+    /**
+     * @return the version of this plugin from its manifest or the plugin manager, or null if it is not known
+     * such as on agents or in unit tests
+     */
+    public static String pluginVersion() {
+        Package p = ToolUtils.class.getPackage();
+        if (p != null && p.getImplementationVersion() != null) {
+            return p.getImplementationVersion();
+        }
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        if (jenkins != null) {
+            PluginWrapper plugin = jenkins.getPluginManager().whichPlugin(ToolUtils.class);
+            if (plugin != null) {
+                return plugin.getVersion();
             }
+        }
+        return null;
+    }
 
-            boolean chmodSuccess = f.setExecutable(true);
-            if (!chmodSuccess) {
-                throw new IOException("failed make the file executable: " + path);
+    private static String readChecksum(File checksumFile) throws IOException {
+        String text = new String(Files.readAllBytes(checksumFile.toPath()), StandardCharsets.UTF_8).trim();
+        int idx = text.indexOf(' ');
+        return idx > 0 ? text.substring(0, idx) : text;
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // another build may have just extracted the same binary and have it open
+            if (!Files.isRegularFile(target)) {
+                throw e;
             }
+        }
+    }
 
-            jxPipelineFile = path;
+    private static String sha256(File file) throws IOException {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            return sha256(in, null);
+        }
+    }
 
-            LOGGER.info("saved jx-pipeline-effective binary to " + jxPipelineFile);
+    /**
+     * @return the hex encoded SHA-256 checksum of the stream, optionally copying it to the given output stream
+     */
+    private static String sha256(InputStream in, OutputStream out) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
         }
-        return jxPipelineFile;
+        byte[] buffer = new byte[64 * 1024];
+        try (DigestInputStream dis = new DigestInputStream(in, digest)) {
+            int n;
+            while ((n = dis.read(buffer)) != -1) {
+                if (out != null) {
+                    out.write(buffer, 0, n);
+                }
+            }
+        }
+        StringBuilder answer = new StringBuilder();
+        for (byte b : digest.digest()) {
+            answer.append(String.format("%02x", b));
+        }
+        return answer.toString();
     }
 }
@@ -0,0 +1,24 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build;
+
+import hudson.model.Descriptor;
+import net.java.sezpoz.Indexable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the descriptor of a step generated from a Tekton CRD.
+ *
+ * Unlike {@link hudson.Extension}, which makes Jenkins instantiate every descriptor at startup, the marked
+ * descriptors are only indexed at compile time and registered by {@link GeneratedStepDescriptors} when Jenkins
+ * first looks descriptors up.
+ */
+@Indexable(type = Descriptor.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface GeneratedStepDescriptor {
+}
@@ -0,0 +1,120 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build;
+
+import hudson.Extension;
+import hudson.ExtensionComponent;
+import hudson.ExtensionComponentSet;
+import hudson.ExtensionFinder;
+import hudson.model.Descriptor;
+import hudson.model.Hudson;
+import hudson.tasks.BuildStepDescriptor;
+import jenkins.model.Jenkins;
+import net.java.sezpoz.Index;
+import net.java.sezpoz.IndexItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The single extension behind which the descriptors of the generated Tekton steps are registered.
+ *
+ * The descriptors are listed by the {@link GeneratedStepDescriptor} index without loading their classes, and
+ * only materialized, once, when Jenkins first asks for descriptors, so that neither the plugin's startup nor its
+ * extension scan grows with the number of generated step types.
+ */
+@Extension
+public class GeneratedStepDescriptors extends ExtensionFinder {
+    private static final Logger LOGGER = Logger.getLogger(GeneratedStepDescriptors.class.getName());
+
+    private volatile List<Descriptor<?>> descriptors;
+
+    /**
+     * Whether the descriptors were already handed to Jenkins, either by a lookup or by a refresh
+     */
+    private boolean handedOut;
+
+    /**
+     * When the plugin is installed without a restart Jenkins only learns about the descriptors through a refresh,
+     * and as generated steps are only indexed when the plugin is built there is never anything new after that.
+     */
+    @Override
+    public ExtensionComponentSet refresh() {
+        synchronized (this) {
+            if (handedOut) {
+                return ExtensionComponentSet.EMPTY;
+            }
+            handedOut = true;
+        }
+        List<Descriptor<?>> answer = getDescriptors();
+        return new ExtensionComponentSet() {
+            @Override
+            public <T> Collection<ExtensionComponent<T>> find(Class<T> type) {
+                return isDescriptorType(type) ? components(type, answer) : Collections.emptyList();
+            }
+        };
+    }
+
+    @Override
+    public <T> Collection<ExtensionComponent<T>> find(Class<T> type, Hudson jenkins) {
+        if (!isDescriptorType(type)) {
+            return Collections.emptyList();
+        }
+        synchronized (this) {
+            handedOut = true;
+        }
+        return components(type, getDescriptors());
+    }
+
+    private static boolean isDescriptorType(Class<?> type) {
+        return type != Object.class && type.isAssignableFrom(BuildStepDescriptor.class);
+    }
+
+    private static <T> Collection<ExtensionComponent<T>> components(Class<T> type, List<Descriptor<?>> descriptors) {
+        List<ExtensionComponent<T>> components = new ArrayList<>();
+        for (Descriptor<?> descriptor : descriptors) {
+            if (type.isInstance(descriptor)) {
+                components.add(new ExtensionComponent<>(type.cast(descriptor)));
+            }
+        }
+        return components;
+    }
+
+    /**
+     * @return The descriptors of the generated steps, instantiated on the first call
+     */
+    List<Descriptor<?>> getDescriptors() {
+        List<Descriptor<?>> answer = descriptors;
+        if (answer == null) {
+            synchronized (this) {
+                answer = descriptors;
+                if (answer == null) {
+                    answer = load(classLoader());
+                    descriptors = answer;
+                }
+            }
+        }
+        return answer;
+    }
+
+    @SuppressWarnings("rawtypes")
+    static List<Descriptor<?>> load(ClassLoader classLoader) {
+        List<Descriptor<?>> answer = new ArrayList<>();
+        for (IndexItem<GeneratedStepDescriptor, Descriptor> item : Index.load(GeneratedStepDescriptor.class, Descriptor.class, classLoader)) {
+            try {
+                answer.add(item.instance());
+            } catch (Exception | LinkageError e) {
+                LOGGER.log(Level.WARNING, "Failed to load generated step descriptor " + item.className(), e);
+            }
+        }
+        LOGGER.log(Level.FINE, "Registered {0} generated step descriptors", answer.size());
+        return Collections.unmodifiableList(answer);
+    }
+
+    private static ClassLoader classLoader() {
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        return jenkins != null ? jenkins.getPluginManager().uberClassLoader : GeneratedStepDescriptors.class.getClassLoader();
+    }
+}
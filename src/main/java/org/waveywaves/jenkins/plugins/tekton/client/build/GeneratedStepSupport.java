@@ -0,0 +1,51 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build;
+
+import hudson.EnvVars;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import org.waveywaves.jenkins.plugins.tekton.client.build.create.CreateRaw;
+
+import java.io.IOException;
+
+/**
+ * Creates the resources of the steps generated from the Tekton CRDs.
+ *
+ * A generated step converts itself to the fabric8 model with its generated <code>Fabric8Converter</code>, which
+ * copies the bound fields with precomputed accessors, and submits the result here. The resource is then created just
+ * like the input of {@link CreateRaw}, in the same cluster and namespace, streaming the logs of runs and failing the
+ * build when they fail, only no YAML is written or parsed.
+ */
+public final class GeneratedStepSupport {
+
+    private GeneratedStepSupport() {
+    }
+
+    /**
+     * Create a resource, in the namespace of its metadata or else the given namespace.
+     *
+     * @param resource The resource to create
+     * @param clusterName The cluster to create the resource in, the default cluster if empty
+     * @param namespace The namespace to create the resource in when its metadata has none
+     * @param run The build creating it, whose labels are added to runs
+     * @param envVars The environment of the build, whose git details are added to PipelineRuns
+     * @param listener The listener of the build
+     * @return The name of the created resource or an empty string if it could not be created, in which case the
+     *         build is failed
+     * @throws IOException If there is no client for the cluster
+     */
+    public static String create(HasMetadata resource, String clusterName, String namespace, Run<?, ?> run,
+                                EnvVars envVars, TaskListener listener) throws IOException {
+        if (resource == null) {
+            throw new IOException("no resource to create");
+        }
+        if (resource.getMetadata() == null) {
+            resource.setMetadata(new ObjectMeta());
+        }
+        CreateRaw step = new CreateRaw(null, BaseStep.InputType.YAML.toString());
+        step.setClusterName(clusterName);
+        step.setNamespace(namespace);
+        return step.perform(resource, run, envVars, listener);
+    }
+}
@@ -1,5 +1,7 @@
 package org.waveywaves.jenkins.plugins.tekton.client.build.create;
 
+import com.google.common.base.Strings;
+import hudson.AbortException;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Launcher;
@@ -10,28 +12,67 @@ import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.Builder;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
+import io.fabric8.knative.internal.pkg.apis.Condition;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.PersistentVolumeClaimVolumeSource;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.Resource;
 import io.fabric8.tekton.client.TektonClient;
 import io.fabric8.tekton.pipeline.v1beta1.*;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
+import org.waveywaves.jenkins.plugins.tekton.client.PrefixedOutputStream;
 import org.waveywaves.jenkins.plugins.tekton.client.TektonUtils;
 import org.waveywaves.jenkins.plugins.tekton.client.build.BaseStep;
+import org.waveywaves.jenkins.plugins.tekton.client.global.ClusterConcurrencyLimits;
+import org.waveywaves.jenkins.plugins.tekton.client.logwatch.PendingPodDiagnostics;
+import org.waveywaves.jenkins.plugins.tekton.client.logwatch.TaskRunLogWatch;
+import org.waveywaves.jenkins.plugins.tekton.client.workspace.PvcPool;
+import org.waveywaves.jenkins.plugins.tekton.client.workspace.PvcPoolConfig;
+import org.waveywaves.jenkins.plugins.tekton.client.workspace.PvcPoolPeriodicWork;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 @Symbol("customCreateTaskrun")
 public class CreateCustomTaskrun extends BaseStep {
     private static final Logger logger = Logger.getLogger(CreateCustomTaskrun.class.getName());
+
+    public static final long DEFAULT_TIMEOUT_MINUTES = 60;
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+    /**
+     * How long to wait for the logs of a completed TaskRun to be written to the console
+     */
+    private static final long LOG_DRAIN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * How often to check whether the log watch gave up on a pod stuck pending while waiting for the TaskRun
+     */
+    private static final long WAIT_CHUNK_SECONDS = 10;
+
     private String clusterName;
     private PrintStream consoleLogger;
+    private transient String leaseHolder;
     private String kind;
     // ObjectMeta
     private String name;
@@ -41,6 +82,12 @@ public class CreateCustomTaskrun extends BaseStep {
     private List<TektonParam> params;
     private List<TektonWorkspaceBind> workspaces;
     private String taskRef;
+    private Boolean waitForCompletion = Boolean.TRUE;
+    private long timeoutMinutes = DEFAULT_TIMEOUT_MINUTES;
+    private List<TektonParamSet> paramSets;
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private String pendingPodPolicy = PendingPodDiagnostics.Policy.WAIT.name();
+    private int pendingGraceSeconds = TaskRunLogWatch.DEFAULT_PENDING_GRACE_SECONDS;
 
     @DataBoundConstructor
     public CreateCustomTaskrun(final String name,
@@ -61,6 +108,26 @@ public class CreateCustomTaskrun extends BaseStep {
         this.clusterName = clusterName;
     }
 
+    /**
+     * Field initializers do not run for steps loaded by XStream, so restores the defaults of the fields which were
+     * added since the step was saved
+     */
+    protected Object readResolve() {
+        if (waitForCompletion == null) {
+            waitForCompletion = Boolean.TRUE;
+        }
+        if (timeoutMinutes <= 0) {
+            timeoutMinutes = DEFAULT_TIMEOUT_MINUTES;
+        }
+        if (maxConcurrency <= 0) {
+            maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+        }
+        if (pendingGraceSeconds <= 0) {
+            pendingGraceSeconds = TaskRunLogWatch.DEFAULT_PENDING_GRACE_SECONDS;
+        }
+        return this;
+    }
+
     public String getKind() { return this.kind; }
     public String getName() { return this.name; }
     public String getNamespace() { return this.namespace; }
@@ -68,15 +135,96 @@ public class CreateCustomTaskrun extends BaseStep {
     public String getGenerateName() { return this.generateName; }
     public List<TektonWorkspaceBind> getWorkspaces() { return this.workspaces; }
     public List<TektonParam> getParams() { return this.params; }
+    public boolean isWaitForCompletion() { return this.waitForCompletion == null || this.waitForCompletion; }
+    public long getTimeoutMinutes() { return this.timeoutMinutes; }
+    public List<TektonParamSet> getParamSets() { return this.paramSets != null ? this.paramSets : Collections.emptyList(); }
+    public int getMaxConcurrency() { return this.maxConcurrency; }
+    public String getPendingPodPolicy() { return PendingPodDiagnostics.Policy.of(this.pendingPodPolicy).name(); }
+    public int getPendingGraceSeconds() { return this.pendingGraceSeconds; }
+
+    public String getClusterName() {
+        if (Strings.isNullOrEmpty(clusterName)) {
+            clusterName = TektonUtils.DEFAULT_CLIENT_KEY;
+        }
+        return clusterName;
+    }
+
+    /**
+     * @param waitForCompletion whether to stream the logs and wait for the TaskRun to complete
+     */
+    @DataBoundSetter
+    public void setWaitForCompletion(boolean waitForCompletion) {
+        this.waitForCompletion = waitForCompletion;
+    }
+
+    /**
+     * @param timeoutMinutes how long to wait for the TaskRun to complete before cancelling it
+     */
+    @DataBoundSetter
+    public void setTimeoutMinutes(long timeoutMinutes) {
+        this.timeoutMinutes = timeoutMinutes;
+    }
+
+    /**
+     * @param pendingPodPolicy what to do when the pod of the TaskRun is stuck pending, one of {@link PendingPodDiagnostics.Policy}
+     */
+    @DataBoundSetter
+    public void setPendingPodPolicy(String pendingPodPolicy) {
+        this.pendingPodPolicy = pendingPodPolicy;
+    }
+
+    /**
+     * @param pendingGraceSeconds how long the pod must be stuck pending before the policy applies
+     */
+    @DataBoundSetter
+    public void setPendingGraceSeconds(int pendingGraceSeconds) {
+        this.pendingGraceSeconds = pendingGraceSeconds;
+    }
+
+    /**
+     * @param paramSets when given one TaskRun is created per param set, concurrently, instead of a single TaskRun
+     */
+    @DataBoundSetter
+    public void setParamSets(List<TektonParamSet> paramSets) {
+        this.paramSets = paramSets;
+    }
+
+    /**
+     * @param maxConcurrency the maximum number of TaskRuns of a batch submitted and watched at once
+     */
+    @DataBoundSetter
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
 
     @Override
     public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath filePath, @Nonnull Launcher launcher, @Nonnull TaskListener taskListener) throws InterruptedException, IOException {
         consoleLogger = taskListener.getLogger();
+        leaseHolder = run.getParent().getFullName();
         logTektonTaskrun();
-        runCreate();
+        if (!getParamSets().isEmpty()) {
+            List<TaskRunResult> results = runBatch();
+            long failed = results.stream().filter(r -> !r.isSucceeded()).count();
+            if (failed > 0) {
+                throw new AbortException(failed + " of " + results.size() + " TaskRuns in the batch failed");
+            }
+            return;
+        }
+        TaskRunResult result = runCreate();
+        if (!result.isSucceeded()) {
+            throw new AbortException("TaskRun " + result.getName() + " " + result.getStatus() + ": " + result.getMessage());
+        }
     }
 
-    private void runCreate(){
+    private TaskRunResult runCreate() throws InterruptedException {
+        return runTaskRun(buildTaskRun(getParams()), consoleLogger);
+    }
+
+    /**
+     * @param taskRunParams the params of the TaskRun
+     * @return the TaskRun to create
+     */
+    protected TaskRun buildTaskRun(List<TektonParam> taskRunParams) {
         ObjectMeta metadata = new ObjectMeta();
         metadata.setName(getName());
         metadata.setNamespace(getNamespace());
@@ -90,28 +238,260 @@ public class CreateCustomTaskrun extends BaseStep {
         TaskRunSpec spec =  new TaskRunSpec();
         spec.setTaskRef(taskRef);
         spec.setWorkspaces(workspacesToWorkspaceBindingList());
-        spec.setParams(paramsToParamList());
+        spec.setParams(paramsToParamList(taskRunParams));
 
         TaskRunBuilder taskRunBuilder = new TaskRunBuilder();
         taskRunBuilder.withApiVersion("tekton.dev/v1beta1");
         taskRunBuilder.withKind("TaskRun");
         taskRunBuilder.withMetadata(metadata);
         taskRunBuilder.withSpec(spec);
+        return taskRunBuilder.build();
+    }
 
-        TaskRun taskRun = taskRunBuilder.build();
-        if (taskClient == null) {
-            TektonClient tc = TektonUtils.getTektonClient(clusterName);
+    /**
+     * Creates the TaskRun then, unless disabled, streams its logs and watches it until it completes or times out
+     *
+     * @param taskRun the TaskRun to create
+     * @param logger the console to log to
+     * @return the final status and duration of the TaskRun
+     */
+    protected TaskRunResult runTaskRun(TaskRun taskRun, PrintStream logger) throws InterruptedException {
+        long start = System.nanoTime();
+        TektonClient tc = getTektonClientForCluster();
+        if (taskRunClient == null) {
             setTaskRunClient(tc.v1beta1().taskRuns());
         }
-        taskRun = taskRunClient.create(taskRun);
-        String resourceName = taskRun.getMetadata().getName();
+        KubernetesClient kc = (KubernetesClient) kubernetesClient;
+        if (kc == null) {
+            kc = TektonUtils.getKubernetesClient(getClusterName());
+        }
+        String ns = taskRun.getMetadata().getNamespace();
+        List<PvcPool.Lease> leases = leasePooledWorkspaces(kc, taskRun, logger);
+        boolean releaseLeases = true;
+        try {
+            TaskRun created = Strings.isNullOrEmpty(ns) ? taskRunClient.create(taskRun) : taskRunClient.inNamespace(ns).create(taskRun);
+            // unless the TaskRun is known to be done with the claims they are reclaimed in the background once it completes
+            releaseLeases = false;
+            for (PvcPool.Lease lease : leases) {
+                lease.getPool().markLeasedTo(lease, created.getMetadata().getName());
+            }
+            TaskRunResult result = watchTaskRun(kc, tc, created, logger, start);
+            releaseLeases = result.isFinished();
+            return result;
+        } finally {
+            if (releaseLeases) {
+                for (PvcPool.Lease lease : leases) {
+                    lease.getPool().release(lease);
+                }
+            }
+        }
+    }
+
+    private TaskRunResult watchTaskRun(KubernetesClient kc, TektonClient tc, TaskRun created, PrintStream logger, long start) throws InterruptedException {
+        String ns = created.getMetadata().getNamespace();
+        TaskRunResult result = new TaskRunResult(created.getMetadata().getName());
+        logger.println(String.format("[Tekton] Created TaskRun %s/%s", ns, result.getName()));
+
+        if (!isWaitForCompletion()) {
+            result.complete(true, "Created", "not waiting for completion", start);
+            return result;
+        }
+
+        TaskRunLogWatch logWatch = new TaskRunLogWatch(kc, tc, created, logger);
+        logWatch.setPendingPodPolicy(PendingPodDiagnostics.Policy.of(pendingPodPolicy));
+        logWatch.setPendingGraceSeconds(pendingGraceSeconds);
+        Thread logWatchTask = new Thread(logWatch, "Tekton log watch " + ns + "/" + result.getName());
+        logWatchTask.setDaemon(true);
+        logWatchTask.start();
+
+        Resource<TaskRun> resource = taskRunClient.inNamespace(ns).withName(result.getName());
+        TaskRun completed = null;
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(timeoutMinutes);
+        // lets wait in chunks so we stop as soon as the log watch gives up on a pod stuck pending
+        while (completed == null && logWatch.getPendingDiagnosis() == null && System.nanoTime() - deadline < 0) {
+            long chunk = Math.max(1, Math.min(WAIT_CHUNK_SECONDS, TimeUnit.NANOSECONDS.toSeconds(deadline - System.nanoTime())));
+            try {
+                completed = resource.waitUntilCondition(CreateCustomTaskrun::isCompleted, chunk, TimeUnit.SECONDS);
+            } catch (IllegalArgumentException e) {
+                // not completed yet
+            } catch (KubernetesClientException e) {
+                if (e.getCause() instanceof InterruptedIOException) {
+                    throw new InterruptedException("interrupted while waiting for TaskRun " + result.getName());
+                }
+                logger.println("[Tekton] Stopped waiting for TaskRun " + result.getName() + ": " + e.getMessage());
+                break;
+            }
+        }
+
+        PendingPodDiagnostics.Diagnosis diagnosis = logWatch.getPendingDiagnosis();
+        if (diagnosis != null) {
+            // the TaskRun is left pending, or is being cancelled, by the pending pod policy
+            result.complete(false, diagnosis.getReason(), diagnosis.getMessage(), start);
+        } else if (completed == null || !isCompleted(completed)) {
+            result.setFinished(cancel(resource, result.getName(), logger));
+            result.complete(false, "TimedOut", "did not complete within " + timeoutMinutes + " minutes", start);
+        } else {
+            Condition succeeded = getSucceededCondition(completed);
+            result.setFinished(true);
+            result.complete("True".equalsIgnoreCase(succeeded.getStatus()), Strings.nullToEmpty(succeeded.getReason()),
+                    Strings.nullToEmpty(succeeded.getMessage()), start);
+        }
+
+        logWatchTask.join(LOG_DRAIN_MILLIS);
+        if (logWatchTask.isAlive()) {
+            logWatchTask.interrupt();
+        }
+        logger.println(String.format("[Tekton] TaskRun %s/%s %s in %.1fs%s", ns, result.getName(), result.getStatus(),
+                result.getDurationMillis() / 1000.0, result.getMessage().isEmpty() ? "" : ": " + result.getMessage()));
+        return result;
+    }
 
-        consoleLogger.print(String.format("Created Task with Name %s", resourceName));
+    /**
+     * Creates one TaskRun per param set concurrently, up to the maximum concurrency of the step and the
+     * maximum concurrent TaskRuns of the cluster, then logs a summary of every TaskRun
+     *
+     * @return the results in the order of the param sets
+     */
+    protected List<TaskRunResult> runBatch() throws InterruptedException {
+        List<TektonParamSet> sets = getParamSets();
+        int threads = Math.max(1, Math.min(maxConcurrency, sets.size()));
+        consoleLogger.println(String.format("[Tekton] Creating %d TaskRuns with a maximum concurrency of %d", sets.size(), threads));
+
+        // lets create the clients before the workers share them
+        TektonClient tc = getTektonClientForCluster();
+        if (taskRunClient == null) {
+            setTaskRunClient(tc.v1beta1().taskRuns());
+        }
+        if (kubernetesClient == null) {
+            setKubernetesClient(TektonUtils.getKubernetesClient(getClusterName()));
+        }
+        Semaphore clusterPermits = ClusterConcurrencyLimits.get(getClusterName());
+
+        List<String> labels = new ArrayList<>();
+        List<Future<TaskRunResult>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<TaskRunResult> results = new ArrayList<>();
+        try {
+            for (TektonParamSet set : sets) {
+                String label = set.getParams().stream().map(p -> p.getName() + "=" + p.getValue()).collect(Collectors.joining(","));
+                labels.add(label);
+                futures.add(executor.submit(() -> runBatchEntry(set, label, clusterPermits)));
+            }
+            for (Future<TaskRunResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    TaskRunResult failed = new TaskRunResult(null);
+                    failed.complete(false, "Error", String.valueOf(e.getCause()), System.nanoTime());
+                    results.add(failed);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        consoleLogger.println("[Tekton] Batch summary:");
+        for (int i = 0; i < results.size(); i++) {
+            TaskRunResult result = results.get(i);
+            consoleLogger.println(String.format("[Tekton]   %-40s %-40s %8ss  %s%s", labels.get(i),
+                    Strings.isNullOrEmpty(result.getName()) ? "-" : result.getName(),
+                    String.format("%.1f", result.getDurationMillis() / 1000.0), result.getStatus(),
+                    result.getMessage().isEmpty() ? "" : ": " + result.getMessage()));
+        }
+        return results;
+    }
+
+    private TaskRunResult runBatchEntry(TektonParamSet set, String label, Semaphore clusterPermits) throws InterruptedException {
+        long start = System.nanoTime();
+        TaskRun taskRun = buildBatchTaskRun(set);
+        if (clusterPermits != null) {
+            clusterPermits.acquire();
+        }
+        try (PrintStream entryLogger = new PrintStream(new PrefixedOutputStream(consoleLogger, "[" + label + "] "), true, StandardCharsets.UTF_8)) {
+            return runTaskRun(taskRun, entryLogger);
+        } catch (KubernetesClientException e) {
+            logger.warning("TaskRun for " + label + " failed: " + e);
+            TaskRunResult failed = new TaskRunResult(null);
+            failed.complete(false, "Error", e.getMessage(), start);
+            return failed;
+        } finally {
+            if (clusterPermits != null) {
+                clusterPermits.release();
+            }
+        }
     }
 
-    private List<Param> paramsToParamList() {
+    /**
+     * @param set the param set of one TaskRun in the batch
+     * @return the TaskRun with the step params overridden by the param set and a generated name so the TaskRuns do not collide
+     */
+    protected TaskRun buildBatchTaskRun(TektonParamSet set) {
+        Map<String, TektonParam> merged = new LinkedHashMap<>();
+        if (getParams() != null) {
+            for (TektonParam p : getParams()) {
+                merged.put(p.getName(), p);
+            }
+        }
+        for (TektonParam p : set.getParams()) {
+            merged.put(p.getName(), p);
+        }
+        TaskRun taskRun = buildTaskRun(new ArrayList<>(merged.values()));
+        ObjectMeta metadata = taskRun.getMetadata();
+        if (Strings.isNullOrEmpty(metadata.getGenerateName())) {
+            String prefix = !Strings.isNullOrEmpty(metadata.getName()) ? metadata.getName() : getTaskRef();
+            metadata.setGenerateName(prefix + "-");
+        }
+        metadata.setName(null);
+        return taskRun;
+    }
+
+    private TektonClient getTektonClientForCluster() {
+        if (tektonClient == null) {
+            setTektonClient(TektonUtils.getTektonClient(getClusterName()));
+        }
+        return (TektonClient) tektonClient;
+    }
+
+    private static boolean isCompleted(TaskRun taskRun) {
+        Condition succeeded = getSucceededCondition(taskRun);
+        return succeeded != null && !"Unknown".equalsIgnoreCase(succeeded.getStatus());
+    }
+
+    private static Condition getSucceededCondition(TaskRun taskRun) {
+        if (taskRun == null || taskRun.getStatus() == null || taskRun.getStatus().getConditions() == null) {
+            return null;
+        }
+        for (Condition condition : taskRun.getStatus().getConditions()) {
+            if ("Succeeded".equalsIgnoreCase(condition.getType())) {
+                return condition;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the TaskRun was cancelled
+     */
+    private static boolean cancel(Resource<TaskRun> resource, String name, PrintStream logger) {
+        try {
+            resource.edit(tr -> {
+                tr.getSpec().setStatus("TaskRunCancelled");
+                return tr;
+            });
+            logger.println("[Tekton] Cancelled TaskRun " + name);
+            return true;
+        } catch (KubernetesClientException e) {
+            logger.println("[Tekton] Failed to cancel TaskRun " + name + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private List<Param> paramsToParamList(List<TektonParam> taskRunParams) {
         List<Param> paramList = new ArrayList<>();
-        for (TektonParam p: this.params) {
+        if (taskRunParams == null) {
+            return paramList;
+        }
+        for (TektonParam p: taskRunParams) {
             Param param = new Param();
             param.setName(p.getName());
 
@@ -126,16 +506,69 @@ public class CreateCustomTaskrun extends BaseStep {
 
     public List<WorkspaceBinding> workspacesToWorkspaceBindingList() {
         List<WorkspaceBinding> wsbList = new ArrayList<>();
-        for (TektonWorkspaceBind w: this.workspaces){
+        List<TektonWorkspaceBind> workspaceBinds = this.workspaces != null ? this.workspaces : Collections.emptyList();
+        for (TektonWorkspaceBind w: workspaceBinds){
             WorkspaceBinding wsb = new WorkspaceBinding();
             wsb.setName(w.getName());
-            wsb.setPersistentVolumeClaim(new PersistentVolumeClaimVolumeSource(w.getClaimName(), false));
+            if (!w.isPooled()) {
+                // pooled workspaces are bound to a leased claim when the TaskRun is created
+                wsb.setPersistentVolumeClaim(new PersistentVolumeClaimVolumeSource(w.getClaimName(), false));
+            }
 
             wsbList.add(wsb);
         }
         return wsbList;
     }
 
+    /**
+     * Binds each pooled workspace of the TaskRun to a claim leased from the PVC pool of its storage class and size
+     *
+     * @return the leases to release once the TaskRun completes
+     */
+    private List<PvcPool.Lease> leasePooledWorkspaces(KubernetesClient kc, TaskRun taskRun, PrintStream logger) {
+        List<PvcPool.Lease> leases = new ArrayList<>();
+        List<WorkspaceBinding> bindings = taskRun.getSpec().getWorkspaces();
+        if (this.workspaces == null || bindings == null) {
+            return leases;
+        }
+        String ns = taskRun.getMetadata().getNamespace();
+        if (Strings.isNullOrEmpty(ns)) {
+            ns = kc.getNamespace();
+        }
+        String holder = Strings.isNullOrEmpty(leaseHolder) ? "jenkins" : leaseHolder;
+        boolean refill = false;
+        try {
+            for (TektonWorkspaceBind w : this.workspaces) {
+                if (!w.isPooled()) {
+                    continue;
+                }
+                PvcPoolConfig config = PvcPoolConfig.find(getClusterName(), ns, w.getStorageClass(), w.getSize());
+                // without a configured pool the claim is provisioned for this TaskRun and deleted afterwards
+                PvcPool pool = new PvcPool(kc, ns, w.getStorageClass(), w.getSize(),
+                        config != null ? config.getReleasePolicyValue() : PvcPool.ReleasePolicy.DELETE);
+                PvcPool.Lease lease = pool.lease(holder);
+                leases.add(lease);
+                refill |= lease.isCold() && config != null;
+                logger.println(String.format("[Tekton] Workspace %s uses %s claim %s from pool %s", w.getName(),
+                        lease.isCold() ? "new" : "warm", lease.getClaimName(), pool.getPoolName()));
+                for (WorkspaceBinding binding : bindings) {
+                    if (w.getName().equals(binding.getName())) {
+                        binding.setPersistentVolumeClaim(new PersistentVolumeClaimVolumeSource(lease.getClaimName(), false));
+                    }
+                }
+            }
+        } catch (KubernetesClientException e) {
+            for (PvcPool.Lease lease : leases) {
+                lease.getPool().release(lease);
+            }
+            throw e;
+        }
+        if (refill) {
+            PvcPoolPeriodicWork.trigger();
+        }
+        return leases;
+    }
+
     private void logTektonTaskrun() {
         consoleLogger.println("Creating Resource from Custom Config");
         String l = String.format("Kind: %s%n" +
@@ -146,6 +579,60 @@ public class CreateCustomTaskrun extends BaseStep {
         consoleLogger.print(l);
     }
 
+    /**
+     * The final status and duration of a TaskRun
+     */
+    public static class TaskRunResult {
+        private final String name;
+        private volatile boolean succeeded;
+        private volatile String status = "Pending";
+        private volatile String message = "";
+        private volatile long durationMillis;
+        private volatile boolean finished;
+
+        public TaskRunResult(String name) {
+            this.name = name;
+        }
+
+        void setFinished(boolean finished) {
+            this.finished = finished;
+        }
+
+        void complete(boolean succeeded, String status, String message, long startNanos) {
+            this.succeeded = succeeded;
+            this.status = status;
+            this.message = message;
+            this.durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isSucceeded() {
+            return succeeded;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        /**
+         * @return true if the TaskRun completed or was cancelled, so it no longer uses its workspaces
+         */
+        public boolean isFinished() {
+            return finished;
+        }
+    }
+
     @Extension
     public static final class DescriptorImpl extends BuildStepDescriptor<Builder> {
         public DescriptorImpl() {
@@ -165,6 +652,28 @@ public class CreateCustomTaskrun extends BaseStep {
             return FormValidation.ok();
         }
 
+        public FormValidation doCheckMaxConcurrency(@QueryParameter(value = "maxConcurrency") final int maxConcurrency){
+            if (maxConcurrency < 1){
+                return FormValidation.error("Max Concurrency must be at least 1");
+            }
+            return FormValidation.ok();
+        }
+
+        public FormValidation doCheckTimeoutMinutes(@QueryParameter(value = "timeoutMinutes") final long timeoutMinutes){
+            if (timeoutMinutes < 1){
+                return FormValidation.error("Timeout must be at least 1 minute");
+            }
+            return FormValidation.ok();
+        }
+
+        public ListBoxModel doFillPendingPodPolicyItems(@QueryParameter(value = "pendingPodPolicy") final String pendingPodPolicy){
+            ListBoxModel items = new ListBoxModel();
+            for (PendingPodDiagnostics.Policy policy : PendingPodDiagnostics.Policy.values()) {
+                items.add(policy.name());
+            }
+            return items;
+        }
+
         public ListBoxModel doFillClusterNameItems(@QueryParameter(value = "clusterName") final String clusterName){
             ListBoxModel items =  new ListBoxModel();
             for (String cn: TektonUtils.getTektonClientMap().keySet()){
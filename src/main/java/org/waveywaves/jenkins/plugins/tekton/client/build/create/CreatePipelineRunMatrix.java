@@ -0,0 +1,329 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build.create;
+
+import com.google.common.base.Strings;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.model.AbstractProject;
+import hudson.tasks.BuildStepDescriptor;
+import hudson.tasks.Builder;
+import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.tekton.pipeline.v1beta1.PipelineRun;
+import org.apache.commons.io.IOUtils;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.waveywaves.jenkins.plugins.tekton.client.PrefixedOutputStream;
+import org.waveywaves.jenkins.plugins.tekton.client.TektonUtils;
+import org.waveywaves.jenkins.plugins.tekton.client.TektonUtils.TektonResourceType;
+import org.waveywaves.jenkins.plugins.tekton.client.logwatch.PendingPodDiagnostics;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Creates one PipelineRun per cell of a parameter matrix from a single PipelineRun template.
+ *
+ * The runs are created concurrently, up to the maximum concurrency, with their logs multiplexed onto the console
+ * prefixed by the cell, followed by a summary of the status and duration of every cell.
+ */
+public class CreatePipelineRunMatrix extends CreateRaw {
+    private static final Logger LOGGER = Logger.getLogger(CreatePipelineRunMatrix.class.getName());
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+    private final List<TektonMatrixAxis> matrix;
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
+    @DataBoundConstructor
+    public CreatePipelineRunMatrix(String input, String inputType, List<TektonMatrixAxis> matrix) {
+        super(input, inputType);
+        this.matrix = matrix != null ? matrix : Collections.emptyList();
+    }
+
+    @DataBoundSetter
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public List<TektonMatrixAxis> getMatrix() {
+        return matrix;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    protected String createWithResourceSpecificClient(TektonResourceType resourceType, InputStream inputStream, EnvVars envVars) throws Exception {
+        if (resourceType != TektonResourceType.pipelinerun) {
+            throw new Exception("the matrix step only supports a PipelineRun template but got a " + resourceType);
+        }
+        String template = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+        List<Map<String, String>> cells = getCells();
+        if (cells.isEmpty()) {
+            throw new Exception("the matrix has no cells");
+        }
+
+        int threads = Math.max(1, Math.min(maxConcurrency, cells.size()));
+        logMessage(String.format("[Tekton] Creating %d PipelineRuns with a maximum concurrency of %d", cells.size(), threads));
+
+        List<MatrixCellResult> results = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Map<String, String> cell : cells) {
+                MatrixCellResult result = new MatrixCellResult(cell);
+                results.add(result);
+                futures.add(executor.submit(() -> runCell(result, template, envVars)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        logSummary(results);
+
+        long failed = results.stream().filter(r -> !r.isSucceeded()).count();
+        if (failed > 0) {
+            throw new Exception(failed + " of " + results.size() + " PipelineRuns in the matrix failed");
+        }
+        return results.stream().map(MatrixCellResult::getName).collect(Collectors.joining(","));
+    }
+
+    /**
+     * @return the cartesian product of the values of every axis
+     */
+    protected List<Map<String, String>> getCells() {
+        List<Map<String, String>> cells = new ArrayList<>();
+        cells.add(new LinkedHashMap<>());
+        for (TektonMatrixAxis axis : matrix) {
+            List<String> values = axis.getValueList();
+            if (Strings.isNullOrEmpty(axis.getName()) || values.isEmpty()) {
+                continue;
+            }
+            List<Map<String, String>> expanded = new ArrayList<>();
+            for (Map<String, String> cell : cells) {
+                for (String value : values) {
+                    Map<String, String> copy = new LinkedHashMap<>(cell);
+                    copy.put(axis.getName(), value);
+                    expanded.add(copy);
+                }
+            }
+            cells = expanded;
+        }
+        if (cells.size() == 1 && cells.get(0).isEmpty()) {
+            return Collections.emptyList();
+        }
+        return cells;
+    }
+
+    private void runCell(MatrixCellResult result, String template, EnvVars envVars) {
+        long start = System.nanoTime();
+        PrintStream cellLogger = null;
+        try {
+            cellLogger = new PrintStream(new PrefixedOutputStream(getConsoleLogger(), "[" + result.getLabel() + "] "), true, "UTF-8");
+            CreateRaw cellStep = createCell(template, result);
+            cellStep.setConsoleLogger(cellLogger);
+
+            cellStep.createPipelineRun(new ByteArrayInputStream(template.getBytes(StandardCharsets.UTF_8)), envVars);
+            result.setSucceeded(true);
+            result.setMessage("Succeeded");
+        } catch (Exception e) {
+            LOGGER.warning("PipelineRun for matrix cell " + result.getLabel() + " failed: " + e);
+            result.setSucceeded(false);
+            result.setMessage("Failed: " + e.getMessage());
+        } finally {
+            result.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            if (cellLogger != null) {
+                cellLogger.close();
+            }
+        }
+    }
+
+    /**
+     * @return the step creating the PipelineRun of a cell with the settings of this step
+     */
+    CreateRaw createCell(String template, MatrixCellResult result) {
+        MatrixCell cellStep = new MatrixCell(template, result);
+        cellStep.setNamespace(getNamespace());
+        cellStep.setKubernetesClient(kubernetesClient);
+        cellStep.setTektonClient(tektonClient);
+        cellStep.setPipelineRunClient(pipelineRunClient);
+        cellStep.setChecksPublisher(getChecksPublisher());
+        cellStep.setRunLabels(getRunLabels());
+        cellStep.setPendingPodPolicy(getPendingPodPolicy());
+        cellStep.setPendingGraceSeconds(getPendingGraceSeconds());
+        cellStep.setCacheWorkspaces(getCacheWorkspaces());
+        cellStep.setCacheKey(getCacheJob(), getCacheBranch());
+        return cellStep;
+    }
+
+    private void logSummary(List<MatrixCellResult> results) {
+        logMessage("[Tekton] Matrix summary:");
+        for (MatrixCellResult result : results) {
+            logMessage(String.format("[Tekton]   %-40s %-40s %8ss  %s", result.getLabel(),
+                    Strings.isNullOrEmpty(result.getName()) ? "-" : result.getName(),
+                    String.format("%.1f", result.getDurationMillis() / 1000.0), result.getMessage()));
+        }
+    }
+
+    /**
+     * Creates the PipelineRun for a single cell of the matrix, adding the cell values as params
+     */
+    private static class MatrixCell extends CreateRaw {
+        private final MatrixCellResult result;
+
+        MatrixCell(String input, MatrixCellResult result) {
+            super(input, InputType.YAML.toString());
+            this.result = result;
+        }
+
+        @Override
+        protected void enhancePipelineRunWithEnvVars(PipelineRun pr, EnvVars envVars) {
+            super.enhancePipelineRunWithEnvVars(pr, envVars);
+            for (Map.Entry<String, String> entry : result.getCell().entrySet()) {
+                setParamOnPipelineRunSpec(pr.getSpec(), entry.getKey(), entry.getValue());
+            }
+
+            // every cell needs a unique name
+            ObjectMeta metadata = pr.getMetadata();
+            if (!Strings.isNullOrEmpty(metadata.getName())) {
+                if (Strings.isNullOrEmpty(metadata.getGenerateName())) {
+                    metadata.setGenerateName(metadata.getName() + "-");
+                }
+                metadata.setName(null);
+            }
+        }
+
+        @Override
+        public void streamPipelineRunLogsToConsole(PipelineRun pipelineRun) throws Exception {
+            result.setName(pipelineRun.getMetadata().getName());
+            super.streamPipelineRunLogsToConsole(pipelineRun);
+        }
+    }
+
+    /**
+     * The outcome of a single cell of the matrix
+     */
+    public static class MatrixCellResult {
+        private final Map<String, String> cell;
+        private volatile String name;
+        private volatile boolean succeeded;
+        private volatile String message = "Pending";
+        private volatile long durationMillis;
+
+        public MatrixCellResult(Map<String, String> cell) {
+            this.cell = cell;
+        }
+
+        public Map<String, String> getCell() {
+            return cell;
+        }
+
+        public String getLabel() {
+            return cell.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue()).collect(Collectors.joining(","));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public boolean isSucceeded() {
+            return succeeded;
+        }
+
+        public void setSucceeded(boolean succeeded) {
+            this.succeeded = succeeded;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public void setDurationMillis(long durationMillis) {
+            this.durationMillis = durationMillis;
+        }
+    }
+
+    @Symbol("tektonCreatePipelineRunMatrix")
+    @Extension
+    public static final class DescriptorImpl extends BuildStepDescriptor<Builder> {
+        public FormValidation doCheckInput(@QueryParameter(value = "input") final String input){
+            if (input.length() == 0){
+                return FormValidation.error("Input not provided");
+            }
+            return FormValidation.ok();
+        }
+
+        public FormValidation doCheckMaxConcurrency(@QueryParameter(value = "maxConcurrency") final int maxConcurrency){
+            if (maxConcurrency < 1){
+                return FormValidation.error("Max Concurrency must be at least 1");
+            }
+            return FormValidation.ok();
+        }
+
+        public ListBoxModel doFillInputTypeItems(@QueryParameter(value = "inputType") final String inputType){
+            ListBoxModel items =  new ListBoxModel();
+            items.add(InputType.FILE.toString());
+            items.add(InputType.URL.toString());
+            items.add(InputType.YAML.toString());
+            return items;
+        }
+
+        public ListBoxModel doFillPendingPodPolicyItems(@QueryParameter(value = "pendingPodPolicy") final String pendingPodPolicy){
+            ListBoxModel items = new ListBoxModel();
+            for (PendingPodDiagnostics.Policy policy : PendingPodDiagnostics.Policy.values()) {
+                items.add(policy.name());
+            }
+            return items;
+        }
+
+        public ListBoxModel doFillClusterNameItems(@QueryParameter(value = "clusterName") final String clusterName){
+            ListBoxModel items =  new ListBoxModel();
+            for (String cn: TektonUtils.getTektonClientMap().keySet()){
+                items.add(cn);
+            }
+            return items;
+        }
+
+        @Override
+        public boolean isApplicable(Class<? extends AbstractProject> jobType) {
+            return true;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "Tekton : Create PipelineRun Matrix";
+        }
+    }
+}
@@ -23,6 +23,7 @@ import hudson.tasks.Builder;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
 import io.fabric8.knative.internal.pkg.apis.Condition;
+import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.tekton.client.TektonClient;
 import io.fabric8.tekton.pipeline.v1beta1.ArrayOrString;
@@ -32,6 +33,8 @@ import io.fabric8.tekton.pipeline.v1beta1.PipelineRun;
 import io.fabric8.tekton.pipeline.v1beta1.PipelineRunSpec;
 import io.fabric8.tekton.pipeline.v1beta1.Task;
 import io.fabric8.tekton.pipeline.v1beta1.TaskRun;
+import io.fabric8.tekton.pipeline.v1beta1.WorkspaceBinding;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaimVolumeSource;
 import io.jenkins.plugins.checks.api.ChecksConclusion;
 import io.jenkins.plugins.checks.api.ChecksDetails;
 import io.jenkins.plugins.checks.api.ChecksOutput;
@@ -51,13 +54,16 @@ import org.jenkinsci.plugins.displayurlapi.DisplayURLProvider;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
-import org.waveywaves.jenkins.plugins.tekton.client.LogUtils;
 import org.waveywaves.jenkins.plugins.tekton.client.TektonUtils;
 import org.waveywaves.jenkins.plugins.tekton.client.TektonUtils.TektonResourceType;
 import org.waveywaves.jenkins.plugins.tekton.client.ToolUtils;
 import org.waveywaves.jenkins.plugins.tekton.client.build.BaseStep;
+import org.waveywaves.jenkins.plugins.tekton.client.logwatch.PendingPodDiagnostics;
 import org.waveywaves.jenkins.plugins.tekton.client.logwatch.PipelineRunLogWatch;
 import org.waveywaves.jenkins.plugins.tekton.client.logwatch.TaskRunLogWatch;
+import org.waveywaves.jenkins.plugins.tekton.client.retention.TektonRunLabels;
+import org.waveywaves.jenkins.plugins.tekton.client.validation.TektonSchemaValidator;
+import org.waveywaves.jenkins.plugins.tekton.client.workspace.BranchCache;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -68,23 +74,46 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class CreateRaw extends BaseStep {
     private static final Logger LOGGER = Logger.getLogger(CreateRaw.class.getName());
 
+    /**
+     * The maximum time the jx-pipeline-effective binary may take to process the tekton catalog
+     */
+    private static final long CATALOG_TIMEOUT_SECONDS = Long.getLong(CreateRaw.class.getName() + ".catalogTimeoutSeconds", 300);
+
+    /**
+     * Shared so that Jackson introspects the Tekton model classes once rather than on every marshall
+     */
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory().disable(YAMLGenerator.Feature.WRITE_DOC_START_MARKER));
+
     private final String input;
     private final String inputType;
     private String namespace;
     private String clusterName;
     private boolean enableCatalog;
+    private boolean resolveOnAgent;
+    private boolean validateSchema;
+    private List<TektonCacheWorkspace> cacheWorkspaces;
+    private String pendingPodPolicy = PendingPodDiagnostics.Policy.WAIT.name();
+    private int pendingGraceSeconds = TaskRunLogWatch.DEFAULT_PENDING_GRACE_SECONDS;
 
     private transient PrintStream consoleLogger;
     private transient ClassLoader toolClassLoader;
     private transient ChecksPublisher checksPublisher;
+    private transient Map<String, String> runLabels;
+    private transient String cacheJob;
+    private transient String cacheBranch;
 
     @DataBoundConstructor
     public CreateRaw(String input, String inputType) {
@@ -95,6 +124,17 @@ public class CreateRaw extends BaseStep {
         setTektonClient(TektonUtils.getTektonClient(getClusterName()));
     }
 
+    /**
+     * Field initializers do not run for steps loaded by XStream, so restores the defaults of the fields which were
+     * added since the step was saved
+     */
+    protected Object readResolve() {
+        if (pendingGraceSeconds <= 0) {
+            pendingGraceSeconds = TaskRunLogWatch.DEFAULT_PENDING_GRACE_SECONDS;
+        }
+        return this;
+    }
+
     @DataBoundSetter
     public void setNamespace(String namespace) {
         this.namespace = namespace;
@@ -112,6 +152,51 @@ public class CreateRaw extends BaseStep {
         this.enableCatalog = enableCatalog;
     }
 
+    /**
+     * When enabled the input is read, resolved against the tekton catalog and validated on the node
+     * which holds the workspace rather than on the controller.
+     *
+     * @param resolveOnAgent whether to prepare the YAML where the workspace lives
+     */
+    @DataBoundSetter
+    public void setResolveOnAgent(boolean resolveOnAgent) {
+        this.resolveOnAgent = resolveOnAgent;
+    }
+
+    /**
+     * When enabled the resources are validated against the bundled Tekton CRD schemas before they are submitted
+     *
+     * @param validateSchema whether to validate the resources locally
+     */
+    @DataBoundSetter
+    public void setValidateSchema(boolean validateSchema) {
+        this.validateSchema = validateSchema;
+    }
+
+    /**
+     * @param cacheWorkspaces the workspaces bound to a cache reused by the builds of the same job and branch
+     */
+    @DataBoundSetter
+    public void setCacheWorkspaces(List<TektonCacheWorkspace> cacheWorkspaces) {
+        this.cacheWorkspaces = cacheWorkspaces;
+    }
+
+    /**
+     * @param pendingPodPolicy what to do when a pod is stuck pending, one of {@link PendingPodDiagnostics.Policy}
+     */
+    @DataBoundSetter
+    public void setPendingPodPolicy(String pendingPodPolicy) {
+        this.pendingPodPolicy = pendingPodPolicy;
+    }
+
+    /**
+     * @param pendingGraceSeconds how long a pod must be stuck pending before the policy applies
+     */
+    @DataBoundSetter
+    public void setPendingGraceSeconds(int pendingGraceSeconds) {
+        this.pendingGraceSeconds = pendingGraceSeconds;
+    }
+
     protected ClassLoader getToolClassLoader() {
         if (toolClassLoader == null) {
             toolClassLoader = ToolUtils.class.getClassLoader();
@@ -132,6 +217,29 @@ public class CreateRaw extends BaseStep {
         this.checksPublisher = checksPublisher;
     }
 
+    protected ChecksPublisher getChecksPublisher() {
+        return checksPublisher;
+    }
+
+    protected PrintStream getConsoleLogger() {
+        return consoleLogger;
+    }
+
+    protected void setConsoleLogger(PrintStream consoleLogger) {
+        this.consoleLogger = consoleLogger;
+    }
+
+    /**
+     * @return the labels stamped on the PipelineRuns and TaskRuns we create so they can be pruned later
+     */
+    protected Map<String, String> getRunLabels() {
+        return runLabels != null ? runLabels : Collections.emptyMap();
+    }
+
+    protected void setRunLabels(Map<String, String> runLabels) {
+        this.runLabels = runLabels;
+    }
+
     // the getters must be public to work with the Configure page...
     public String getInput() {
         return this.input;
@@ -145,10 +253,46 @@ public class CreateRaw extends BaseStep {
         return enableCatalog;
     }
 
+    public boolean isResolveOnAgent() {
+        return resolveOnAgent;
+    }
+
+    public boolean isValidateSchema() {
+        return validateSchema;
+    }
+
     public String getNamespace() {
         return namespace;
     }
 
+    public String getPendingPodPolicy() {
+        return PendingPodDiagnostics.Policy.of(pendingPodPolicy).name();
+    }
+
+    public int getPendingGraceSeconds() {
+        return pendingGraceSeconds;
+    }
+
+    public List<TektonCacheWorkspace> getCacheWorkspaces() {
+        return cacheWorkspaces != null ? cacheWorkspaces : Collections.emptyList();
+    }
+
+    /**
+     * Sets the job and branch whose caches the cache workspaces are bound to
+     */
+    protected void setCacheKey(String job, String branch) {
+        this.cacheJob = job;
+        this.cacheBranch = branch;
+    }
+
+    protected String getCacheJob() {
+        return cacheJob;
+    }
+
+    protected String getCacheBranch() {
+        return cacheBranch;
+    }
+
     public String getClusterName() {
         if (Strings.isNullOrEmpty(clusterName)) {
             clusterName = TektonUtils.DEFAULT_CLIENT_KEY;
@@ -171,35 +315,74 @@ public class CreateRaw extends BaseStep {
         }
     }
 
+    /**
+     * Creates a resource which is already in the Tekton model, such as one converted from a generated step
+     */
+    protected String createWithResourceSpecificClient(HasMetadata resource, EnvVars envVars) throws Exception {
+        if (resource instanceof TaskRun) {
+            return createTaskRun((TaskRun) resource);
+        } else if (resource instanceof Task) {
+            return createTask((Task) resource);
+        } else if (resource instanceof Pipeline) {
+            return createPipeline((Pipeline) resource);
+        } else if (resource instanceof PipelineRun) {
+            return createPipelineRun((PipelineRun) resource, envVars);
+        }
+        throw new Exception("cannot create " + resource.getClass().getSimpleName() + " resources");
+    }
+
     public String createTaskRun(InputStream inputStream) throws Exception {
+        if (taskRunClient == null) {
+            TektonClient tc = (TektonClient) tektonClient;
+            setTaskRunClient(tc.v1beta1().taskRuns());
+        }
+        return createTaskRun(taskRunClient.load(inputStream).get());
+    }
+
+    public String createTaskRun(TaskRun taskrun) throws Exception {
         if (taskRunClient == null) {
             TektonClient tc = (TektonClient) tektonClient;
             setTaskRunClient(tc.v1beta1().taskRuns());
         }
         String resourceName;
-        TaskRun taskrun = taskRunClient.load(inputStream).get();
         if (!Strings.isNullOrEmpty(namespace) && Strings.isNullOrEmpty(taskrun.getMetadata().getNamespace())) {
             taskrun.getMetadata().setNamespace(namespace);
         }
+        TektonRunLabels.apply(taskrun.getMetadata(), getRunLabels());
         String ns = taskrun.getMetadata().getNamespace();
-        if (Strings.isNullOrEmpty(ns)) {
-            taskrun = taskRunClient.create(taskrun);
-        } else {
-            taskrun = taskRunClient.inNamespace(ns).create(taskrun);
+        List<BranchCache.Lease> leases = Collections.emptyList();
+        if (taskrun.getSpec() != null) {
+            leases = leaseCacheWorkspaces(taskrun.getSpec().getWorkspaces(), taskrun.getSpec()::setWorkspaces, ns);
         }
-        resourceName = taskrun.getMetadata().getName();
+        try {
+            if (Strings.isNullOrEmpty(ns)) {
+                taskrun = taskRunClient.create(taskrun);
+            } else {
+                taskrun = taskRunClient.inNamespace(ns).create(taskrun);
+            }
+            resourceName = taskrun.getMetadata().getName();
 
-        streamTaskRunLogsToConsole(taskrun);
+            streamTaskRunLogsToConsole(taskrun);
+        } finally {
+            releaseCacheWorkspaces(leases);
+        }
         return resourceName;
     }
 
     public String createTask(InputStream inputStream) {
+        if (taskClient == null) {
+            TektonClient tc = (TektonClient) tektonClient;
+            setTaskClient(tc.v1beta1().tasks());
+        }
+        return createTask(taskClient.load(inputStream).get());
+    }
+
+    public String createTask(Task task) {
         if (taskClient == null) {
             TektonClient tc = (TektonClient) tektonClient;
             setTaskClient(tc.v1beta1().tasks());
         }
         String resourceName;
-        Task task = taskClient.load(inputStream).get();
         if (!Strings.isNullOrEmpty(namespace) && Strings.isNullOrEmpty(task.getMetadata().getNamespace())) {
             task.getMetadata().setNamespace(namespace);
         }
@@ -214,12 +397,19 @@ public class CreateRaw extends BaseStep {
     }
 
     public String createPipeline(InputStream inputStream) {
+        if (pipelineClient == null) {
+            TektonClient tc = (TektonClient) tektonClient;
+            setPipelineClient(tc.v1beta1().pipelines());
+        }
+        return createPipeline(pipelineClient.load(inputStream).get());
+    }
+
+    public String createPipeline(Pipeline pipeline) {
         if (pipelineClient == null) {
             TektonClient tc = (TektonClient) tektonClient;
             setPipelineClient(tc.v1beta1().pipelines());
         }
         String resourceName;
-        Pipeline pipeline = pipelineClient.load(inputStream).get();
         if (!Strings.isNullOrEmpty(namespace) && Strings.isNullOrEmpty(pipeline.getMetadata().getNamespace())) {
             pipeline.getMetadata().setNamespace(namespace);
         }
@@ -238,8 +428,14 @@ public class CreateRaw extends BaseStep {
             TektonClient tc = (TektonClient) tektonClient;
             setPipelineRunClient(tc.v1beta1().pipelineRuns());
         }
-        String resourceName;
-        final PipelineRun pipelineRun = pipelineRunClient.load(inputStream).get();
+        return createPipelineRun(pipelineRunClient.load(inputStream).get(), envVars);
+    }
+
+    public String createPipelineRun(PipelineRun pipelineRun, EnvVars envVars) throws Exception {
+        if (pipelineRunClient == null) {
+            TektonClient tc = (TektonClient) tektonClient;
+            setPipelineRunClient(tc.v1beta1().pipelineRuns());
+        }
         if (!Strings.isNullOrEmpty(namespace) && Strings.isNullOrEmpty(pipelineRun.getMetadata().getNamespace())) {
             pipelineRun.getMetadata().setNamespace(namespace);
         }
@@ -247,9 +443,19 @@ public class CreateRaw extends BaseStep {
         LOGGER.info("Using environment variables " + envVars);
 
         enhancePipelineRunWithEnvVars(pipelineRun, envVars);
+        TektonRunLabels.apply(pipelineRun.getMetadata(), getRunLabels());
 
         String ns = pipelineRun.getMetadata().getNamespace();
+        List<BranchCache.Lease> leases = leaseCacheWorkspaces(pipelineRun.getSpec().getWorkspaces(), pipelineRun.getSpec()::setWorkspaces, ns);
+        try {
+            return runPipelineRun(pipelineRun, ns);
+        } finally {
+            releaseCacheWorkspaces(leases);
+        }
+    }
 
+    private String runPipelineRun(PipelineRun pipelineRun, String ns) throws Exception {
+        String resourceName;
         LOGGER.info("Creating PipelineRun\n" + marshall(pipelineRun));
 
         PipelineRun updatedPipelineRun = Strings.isNullOrEmpty(ns) ?
@@ -289,6 +495,55 @@ public class CreateRaw extends BaseStep {
         return resourceName;
     }
 
+    /**
+     * Binds the cache workspaces to the caches of the job and branch being built, adding the bindings if need be
+     *
+     * @param bindings the workspace bindings of the PipelineRun or TaskRun, may be null
+     * @param setBindings sets the bindings when there were none
+     * @param ns the namespace of the run or null for the default namespace
+     * @return the leases to release once the run completes
+     */
+    protected List<BranchCache.Lease> leaseCacheWorkspaces(List<WorkspaceBinding> bindings, Consumer<List<WorkspaceBinding>> setBindings, String ns) throws InterruptedException {
+        List<BranchCache.Lease> leases = new ArrayList<>();
+        if (getCacheWorkspaces().isEmpty()) {
+            return leases;
+        }
+        if (bindings == null) {
+            bindings = new ArrayList<>();
+            setBindings.accept(bindings);
+        }
+        KubernetesClient kc = (KubernetesClient) kubernetesClient;
+        String namespace = Strings.isNullOrEmpty(ns) ? kc.getNamespace() : ns;
+        String holder = getRunLabels().getOrDefault(TektonRunLabels.JOB_ANNOTATION, "jenkins") + "#"
+                + getRunLabels().getOrDefault(TektonRunLabels.BUILD_LABEL, "");
+        try {
+            for (TektonCacheWorkspace cache : getCacheWorkspaces()) {
+                BranchCache.Lease lease = cache.toBranchCache(kc, namespace).lease(Strings.nullToEmpty(cacheJob), cacheBranch,
+                        holder, TimeUnit.SECONDS.toMillis(cache.getLeaseTimeoutSeconds()));
+                leases.add(lease);
+                logMessage(String.format("[Tekton] Workspace %s uses cache %s (%s)", cache.getName(), lease.getClaimName(), lease.getDescription()));
+
+                WorkspaceBinding binding = bindings.stream().filter(b -> cache.getName().equals(b.getName())).findFirst().orElse(null);
+                if (binding == null) {
+                    binding = new WorkspaceBinding();
+                    binding.setName(cache.getName());
+                    bindings.add(binding);
+                }
+                binding.setPersistentVolumeClaim(new PersistentVolumeClaimVolumeSource(lease.getClaimName(), false));
+            }
+        } catch (RuntimeException | InterruptedException e) {
+            releaseCacheWorkspaces(leases);
+            throw e;
+        }
+        return leases;
+    }
+
+    protected void releaseCacheWorkspaces(List<BranchCache.Lease> leases) {
+        for (BranchCache.Lease lease : leases) {
+            lease.getCache().release(lease);
+        }
+    }
+
     protected void enhancePipelineRunWithEnvVars(PipelineRun pr, EnvVars envVars) {
         setParamOnPipelineRunSpec(pr.getSpec(), "BUILD_ID", envVars.get("BUILD_ID"));
         setParamOnPipelineRunSpec(pr.getSpec(), "JOB_NAME", envVars.get("JOB_NAME"));
@@ -322,7 +577,7 @@ public class CreateRaw extends BaseStep {
         return part;
     }
 
-    private void setParamOnPipelineRunSpec(@NonNull PipelineRunSpec spec, String paramName, String paramValue) {
+    protected void setParamOnPipelineRunSpec(@NonNull PipelineRunSpec spec, String paramName, String paramValue) {
         if (paramValue == null) {
             paramValue = "";
         }
@@ -342,6 +597,8 @@ public class CreateRaw extends BaseStep {
         TektonClient tc = (TektonClient) tektonClient;
         Thread logWatchTask = null;
         TaskRunLogWatch logWatch = new TaskRunLogWatch(kc, tc, taskRun, consoleLogger);
+        logWatch.setPendingPodPolicy(PendingPodDiagnostics.Policy.of(pendingPodPolicy));
+        logWatch.setPendingGraceSeconds(pendingGraceSeconds);
         logWatchTask = new Thread(logWatch);
         logWatchTask.start();
         logWatchTask.join();
@@ -356,6 +613,8 @@ public class CreateRaw extends BaseStep {
         TektonClient tc = (TektonClient) tektonClient;
         Thread logWatchTask;
         PipelineRunLogWatch logWatch = new PipelineRunLogWatch(kc, tc, pipelineRun, consoleLogger);
+        logWatch.setPendingPodPolicy(PendingPodDiagnostics.Policy.of(pendingPodPolicy));
+        logWatch.setPendingGraceSeconds(pendingGraceSeconds);
         logWatchTask = new Thread(logWatch);
         logWatchTask.start();
         logWatchTask.join();
@@ -367,6 +626,26 @@ public class CreateRaw extends BaseStep {
 
     @Override
     public void perform(@NonNull Run<?, ?> run, @NonNull FilePath workspace, @NonNull EnvVars envVars, @NonNull Launcher launcher, @NonNull TaskListener listener) throws InterruptedException, IOException {
+        connect(run, listener);
+        runCreate(run, workspace, envVars);
+    }
+
+    /**
+     * Creates a resource which is already in the Tekton model, such as one converted from a generated step, in the
+     * cluster and namespace of this step, streaming its logs and failing the build if it fails just like the input
+     * of this step
+     *
+     * @return the name of the created resource
+     */
+    public String perform(@NonNull HasMetadata resource, @NonNull Run<?, ?> run, EnvVars envVars, @NonNull TaskListener listener) throws IOException {
+        connect(run, listener);
+        runLabels = TektonRunLabels.forRun(run);
+        // only PipelineRuns are recorded as checks
+        AtomicReference<TektonResourceType> resourceType = new AtomicReference<>(resource instanceof PipelineRun ? TektonResourceType.pipelinerun : null);
+        return createAndRecord(run, resourceType, () -> createWithResourceSpecificClient(resource, envVars));
+    }
+
+    private void connect(Run<?, ?> run, TaskListener listener) throws IOException {
         consoleLogger = listener.getLogger();
 
         String clusterName = getClusterName();
@@ -389,24 +668,28 @@ public class CreateRaw extends BaseStep {
         if (checksPublisher == null) {
             checksPublisher = ChecksPublisherFactory.fromRun(run, listener);
         }
-
-        runCreate(run, workspace, envVars);
     }
 
     protected String runCreate(Run<?, ?> run, FilePath workspace, EnvVars envVars) {
-        URL url = null;
-        byte[] data = null;
         String inputData = this.getInput();
         String inputType = this.getInputType();
-        String createdResourceName = "";
-        TektonResourceType resourceType = null;
-        try {
+        runLabels = TektonRunLabels.forRun(run);
+        if (!getCacheWorkspaces().isEmpty() && run != null && envVars != null) {
+            String branch = envVars.get("BRANCH_NAME");
+            if (Strings.isNullOrEmpty(branch) && !Strings.isNullOrEmpty(envVars.get("GIT_BRANCH"))) {
+                branch = envVars.get("GIT_BRANCH").replaceFirst("^(refs/heads/|origin/)", "");
+            }
+            setCacheKey(BranchCache.jobOf(run.getParent().getFullName(), envVars.get("BRANCH_NAME")), branch);
+        }
+        // the kind is only known once the input has been read
+        AtomicReference<TektonResourceType> resourceType = new AtomicReference<>();
+        return createAndRecord(run, resourceType, () -> {
+            byte[] data = null;
             if (inputType.equals(InputType.URL.toString())) {
-                url = new URL(inputData);
-                data = Resources.toByteArray(url);
+                data = Resources.toByteArray(new URL(inputData));
             } else if (inputType.equals(InputType.YAML.toString())) {
                 data = inputData.getBytes(StandardCharsets.UTF_8);
-            } else if (inputType.equals(InputType.FILE.toString())) {
+            } else if (inputType.equals(InputType.FILE.toString()) && !isResolvingOnAgent(workspace)) {
                 FilePath inputFile = workspace.child(inputData);
                 LOGGER.info("Reading from " + inputFile + ", exists:" + inputFile.exists());
                 data = ByteStreams.toByteArray(inputFile.read());
@@ -416,22 +699,47 @@ public class CreateRaw extends BaseStep {
                 LOGGER.info("Got data before enhancement\n" + new String(data, StandardCharsets.UTF_8));
             }
 
-            data = convertTektonData(workspace, envVars, null, data);
-            if (data != null) {
-                List<TektonResourceType> kind = TektonUtils.getKindFromInputStream(new ByteArrayInputStream(data), this.getInputType());
-                if (kind.size() > 1){
-                    LOGGER.warning("Multiple Objects in YAML not supported yet");
-                    logMessage("Multiple Objects in YAML not supported yet");
-                    run.setResult(Result.FAILURE);
-                } else {
-                    resourceType = kind.get(0);
-                    LOGGER.info("creating kind " + resourceType.name());
-                    createdResourceName = createWithResourceSpecificClient(resourceType, new ByteArrayInputStream(data), envVars);
-                }
+            if (isResolvingOnAgent(workspace)) {
+                String inputPath = inputType.equals(InputType.FILE.toString()) ? inputData : null;
+                LOGGER.info("Resolving the tekton resources on " + (workspace.isRemote() ? "agent" : "controller") + " workspace " + workspace.getRemote());
+                data = workspace.act(new ResolveTektonDataCallable(inputPath, data, enableCatalog,
+                        envVars, CATALOG_TIMEOUT_SECONDS));
+            } else {
+                data = convertTektonData(workspace, envVars, null, data);
+            }
+            if (data != null && validateSchema) {
+                validateResources(data);
+            }
+            if (data == null) {
+                return "";
             }
+            List<TektonResourceType> kind = TektonUtils.getKindFromInputStream(new ByteArrayInputStream(data), this.getInputType());
+            if (kind.size() > 1){
+                LOGGER.warning("Multiple Objects in YAML not supported yet");
+                logMessage("Multiple Objects in YAML not supported yet");
+                run.setResult(Result.FAILURE);
+                return "";
+            }
+            resourceType.set(kind.get(0));
+            LOGGER.info("creating kind " + kind.get(0).name());
+            return createWithResourceSpecificClient(kind.get(0), new ByteArrayInputStream(data), envVars);
+        });
+    }
+
+    /**
+     * Creates the resources then records the outcome on the build and, for PipelineRuns, as checks
+     *
+     * @param resourceType the kind of the resource once it is known
+     * @param creation creates the resources and returns the name of the created resource
+     * @return the name of the created resource or an empty string if nothing was created
+     */
+    private String createAndRecord(Run<?, ?> run, AtomicReference<TektonResourceType> resourceType, Callable<String> creation) {
+        String createdResourceName = "";
+        try {
+            createdResourceName = creation.call();
 
             // only recording checks for pipelineruns
-            if (resourceType != null && resourceType == TektonResourceType.pipelinerun) {
+            if (resourceType.get() == TektonResourceType.pipelinerun) {
                 ChecksDetails checkDetails = new ChecksDetails.ChecksDetailsBuilder()
                         .withName("tekton")
                         .withOutput(new ChecksOutput.ChecksOutputBuilder()
@@ -458,7 +766,7 @@ public class CreateRaw extends BaseStep {
             run.setResult(Result.FAILURE);
 
             // only recording checks for pipelineruns
-            if (resourceType != null && resourceType == TektonResourceType.pipelinerun) {
+            if (resourceType.get() == TektonResourceType.pipelinerun) {
                 ChecksDetails checkDetails = new ChecksDetails.ChecksDetailsBuilder()
                         .withName("tekton")
                         .withStatus(ChecksStatus.COMPLETED)
@@ -478,6 +786,26 @@ public class CreateRaw extends BaseStep {
         return createdResourceName;
     }
 
+    /**
+     * Lets fail fast with the paths of any invalid fields rather than waiting for the API server to reject the resource
+     */
+    protected void validateResources(byte[] data) throws Exception {
+        TektonSchemaValidator.Result result = TektonSchemaValidator.get().validate(data);
+        for (String warning : result.getWarnings()) {
+            logMessage("[Tekton] Schema warning " + warning);
+        }
+        for (String error : result.getErrors()) {
+            logMessage("[Tekton] Schema error " + error);
+        }
+        if (!result.isValid()) {
+            throw new Exception("Tekton resource failed schema validation with " + result.getErrors().size() + " error(s)");
+        }
+    }
+
+    private boolean isResolvingOnAgent(FilePath workspace) {
+        return resolveOnAgent && workspace != null;
+    }
+
     protected void logMessage(String text) {
         synchronized (this.consoleLogger) {
             try {
@@ -576,49 +904,8 @@ public class CreateRaw extends BaseStep {
      * @throws Exception
      */
     private byte[] processTektonCatalog(EnvVars envVars, File dir, File file, byte[] data) throws Exception {
-        boolean deleteInputFile = false;
-        if (file == null) {
-            // the following fails when not running in the controller so lets not use a temp file for now
-            //file = File.createTempFile("tekton-input-", ".yaml", dir);
-            file = new File(dir, "tekton-input-pipeline.yaml");
-            Files.write(data, file);
-            LOGGER.info("Saved file: " + file.getPath());
-        }
-
-        // the following fails when not running in the controller so lets not use a temp file for now
-        //File outputFile = File.createTempFile("tekton-effective-", ".yaml", dir);
-        File outputFile = new File(dir, "tekton-effective-pipeline.yaml");
-
-        String filePath = file.getPath();
-        String binary = ToolUtils.getJXPipelineBinary(getToolClassLoader());
-
-        LOGGER.info("Using tekton pipeline binary " + binary);
-
-        ProcessBuilder builder = new ProcessBuilder();
-        builder.command(binary, "-b", "--add-defaults", "-f", filePath, "-o", outputFile.getPath());
-        if (envVars != null) {
-            for (Map.Entry<String, String> entry : envVars.entrySet()) {
-                LOGGER.info("Adding env var " + entry.getKey() + "=" + entry.getValue());
-                builder.environment().put(entry.getKey(), entry.getValue());
-            }
-        }
-        Process process = builder.start();
-        int exitCode = process.waitFor();
-
-        LogUtils.logStream(process.getInputStream(), LOGGER, false);
-        LogUtils.logStream(process.getErrorStream(), LOGGER, true);
-
-        if (exitCode != 0) {
-            throw new Exception("failed to apply tekton catalog to file " + filePath);
-        }
-
-        LOGGER.info("Generated file: " + outputFile.getPath());
-
-        data = Files.toByteArray(outputFile);
-
-        LOGGER.info("Generated contents:\n" + new String(data, StandardCharsets.UTF_8));
-
-        return data;
+        return ResolveTektonDataCallable.processTektonCatalog(getToolClassLoader(), ToolUtils.pluginVersion(), envVars,
+                dir, file, data, CATALOG_TIMEOUT_SECONDS);
     }
 
     @Symbol("tektonCreateRaw")
@@ -639,6 +926,14 @@ public class CreateRaw extends BaseStep {
             return items;
         }
 
+        public ListBoxModel doFillPendingPodPolicyItems(@QueryParameter(value = "pendingPodPolicy") final String pendingPodPolicy){
+            ListBoxModel items = new ListBoxModel();
+            for (PendingPodDiagnostics.Policy policy : PendingPodDiagnostics.Policy.values()) {
+                items.add(policy.name());
+            }
+            return items;
+        }
+
         public ListBoxModel doFillClusterNameItems(@QueryParameter(value = "clusterName") final String clusterName){
             ListBoxModel items =  new ListBoxModel();
             for (String cn: TektonUtils.getTektonClientMap().keySet()){
@@ -659,10 +954,9 @@ public class CreateRaw extends BaseStep {
     }
 
     private String marshall(PipelineRun pipelineRun) {
-        ObjectMapper mapper = new ObjectMapper(new YAMLFactory().disable(YAMLGenerator.Feature.WRITE_DOC_START_MARKER));
         String output = null;
         try {
-            output = mapper.writeValueAsString(pipelineRun);
+            output = YAML_MAPPER.writeValueAsString(pipelineRun);
         } catch (JsonProcessingException e) {
             throw new RuntimeException(e);
         }
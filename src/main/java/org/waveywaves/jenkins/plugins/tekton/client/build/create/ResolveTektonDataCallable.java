@@ -0,0 +1,152 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build.create;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+import org.waveywaves.jenkins.plugins.tekton.client.ProcessUtils;
+import org.waveywaves.jenkins.plugins.tekton.client.TektonUtils.TektonResourceType;
+import org.waveywaves.jenkins.plugins.tekton.client.ToolUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads, resolves and validates the Tekton YAML on the node which holds the workspace so that only
+ * the final resource is sent back to the controller.
+ */
+public class ResolveTektonDataCallable extends MasterToSlaveFileCallable<byte[]> {
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logger.getLogger(ResolveTektonDataCallable.class.getName());
+
+    private final String inputPath;
+    private final byte[] data;
+    private final boolean enableCatalog;
+    private final HashMap<String, String> envVars;
+    private final long timeoutSeconds;
+    private final String toolVersion;
+
+    /**
+     * @param inputPath the workspace relative file to read or null if the data is supplied
+     * @param data the data to process if no input path is given
+     * @param enableCatalog whether to process the tekton catalog
+     * @param envVars the build environment, filtered on the node running the jx-pipeline-effective binary
+     * @param timeoutSeconds the maximum time to process the tekton catalog
+     */
+    public ResolveTektonDataCallable(String inputPath, byte[] data, boolean enableCatalog, Map<String, String> envVars, long timeoutSeconds) {
+        this.inputPath = inputPath;
+        this.data = data;
+        this.enableCatalog = enableCatalog;
+        this.envVars = envVars != null ? new HashMap<>(envVars) : new HashMap<>();
+        this.timeoutSeconds = timeoutSeconds;
+        // agents cannot look up the plugin version, which names the tool cache directory, so lets resolve it here
+        this.toolVersion = ToolUtils.pluginVersion();
+    }
+
+    @Override
+    public byte[] invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+        File file = null;
+        byte[] answer = data;
+        if (inputPath != null) {
+            file = new File(dir, inputPath);
+            if (!file.isFile()) {
+                throw new IOException("file does not exist: " + file);
+            }
+            answer = Files.readAllBytes(file.toPath());
+        }
+
+        if (enableCatalog) {
+            if (dir.mkdirs()) {
+                LOGGER.log(Level.FINE, "created workspace dir " + dir);
+            }
+            LOGGER.info("Processing the tekton catalog at dir " + dir);
+            answer = processTektonCatalog(ToolUtils.class.getClassLoader(), toolVersion, envVars, dir, file, answer, timeoutSeconds);
+        }
+
+        validate(answer);
+        return answer;
+    }
+
+    /**
+     * Runs the jx-pipeline-effective binary over the given file or data in the given directory
+     *
+     * @param toolClassLoader the class loader used to find the binary
+     * @param toolVersion the version of this plugin or null if not known
+     * @param envVars the build environment, overlaid on the allow-listed environment of this node
+     * @param dir the directory to run in
+     * @param file optional file name to process
+     * @param data data to process if no file name is given
+     * @param timeoutSeconds the maximum time the binary may take
+     * @return the processed data
+     * @throws IOException if the binary failed or timed out
+     * @throws InterruptedException if interrupted while waiting for the binary
+     */
+    static byte[] processTektonCatalog(ClassLoader toolClassLoader, String toolVersion, Map<String, String> envVars, File dir, File file, byte[] data, long timeoutSeconds) throws IOException, InterruptedException {
+        if (file == null) {
+            file = new File(dir, "tekton-input-pipeline.yaml");
+            Files.write(file.toPath(), data);
+            LOGGER.info("Saved file: " + file.getPath());
+        }
+        File outputFile = new File(dir, "tekton-effective-pipeline.yaml");
+
+        String filePath = file.getPath();
+        String binary = ToolUtils.getJXPipelineBinary(toolClassLoader, toolVersion);
+
+        LOGGER.info("Using tekton pipeline binary " + binary);
+
+        List<String> command = List.of(binary, "-b", "--add-defaults", "-f", filePath, "-o", outputFile.getPath());
+        // Filter here rather than on the controller so the binary sees this node's PATH, HOME and proxies
+        Map<String, String> env = ProcessUtils.filterEnvironment(envVars);
+        ProcessUtils.ProcessResult result = ProcessUtils.run(command, dir, env, timeoutSeconds, TimeUnit.SECONDS, LOGGER);
+        if (result.getExitCode() != 0) {
+            throw new IOException("failed to apply tekton catalog to file " + filePath);
+        }
+
+        LOGGER.info("Generated file: " + outputFile.getPath());
+        byte[] answer = Files.readAllBytes(outputFile.toPath());
+        LOGGER.fine("Generated contents:\n" + new String(answer, StandardCharsets.UTF_8));
+        return answer;
+    }
+
+    /**
+     * Lets check the data is a single supported Tekton resource before we send it back to the controller
+     */
+    static void validate(byte[] data) throws IOException {
+        if (data == null || data.length == 0) {
+            throw new IOException("no Tekton resource found");
+        }
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+        int count = 0;
+        try (MappingIterator<JsonNode> documents = mapper.readerFor(JsonNode.class).readValues(data)) {
+            while (documents.hasNextValue()) {
+                JsonNode document = documents.nextValue();
+                if (document == null || document.isNull() || document.isMissingNode()) {
+                    continue;
+                }
+                count++;
+                String kind = document.path("kind").asText("");
+                try {
+                    TektonResourceType.valueOf(kind.toLowerCase());
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("unsupported Tekton resource kind '" + kind + "'", e);
+                }
+            }
+        }
+        if (count == 0) {
+            throw new IOException("no Tekton resource found");
+        }
+        if (count > 1) {
+            throw new IOException("Multiple Objects in YAML not supported yet");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build.create;
+
+import com.google.common.base.Strings;
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import hudson.util.FormValidation;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.waveywaves.jenkins.plugins.tekton.client.workspace.BranchCache;
+
+/**
+ * Binds a workspace of the created PipelineRun or TaskRun to a persistent cache reused by the builds of the same job
+ * and branch, see {@link BranchCache}.
+ */
+public final class TektonCacheWorkspace extends AbstractDescribableImpl<TektonCacheWorkspace> {
+    public static final int DEFAULT_LEASE_TIMEOUT_SECONDS = 300;
+
+    private final String name;
+    private final String size;
+    private String storageClass;
+    private String defaultBranch = "main";
+    private String maxTotalSize;
+    private int leaseTimeoutSeconds = DEFAULT_LEASE_TIMEOUT_SECONDS;
+
+    /**
+     * @param name the name of the workspace
+     * @param size the requested storage of the cache of each branch such as <code>5Gi</code>
+     */
+    @DataBoundConstructor
+    public TektonCacheWorkspace(String name, String size) {
+        this.name = name;
+        this.size = size;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSize() {
+        return size;
+    }
+
+    public String getStorageClass() {
+        return storageClass;
+    }
+
+    @DataBoundSetter
+    public void setStorageClass(String storageClass) {
+        this.storageClass = storageClass;
+    }
+
+    public String getDefaultBranch() {
+        return defaultBranch;
+    }
+
+    /**
+     * @param defaultBranch the branch whose cache seeds the cache of new branches
+     */
+    @DataBoundSetter
+    public void setDefaultBranch(String defaultBranch) {
+        this.defaultBranch = defaultBranch;
+    }
+
+    public String getMaxTotalSize() {
+        return maxTotalSize;
+    }
+
+    /**
+     * @param maxTotalSize the total storage of the caches of all jobs and branches beyond which the least recently
+     *                     used are evicted, empty for no limit
+     */
+    @DataBoundSetter
+    public void setMaxTotalSize(String maxTotalSize) {
+        this.maxTotalSize = maxTotalSize;
+    }
+
+    public int getLeaseTimeoutSeconds() {
+        return leaseTimeoutSeconds;
+    }
+
+    /**
+     * @param leaseTimeoutSeconds how long to wait while another build uses the cache before using a clone of it
+     */
+    @DataBoundSetter
+    public void setLeaseTimeoutSeconds(int leaseTimeoutSeconds) {
+        this.leaseTimeoutSeconds = leaseTimeoutSeconds;
+    }
+
+    public BranchCache toBranchCache(KubernetesClient client, String namespace) {
+        return new BranchCache(client, namespace, name, storageClass, size, defaultBranch, maxTotalSize);
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<TektonCacheWorkspace> {
+        public FormValidation doCheckSize(@QueryParameter(value = "size") final String size) {
+            return checkQuantity(size, true);
+        }
+
+        public FormValidation doCheckMaxTotalSize(@QueryParameter(value = "maxTotalSize") final String maxTotalSize) {
+            return checkQuantity(maxTotalSize, false);
+        }
+
+        private static FormValidation checkQuantity(String value, boolean required) {
+            if (Strings.isNullOrEmpty(value)) {
+                return required ? FormValidation.error("Size is required") : FormValidation.ok();
+            }
+            try {
+                Quantity.getAmountInBytes(new Quantity(value));
+            } catch (IllegalArgumentException e) {
+                return FormValidation.error("Must be a quantity such as 5Gi");
+            }
+            return FormValidation.ok();
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "cache workspace";
+        }
+    }
+}
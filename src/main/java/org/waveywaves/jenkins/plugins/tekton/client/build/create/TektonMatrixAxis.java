@@ -0,0 +1,61 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build.create;
+
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TektonMatrixAxis extends AbstractDescribableImpl<TektonMatrixAxis> {
+    private final String name;
+    private final String values;
+
+    /**
+     * @param name the name of the PipelineRun param
+     * @param values the values of the param separated by commas or new lines
+     */
+    @DataBoundConstructor
+    public TektonMatrixAxis(final String name,
+                            final String values) {
+        this.name = name;
+        this.values = values;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getValues() {
+        return this.values;
+    }
+
+    /**
+     * @return the trimmed, non empty values of this axis
+     */
+    public List<String> getValueList() {
+        List<String> answer = new ArrayList<>();
+        if (values != null) {
+            for (String value : values.split("[,\\n]")) {
+                String trimmed = value.trim();
+                if (!trimmed.isEmpty()) {
+                    answer.add(trimmed);
+                }
+            }
+        }
+        return answer;
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<TektonMatrixAxis> {
+        public DescriptorImpl() {
+            load();
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "matrix axis";
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build.create;
+
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import java.util.Collections;
+import java.util.List;
+
+public class TektonParamSet extends AbstractDescribableImpl<TektonParamSet> {
+    private final List<TektonParam> params;
+
+    /**
+     * @param params the params of one TaskRun in a batch; they override the params of the step with the same name
+     */
+    @DataBoundConstructor
+    public TektonParamSet(final List<TektonParam> params) {
+        this.params = params != null ? params : Collections.emptyList();
+    }
+
+    public List<TektonParam> getParams() {
+        return this.params;
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<TektonParamSet> {
+        public DescriptorImpl() {
+            load();
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "param set";
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package org.waveywaves.jenkins.plugins.tekton.client.build.create;
 
+import com.google.common.base.Strings;
 import hudson.Extension;
 import hudson.model.AbstractDescribableImpl;
 import hudson.model.Descriptor;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
 public final class TektonWorkspaceBind extends AbstractDescribableImpl<TektonWorkspaceBind> {
     private final String name;
     private final String claimName;
+    private String storageClass;
+    private String size;
 
     @DataBoundConstructor
     public TektonWorkspaceBind(String name, String claimName) {
@@ -23,6 +27,34 @@ public final class TektonWorkspaceBind extends AbstractDescribableImpl<TektonWor
         return claimName;
     }
 
+    public String getStorageClass() {
+        return storageClass;
+    }
+
+    @DataBoundSetter
+    public void setStorageClass(String storageClass) {
+        this.storageClass = storageClass;
+    }
+
+    public String getSize() {
+        return size;
+    }
+
+    /**
+     * @param size the requested storage of a claim leased from a PVC pool when no claim name is given
+     */
+    @DataBoundSetter
+    public void setSize(String size) {
+        this.size = size;
+    }
+
+    /**
+     * @return true if the workspace is bound to a claim leased from a PVC pool rather than a named claim
+     */
+    public boolean isPooled() {
+        return Strings.isNullOrEmpty(claimName) && !Strings.isNullOrEmpty(size);
+    }
+
     @Extension
     public static class DescriptorImpl extends Descriptor<TektonWorkspaceBind> {
         @Override
@@ -1,6 +1,7 @@
 package org.waveywaves.jenkins.plugins.tekton.client.build.delete;
 
 import com.google.common.base.Strings;
+import hudson.AbortException;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Launcher;
@@ -11,11 +12,14 @@ import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.Builder;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
+import io.fabric8.kubernetes.api.model.DeletionPropagation;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.client.Client;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.Resource;
 import io.fabric8.tekton.client.TektonClient;
-import io.fabric8.tekton.pipeline.v1beta1.Pipeline;
-import io.fabric8.tekton.pipeline.v1beta1.PipelineRun;
-import io.fabric8.tekton.pipeline.v1beta1.Task;
-import io.fabric8.tekton.pipeline.v1beta1.TaskRun;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
@@ -26,15 +30,41 @@ import org.waveywaves.jenkins.plugins.tekton.client.build.BaseStep;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 @Symbol("tektonDeleteStep")
 public class DeleteRaw extends BaseStep {
     private static final Logger logger = Logger.getLogger(DeleteRaw.class.getName());
+
+    public static final int DEFAULT_MAX_CONCURRENT_TARGETS = 4;
+    public static final long DEFAULT_DELETION_TIMEOUT_SECONDS = 300;
+
     private String resourceType;
     private String resourceName;
     private String clusterName;
+    private String labelSelector;
+    private String fieldSelector;
+    // boxed so that a step saved before paging existed can be told apart from one which turned it off with 0
+    private Integer pageSize = PaginatedDeleter.DEFAULT_PAGE_SIZE;
+    private int deleteConcurrency = PaginatedDeleter.DEFAULT_PARALLELISM;
+    private String clusterNames;
+    private String namespaces;
+    private int maxConcurrentTargets = DEFAULT_MAX_CONCURRENT_TARGETS;
+    private String propagationPolicy;
+    private boolean waitForDeletion;
+    private long deletionTimeoutSeconds = DEFAULT_DELETION_TIMEOUT_SECONDS;
+    private transient PrintStream consoleLogger;
 
     @DataBoundConstructor
     public DeleteRaw(String resourceType, String clusterName, DeleteAllBlock deleteAllStatus) {
@@ -45,6 +75,26 @@ public class DeleteRaw extends BaseStep {
         setTektonClient(TektonUtils.getTektonClient(getClusterName()));
     }
 
+    /**
+     * Field initializers do not run for steps loaded by XStream, so restores the defaults of the fields which were
+     * added since the step was saved
+     */
+    protected Object readResolve() {
+        if (pageSize == null) {
+            pageSize = PaginatedDeleter.DEFAULT_PAGE_SIZE;
+        }
+        if (deleteConcurrency <= 0) {
+            deleteConcurrency = PaginatedDeleter.DEFAULT_PARALLELISM;
+        }
+        if (maxConcurrentTargets <= 0) {
+            maxConcurrentTargets = DEFAULT_MAX_CONCURRENT_TARGETS;
+        }
+        if (deletionTimeoutSeconds <= 0) {
+            deletionTimeoutSeconds = DEFAULT_DELETION_TIMEOUT_SECONDS;
+        }
+        return this;
+    }
+
     public static class DeleteAllBlock {
         private String resourceName;
 
@@ -66,6 +116,121 @@ public class DeleteRaw extends BaseStep {
     public String getResourceName(){
         return this.resourceName;
     }
+    public String getLabelSelector() {
+        return Strings.emptyToNull(this.labelSelector);
+    }
+    public String getFieldSelector() {
+        return Strings.emptyToNull(this.fieldSelector);
+    }
+    public int getPageSize() {
+        return this.pageSize != null ? this.pageSize : PaginatedDeleter.DEFAULT_PAGE_SIZE;
+    }
+    public int getDeleteConcurrency() {
+        return this.deleteConcurrency;
+    }
+    public String getClusterNames() {
+        return this.clusterNames;
+    }
+    public String getNamespaces() {
+        return this.namespaces;
+    }
+    public int getMaxConcurrentTargets() {
+        return this.maxConcurrentTargets;
+    }
+    public String getPropagationPolicy() {
+        return Strings.emptyToNull(this.propagationPolicy);
+    }
+    public boolean isWaitForDeletion() {
+        return this.waitForDeletion;
+    }
+    public long getDeletionTimeoutSeconds() {
+        return this.deletionTimeoutSeconds;
+    }
+
+    /**
+     * @param propagationPolicy <code>Foreground</code>, <code>Background</code> or <code>Orphan</code>; empty uses the server default
+     */
+    @DataBoundSetter
+    public void setPropagationPolicy(String propagationPolicy) {
+        this.propagationPolicy = propagationPolicy;
+    }
+
+    /**
+     * @param waitForDeletion whether to watch the deleted resources until they are gone so they can be recreated straight away
+     */
+    @DataBoundSetter
+    public void setWaitForDeletion(boolean waitForDeletion) {
+        this.waitForDeletion = waitForDeletion;
+    }
+
+    /**
+     * @param deletionTimeoutSeconds how long to wait for the deleted resources to be gone
+     */
+    @DataBoundSetter
+    public void setDeletionTimeoutSeconds(long deletionTimeoutSeconds) {
+        this.deletionTimeoutSeconds = deletionTimeoutSeconds;
+    }
+
+    private DeletionPropagation getDeletionPropagation() {
+        String policy = getPropagationPolicy();
+        return policy != null ? DeletionPropagation.valueOf(policy.toUpperCase(Locale.ROOT)) : null;
+    }
+
+    /**
+     * @param clusterNames the clusters to delete from separated by commas or new lines; overrides the cluster name
+     */
+    @DataBoundSetter
+    public void setClusterNames(String clusterNames) {
+        this.clusterNames = clusterNames;
+    }
+
+    /**
+     * @param namespaces the namespaces to delete from separated by commas or new lines; defaults to the namespace of each cluster
+     */
+    @DataBoundSetter
+    public void setNamespaces(String namespaces) {
+        this.namespaces = namespaces;
+    }
+
+    /**
+     * @param maxConcurrentTargets the maximum number of clusters and namespaces deleted from concurrently
+     */
+    @DataBoundSetter
+    public void setMaxConcurrentTargets(int maxConcurrentTargets) {
+        this.maxConcurrentTargets = maxConcurrentTargets;
+    }
+
+    /**
+     * @param labelSelector restricts which resources are deleted when no resource name is given, e.g. <code>app=foo,tier!=db</code>
+     */
+    @DataBoundSetter
+    public void setLabelSelector(String labelSelector) {
+        this.labelSelector = labelSelector;
+    }
+
+    /**
+     * @param fieldSelector restricts which resources are deleted when no resource name is given, e.g. <code>status.phase!=Running</code>
+     */
+    @DataBoundSetter
+    public void setFieldSelector(String fieldSelector) {
+        this.fieldSelector = fieldSelector;
+    }
+
+    /**
+     * @param pageSize the number of resources listed per request when deleting all resources; 0 deletes the whole collection in a single request
+     */
+    @DataBoundSetter
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @param deleteConcurrency the maximum number of concurrent delete requests when deleting a page of resources
+     */
+    @DataBoundSetter
+    public void setDeleteConcurrency(int deleteConcurrency) {
+        this.deleteConcurrency = deleteConcurrency;
+    }
 
     @DataBoundSetter
     public void setClusterName(String clusterName) {
@@ -91,14 +256,139 @@ public class DeleteRaw extends BaseStep {
 
     @Override
     public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace, @Nonnull Launcher launcher, @Nonnull TaskListener listener) throws InterruptedException, IOException {
-        runDelete();
+        consoleLogger = listener.getLogger();
+        boolean deleted;
+        try {
+            deleted = runDelete();
+        } catch (DeletionTimeoutException e) {
+            throw new AbortException(e.getMessage());
+        }
+        if (!deleted && hasMultipleTargets()) {
+            throw new AbortException("Failed to delete " + getResourceType() + " resources from one or more targets");
+        }
     }
 
-    protected boolean runDelete(){
+    protected boolean runDelete() throws InterruptedException {
+        if (hasMultipleTargets()) {
+            return deleteFromTargets();
+        }
         return deleteWithResourceSpecificClient(this.getTypedResourceType());
     }
 
-    private boolean deleteWithResourceSpecificClient(TektonResourceType resourceType) {
+    /**
+     * @return true if cluster names or namespaces were given rather than just the cluster name
+     */
+    protected boolean hasMultipleTargets() {
+        return !split(clusterNames).isEmpty() || !split(namespaces).isEmpty();
+    }
+
+    /**
+     * @return every combination of cluster and namespace to delete from; a null namespace is the default of the cluster
+     */
+    protected List<DeleteTargetResult> getTargets() {
+        List<String> clusters = split(clusterNames);
+        if (clusters.isEmpty()) {
+            clusters = Collections.singletonList(getClusterName());
+        }
+        List<String> nsList = split(namespaces);
+        if (nsList.isEmpty()) {
+            nsList = Collections.singletonList(null);
+        }
+        List<DeleteTargetResult> answer = new ArrayList<>();
+        for (String cluster : clusters) {
+            for (String ns : nsList) {
+                answer.add(new DeleteTargetResult(cluster, ns));
+            }
+        }
+        return answer;
+    }
+
+    private static List<String> split(String text) {
+        List<String> answer = new ArrayList<>();
+        if (text != null) {
+            for (String value : text.split("[,\\n]")) {
+                String trimmed = value.trim();
+                if (!trimmed.isEmpty() && !answer.contains(trimmed)) {
+                    answer.add(trimmed);
+                }
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Deletes from every target concurrently, up to the maximum number of concurrent targets, then logs a summary
+     *
+     * @return true if no target failed
+     * @throws InterruptedException if interrupted while waiting for the targets, which stops deleting from them
+     */
+    private boolean deleteFromTargets() throws InterruptedException {
+        List<DeleteTargetResult> results = getTargets();
+        int threads = Math.max(1, Math.min(maxConcurrentTargets, results.size()));
+        logMessage(String.format("[Tekton] Deleting %s resources from %d targets with a maximum concurrency of %d", getResourceType(), results.size(), threads));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (DeleteTargetResult result : results) {
+                futures.add(executor.submit(() -> deleteFromTarget(result)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            logger.warning("failed to delete from target: " + e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        logMessage("[Tekton] Delete summary:");
+        for (DeleteTargetResult result : results) {
+            logMessage(String.format("[Tekton]   %-50s %8ss  %s", result.getLabel(),
+                    String.format("%.1f", result.getDurationMillis() / 1000.0), result.getMessage()));
+        }
+        return results.stream().allMatch(DeleteTargetResult::isSucceeded);
+    }
+
+    private void deleteFromTarget(DeleteTargetResult result) {
+        long start = System.nanoTime();
+        try {
+            TektonClient tc = TektonUtils.getTektonClient(result.getClusterName());
+            if (tc == null) {
+                throw new IllegalStateException("no tektonClient for cluster " + result.getClusterName());
+            }
+            tc = TektonUtils.inNamespace(tc, result.getNamespace());
+            String prefix = "[" + result.getLabel() + "] ";
+            Consumer<String> log = msg -> logMessage(prefix + msg);
+            Boolean deleted;
+            switch (getTypedResourceType()) {
+                case task:
+                    deleted = deleteResources(tc, tc.v1beta1().tasks(), log);
+                    break;
+                case taskrun:
+                    deleted = deleteResources(tc, tc.v1beta1().taskRuns(), log);
+                    break;
+                case pipeline:
+                    deleted = deleteResources(tc, tc.v1beta1().pipelines(), log);
+                    break;
+                case pipelinerun:
+                    deleted = deleteResources(tc, tc.v1beta1().pipelineRuns(), log);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unsupported resource type " + getResourceType());
+            }
+            result.setSucceeded(true);
+            result.setMessage(deleted ? "Deleted" : "Nothing deleted");
+        } catch (Exception e) {
+            logger.warning("failed to delete " + getResourceType() + " from " + result.getLabel() + ": " + e);
+            result.setSucceeded(false);
+            result.setMessage("Failed: " + e.getMessage());
+        } finally {
+            result.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private boolean deleteWithResourceSpecificClient(TektonResourceType resourceType) throws InterruptedException {
         switch (resourceType) {
             case task:
                 return deleteTask();
@@ -113,86 +403,165 @@ public class DeleteRaw extends BaseStep {
         }
     }
 
-    public Boolean deleteTask() {
+    public Boolean deleteTask() throws InterruptedException {
         if (taskClient == null) {
             TektonClient tc = (TektonClient) tektonClient;
             setTaskClient(tc.v1beta1().tasks());
         }
-        List<Task> taskList = taskClient.list().getItems();
-        Boolean isDeleted = false;
-        if (this.getResourceName() == null) {
-            return taskClient.delete(taskList);
-        }
-        for (Task task : taskList) {
-            String taskName = task.getMetadata().getName();
-            if (taskName.equals(this.getResourceName())) {
-                isDeleted = taskClient.delete(task);
-                break;
-            }
-        }
-        return isDeleted;
+        return deleteResources(taskClient);
     }
 
-    public Boolean deleteTaskRun() {
+    public Boolean deleteTaskRun() throws InterruptedException {
         if (taskRunClient == null) {
             TektonClient tc = (TektonClient) tektonClient;
             setTaskRunClient(tc.v1beta1().taskRuns());
         }
-        List<TaskRun> taskRunList = taskRunClient.list().getItems();
-        Boolean isDeleted = false;
-        if (this.getResourceName() == null) {
-            return taskRunClient.delete(taskRunList);
-        }
-        for (TaskRun taskRun : taskRunList) {
-            String taskRunName = taskRun.getMetadata().getName();
-            if (taskRunName.equals(this.getResourceName())) {
-                isDeleted = taskRunClient.delete(taskRun);
-                break;
-            }
-        }
-        return isDeleted;
+        return deleteResources(taskRunClient);
     }
 
-    public Boolean deletePipeline() {
+    public Boolean deletePipeline() throws InterruptedException {
         if (pipelineClient == null) {
             TektonClient tc = (TektonClient) tektonClient;
             setPipelineClient(tc.v1beta1().pipelines());
         }
-        List<Pipeline> pipelineList = pipelineClient.list().getItems();
-        Boolean isDeleted = false;
-        if (this.getResourceName() == null) {
-            return pipelineClient.delete(pipelineList);
-        }
-        for (Pipeline pipeline : pipelineList) {
-            String pipelineName = pipeline.getMetadata().getName();
-            if (pipelineName.equals(this.getResourceName())) {
-                isDeleted = pipelineClient.delete(pipeline);
-                break;
-            }
-        }
-        return isDeleted;
+        return deleteResources(pipelineClient);
     }
 
-    public Boolean deletePipelineRun() {
+    public Boolean deletePipelineRun() throws InterruptedException {
         if (pipelineRunClient == null) {
             TektonClient tc = (TektonClient) tektonClient;
             setPipelineRunClient(tc.v1beta1().pipelineRuns());
         }
-        List<PipelineRun> pipelineRunList = pipelineRunClient.list().getItems();
-        Boolean isDeleted = false;
-        if (this.getResourceName() == null) {
-            return pipelineRunClient.delete(pipelineRunList);
-        }
-        for (PipelineRun pipelineRun : pipelineRunList) {
-            String pipelineRunName = pipelineRun.getMetadata().getName();
-            if (pipelineRunName.equals(this.getResourceName())) {
-                isDeleted = pipelineRunClient.delete(pipelineRun);
-                break;
+        return deleteResources(pipelineRunClient);
+    }
+
+    /**
+     * Deletes the named resource directly. Otherwise pages through the resources matching the selectors and deletes
+     * each page in bounded parallel batches so that huge namespaces neither exhaust memory nor time out a single
+     * collection delete; a page size of 0 deletes every match with a single DeleteCollection request instead.
+     */
+    protected <T extends HasMetadata, L extends KubernetesResourceList<T>> Boolean deleteResources(MixedOperation<T, L, Resource<T>> client) throws InterruptedException {
+        return deleteResources(tektonClient, client, this::logMessage);
+    }
+
+    private <T extends HasMetadata, L extends KubernetesResourceList<T>> Boolean deleteResources(Client owner, MixedOperation<T, L, Resource<T>> client, Consumer<String> log) throws InterruptedException {
+        DeletionPropagation policy = getDeletionPropagation();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(deletionTimeoutSeconds);
+        boolean isDeleted;
+        if (this.getResourceName() != null) {
+            Resource<T> resource = client.withName(this.getResourceName());
+            isDeleted = PaginatedDeleter.delete(resource, policy);
+            if (isDeleted && waitForDeletion && !PaginatedDeleter.waitUntilGone(resource, deadline)) {
+                throw new DeletionTimeoutException(this.getResourceName(), deletionTimeoutSeconds);
+            }
+        } else if (getPageSize() <= 0) {
+            // the API server evaluates the selectors as given, including set-based requirements such as "env in (a,b)"
+            List<ObjectMeta> deleted = PaginatedDeleter.deleteCollection(owner, client, getLabelSelector(), getFieldSelector(), policy);
+            if (deleted != null) {
+                log.accept(String.format("[Tekton] Deleted %d %s(s)", deleted.size(), getResourceType()));
+            }
+            isDeleted = deleted == null || !deleted.isEmpty();
+            if (deleted != null && waitForDeletion) {
+                // only resources held back by finalizers or foreground deletion are still present
+                for (ObjectMeta item : deleted) {
+                    if (!PaginatedDeleter.waitUntilGone(resourceOf(client, item), deadline)) {
+                        throw new DeletionTimeoutException(item.getName(), deletionTimeoutSeconds);
+                    }
+                }
+            }
+        } else {
+            PaginatedDeleter deleter = new PaginatedDeleter(getPageSize(), deleteConcurrency, log);
+            deleter.setPropagationPolicy(policy);
+            if (waitForDeletion) {
+                deleter.setWaitTimeoutMillis(TimeUnit.SECONDS.toMillis(deletionTimeoutSeconds));
             }
+            PaginatedDeleter.Outcome outcome = deleter.delete(client, getLabelSelector(), getFieldSelector(), null);
+            log.accept(String.format("[Tekton] Deleted %d %s(s), %d failed", outcome.getDeleted(), getResourceType(), outcome.getFailed()));
+            if (outcome.getTimedOut() > 0) {
+                throw new DeletionTimeoutException(outcome.getTimedOut() + " " + getResourceType() + "(s)", deletionTimeoutSeconds);
+            }
+            isDeleted = outcome.getFailed() == 0;
+        }
+        if (isDeleted && waitForDeletion) {
+            log.accept("[Tekton] Deleted " + getResourceType() + " resources are gone");
         }
         return isDeleted;
     }
 
+    private static <T extends HasMetadata, L extends KubernetesResourceList<T>> Resource<T> resourceOf(MixedOperation<T, L, Resource<T>> client, ObjectMeta item) {
+        String ns = item.getNamespace();
+        return ns != null ? client.inNamespace(ns).withName(item.getName()) : client.withName(item.getName());
+    }
+
+    /**
+     * Thrown when deleted resources are still present once the deletion timeout has passed
+     */
+    public static class DeletionTimeoutException extends RuntimeException {
+        public DeletionTimeoutException(String what, long timeoutSeconds) {
+            super("Timed out after " + timeoutSeconds + "s waiting for " + what + " to be deleted");
+        }
+    }
+
+    private void logMessage(String msg) {
+        if (consoleLogger != null) {
+            consoleLogger.println(msg);
+        } else {
+            logger.info(msg);
+        }
+    }
+
+    /**
+     * The outcome of deleting from a single cluster and namespace
+     */
+    public static class DeleteTargetResult {
+        private final String clusterName;
+        private final String namespace;
+        private volatile boolean succeeded;
+        private volatile String message = "Pending";
+        private volatile long durationMillis;
+
+        public DeleteTargetResult(String clusterName, String namespace) {
+            this.clusterName = clusterName;
+            this.namespace = namespace;
+        }
+
+        public String getClusterName() {
+            return clusterName;
+        }
+
+        public String getNamespace() {
+            return namespace;
+        }
+
+        public String getLabel() {
+            return clusterName + "/" + (namespace != null ? namespace : "<default>");
+        }
+
+        public boolean isSucceeded() {
+            return succeeded;
+        }
+
+        public void setSucceeded(boolean succeeded) {
+            this.succeeded = succeeded;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public void setDurationMillis(long durationMillis) {
+            this.durationMillis = durationMillis;
+        }
+    }
+
     @Extension
     public static final class DescriptorImpl extends BuildStepDescriptor<Builder> {
         public FormValidation doCheckResourceName(@QueryParameter(value = "resourceName") final String resourceName){
@@ -202,6 +571,29 @@ public class DeleteRaw extends BaseStep {
             return FormValidation.ok();
         }
 
+        public FormValidation doCheckDeleteConcurrency(@QueryParameter(value = "deleteConcurrency") final int deleteConcurrency){
+            if (deleteConcurrency < 1){
+                return FormValidation.error("Delete Concurrency must be at least 1");
+            }
+            return FormValidation.ok();
+        }
+
+        public FormValidation doCheckMaxConcurrentTargets(@QueryParameter(value = "maxConcurrentTargets") final int maxConcurrentTargets){
+            if (maxConcurrentTargets < 1){
+                return FormValidation.error("Max Concurrent Targets must be at least 1");
+            }
+            return FormValidation.ok();
+        }
+
+        public ListBoxModel doFillPropagationPolicyItems(@QueryParameter(value = "propagationPolicy") final String propagationPolicy){
+            ListBoxModel items =  new ListBoxModel();
+            items.add("");
+            items.add("Foreground");
+            items.add("Background");
+            items.add("Orphan");
+            return items;
+        }
+
         public ListBoxModel doFillResourceTypeItems(@QueryParameter(value = "input") final String input){
             ListBoxModel items =  new ListBoxModel();
             items.add(TektonResourceType.task.toString());
@@ -0,0 +1,328 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build.delete;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.fabric8.kubernetes.api.model.DeleteOptions;
+import io.fabric8.kubernetes.api.model.DeleteOptionsBuilder;
+import io.fabric8.kubernetes.api.model.DeletionPropagation;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.ListMeta;
+import io.fabric8.kubernetes.api.model.ListOptions;
+import io.fabric8.kubernetes.api.model.ListOptionsBuilder;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.client.Client;
+import io.fabric8.kubernetes.client.HttpClientAware;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.dsl.base.OperationSupport;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Deletes large numbers of resources with bounded memory by paging through the list with
+ * <code>limit</code>/<code>continue</code> tokens and deleting each page in bounded parallel batches.
+ *
+ * Only one page of resources is held in memory at a time.
+ */
+public class PaginatedDeleter {
+    private static final Logger LOGGER = Logger.getLogger(PaginatedDeleter.class.getName());
+
+    public static final int DEFAULT_PAGE_SIZE = 500;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private static final int HTTP_GONE = 410;
+
+    private final int pageSize;
+    private final int parallelism;
+    private final Consumer<String> progress;
+    private double maxDeletesPerSecond;
+    private long nextDeleteNanos;
+    private DeletionPropagation propagationPolicy;
+    private long waitTimeoutMillis;
+    private long deadlineNanos;
+
+    /**
+     * @param pageSize the maximum number of resources listed per request
+     * @param parallelism the maximum number of concurrent delete requests
+     * @param progress receives progress messages, may be null
+     */
+    public PaginatedDeleter(int pageSize, int parallelism, Consumer<String> progress) {
+        this.pageSize = pageSize > 0 ? pageSize : DEFAULT_PAGE_SIZE;
+        this.parallelism = parallelism > 0 ? parallelism : DEFAULT_PARALLELISM;
+        this.progress = progress;
+    }
+
+    /**
+     * @param maxDeletesPerSecond limits the rate of delete requests so background clean up does not overload the
+     *                            API server; 0 or less means no limit
+     */
+    public void setMaxDeletesPerSecond(double maxDeletesPerSecond) {
+        this.maxDeletesPerSecond = maxDeletesPerSecond;
+    }
+
+    /**
+     * @param propagationPolicy how dependents are deleted or null for the server default
+     */
+    public void setPropagationPolicy(DeletionPropagation propagationPolicy) {
+        this.propagationPolicy = propagationPolicy;
+    }
+
+    /**
+     * @param waitTimeoutMillis how long to wait in total for the deleted resources to be gone; 0 or less does not wait
+     */
+    public void setWaitTimeoutMillis(long waitTimeoutMillis) {
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    /**
+     * Deletes all the resources matching the selectors and filter
+     *
+     * @param client the client for the resource kind, optionally scoped to a namespace
+     * @param labelSelector the label selector evaluated by the API server or null
+     * @param fieldSelector the field selector evaluated by the API server or null
+     * @param filter an additional filter evaluated locally or null to delete everything that matches the selectors
+     * @return the outcome of the deletion
+     * @throws InterruptedException if interrupted while waiting for deletes
+     */
+    public <T extends HasMetadata, L extends KubernetesResourceList<T>> Outcome delete(MixedOperation<T, L, Resource<T>> client,
+            String labelSelector, String fieldSelector, Predicate<T> filter) throws InterruptedException {
+        Outcome outcome = new Outcome();
+        nextDeleteNanos = System.nanoTime();
+        deadlineNanos = nextDeleteNanos + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            String continueToken = null;
+            boolean more = true;
+            while (more) {
+                ListOptions options = new ListOptionsBuilder()
+                        .withLimit((long) pageSize)
+                        .withContinue(continueToken)
+                        .withLabelSelector(labelSelector)
+                        .withFieldSelector(fieldSelector)
+                        .build();
+                L page;
+                try {
+                    page = client.list(options);
+                } catch (KubernetesClientException e) {
+                    if (e.getCode() == HTTP_GONE && continueToken != null) {
+                        // the continue token expired so lets start again; deleted resources will not be listed again
+                        LOGGER.info("continue token expired, restarting the listing");
+                        continueToken = null;
+                        continue;
+                    }
+                    throw e;
+                }
+
+                deletePage(client, page.getItems(), filter, executor, outcome);
+
+                ListMeta meta = page.getMetadata();
+                continueToken = meta != null ? meta.getContinue() : null;
+                more = continueToken != null && !continueToken.isEmpty();
+                Long remaining = meta != null ? meta.getRemainingItemCount() : null;
+                report(String.format("[Tekton] Deleted %d resource(s) so far, %d failed%s", outcome.getDeleted(), outcome.getFailed(),
+                        remaining != null ? ", about " + remaining + " left to check" : ""));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return outcome;
+    }
+
+    private <T extends HasMetadata, L extends KubernetesResourceList<T>> void deletePage(MixedOperation<T, L, Resource<T>> client,
+            List<T> items, Predicate<T> filter, ExecutorService executor, Outcome outcome) throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>();
+        for (T item : items) {
+            if (filter != null && !filter.test(item)) {
+                continue;
+            }
+            String name = item.getMetadata().getName();
+            String ns = item.getMetadata().getNamespace();
+            throttle();
+            futures.add(executor.submit(() -> {
+                try {
+                    Resource<T> resource = ns != null ? client.inNamespace(ns).withName(name) : client.withName(name);
+                    if (delete(resource, propagationPolicy)) {
+                        outcome.deleted.incrementAndGet();
+                        if (waitTimeoutMillis > 0 && !waitUntilGone(resource, deadlineNanos)) {
+                            LOGGER.warning("timed out waiting for " + ns + "/" + name + " to be deleted");
+                            outcome.timedOut.incrementAndGet();
+                        }
+                    }
+                } catch (KubernetesClientException e) {
+                    LOGGER.warning("failed to delete " + ns + "/" + name + ": " + e.getMessage());
+                    outcome.failed.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                LOGGER.warning("failed to delete resource: " + e.getCause());
+                outcome.failed.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Deletes all the resources matching the selectors with a single DeleteCollection request. The filtered delete of
+     * the client lists the matches and deletes them one request at a time, so the request is sent with the HTTP client
+     * of the client which created the operation instead.
+     *
+     * @param owner the client which created the operation
+     * @param client the client for the resource kind, optionally scoped to a namespace
+     * @param labelSelector the label selector evaluated by the API server or null
+     * @param fieldSelector the field selector evaluated by the API server or null
+     * @param propagationPolicy how dependents are deleted or null for the server default
+     * @return the metadata of the deleted resources, empty if nothing matched or null if the server did not list them
+     */
+    public static <T extends HasMetadata, L extends KubernetesResourceList<T>> List<ObjectMeta> deleteCollection(Client owner,
+            MixedOperation<T, L, Resource<T>> client, String labelSelector, String fieldSelector, DeletionPropagation propagationPolicy) {
+        if (!(owner instanceof HttpClientAware) || !(client instanceof OperationSupport)) {
+            throw new IllegalArgumentException("cannot delete a collection with " + (owner != null ? owner.getClass().getName() : null));
+        }
+        OkHttpClient httpClient = ((HttpClientAware) owner).getHttpClient();
+        Request request;
+        try {
+            HttpUrl.Builder url = HttpUrl.get(((OperationSupport) client).getNamespacedUrl()).newBuilder();
+            if (labelSelector != null) {
+                url.addQueryParameter("labelSelector", labelSelector);
+            }
+            if (fieldSelector != null) {
+                url.addQueryParameter("fieldSelector", fieldSelector);
+            }
+            DeleteOptions options = new DeleteOptionsBuilder()
+                    .withApiVersion("v1")
+                    .withKind("DeleteOptions")
+                    .withPropagationPolicy(propagationPolicy != null ? propagationPolicy.toString() : null)
+                    .build();
+            request = new Request.Builder()
+                    .url(url.build())
+                    .delete(RequestBody.create(OperationSupport.JSON, Serialization.asJson(options)))
+                    .build();
+        } catch (IOException e) {
+            throw KubernetesClientException.launderThrowable(e);
+        }
+
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                return new ArrayList<>();
+            }
+            if (!response.isSuccessful()) {
+                throw OperationSupport.requestFailure(request, OperationSupport.createStatus(response));
+            }
+            // the API server answers with the list of deleted resources
+            ResponseBody body = response.body();
+            String json = body != null ? body.string() : "";
+            JsonNode items = json.isEmpty() ? null : Serialization.jsonMapper().readTree(json).get("items");
+            if (items == null) {
+                return null;
+            }
+            List<ObjectMeta> deleted = new ArrayList<>();
+            for (JsonNode item : items) {
+                deleted.add(Serialization.jsonMapper().treeToValue(item.path("metadata"), ObjectMeta.class));
+            }
+            return deleted;
+        } catch (IOException e) {
+            throw OperationSupport.requestException(request, e);
+        }
+    }
+
+    /**
+     * @param resource the resource to delete
+     * @param propagationPolicy how dependents are deleted or null for the server default
+     * @return true if the resource was deleted
+     */
+    public static <T> boolean delete(Resource<T> resource, DeletionPropagation propagationPolicy) {
+        Boolean deleted = propagationPolicy != null ? resource.withPropagationPolicy(propagationPolicy).delete() : resource.delete();
+        return deleted != null && deleted;
+    }
+
+    /**
+     * Watches the resource until it is gone, which for foreground deletion includes its dependents, or the deadline passes
+     *
+     * @param resource the deleted resource
+     * @param deadlineNanos the {@link System#nanoTime()} to give up at
+     * @return false if the deadline passed first
+     */
+    public static <T> boolean waitUntilGone(Resource<T> resource, long deadlineNanos) {
+        long remaining = deadlineNanos - System.nanoTime();
+        if (remaining <= 0) {
+            return resource.get() == null;
+        }
+        try {
+            resource.waitUntilCondition(Objects::isNull, remaining, TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (KubernetesClientException | IllegalArgumentException e) {
+            LOGGER.fine("wait for deletion ended with " + e);
+            return false;
+        }
+    }
+
+    private void throttle() throws InterruptedException {
+        if (maxDeletesPerSecond <= 0) {
+            return;
+        }
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / maxDeletesPerSecond);
+        long now = System.nanoTime();
+        long wait = nextDeleteNanos - now;
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+            now += wait;
+        }
+        nextDeleteNanos = now + interval;
+    }
+
+    private void report(String message) {
+        LOGGER.fine(message);
+        if (progress != null) {
+            progress.accept(message);
+        }
+    }
+
+    /**
+     * The number of resources deleted, the number which failed to delete and the number still present when
+     * waiting for them to be gone timed out
+     */
+    public static class Outcome {
+        private final AtomicLong deleted = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong timedOut = new AtomicLong();
+
+        public long getDeleted() {
+            return deleted.get();
+        }
+
+        public long getFailed() {
+            return failed.get();
+        }
+
+        public long getTimedOut() {
+            return timedOut.get();
+        }
+    }
+}
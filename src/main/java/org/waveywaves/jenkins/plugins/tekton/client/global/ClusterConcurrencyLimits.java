@@ -0,0 +1,42 @@
+package org.waveywaves.jenkins.plugins.tekton.client.global;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits how many TaskRuns the plugin runs at once on each cluster across all builds, as configured by
+ * {@link ClusterConfig#getMaxConcurrentTaskRuns()}.
+ */
+public final class ClusterConcurrencyLimits {
+    private static final Map<String, Semaphore> LIMITS = new ConcurrentHashMap<>();
+
+    private ClusterConcurrencyLimits() {
+    }
+
+    /**
+     * Replaces the limits; permits held against the previous limits are still released against them
+     *
+     * @param clusterConfigs the cluster configurations
+     */
+    public static synchronized void configure(List<ClusterConfig> clusterConfigs) {
+        LIMITS.clear();
+        if (clusterConfigs == null) {
+            return;
+        }
+        for (ClusterConfig config : clusterConfigs) {
+            if (config.getName() != null && config.getMaxConcurrentTaskRuns() > 0) {
+                LIMITS.put(config.getName(), new Semaphore(config.getMaxConcurrentTaskRuns(), true));
+            }
+        }
+    }
+
+    /**
+     * @param clusterName the name of the cluster
+     * @return the permits for running TaskRuns on the cluster or null if it is not limited
+     */
+    public static Semaphore get(String clusterName) {
+        return clusterName != null ? LIMITS.get(clusterName) : null;
+    }
+}
@@ -4,11 +4,13 @@ import hudson.Extension;
 import hudson.model.AbstractDescribableImpl;
 import hudson.model.Descriptor;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
 public final class ClusterConfig extends AbstractDescribableImpl<ClusterConfig> {
     private final String name;
     private final String masterUrl;
     private final String defaultNamespace;
+    private int maxConcurrentTaskRuns;
 
     @DataBoundConstructor
     public ClusterConfig(final String name,
@@ -31,6 +33,18 @@ public final class ClusterConfig extends AbstractDescribableImpl<ClusterConfig>
         return name;
     }
 
+    public int getMaxConcurrentTaskRuns() {
+        return this.maxConcurrentTaskRuns;
+    }
+
+    /**
+     * @param maxConcurrentTaskRuns the maximum number of batched TaskRuns running at once on the cluster, 0 for no limit
+     */
+    @DataBoundSetter
+    public void setMaxConcurrentTaskRuns(int maxConcurrentTaskRuns) {
+        this.maxConcurrentTaskRuns = maxConcurrentTaskRuns;
+    }
+
     @Extension
     public static class DescriptorImpl extends Descriptor<ClusterConfig> {
         @Override
@@ -7,6 +7,8 @@ import jenkins.model.Jenkins;
 import net.sf.json.JSONObject;
 import org.kohsuke.stapler.StaplerRequest2;
 import org.waveywaves.jenkins.plugins.tekton.client.TektonUtils;
+import org.waveywaves.jenkins.plugins.tekton.client.retention.RetentionPolicy;
+import org.waveywaves.jenkins.plugins.tekton.client.workspace.PvcPoolConfig;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,6 +20,8 @@ import static java.util.logging.Level.SEVERE;
 public class TektonGlobalConfiguration extends GlobalConfiguration {
     private static final Logger logger = Logger.getLogger(TektonGlobalConfiguration.class.getName());
     private List<ClusterConfig> clusterConfigs = new ArrayList<>();
+    private List<RetentionPolicy> retentionPolicies = new ArrayList<>();
+    private List<PvcPoolConfig> pvcPools = new ArrayList<>();
 
     public TektonGlobalConfiguration(){
         load();
@@ -32,6 +36,28 @@ public class TektonGlobalConfiguration extends GlobalConfiguration {
         this.clusterConfigs = clusterConfigs;
     }
 
+    public List<RetentionPolicy> getRetentionPolicies() {
+        if (this.retentionPolicies == null) {
+            this.retentionPolicies = new ArrayList<>();
+        }
+        return this.retentionPolicies;
+    }
+
+    public void setRetentionPolicies(List<RetentionPolicy> retentionPolicies) {
+        this.retentionPolicies = retentionPolicies;
+    }
+
+    public List<PvcPoolConfig> getPvcPools() {
+        if (this.pvcPools == null) {
+            this.pvcPools = new ArrayList<>();
+        }
+        return this.pvcPools;
+    }
+
+    public void setPvcPools(List<PvcPoolConfig> pvcPools) {
+        this.pvcPools = pvcPools;
+    }
+
     public static TektonGlobalConfiguration get() {
         return GlobalConfiguration.all().get(TektonGlobalConfiguration.class);
     }
@@ -40,6 +66,8 @@ public class TektonGlobalConfiguration extends GlobalConfiguration {
     public boolean configure(final StaplerRequest2 req, final JSONObject formData) {
         Jenkins.getInstance().checkPermission(Jenkins.ADMINISTER);
         setClusterConfigs(req.bindJSONToList(ClusterConfig.class, formData.get("clusterConfigs")));
+        setRetentionPolicies(req.bindJSONToList(RetentionPolicy.class, formData.get("retentionPolicies")));
+        setPvcPools(req.bindJSONToList(PvcPoolConfig.class, formData.get("pvcPools")));
         configChange();
         save();
         return true;
@@ -48,6 +76,7 @@ public class TektonGlobalConfiguration extends GlobalConfiguration {
     public synchronized void configChange() {
         logger.info("Tekton Client Plugin processing a newly supplied configuration");
 
+        ClusterConcurrencyLimits.configure(this.clusterConfigs);
         TektonUtils.shutdownKubeClients();
         try {
             TektonUtils.initializeKubeClients(this.clusterConfigs);
@@ -0,0 +1,188 @@
+package org.waveywaves.jenkins.plugins.tekton.client.logwatch;
+
+import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.Event;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodCondition;
+import io.fabric8.kubernetes.api.model.PodStatus;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Recognises pods which are stuck pending for a reason which will not go away by itself, such as an image which
+ * cannot be pulled, a pod which cannot be scheduled or a volume which cannot be mounted.
+ */
+public final class PendingPodDiagnostics {
+    /**
+     * What to do once a pod is stuck pending
+     */
+    public enum Policy {
+        /**
+         * log the reason and keep waiting for the pod
+         */
+        WAIT,
+        /**
+         * log the reason and stop waiting, failing the build
+         */
+        FAIL,
+        /**
+         * log the reason, cancel the TaskRun and fail the build
+         */
+        CANCEL;
+
+        public static Policy of(String name) {
+            try {
+                return name != null ? valueOf(name) : WAIT;
+            } catch (IllegalArgumentException e) {
+                return WAIT;
+            }
+        }
+    }
+
+    private static final Set<String> CONTAINER_WAITING_REASONS = new HashSet<>(Arrays.asList(
+            "ImagePullBackOff", "ErrImageNeverPull", "InvalidImageName", "CreateContainerConfigError", "CreateContainerError"));
+
+    private static final Set<String> WARNING_EVENT_REASONS = new HashSet<>(Arrays.asList(
+            "FailedMount", "FailedAttachVolume", "FailedCreatePodSandBox"));
+
+    /**
+     * The cluster autoscaler adds nodes for pods which are unschedulable, so they are not stuck
+     */
+    private static final String SCALE_UP_EVENT_REASON = "TriggeredScaleUp";
+
+    private PendingPodDiagnostics() {
+    }
+
+    /**
+     * Only the events since the pod last changed state count, so a volume which failed to mount before it was
+     * eventually mounted does not make a pod which is now pulling its images look stuck.
+     *
+     * @param pod the latest state of the pod
+     * @param events the events of the pod, oldest first
+     * @return why the pod is stuck pending or null if it is not known to be stuck
+     */
+    public static Diagnosis diagnose(Pod pod, Collection<Event> events) {
+        PodStatus status = pod != null ? pod.getStatus() : null;
+        if (status == null) {
+            return null;
+        }
+        List<ContainerStatus> containerStatuses = new ArrayList<>();
+        if (status.getInitContainerStatuses() != null) {
+            containerStatuses.addAll(status.getInitContainerStatuses());
+        }
+        if (status.getContainerStatuses() != null) {
+            containerStatuses.addAll(status.getContainerStatuses());
+        }
+        for (ContainerStatus containerStatus : containerStatuses) {
+            if (containerStatus.getState() != null && containerStatus.getState().getWaiting() != null) {
+                String reason = containerStatus.getState().getWaiting().getReason();
+                if (CONTAINER_WAITING_REASONS.contains(reason)) {
+                    return new Diagnosis(reason, "container " + containerStatus.getName() + ": " + containerStatus.getState().getWaiting().getMessage());
+                }
+            }
+        }
+
+        boolean scalingUp = false;
+        Event warning = null;
+        if (events != null) {
+            Instant lastStateChange = lastStateChange(status);
+            for (Event event : events) {
+                Instant seen = lastSeen(event);
+                if (lastStateChange != null && seen != null && seen.isBefore(lastStateChange)) {
+                    continue;
+                }
+                if (SCALE_UP_EVENT_REASON.equals(event.getReason())) {
+                    scalingUp = true;
+                } else if ("Warning".equals(event.getType()) && WARNING_EVENT_REASONS.contains(event.getReason())) {
+                    warning = event;
+                }
+            }
+        }
+        if (status.getConditions() != null && !scalingUp) {
+            for (PodCondition condition : status.getConditions()) {
+                if ("PodScheduled".equals(condition.getType()) && "False".equals(condition.getStatus())
+                        && "Unschedulable".equals(condition.getReason())) {
+                    return new Diagnosis("Unschedulable", condition.getMessage());
+                }
+            }
+        }
+        if (warning != null) {
+            return new Diagnosis(warning.getReason(), warning.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * @return when a condition of the pod last changed or null if it is not known
+     */
+    static Instant lastStateChange(PodStatus status) {
+        Instant answer = null;
+        if (status.getConditions() != null) {
+            for (PodCondition condition : status.getConditions()) {
+                Instant transition = parseTime(condition.getLastTransitionTime());
+                if (transition != null && (answer == null || transition.isAfter(answer))) {
+                    answer = transition;
+                }
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * @return when the event last happened or null if it is not known
+     */
+    static Instant lastSeen(Event event) {
+        Instant answer = parseTime(event.getLastTimestamp());
+        if (answer == null && event.getEventTime() != null) {
+            answer = parseTime(event.getEventTime().getTime());
+        }
+        if (answer == null) {
+            answer = parseTime(event.getFirstTimestamp());
+        }
+        return answer;
+    }
+
+    private static Instant parseTime(String time) {
+        if (time == null || time.isEmpty()) {
+            return null;
+        }
+        try {
+            return Instant.parse(time);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Why a pod is stuck pending
+     */
+    public static final class Diagnosis {
+        private final String reason;
+        private final String message;
+
+        public Diagnosis(String reason, String message) {
+            this.reason = reason;
+            this.message = message != null ? message : "";
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return message.isEmpty() ? reason : reason + ": " + message;
+        }
+    }
+}
@@ -25,6 +25,8 @@ public class PipelineRunLogWatch implements Runnable {
     private KubernetesClient kubernetesClient;
     private TektonClient tektonClient;
     private Exception exception;
+    private PendingPodDiagnostics.Policy pendingPodPolicy = PendingPodDiagnostics.Policy.WAIT;
+    private int pendingGraceSeconds = TaskRunLogWatch.DEFAULT_PENDING_GRACE_SECONDS;
     OutputStream consoleLogger;
 
     //ConcurrentHashMap<String, TaskRun> taskRunsOnWatch = new ConcurrentHashMap<String, TaskRun>();
@@ -46,6 +48,17 @@ public class PipelineRunLogWatch implements Runnable {
         return exception;
     }
 
+    /**
+     * @param pendingPodPolicy what to do when the pod of a TaskRun is stuck pending
+     */
+    public void setPendingPodPolicy(PendingPodDiagnostics.Policy pendingPodPolicy) {
+        this.pendingPodPolicy = pendingPodPolicy;
+    }
+
+    public void setPendingGraceSeconds(int pendingGraceSeconds) {
+        this.pendingGraceSeconds = pendingGraceSeconds;
+    }
+
     @Override
     public void run() {
         String pipelineRunName = pipelineRun.getMetadata().getName();
@@ -78,6 +91,8 @@ public class PipelineRunLogWatch implements Runnable {
                         if (or.getUid().equals(pipelineRunUid)) {
                             LOGGER.info(String.format("Streaming logs for TaskRun %s/%s owned by PipelineRun %s with selector %s", ns, trName, pipelineRunName, selector));
                             TaskRunLogWatch logWatch = new TaskRunLogWatch(kubernetesClient, tektonClient, tr, consoleLogger);
+                            logWatch.setPendingPodPolicy(pendingPodPolicy);
+                            logWatch.setPendingGraceSeconds(pendingGraceSeconds);
                             Thread logWatchTask = new Thread(logWatch);
                             logWatchTask.start();
                             try {
@@ -6,11 +6,16 @@ import io.fabric8.kubernetes.api.model.Container;
 import io.fabric8.kubernetes.api.model.ContainerState;
 import io.fabric8.kubernetes.api.model.ContainerStateTerminated;
 import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.Event;
 import io.fabric8.kubernetes.api.model.ListOptions;
 import io.fabric8.kubernetes.api.model.OwnerReference;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.PodStatus;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.WatcherException;
 import io.fabric8.kubernetes.client.dsl.PodResource;
 import io.fabric8.tekton.client.TektonClient;
 import io.fabric8.tekton.pipeline.v1beta1.TaskRun;
@@ -22,7 +27,12 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.logging.Logger;
 
@@ -30,6 +40,8 @@ public class TaskRunLogWatch implements Runnable{
     private static final Logger LOGGER = Logger.getLogger(TaskRunLogWatch.class.getName());
 
     private static final String TASK_RUN_LABEL_NAME = "tekton.dev/taskRun";
+    private static final long POD_POLL_MILLIS = 5000;
+    public static final int DEFAULT_PENDING_GRACE_SECONDS = 300;
 
     // TODO should be final
     private TaskRun taskRun;
@@ -38,6 +50,9 @@ public class TaskRunLogWatch implements Runnable{
     private TektonClient tektonClient;
 
     private Exception exception;
+    private volatile PendingPodDiagnostics.Diagnosis pendingDiagnosis;
+    private PendingPodDiagnostics.Policy pendingPodPolicy = PendingPodDiagnostics.Policy.WAIT;
+    private int pendingGraceSeconds = DEFAULT_PENDING_GRACE_SECONDS;
     OutputStream consoleLogger;
 
     public TaskRunLogWatch(KubernetesClient kubernetesClient, TektonClient tektonClient, TaskRun taskRun, OutputStream consoleLogger) {
@@ -54,6 +69,27 @@ public class TaskRunLogWatch implements Runnable{
         return exception;
     }
 
+    /**
+     * @return why the pod was stuck pending if the watch gave up on it, otherwise null
+     */
+    public PendingPodDiagnostics.Diagnosis getPendingDiagnosis() {
+        return pendingDiagnosis;
+    }
+
+    /**
+     * @param pendingPodPolicy what to do when the pod is stuck pending
+     */
+    public void setPendingPodPolicy(PendingPodDiagnostics.Policy pendingPodPolicy) {
+        this.pendingPodPolicy = pendingPodPolicy;
+    }
+
+    /**
+     * @param pendingGraceSeconds how long the pod must be stuck for the same kind of reason before the policy applies
+     */
+    public void setPendingGraceSeconds(int pendingGraceSeconds) {
+        this.pendingGraceSeconds = pendingGraceSeconds;
+    }
+
     @Override
     public void run() {
         HashSet<String> runningPhases = Sets.newHashSet("Running", "Succeeded", "Failed");
@@ -98,12 +134,11 @@ public class TaskRunLogWatch implements Runnable{
             logMessage(String.format("[Tekton] Pod %s/%s", ns, podName));
 
             LOGGER.info("waiting for pod " + ns + "/" + podName + " to start running...");
-            Predicate<Pod> succeededState = i -> (runningPhases.contains(i.getStatus().getPhase()));
             PodResource<Pod> pr = kubernetesClient.pods().inNamespace(ns).withName(podName);
-            try {
-                pr.waitUntilCondition(succeededState,60, TimeUnit.MINUTES);
-            } catch ( InterruptedException e) {
-                LOGGER.warning("Interrupted Exception Occurred");
+            PendingPodDiagnostics.Diagnosis diagnosis = awaitPodRunning(pr, ns, podName, runningPhases);
+            if (diagnosis != null) {
+                giveUpOnPendingPod(ns, podName, diagnosis);
+                return;
             }
             logMessage(String.format("[Tekton] Pod %s/%s - Running...", ns, podName));
             List<String> taskRunContainerNames = new ArrayList<String>();
@@ -160,6 +195,122 @@ public class TaskRunLogWatch implements Runnable{
         }
     }
 
+    /**
+     * Waits up to an hour for the pod to run, watching the pod and its events to spot a pod stuck pending
+     *
+     * @return why the pod is stuck if the policy says to give up on it, otherwise null
+     */
+    private PendingPodDiagnostics.Diagnosis awaitPodRunning(PodResource<Pod> pr, String ns, String podName, Set<String> runningPhases) {
+        AtomicReference<Pod> latest = new AtomicReference<>();
+        Map<String, Event> events = new ConcurrentHashMap<>();
+        Object signal = new Object();
+        List<Watch> watches = new ArrayList<>();
+        try {
+            watches.add(pr.watch(new Signal<>(signal, pod -> latest.set(pod))));
+            watches.add(kubernetesClient.v1().events().inNamespace(ns).withField("involvedObject.name", podName)
+                    .watch(new Signal<>(signal, event -> events.put(event.getMetadata().getName(), event))));
+        } catch (KubernetesClientException e) {
+            LOGGER.fine("could not watch pod " + ns + "/" + podName + ", polling instead: " + e.getMessage());
+        }
+
+        String reported = null;
+        long stuckSince = 0;
+        long lastPoll = 0;
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(60);
+        try {
+            while (System.nanoTime() - deadline < 0) {
+                long now = System.nanoTime();
+                if (lastPoll == 0 || now - lastPoll >= TimeUnit.MILLISECONDS.toNanos(POD_POLL_MILLIS)) {
+                    // the watches may have been closed so lets not rely on them alone
+                    Pod polled = pr.get();
+                    if (polled == null) {
+                        return null;
+                    }
+                    latest.set(polled);
+                    lastPoll = now;
+                }
+                Pod pod = latest.get();
+                if (pod.getStatus() != null && runningPhases.contains(pod.getStatus().getPhase())) {
+                    return null;
+                }
+                PendingPodDiagnostics.Diagnosis diagnosis = PendingPodDiagnostics.diagnose(pod, events.values());
+                if (diagnosis == null) {
+                    stuckSince = 0;
+                } else {
+                    if (!diagnosis.toString().equals(reported)) {
+                        logMessage(String.format("[Tekton] Pod %s/%s is pending - %s", ns, podName, diagnosis));
+                        reported = diagnosis.toString();
+                    }
+                    if (stuckSince == 0) {
+                        stuckSince = now;
+                    }
+                    if (pendingPodPolicy != PendingPodDiagnostics.Policy.WAIT
+                            && now - stuckSince >= TimeUnit.SECONDS.toNanos(pendingGraceSeconds)) {
+                        return diagnosis;
+                    }
+                }
+                synchronized (signal) {
+                    signal.wait(1000);
+                }
+            }
+        } catch (InterruptedException e) {
+            LOGGER.warning("Interrupted Exception Occurred");
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Watch watch : watches) {
+                watch.close();
+            }
+        }
+        return null;
+    }
+
+    private void giveUpOnPendingPod(String ns, String podName, PendingPodDiagnostics.Diagnosis diagnosis) {
+        pendingDiagnosis = diagnosis;
+        String taskRunName = taskRun.getMetadata().getName();
+        String message = "Pod " + ns + "/" + podName + " of TaskRun " + taskRunName + " is stuck pending - " + diagnosis;
+        exception = new Exception(message);
+        logMessage("[Tekton] " + message);
+        if (pendingPodPolicy == PendingPodDiagnostics.Policy.CANCEL) {
+            try {
+                tektonClient.v1beta1().taskRuns().inNamespace(ns).withName(taskRunName).edit(tr -> {
+                    tr.getSpec().setStatus("TaskRunCancelled");
+                    return tr;
+                });
+                logMessage("[Tekton] Cancelled TaskRun " + ns + "/" + taskRunName);
+            } catch (KubernetesClientException e) {
+                logMessage("[Tekton] Failed to cancel TaskRun " + ns + "/" + taskRunName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Records each watched resource and wakes up the thread waiting for the pod
+     */
+    private static final class Signal<T> implements Watcher<T> {
+        private final Object signal;
+        private final Consumer<T> consumer;
+
+        Signal(Object signal, Consumer<T> consumer) {
+            this.signal = signal;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void eventReceived(Action action, T resource) {
+            if (action != Action.DELETED && resource != null) {
+                consumer.accept(resource);
+            }
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+
+        @Override
+        public void onClose(WatcherException cause) {
+            LOGGER.fine("watch closed: " + cause);
+        }
+    }
+
     /**
      * Lets log any failures in the task run
      *
@@ -0,0 +1,93 @@
+package org.waveywaves.jenkins.plugins.tekton.client.retention;
+
+import com.google.common.base.Strings;
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.QueryParameter;
+import org.waveywaves.jenkins.plugins.tekton.client.TektonUtils;
+
+/**
+ * How long the completed PipelineRuns and TaskRuns created by Jenkins are kept in a namespace of a cluster.
+ *
+ * Jobs can override the limits with a {@link TektonRetentionJobProperty}.
+ */
+public final class RetentionPolicy extends AbstractDescribableImpl<RetentionPolicy> {
+    private final String clusterName;
+    private final String namespace;
+    private final int keepLast;
+    private final int maxAgeDays;
+
+    /**
+     * @param clusterName the name of the cluster
+     * @param namespace the namespace to prune or empty for the default namespace of the cluster
+     * @param keepLast the number of completed runs kept per job or 0 for no limit
+     * @param maxAgeDays the number of days completed runs are kept or 0 for no limit
+     */
+    @DataBoundConstructor
+    public RetentionPolicy(final String clusterName,
+                           final String namespace,
+                           final int keepLast,
+                           final int maxAgeDays) {
+        this.clusterName = clusterName;
+        this.namespace = namespace;
+        this.keepLast = keepLast;
+        this.maxAgeDays = maxAgeDays;
+    }
+
+    public String getClusterName() {
+        if (Strings.isNullOrEmpty(clusterName)) {
+            return TektonUtils.DEFAULT_CLIENT_KEY;
+        }
+        return clusterName;
+    }
+
+    public String getNamespace() {
+        return Strings.emptyToNull(namespace);
+    }
+
+    public int getKeepLast() {
+        return keepLast;
+    }
+
+    public int getMaxAgeDays() {
+        return maxAgeDays;
+    }
+
+    public TektonRetentionPruner.Limits getLimits() {
+        return new TektonRetentionPruner.Limits(keepLast, maxAgeDays);
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<RetentionPolicy> {
+        public FormValidation doCheckKeepLast(@QueryParameter(value = "keepLast") final int keepLast) {
+            if (keepLast < 0) {
+                return FormValidation.error("Keep Last must not be negative");
+            }
+            return FormValidation.ok();
+        }
+
+        public FormValidation doCheckMaxAgeDays(@QueryParameter(value = "maxAgeDays") final int maxAgeDays) {
+            if (maxAgeDays < 0) {
+                return FormValidation.error("Max Age must not be negative");
+            }
+            return FormValidation.ok();
+        }
+
+        public ListBoxModel doFillClusterNameItems(@QueryParameter(value = "clusterName") final String clusterName) {
+            ListBoxModel items = new ListBoxModel();
+            for (String cn : TektonUtils.getTektonClientMap().keySet()) {
+                items.add(cn);
+            }
+            return items;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "retention policy";
+        }
+    }
+}
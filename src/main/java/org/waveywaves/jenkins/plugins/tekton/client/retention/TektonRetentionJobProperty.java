@@ -0,0 +1,59 @@
+package org.waveywaves.jenkins.plugins.tekton.client.retention;
+
+import hudson.Extension;
+import hudson.model.Job;
+import hudson.model.JobProperty;
+import hudson.model.JobPropertyDescriptor;
+import net.sf.json.JSONObject;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.StaplerRequest2;
+
+/**
+ * Overrides the namespace {@link RetentionPolicy} for the PipelineRuns and TaskRuns created by a job.
+ */
+public class TektonRetentionJobProperty extends JobProperty<Job<?, ?>> {
+    private final int keepLast;
+    private final int maxAgeDays;
+
+    /**
+     * @param keepLast the number of completed runs kept or 0 for no limit
+     * @param maxAgeDays the number of days completed runs are kept or 0 for no limit
+     */
+    @DataBoundConstructor
+    public TektonRetentionJobProperty(final int keepLast, final int maxAgeDays) {
+        this.keepLast = keepLast;
+        this.maxAgeDays = maxAgeDays;
+    }
+
+    public int getKeepLast() {
+        return keepLast;
+    }
+
+    public int getMaxAgeDays() {
+        return maxAgeDays;
+    }
+
+    public TektonRetentionPruner.Limits getLimits() {
+        return new TektonRetentionPruner.Limits(keepLast, maxAgeDays);
+    }
+
+    @Symbol("tektonRetention")
+    @Extension
+    public static final class DescriptorImpl extends JobPropertyDescriptor {
+        @Override
+        public JobProperty<?> newInstance(StaplerRequest2 req, JSONObject formData) throws FormException {
+            // the property is only configured when its optional block is checked
+            JSONObject block = formData.optJSONObject("tektonRetention");
+            if (block == null) {
+                return null;
+            }
+            return req.bindJSON(TektonRetentionJobProperty.class, block);
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "Tekton : Retention of PipelineRuns and TaskRuns";
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.waveywaves.jenkins.plugins.tekton.client.retention;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Job;
+import hudson.model.TaskListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import io.fabric8.tekton.client.TektonClient;
+import jenkins.model.Jenkins;
+import org.waveywaves.jenkins.plugins.tekton.client.TektonUtils;
+import org.waveywaves.jenkins.plugins.tekton.client.build.delete.PaginatedDeleter;
+import org.waveywaves.jenkins.plugins.tekton.client.global.TektonGlobalConfiguration;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Periodically prunes the completed PipelineRuns and TaskRuns created by Jenkins according to the
+ * {@link RetentionPolicy} of each cluster and namespace and the {@link TektonRetentionJobProperty} of each job.
+ *
+ * Deletes are paginated and rate limited so that pruning a large backlog does not overload the API server.
+ */
+@Extension
+public class TektonRetentionPeriodicWork extends AsyncPeriodicWork {
+    private static final Logger LOGGER = Logger.getLogger(TektonRetentionPeriodicWork.class.getName());
+
+    private static final long RECURRENCE_MINUTES = Long.getLong(TektonRetentionPeriodicWork.class.getName() + ".recurrenceMinutes", 60);
+    private static final double MAX_DELETES_PER_SECOND = Double.parseDouble(
+            System.getProperty(TektonRetentionPeriodicWork.class.getName() + ".maxDeletesPerSecond", "10"));
+    private static final int PAGE_SIZE = Integer.getInteger(TektonRetentionPeriodicWork.class.getName() + ".pageSize", PaginatedDeleter.DEFAULT_PAGE_SIZE);
+    private static final int PARALLELISM = 2;
+
+    public TektonRetentionPeriodicWork() {
+        super("Tekton retention pruner");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return TimeUnit.MINUTES.toMillis(RECURRENCE_MINUTES);
+    }
+
+    @Override
+    protected void execute(TaskListener listener) throws IOException, InterruptedException {
+        TektonGlobalConfiguration config = TektonGlobalConfiguration.get();
+        if (config == null) {
+            return;
+        }
+        List<RetentionPolicy> policies = config.getRetentionPolicies();
+        for (RetentionPolicy policy : policies) {
+            TektonClient client = TektonUtils.getTektonClient(policy.getClusterName());
+            if (client == null) {
+                listener.getLogger().println("No Tekton client for cluster " + policy.getClusterName());
+                continue;
+            }
+            String namespace = policy.getNamespace() != null ? policy.getNamespace() : client.getNamespace();
+            PaginatedDeleter deleter = new PaginatedDeleter(PAGE_SIZE, PARALLELISM, null);
+            deleter.setMaxDeletesPerSecond(MAX_DELETES_PER_SECOND);
+            TektonRetentionPruner pruner = new TektonRetentionPruner(TektonUtils.inNamespace(client, namespace), policy.getLimits(),
+                    TektonRetentionPeriodicWork::getJobLimits, deleter, PAGE_SIZE);
+            try {
+                PaginatedDeleter.Outcome pipelineRuns = pruner.prunePipelineRuns();
+                PaginatedDeleter.Outcome taskRuns = pruner.pruneTaskRuns();
+                String message = String.format("Pruned %d PipelineRuns and %d TaskRuns in %s/%s, %d failed",
+                        pipelineRuns.getDeleted(), taskRuns.getDeleted(), policy.getClusterName(), namespace,
+                        pipelineRuns.getFailed() + taskRuns.getFailed());
+                listener.getLogger().println(message);
+                LOGGER.fine(message);
+            } catch (RuntimeException e) {
+                // lets carry on with the other namespaces
+                LOGGER.warning("failed to prune " + policy.getClusterName() + "/" + namespace + ": " + e);
+            }
+        }
+    }
+
+    /**
+     * @param jobFullName the full name of the job which created the runs
+     * @return the limits configured on the job or null if the job has none or no longer exists
+     */
+    static TektonRetentionPruner.Limits getJobLimits(String jobFullName) {
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            Job<?, ?> job = Jenkins.get().getItemByFullName(jobFullName, Job.class);
+            if (job == null) {
+                return null;
+            }
+            TektonRetentionJobProperty property = job.getProperty(TektonRetentionJobProperty.class);
+            return property != null ? property.getLimits() : null;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package org.waveywaves.jenkins.plugins.tekton.client.retention;
+
+import com.google.common.base.Strings;
+import io.fabric8.knative.internal.pkg.apis.Condition;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.ListOptions;
+import io.fabric8.kubernetes.api.model.ListOptionsBuilder;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.tekton.client.TektonClient;
+import org.waveywaves.jenkins.plugins.tekton.client.build.delete.PaginatedDeleter;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Deletes the completed PipelineRuns and TaskRuns created by Jenkins in a namespace which are beyond the
+ * {@link Limits} of their job.
+ *
+ * The runs are listed a page at a time: the first pass only remembers the newest runs of each job, the second
+ * pass deletes the runs which are too old or not among the newest using a {@link PaginatedDeleter}. Runs which
+ * complete between the two passes are newer than anything remembered so they are always kept.
+ */
+public class TektonRetentionPruner {
+    private static final Logger LOGGER = Logger.getLogger(TektonRetentionPruner.class.getName());
+
+    /**
+     * TaskRuns created by a PipelineRun are garbage collected with it so they are not pruned on their own
+     */
+    private static final String TASKRUN_SELECTOR = TektonRunLabels.MANAGED_SELECTOR + ",!tekton.dev/pipelineRun";
+
+    private final TektonClient tektonClient;
+    private final Limits defaults;
+    private final Function<String, Limits> jobLimits;
+    private final PaginatedDeleter deleter;
+    private final int pageSize;
+
+    /**
+     * @param tektonClient the client scoped to the namespace to prune
+     * @param defaults the limits for jobs without their own limits
+     * @param jobLimits returns the limits of a job given its full name or null to use the defaults
+     * @param deleter the deleter used to delete the runs
+     * @param pageSize the number of runs listed per request
+     */
+    public TektonRetentionPruner(TektonClient tektonClient, Limits defaults, Function<String, Limits> jobLimits,
+                                 PaginatedDeleter deleter, int pageSize) {
+        this.tektonClient = tektonClient;
+        this.defaults = defaults;
+        this.jobLimits = jobLimits;
+        this.deleter = deleter;
+        this.pageSize = pageSize;
+    }
+
+    public PaginatedDeleter.Outcome prunePipelineRuns() throws InterruptedException {
+        return prune(tektonClient.v1beta1().pipelineRuns(), TektonRunLabels.MANAGED_SELECTOR,
+                pr -> pr.getStatus() != null ? pr.getStatus().getConditions() : null);
+    }
+
+    public PaginatedDeleter.Outcome pruneTaskRuns() throws InterruptedException {
+        return prune(tektonClient.v1beta1().taskRuns(), TASKRUN_SELECTOR,
+                tr -> tr.getStatus() != null ? tr.getStatus().getConditions() : null);
+    }
+
+    private <T extends HasMetadata, L extends KubernetesResourceList<T>> PaginatedDeleter.Outcome prune(
+            MixedOperation<T, L, Resource<T>> client, String labelSelector, Function<T, List<Condition>> conditions) throws InterruptedException {
+        Selection<T> selection = new Selection<>(defaults, jobLimits, conditions, System.currentTimeMillis());
+        String continueToken = null;
+        do {
+            ListOptions options = new ListOptionsBuilder()
+                    .withLimit((long) pageSize)
+                    .withContinue(continueToken)
+                    .withLabelSelector(labelSelector)
+                    .build();
+            L page = client.list(options);
+            for (T item : page.getItems()) {
+                selection.observe(item);
+            }
+            continueToken = page.getMetadata() != null ? page.getMetadata().getContinue() : null;
+        } while (!Strings.isNullOrEmpty(continueToken));
+
+        return deleter.delete(client, labelSelector, null, selection::shouldDelete);
+    }
+
+    /**
+     * The maximum number of completed runs kept and the maximum number of days they are kept; 0 means no limit
+     */
+    public static final class Limits {
+        private final int keepLast;
+        private final int maxAgeDays;
+
+        public Limits(int keepLast, int maxAgeDays) {
+            this.keepLast = Math.max(0, keepLast);
+            this.maxAgeDays = Math.max(0, maxAgeDays);
+        }
+
+        public int getKeepLast() {
+            return keepLast;
+        }
+
+        public int getMaxAgeDays() {
+            return maxAgeDays;
+        }
+    }
+
+    /**
+     * Decides which runs to delete. Only the newest <code>keepLast</code> completed runs of each job are held in memory.
+     */
+    static final class Selection<T extends HasMetadata> {
+        private final Limits defaults;
+        private final Function<String, Limits> jobLimits;
+        private final Function<T, List<Condition>> conditions;
+        private final long now;
+        private final Map<String, Limits> limitsByJob = new HashMap<>();
+        private final Map<String, PriorityQueue<Key>> newestByJob = new HashMap<>();
+
+        Selection(Limits defaults, Function<String, Limits> jobLimits, Function<T, List<Condition>> conditions, long now) {
+            this.defaults = defaults;
+            this.jobLimits = jobLimits;
+            this.conditions = conditions;
+            this.now = now;
+        }
+
+        void observe(T item) {
+            if (!isCompleted(item)) {
+                return;
+            }
+            String job = getJob(item);
+            Limits limits = getLimits(job, item);
+            if (limits.getKeepLast() == 0) {
+                return;
+            }
+            PriorityQueue<Key> newest = newestByJob.computeIfAbsent(job, j -> new PriorityQueue<>());
+            newest.add(Key.of(item));
+            if (newest.size() > limits.getKeepLast()) {
+                newest.poll();
+            }
+        }
+
+        boolean shouldDelete(T item) {
+            if (!isCompleted(item)) {
+                return false;
+            }
+            String job = getJob(item);
+            Limits limits = getLimits(job, item);
+            Key key = Key.of(item);
+            if (limits.getMaxAgeDays() > 0 && key.creationMillis < now - TimeUnit.DAYS.toMillis(limits.getMaxAgeDays())) {
+                return true;
+            }
+            if (limits.getKeepLast() > 0) {
+                PriorityQueue<Key> newest = newestByJob.get(job);
+                return newest != null && newest.size() >= limits.getKeepLast() && key.compareTo(newest.peek()) < 0;
+            }
+            return false;
+        }
+
+        private boolean isCompleted(T item) {
+            List<Condition> list = conditions.apply(item);
+            if (list == null) {
+                return false;
+            }
+            for (Condition condition : list) {
+                if ("Succeeded".equalsIgnoreCase(condition.getType())) {
+                    return !"Unknown".equalsIgnoreCase(condition.getStatus());
+                }
+            }
+            return false;
+        }
+
+        private Limits getLimits(String job, T item) {
+            return limitsByJob.computeIfAbsent(job, j -> {
+                String fullName = getAnnotations(item).get(TektonRunLabels.JOB_ANNOTATION);
+                Limits limits = Strings.isNullOrEmpty(fullName) ? null : jobLimits.apply(fullName);
+                return limits != null ? limits : defaults;
+            });
+        }
+
+        private static String getJob(HasMetadata item) {
+            Map<String, String> labels = item.getMetadata().getLabels();
+            String job = labels != null ? labels.get(TektonRunLabels.JOB_LABEL) : null;
+            return Strings.nullToEmpty(job);
+        }
+
+        private static Map<String, String> getAnnotations(HasMetadata item) {
+            Map<String, String> annotations = item.getMetadata().getAnnotations();
+            return annotations != null ? annotations : Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Orders runs by creation time then by name
+     */
+    static final class Key implements Comparable<Key> {
+        private final long creationMillis;
+        private final String name;
+
+        private Key(long creationMillis, String name) {
+            this.creationMillis = creationMillis;
+            this.name = Strings.nullToEmpty(name);
+        }
+
+        static Key of(HasMetadata item) {
+            ObjectMeta metadata = item.getMetadata();
+            long creationMillis = Long.MAX_VALUE;
+            if (!Strings.isNullOrEmpty(metadata.getCreationTimestamp())) {
+                try {
+                    creationMillis = Instant.parse(metadata.getCreationTimestamp()).toEpochMilli();
+                } catch (DateTimeParseException e) {
+                    LOGGER.fine("ignoring invalid creationTimestamp " + metadata.getCreationTimestamp() + " of " + metadata.getName());
+                }
+            }
+            return new Key(creationMillis, metadata.getName());
+        }
+
+        @Override
+        public int compareTo(Key that) {
+            int answer = Long.compare(creationMillis, that.creationMillis);
+            return answer != 0 ? answer : name.compareTo(that.name);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && compareTo((Key) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(creationMillis) * 31 + name.hashCode();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.waveywaves.jenkins.plugins.tekton.client.retention;
+
+import hudson.model.Run;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The labels and annotations the plugin stamps on the PipelineRuns and TaskRuns it creates so that they can
+ * later be found, grouped by job and pruned.
+ */
+public final class TektonRunLabels {
+    public static final String MANAGED_BY_LABEL = "tekton.jenkins.io/managed-by";
+    public static final String MANAGED_BY_VALUE = "jenkins";
+    public static final String JOB_LABEL = "tekton.jenkins.io/job";
+    public static final String BUILD_LABEL = "tekton.jenkins.io/build";
+    public static final String JOB_ANNOTATION = "tekton.jenkins.io/job-full-name";
+
+    /**
+     * Selects every resource created by the plugin
+     */
+    public static final String MANAGED_SELECTOR = MANAGED_BY_LABEL + "=" + MANAGED_BY_VALUE;
+
+    private static final int MAX_LABEL_VALUE_LENGTH = 63;
+    private static final int HASH_LENGTH = 10;
+
+    private TektonRunLabels() {
+    }
+
+    /**
+     * @param run the build creating the resources or null
+     * @return the labels and annotation to stamp on the resources created by the build
+     */
+    public static Map<String, String> forRun(Run<?, ?> run) {
+        if (run == null || run.getParent() == null) {
+            return Collections.emptyMap();
+        }
+        return forJob(run.getParent().getFullName(), run.getNumber());
+    }
+
+    /**
+     * @param jobFullName the full name of the job
+     * @param buildNumber the build number
+     * @return the labels keyed by name, including the job annotation
+     */
+    public static Map<String, String> forJob(String jobFullName, int buildNumber) {
+        Map<String, String> answer = new LinkedHashMap<>();
+        answer.put(MANAGED_BY_LABEL, MANAGED_BY_VALUE);
+        answer.put(JOB_LABEL, toLabelValue(jobFullName));
+        answer.put(BUILD_LABEL, Integer.toString(buildNumber));
+        answer.put(JOB_ANNOTATION, jobFullName);
+        return answer;
+    }
+
+    /**
+     * Adds the labels to the metadata, leaving any labels the user already set alone
+     *
+     * @param metadata the metadata of the resource to create
+     * @param labels the labels returned by {@link #forRun(Run)}
+     */
+    public static void apply(ObjectMeta metadata, Map<String, String> labels) {
+        if (metadata == null || labels == null || labels.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, String> entry : labels.entrySet()) {
+            Map<String, String> target;
+            if (entry.getKey().equals(JOB_ANNOTATION)) {
+                if (metadata.getAnnotations() == null) {
+                    metadata.setAnnotations(new HashMap<>());
+                }
+                target = metadata.getAnnotations();
+            } else {
+                if (metadata.getLabels() == null) {
+                    metadata.setLabels(new HashMap<>());
+                }
+                target = metadata.getLabels();
+            }
+            target.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Converts the text into a valid label value: at most 63 alphanumeric, '-', '_' or '.' characters which start
+     * and end with an alphanumeric. Long values are truncated and suffixed with a hash so they stay unique.
+     *
+     * @param text the text such as a job full name
+     * @return the label value
+     */
+    public static String toLabelValue(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            builder.append(isAlphanumeric(c) || c == '-' || c == '_' || c == '.' ? c : '-');
+        }
+        String answer = trim(builder.toString());
+        if (answer.length() > MAX_LABEL_VALUE_LENGTH) {
+            String prefix = trim(answer.substring(0, MAX_LABEL_VALUE_LENGTH - HASH_LENGTH - 1));
+            answer = prefix + "-" + hash(text);
+        }
+        return answer;
+    }
+
+    private static String trim(String text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && !isAlphanumeric(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && !isAlphanumeric(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(start, end);
+    }
+
+    private static boolean isAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static String hash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder();
+            for (byte b : digest) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.substring(0, HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package org.waveywaves.jenkins.plugins.tekton.client.validation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Validates Tekton resources locally against the openAPIV3 schemas of the CRDs bundled with the plugin
+ * in <code>src/main/resources/crds</code> so that malformed resources fail before we talk to the cluster.
+ *
+ * Each CRD is only parsed and compiled once into a tree of {@link SchemaNode} objects which are cached
+ * by <code>apiVersion</code> and <code>kind</code>.
+ */
+public class TektonSchemaValidator {
+    private static final Logger LOGGER = Logger.getLogger(TektonSchemaValidator.class.getName());
+
+    private static final String CRD_RESOURCE_PREFIX = "crds/300-";
+
+    private static final TektonSchemaValidator INSTANCE = new TektonSchemaValidator(TektonSchemaValidator.class.getClassLoader());
+
+    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+    private final ClassLoader classLoader;
+
+    /**
+     * The compiled schemas for each CRD keyed by lower case kind, then by version
+     */
+    private final Map<String, Map<String, SchemaNode>> schemas = new ConcurrentHashMap<>();
+
+    public TektonSchemaValidator(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * @return the shared validator using the CRDs bundled with the plugin
+     */
+    public static TektonSchemaValidator get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Validates every resource in the given YAML data
+     *
+     * @param data the YAML data
+     * @return the validation result
+     * @throws IOException if the YAML could not be parsed
+     */
+    public Result validate(byte[] data) throws IOException {
+        Result result = new Result();
+        try (MappingIterator<JsonNode> documents = yamlMapper.readerFor(JsonNode.class).readValues(data)) {
+            while (documents.hasNextValue()) {
+                JsonNode document = documents.nextValue();
+                if (document != null && !document.isNull() && !document.isMissingNode()) {
+                    validate(document, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Validates a single resource
+     *
+     * @param resource the resource
+     * @param result the result to add any errors or warnings to
+     */
+    public void validate(JsonNode resource, Result result) {
+        String kind = resource.path("kind").asText("");
+        String apiVersion = resource.path("apiVersion").asText("");
+        if (kind.isEmpty()) {
+            result.addError("", "missing kind");
+            return;
+        }
+        if (apiVersion.isEmpty()) {
+            result.addError("", "missing apiVersion");
+            return;
+        }
+        String version = apiVersion.substring(apiVersion.lastIndexOf('/') + 1);
+        Map<String, SchemaNode> versions = getSchemas(kind);
+        if (versions.isEmpty()) {
+            result.addWarning("", "no bundled schema for kind " + kind);
+            return;
+        }
+        SchemaNode schema = versions.get(version);
+        if (schema == null) {
+            result.addError(".apiVersion", "unsupported version " + apiVersion + " for kind " + kind + ", expected one of " + versions.keySet());
+            return;
+        }
+        schema.validate(resource, "", result);
+    }
+
+    private Map<String, SchemaNode> getSchemas(String kind) {
+        return schemas.computeIfAbsent(kind.toLowerCase(), this::loadSchemas);
+    }
+
+    private Map<String, SchemaNode> loadSchemas(String kind) {
+        String resource = CRD_RESOURCE_PREFIX + kind + ".yaml";
+        Map<String, SchemaNode> answer = new HashMap<>();
+        try (InputStream in = classLoader.getResourceAsStream(resource)) {
+            if (in == null) {
+                LOGGER.fine("no CRD found on classpath: " + resource);
+                return answer;
+            }
+            long start = System.nanoTime();
+            JsonNode crd = yamlMapper.readTree(in);
+            for (JsonNode version : crd.at("/spec/versions")) {
+                JsonNode schema = version.at("/schema/openAPIV3Schema");
+                if (!schema.isMissingNode()) {
+                    answer.put(version.path("name").asText(), SchemaNode.compile(schema));
+                }
+            }
+            LOGGER.info("Compiled schemas " + answer.keySet() + " for kind " + kind + " in " + (System.nanoTime() - start) / 1000000 + "ms");
+        } catch (IOException e) {
+            LOGGER.warning("failed to load CRD " + resource + ": " + e);
+        }
+        return answer;
+    }
+
+    /**
+     * A compiled openAPIV3 schema
+     */
+    static final class SchemaNode {
+        private static final SchemaNode ANY = new SchemaNode();
+
+        private String type;
+        private boolean intOrString;
+        private boolean preserveUnknownFields;
+        private Set<String> required = Collections.emptySet();
+        private Set<String> enumValues;
+        private Map<String, SchemaNode> properties;
+        private SchemaNode items;
+        private SchemaNode additionalProperties;
+
+        static SchemaNode compile(JsonNode schema) {
+            SchemaNode node = new SchemaNode();
+            node.type = schema.has("type") ? schema.get("type").asText() : null;
+            node.intOrString = schema.path("x-kubernetes-int-or-string").asBoolean(false);
+            node.preserveUnknownFields = schema.path("x-kubernetes-preserve-unknown-fields").asBoolean(false);
+
+            JsonNode required = schema.path("required");
+            if (required.isArray() && required.size() > 0) {
+                node.required = new HashSet<>();
+                for (JsonNode r : required) {
+                    node.required.add(r.asText());
+                }
+            }
+            JsonNode enumValues = schema.path("enum");
+            if (enumValues.isArray()) {
+                node.enumValues = new HashSet<>();
+                for (JsonNode e : enumValues) {
+                    node.enumValues.add(e.asText());
+                }
+            }
+            JsonNode properties = schema.path("properties");
+            if (properties.isObject()) {
+                node.properties = new LinkedHashMap<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = properties.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    node.properties.put(field.getKey(), compile(field.getValue()));
+                }
+            }
+            JsonNode items = schema.path("items");
+            if (items.isObject()) {
+                node.items = compile(items);
+            }
+            JsonNode additionalProperties = schema.path("additionalProperties");
+            if (additionalProperties.isObject()) {
+                node.additionalProperties = compile(additionalProperties);
+            } else if (additionalProperties.asBoolean(false)) {
+                node.additionalProperties = ANY;
+            }
+            return node;
+        }
+
+        void validate(JsonNode value, String path, Result result) {
+            // null values are pruned by the API server for fields which are not nullable
+            if (value == null || value.isNull()) {
+                return;
+            }
+            if (intOrString) {
+                if (!value.isTextual() && !value.isIntegralNumber()) {
+                    result.addError(path, "expected integer or string but was " + describe(value));
+                }
+                return;
+            }
+            if (type == null) {
+                if (value.isObject()) {
+                    validateObject(value, path, result);
+                }
+                return;
+            }
+            switch (type) {
+                case "object":
+                    if (!value.isObject()) {
+                        result.addError(path, "expected object but was " + describe(value));
+                        return;
+                    }
+                    validateObject(value, path, result);
+                    return;
+                case "array":
+                    if (!value.isArray()) {
+                        result.addError(path, "expected array but was " + describe(value));
+                        return;
+                    }
+                    if (items != null) {
+                        for (int i = 0; i < value.size(); i++) {
+                            items.validate(value.get(i), path + "[" + i + "]", result);
+                        }
+                    }
+                    return;
+                case "string":
+                    if (!value.isTextual()) {
+                        result.addError(path, "expected string but was " + describe(value));
+                        return;
+                    }
+                    if (enumValues != null && !enumValues.contains(value.asText())) {
+                        result.addError(path, "unsupported value '" + value.asText() + "', expected one of " + enumValues);
+                    }
+                    return;
+                case "integer":
+                    if (!value.isIntegralNumber()) {
+                        result.addError(path, "expected integer but was " + describe(value));
+                    }
+                    return;
+                case "number":
+                    if (!value.isNumber()) {
+                        result.addError(path, "expected number but was " + describe(value));
+                    }
+                    return;
+                case "boolean":
+                    if (!value.isBoolean()) {
+                        result.addError(path, "expected boolean but was " + describe(value));
+                    }
+                    return;
+                default:
+            }
+        }
+
+        private void validateObject(JsonNode value, String path, Result result) {
+            for (String name : required) {
+                if (!value.has(name) || value.get(name).isNull()) {
+                    result.addError(path + "." + name, "missing required field");
+                }
+            }
+            Iterator<Map.Entry<String, JsonNode>> fields = value.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                String fieldPath = path + "." + field.getKey();
+                SchemaNode property = properties != null ? properties.get(field.getKey()) : null;
+                if (property != null) {
+                    property.validate(field.getValue(), fieldPath, result);
+                } else if (additionalProperties != null) {
+                    additionalProperties.validate(field.getValue(), fieldPath, result);
+                } else if (properties != null && !preserveUnknownFields) {
+                    result.addWarning(fieldPath, "unknown field will be ignored by the API server");
+                }
+            }
+        }
+
+        private static String describe(JsonNode value) {
+            return value.getNodeType().toString().toLowerCase();
+        }
+    }
+
+    /**
+     * The errors and warnings found while validating resources. Each message is prefixed with the path of the field.
+     */
+    public static class Result {
+        private final List<String> errors = new ArrayList<>();
+        private final List<String> warnings = new ArrayList<>();
+
+        void addError(String path, String message) {
+            errors.add(format(path, message));
+        }
+
+        void addWarning(String path, String message) {
+            warnings.add(format(path, message));
+        }
+
+        private static String format(String path, String message) {
+            return (path.isEmpty() ? "<root>" : path) + ": " + message;
+        }
+
+        public boolean isValid() {
+            return errors.isEmpty();
+        }
+
+        public List<String> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        public List<String> getWarnings() {
+            return Collections.unmodifiableList(warnings);
+        }
+    }
+}
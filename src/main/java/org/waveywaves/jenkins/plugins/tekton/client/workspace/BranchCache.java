@@ -0,0 +1,358 @@
+package org.waveywaves.jenkins.plugins.tekton.client.workspace;
+
+import com.google.common.base.Strings;
+import hudson.Util;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaim;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaimBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import org.waveywaves.jenkins.plugins.tekton.client.retention.TektonRunLabels;
+
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Persistent cache claims, such as for Maven, npm or Go modules, reused by the builds of the same job and branch.
+ *
+ * Each (cache, job, branch) has one claim with a deterministic name. A build leases the claim by setting an annotation
+ * with an optimistic lock so only one build writes to a cache at once. The first build of a branch clones the cache of
+ * the default branch, a build which cannot lease a busy cache in time uses a throwaway clone of it. Once the total
+ * requested storage of a cache exceeds its maximum the least recently used caches are deleted, those of the default
+ * branch last.
+ */
+public class BranchCache {
+    private static final Logger LOGGER = Logger.getLogger(BranchCache.class.getName());
+
+    public static final String CACHE_LABEL = "tekton.jenkins.io/cache";
+    public static final String BRANCH_LABEL = "tekton.jenkins.io/branch";
+    public static final String DEFAULT_BRANCH_LABEL = "tekton.jenkins.io/default-branch";
+    public static final String LEASED_BY_ANNOTATION = "tekton.jenkins.io/leased-by";
+    public static final String LAST_USED_ANNOTATION = "tekton.jenkins.io/last-used";
+
+    private static final long STALE_LEASE_MILLIS = TimeUnit.HOURS.toMillis(
+            Long.getLong(BranchCache.class.getName() + ".staleLeaseHours", 12));
+    private static final long POLL_MILLIS = 5000;
+    private static final String EVICTING_HOLDER = "evicting";
+
+    private final KubernetesClient client;
+    private final String namespace;
+    private final String cacheName;
+    private final String storageClass;
+    private final String size;
+    private final String defaultBranch;
+    private final Quantity maxTotalSize;
+
+    /**
+     * @param client the client
+     * @param namespace the namespace of the claims
+     * @param cacheName the name of the cache, usually the name of the workspace
+     * @param storageClass the storage class of the claims or empty for the default storage class
+     * @param size the requested storage of each claim
+     * @param defaultBranch the branch whose cache seeds the caches of other branches
+     * @param maxTotalSize the maximum total requested storage of the claims of the cache or empty for no limit
+     */
+    public BranchCache(KubernetesClient client, String namespace, String cacheName, String storageClass, String size,
+                       String defaultBranch, String maxTotalSize) {
+        this.client = client;
+        this.namespace = namespace;
+        this.cacheName = cacheName;
+        this.storageClass = Strings.emptyToNull(storageClass);
+        this.size = size;
+        this.defaultBranch = Strings.isNullOrEmpty(defaultBranch) ? "main" : defaultBranch;
+        this.maxTotalSize = Strings.isNullOrEmpty(maxTotalSize) ? null : new Quantity(maxTotalSize);
+    }
+
+    /**
+     * Leases the cache of the job and branch, waiting up to the timeout while another build uses it
+     *
+     * @param job the full name of the job, without the branch of multibranch jobs
+     * @param branch the branch being built or empty for the default branch
+     * @param holder describes who holds the lease such as the build
+     * @param timeoutMillis how long to wait for a busy cache before using a throwaway clone of it
+     * @return the lease
+     */
+    public Lease lease(String job, String branch, String holder, long timeoutMillis) throws InterruptedException {
+        String effectiveBranch = Strings.isNullOrEmpty(branch) ? defaultBranch : branch;
+        String claimName = claimName(cacheName, job, effectiveBranch);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (true) {
+            PersistentVolumeClaim pvc = client.persistentVolumeClaims().inNamespace(namespace).withName(claimName).get();
+            if (pvc == null) {
+                String seed = effectiveBranch.equals(defaultBranch) ? null : findClaim(claimName(cacheName, job, defaultBranch));
+                try {
+                    client.persistentVolumeClaims().inNamespace(namespace).create(newClaim(claimName, job, effectiveBranch, holder, seed));
+                    return new Lease(this, claimName, false, seed != null ? "seeded from " + seed : "new");
+                } catch (KubernetesClientException e) {
+                    if (e.getCode() != HttpURLConnection.HTTP_CONFLICT) {
+                        throw e;
+                    }
+                    // another build of the branch created it first
+                    continue;
+                }
+            }
+            if (!isLeased(pvc, System.currentTimeMillis()) && tryLease(pvc, holder)) {
+                return new Lease(this, claimName, false, "warm");
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                String throwaway = claimName + "-" + Long.toHexString(System.currentTimeMillis());
+                client.persistentVolumeClaims().inNamespace(namespace).create(newClaim(throwaway, job, effectiveBranch, holder, claimName));
+                return new Lease(this, throwaway, true, "busy, using a clone");
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    /**
+     * Releases the cache then evicts the least recently used caches if the cache is over its maximum size
+     */
+    public void release(Lease lease) {
+        try {
+            if (lease.isThrowaway()) {
+                client.persistentVolumeClaims().inNamespace(namespace).withName(lease.getClaimName()).delete();
+            } else {
+                client.persistentVolumeClaims().inNamespace(namespace).withName(lease.getClaimName()).edit(pvc -> {
+                    pvc.getMetadata().getAnnotations().remove(LEASED_BY_ANNOTATION);
+                    pvc.getMetadata().getAnnotations().put(LAST_USED_ANNOTATION, Instant.now().toString());
+                    return pvc;
+                });
+            }
+            evict();
+        } catch (KubernetesClientException e) {
+            LOGGER.warning("failed to release cache " + namespace + "/" + lease.getClaimName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the least recently used caches which are not leased until the cache is within its maximum size
+     */
+    public void evict() {
+        if (maxTotalSize == null) {
+            return;
+        }
+        List<PersistentVolumeClaim> claims = client.persistentVolumeClaims().inNamespace(namespace)
+                .withLabel(CACHE_LABEL, TektonRunLabels.toLabelValue(cacheName)).list().getItems();
+        for (PersistentVolumeClaim pvc : selectEvictions(claims, Quantity.getAmountInBytes(maxTotalSize), System.currentTimeMillis())) {
+            // leasing the cache with the lock first makes sure it was not leased since it was listed,
+            // as the API server cannot delete on the condition of a resource version
+            if (!tryLease(pvc, EVICTING_HOLDER)) {
+                continue;
+            }
+            try {
+                client.persistentVolumeClaims().inNamespace(namespace).withName(pvc.getMetadata().getName()).delete();
+                LOGGER.info("evicted cache " + namespace + "/" + pvc.getMetadata().getName());
+            } catch (KubernetesClientException e) {
+                LOGGER.fine("did not evict " + pvc.getMetadata().getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return the claims to delete, least recently used first and those of the default branch last, so the total
+     * requested storage of the remaining claims is at most the maximum
+     */
+    static List<PersistentVolumeClaim> selectEvictions(List<PersistentVolumeClaim> claims, BigDecimal maxBytes, long now) {
+        BigDecimal total = BigDecimal.ZERO;
+        List<PersistentVolumeClaim> candidates = new ArrayList<>();
+        for (PersistentVolumeClaim pvc : claims) {
+            total = total.add(requestedBytes(pvc));
+            if (!isLeased(pvc, now)) {
+                candidates.add(pvc);
+            }
+        }
+        candidates.sort(Comparator.comparing((PersistentVolumeClaim pvc) -> "true".equals(getLabels(pvc).get(DEFAULT_BRANCH_LABEL)))
+                .thenComparingLong(BranchCache::lastUsedMillis));
+
+        List<PersistentVolumeClaim> answer = new ArrayList<>();
+        for (PersistentVolumeClaim pvc : candidates) {
+            if (total.compareTo(maxBytes) <= 0) {
+                break;
+            }
+            answer.add(pvc);
+            total = total.subtract(requestedBytes(pvc));
+        }
+        return answer;
+    }
+
+    /**
+     * @return the name of the claim of the cache for the job and branch, unique and valid whatever their length
+     */
+    static String claimName(String cacheName, String job, String branch) {
+        String readable = TektonRunLabels.toLabelValue(cacheName + "-" + branch).toLowerCase().replace('_', '-').replace('.', '-');
+        if (readable.length() > 40) {
+            readable = readable.substring(0, 40);
+        }
+        return "cache-" + readable.replaceAll("-+$", "") + "-" + hash(cacheName + "\n" + job + "\n" + branch);
+    }
+
+    /**
+     * @return the job of a build shared by all its branches, so that multibranch jobs share the default branch cache
+     */
+    public static String jobOf(String jobFullName, String branchName) {
+        if (!Strings.isNullOrEmpty(branchName) && jobFullName != null) {
+            // multibranch projects name the job of a branch such as feature/x as feature%2Fx
+            for (String jobName : new String[] { Util.rawEncode(branchName), branchName }) {
+                if (jobFullName.endsWith("/" + jobName)) {
+                    return jobFullName.substring(0, jobFullName.length() - jobName.length() - 1);
+                }
+            }
+        }
+        return Strings.nullToEmpty(jobFullName);
+    }
+
+    private boolean tryLease(PersistentVolumeClaim pvc, String holder) {
+        Map<String, String> annotations = pvc.getMetadata().getAnnotations();
+        if (annotations == null) {
+            annotations = new HashMap<>();
+            pvc.getMetadata().setAnnotations(annotations);
+        }
+        annotations.put(LEASED_BY_ANNOTATION, holder);
+        annotations.put(PvcPool.LEASED_AT_ANNOTATION, Instant.now().toString());
+        try {
+            client.persistentVolumeClaims().inNamespace(namespace).withName(pvc.getMetadata().getName())
+                    .lockResourceVersion(pvc.getMetadata().getResourceVersion())
+                    .replace(pvc);
+            return true;
+        } catch (KubernetesClientException e) {
+            LOGGER.fine("could not lease " + pvc.getMetadata().getName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private String findClaim(String claimName) {
+        PersistentVolumeClaim pvc = client.persistentVolumeClaims().inNamespace(namespace).withName(claimName).get();
+        return pvc != null ? claimName : null;
+    }
+
+    private PersistentVolumeClaim newClaim(String claimName, String job, String branch, String holder, String cloneOf) {
+        PersistentVolumeClaimBuilder builder = new PersistentVolumeClaimBuilder()
+                .withNewMetadata()
+                    .withName(claimName)
+                    .withNamespace(namespace)
+                    .addToLabels(CACHE_LABEL, TektonRunLabels.toLabelValue(cacheName))
+                    .addToLabels(TektonRunLabels.JOB_LABEL, TektonRunLabels.toLabelValue(job))
+                    .addToLabels(BRANCH_LABEL, TektonRunLabels.toLabelValue(branch))
+                    .addToLabels(DEFAULT_BRANCH_LABEL, String.valueOf(branch.equals(defaultBranch)))
+                    .addToLabels(TektonRunLabels.MANAGED_BY_LABEL, TektonRunLabels.MANAGED_BY_VALUE)
+                    .addToAnnotations(TektonRunLabels.JOB_ANNOTATION, job)
+                    .addToAnnotations(LEASED_BY_ANNOTATION, holder)
+                    .addToAnnotations(PvcPool.LEASED_AT_ANNOTATION, Instant.now().toString())
+                .endMetadata()
+                .withNewSpec()
+                    .withAccessModes("ReadWriteOnce")
+                    .withStorageClassName(storageClass)
+                    .withNewResources()
+                        .addToRequests("storage", new Quantity(size))
+                    .endResources()
+                .endSpec();
+        if (cloneOf != null) {
+            // volume cloning needs a CSI driver which supports it, otherwise the claim starts empty
+            builder.editSpec()
+                    .withNewDataSource()
+                        .withKind("PersistentVolumeClaim")
+                        .withName(cloneOf)
+                    .endDataSource()
+                    .endSpec();
+        }
+        return builder.build();
+    }
+
+    private static boolean isLeased(PersistentVolumeClaim pvc, long now) {
+        Map<String, String> annotations = pvc.getMetadata().getAnnotations();
+        if (annotations == null || Strings.isNullOrEmpty(annotations.get(LEASED_BY_ANNOTATION))) {
+            return false;
+        }
+        return parseMillis(annotations.get(PvcPool.LEASED_AT_ANNOTATION), 0) > now - STALE_LEASE_MILLIS;
+    }
+
+    private static long lastUsedMillis(PersistentVolumeClaim pvc) {
+        Map<String, String> annotations = pvc.getMetadata().getAnnotations();
+        String lastUsed = annotations != null ? annotations.get(LAST_USED_ANNOTATION) : null;
+        return parseMillis(lastUsed != null ? lastUsed : pvc.getMetadata().getCreationTimestamp(), 0);
+    }
+
+    private static long parseMillis(String timestamp, long defaultValue) {
+        if (Strings.isNullOrEmpty(timestamp)) {
+            return defaultValue;
+        }
+        try {
+            return Instant.parse(timestamp).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return defaultValue;
+        }
+    }
+
+    private static BigDecimal requestedBytes(PersistentVolumeClaim pvc) {
+        if (pvc.getSpec() == null || pvc.getSpec().getResources() == null || pvc.getSpec().getResources().getRequests() == null) {
+            return BigDecimal.ZERO;
+        }
+        Quantity storage = pvc.getSpec().getResources().getRequests().get("storage");
+        return storage != null ? Quantity.getAmountInBytes(storage) : BigDecimal.ZERO;
+    }
+
+    private static Map<String, String> getLabels(PersistentVolumeClaim pvc) {
+        Map<String, String> labels = pvc.getMetadata().getLabels();
+        return labels != null ? labels : new HashMap<>();
+    }
+
+    private static String hash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder answer = new StringBuilder();
+            for (int i = 0; i < 5; i++) {
+                answer.append(String.format("%02x", digest[i]));
+            }
+            return answer.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A cache claim leased by a build
+     */
+    public static final class Lease {
+        private final BranchCache cache;
+        private final String claimName;
+        private final boolean throwaway;
+        private final String description;
+
+        Lease(BranchCache cache, String claimName, boolean throwaway, String description) {
+            this.cache = cache;
+            this.claimName = claimName;
+            this.throwaway = throwaway;
+            this.description = description;
+        }
+
+        public BranchCache getCache() {
+            return cache;
+        }
+
+        public String getClaimName() {
+            return claimName;
+        }
+
+        /**
+         * @return true if the claim is a clone of a busy cache which is deleted once released
+         */
+        public boolean isThrowaway() {
+            return throwaway;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package org.waveywaves.jenkins.plugins.tekton.client.workspace;
+
+import com.google.common.base.Strings;
+import io.fabric8.knative.internal.pkg.apis.Condition;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaim;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaimBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.PodResource;
+import io.fabric8.tekton.client.TektonClient;
+import io.fabric8.tekton.pipeline.v1beta1.TaskRun;
+import org.waveywaves.jenkins.plugins.tekton.client.retention.TektonRunLabels;
+
+import java.net.HttpURLConnection;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * A warm pool of pre-provisioned PersistentVolumeClaims of one storage class and size in a namespace which are
+ * leased to TaskRuns so that pods do not wait for dynamic volume provisioning.
+ *
+ * The state of every claim is kept in its labels so that leases survive restarts of Jenkins:
+ * <ul>
+ *     <li><code>dirty</code> claims are new or used and are prepared by a short lived pod, which also binds claims of
+ *     <code>WaitForFirstConsumer</code> storage classes, before they become <code>available</code></li>
+ *     <li><code>available</code> claims are leased by flipping them to <code>leased</code> with an optimistic lock</li>
+ *     <li><code>leased</code> claims are released when the TaskRun they are leased to completes</li>
+ * </ul>
+ */
+public class PvcPool {
+    private static final Logger LOGGER = Logger.getLogger(PvcPool.class.getName());
+
+    public static final String POOL_LABEL = "tekton.jenkins.io/pvc-pool";
+    public static final String STATE_LABEL = "tekton.jenkins.io/pvc-state";
+    public static final String LEASED_TO_ANNOTATION = "tekton.jenkins.io/leased-to";
+    public static final String LEASED_AT_ANNOTATION = "tekton.jenkins.io/leased-at";
+
+    public static final String STATE_AVAILABLE = "available";
+    public static final String STATE_LEASED = "leased";
+    public static final String STATE_DIRTY = "dirty";
+
+    private static final String PREPARE_IMAGE = System.getProperty(PvcPool.class.getName() + ".prepareImage", "busybox:1.36");
+    private static final long PREPARE_TIMEOUT_MINUTES = Long.getLong(PvcPool.class.getName() + ".prepareTimeoutMinutes", 10);
+
+    /**
+     * Leases which were never handed to a TaskRun are reclaimed after this long
+     */
+    private static final long STALE_LEASE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * What happens to a claim once the TaskRun it was leased to completes
+     */
+    public enum ReleasePolicy {
+        /**
+         * return the claim to the pool with its contents
+         */
+        RECYCLE,
+        /**
+         * wipe the contents of the claim before returning it to the pool
+         */
+        WIPE,
+        /**
+         * delete the claim; the pool is refilled with new claims
+         */
+        DELETE
+    }
+
+    private final KubernetesClient client;
+    private final String namespace;
+    private final String storageClass;
+    private final String size;
+    private final ReleasePolicy releasePolicy;
+    private final String poolName;
+
+    public PvcPool(KubernetesClient client, String namespace, String storageClass, String size, ReleasePolicy releasePolicy) {
+        this.client = client;
+        this.namespace = namespace;
+        this.storageClass = Strings.emptyToNull(storageClass);
+        this.size = size;
+        this.releasePolicy = releasePolicy != null ? releasePolicy : ReleasePolicy.WIPE;
+        this.poolName = poolName(storageClass, size);
+    }
+
+    /**
+     * @return the value of the pool label for claims of the storage class and size
+     */
+    public static String poolName(String storageClass, String size) {
+        return TektonRunLabels.toLabelValue((Strings.isNullOrEmpty(storageClass) ? "default" : storageClass) + "-" + size);
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    /**
+     * Leases an available claim, creating a new one if the pool is empty
+     *
+     * @param holder describes who holds the lease such as the build
+     * @return the lease
+     */
+    public Lease lease(String holder) {
+        synchronized (lock()) {
+            for (PersistentVolumeClaim pvc : list(STATE_AVAILABLE)) {
+                try {
+                    setState(pvc, STATE_LEASED, holder);
+                    LOGGER.fine("leased " + namespace + "/" + pvc.getMetadata().getName() + " to " + holder);
+                    return new Lease(this, pvc.getMetadata().getName(), holder, false);
+                } catch (KubernetesClientException e) {
+                    // another controller or a maintenance pass got there first
+                    LOGGER.fine("could not lease " + pvc.getMetadata().getName() + ": " + e.getMessage());
+                }
+            }
+        }
+        PersistentVolumeClaim created = client.persistentVolumeClaims().inNamespace(namespace).create(newClaim(STATE_LEASED, holder));
+        LOGGER.info("pool " + poolName + " in " + namespace + " is empty, created " + created.getMetadata().getName());
+        return new Lease(this, created.getMetadata().getName(), holder, true);
+    }
+
+    /**
+     * Records the TaskRun the claim is used by so the claim can be reclaimed once the TaskRun completes,
+     * even if Jenkins restarts in between
+     */
+    public void markLeasedTo(Lease lease, String taskRunName) {
+        try {
+            client.persistentVolumeClaims().inNamespace(namespace).withName(lease.getClaimName()).edit(pvc -> {
+                pvc.getMetadata().getAnnotations().put(LEASED_TO_ANNOTATION, taskRunName);
+                return pvc;
+            });
+            lease.setTaskRunName(taskRunName);
+        } catch (KubernetesClientException e) {
+            LOGGER.warning("failed to record the TaskRun of " + lease.getClaimName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the claim to the pool according to the release policy, unless it was reclaimed since, such as by a
+     * maintenance pass, and possibly leased again
+     */
+    public void release(Lease lease) {
+        PersistentVolumeClaim pvc = client.persistentVolumeClaims().inNamespace(namespace).withName(lease.getClaimName()).get();
+        if (pvc == null || !isHeldBy(pvc, lease)) {
+            LOGGER.fine(namespace + "/" + lease.getClaimName() + " was already reclaimed");
+            return;
+        }
+        release(pvc);
+    }
+
+    /**
+     * @return true if the claim is still leased to the holder and TaskRun of the lease
+     */
+    static boolean isHeldBy(PersistentVolumeClaim pvc, Lease lease) {
+        Map<String, String> labels = pvc.getMetadata().getLabels();
+        Map<String, String> annotations = pvc.getMetadata().getAnnotations();
+        if (labels == null || annotations == null || !STATE_LEASED.equals(labels.get(STATE_LABEL))) {
+            return false;
+        }
+        return Objects.equals(annotations.get(LEASED_TO_ANNOTATION), lease.getTaskRunName())
+                && Objects.equals(annotations.get(TektonRunLabels.JOB_ANNOTATION), lease.getHolder());
+    }
+
+    private void release(PersistentVolumeClaim pvc) {
+        try {
+            switch (releasePolicy) {
+                case RECYCLE:
+                    setState(pvc, STATE_AVAILABLE, null);
+                    break;
+                case WIPE:
+                    setState(pvc, STATE_DIRTY, null);
+                    break;
+                default:
+                    // taking the claim out of the leased state first fails if it was reclaimed since it was read
+                    setState(pvc, STATE_DIRTY, null);
+                    client.persistentVolumeClaims().inNamespace(namespace).withName(pvc.getMetadata().getName()).delete();
+            }
+        } catch (KubernetesClientException e) {
+            if (e.getCode() == HttpURLConnection.HTTP_CONFLICT) {
+                LOGGER.fine(namespace + "/" + pvc.getMetadata().getName() + " was already reclaimed");
+                return;
+            }
+            LOGGER.warning("failed to release " + namespace + "/" + pvc.getMetadata().getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reclaims the leases of completed TaskRuns, prepares dirty claims and creates new claims until at least
+     * <code>minAvailable</code> claims are available or being prepared
+     *
+     * @param tektonClient the client used to check the TaskRuns holding leases
+     * @param minAvailable the number of claims to keep ready
+     */
+    public void maintain(TektonClient tektonClient, int minAvailable) {
+        for (PersistentVolumeClaim pvc : list(STATE_LEASED)) {
+            if (isLeaseFinished(tektonClient, pvc)) {
+                LOGGER.fine("reclaiming " + namespace + "/" + pvc.getMetadata().getName());
+                release(pvc);
+            }
+        }
+
+        List<PersistentVolumeClaim> dirty = list(STATE_DIRTY);
+        int ready = list(STATE_AVAILABLE).size() + dirty.size();
+        for (int i = ready; i < minAvailable; i++) {
+            dirty.add(client.persistentVolumeClaims().inNamespace(namespace).create(newClaim(STATE_DIRTY, null)));
+        }
+        for (PersistentVolumeClaim pvc : dirty) {
+            prepare(pvc);
+        }
+    }
+
+    private boolean isLeaseFinished(TektonClient tektonClient, PersistentVolumeClaim pvc) {
+        Map<String, String> annotations = pvc.getMetadata().getAnnotations();
+        String taskRunName = annotations != null ? annotations.get(LEASED_TO_ANNOTATION) : null;
+        if (Strings.isNullOrEmpty(taskRunName)) {
+            String leasedAt = annotations != null ? annotations.get(LEASED_AT_ANNOTATION) : null;
+            try {
+                return leasedAt != null && Instant.parse(leasedAt).toEpochMilli() < System.currentTimeMillis() - STALE_LEASE_MILLIS;
+            } catch (DateTimeParseException e) {
+                return true;
+            }
+        }
+        TaskRun taskRun = tektonClient.v1beta1().taskRuns().inNamespace(namespace).withName(taskRunName).get();
+        if (taskRun == null || taskRun.getStatus() == null || taskRun.getStatus().getConditions() == null) {
+            return taskRun == null;
+        }
+        for (Condition condition : taskRun.getStatus().getConditions()) {
+            if ("Succeeded".equalsIgnoreCase(condition.getType())) {
+                return !"Unknown".equalsIgnoreCase(condition.getStatus());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs a pod which mounts the claim, so that it is bound, and wipes its contents then makes the claim available
+     */
+    private void prepare(PersistentVolumeClaim pvc) {
+        String claimName = pvc.getMetadata().getName();
+        Pod pod = new PodBuilder()
+                .withNewMetadata()
+                    .withGenerateName("tekton-pool-prepare-")
+                    .addToLabels(POOL_LABEL, poolName)
+                .endMetadata()
+                .withNewSpec()
+                    .withRestartPolicy("Never")
+                    .addNewContainer()
+                        .withName("prepare")
+                        .withImage(PREPARE_IMAGE)
+                        .withCommand("sh", "-c", "rm -rf /workspace/* /workspace/.[!.]* /workspace/..?*")
+                        .addNewVolumeMount()
+                            .withName("data")
+                            .withMountPath("/workspace")
+                        .endVolumeMount()
+                    .endContainer()
+                    .addNewVolume()
+                        .withName("data")
+                        .withNewPersistentVolumeClaim()
+                            .withClaimName(claimName)
+                        .endPersistentVolumeClaim()
+                    .endVolume()
+                .endSpec()
+                .build();
+        Pod created = client.pods().inNamespace(namespace).create(pod);
+        PodResource<Pod> resource = client.pods().inNamespace(namespace).withName(created.getMetadata().getName());
+        try {
+            Pod completed = resource.waitUntilCondition(p -> p == null || "Succeeded".equals(getPhase(p))
+                    || "Failed".equals(getPhase(p)), PREPARE_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+            if (completed != null && "Succeeded".equals(getPhase(completed))) {
+                setState(client.persistentVolumeClaims().inNamespace(namespace).withName(claimName).get(), STATE_AVAILABLE, null);
+                return;
+            }
+            LOGGER.warning("failed to prepare " + namespace + "/" + claimName + ", deleting it");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (KubernetesClientException | IllegalArgumentException e) {
+            LOGGER.warning("timed out preparing " + namespace + "/" + claimName + ", deleting it: " + e.getMessage());
+        } finally {
+            resource.delete();
+        }
+        client.persistentVolumeClaims().inNamespace(namespace).withName(claimName).delete();
+    }
+
+    private static String getPhase(Pod pod) {
+        return pod.getStatus() != null ? pod.getStatus().getPhase() : null;
+    }
+
+    private List<PersistentVolumeClaim> list(String state) {
+        Map<String, String> labels = new HashMap<>();
+        labels.put(POOL_LABEL, poolName);
+        labels.put(STATE_LABEL, state);
+        return client.persistentVolumeClaims().inNamespace(namespace).withLabels(labels).list().getItems();
+    }
+
+    /**
+     * Changes the state of the claim unless it was changed since it was read
+     */
+    private void setState(PersistentVolumeClaim pvc, String state, String holder) {
+        if (pvc == null) {
+            return;
+        }
+        pvc.getMetadata().getLabels().put(STATE_LABEL, state);
+        Map<String, String> annotations = pvc.getMetadata().getAnnotations();
+        if (annotations == null) {
+            annotations = new HashMap<>();
+            pvc.getMetadata().setAnnotations(annotations);
+        }
+        annotations.remove(LEASED_TO_ANNOTATION);
+        if (holder != null) {
+            annotations.put(LEASED_AT_ANNOTATION, Instant.now().toString());
+            annotations.put(TektonRunLabels.JOB_ANNOTATION, holder);
+        } else {
+            annotations.remove(LEASED_AT_ANNOTATION);
+            annotations.remove(TektonRunLabels.JOB_ANNOTATION);
+        }
+        client.persistentVolumeClaims().inNamespace(namespace).withName(pvc.getMetadata().getName())
+                .lockResourceVersion(pvc.getMetadata().getResourceVersion())
+                .replace(pvc);
+    }
+
+    PersistentVolumeClaim newClaim(String state, String holder) {
+        PersistentVolumeClaimBuilder builder = new PersistentVolumeClaimBuilder()
+                .withNewMetadata()
+                    .withGenerateName("tekton-pool-")
+                    .withNamespace(namespace)
+                    .addToLabels(POOL_LABEL, poolName)
+                    .addToLabels(STATE_LABEL, state)
+                    .addToLabels(TektonRunLabels.MANAGED_BY_LABEL, TektonRunLabels.MANAGED_BY_VALUE)
+                    .addToAnnotations(LEASED_AT_ANNOTATION, Instant.now().toString())
+                .endMetadata()
+                .withNewSpec()
+                    .withAccessModes("ReadWriteOnce")
+                    .withStorageClassName(storageClass)
+                    .withNewResources()
+                        .addToRequests("storage", new Quantity(size))
+                    .endResources()
+                .endSpec();
+        if (holder != null) {
+            builder.editMetadata().addToAnnotations(TektonRunLabels.JOB_ANNOTATION, holder).endMetadata();
+        }
+        return builder.build();
+    }
+
+    private Object lock() {
+        return LOCKS.computeIfAbsent(namespace + "/" + poolName, k -> new Object());
+    }
+
+    /**
+     * A claim leased from a pool
+     */
+    public static final class Lease {
+        private final PvcPool pool;
+        private final String claimName;
+        private final String holder;
+        private final boolean cold;
+        private volatile String taskRunName;
+
+        Lease(PvcPool pool, String claimName, String holder, boolean cold) {
+            this.pool = pool;
+            this.claimName = claimName;
+            this.holder = holder;
+            this.cold = cold;
+        }
+
+        public PvcPool getPool() {
+            return pool;
+        }
+
+        public String getClaimName() {
+            return claimName;
+        }
+
+        public String getHolder() {
+            return holder;
+        }
+
+        /**
+         * @return the TaskRun the claim was recorded as leased to or null
+         */
+        public String getTaskRunName() {
+            return taskRunName;
+        }
+
+        void setTaskRunName(String taskRunName) {
+            this.taskRunName = taskRunName;
+        }
+
+        /**
+         * @return true if the pool was empty so the claim had to be provisioned for this lease
+         */
+        public boolean isCold() {
+            return cold;
+        }
+    }
+}
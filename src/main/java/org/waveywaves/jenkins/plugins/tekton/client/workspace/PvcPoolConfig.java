@@ -0,0 +1,164 @@
+package org.waveywaves.jenkins.plugins.tekton.client.workspace;
+
+import com.google.common.base.Strings;
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.QueryParameter;
+import org.waveywaves.jenkins.plugins.tekton.client.TektonUtils;
+import org.waveywaves.jenkins.plugins.tekton.client.global.TektonGlobalConfiguration;
+
+import java.util.Objects;
+
+/**
+ * A warm pool of PersistentVolumeClaims of a storage class and size kept ready in a namespace of a cluster.
+ */
+public final class PvcPoolConfig extends AbstractDescribableImpl<PvcPoolConfig> {
+    private final String clusterName;
+    private final String namespace;
+    private final String storageClass;
+    private final String size;
+    private final int minAvailable;
+    private final String releasePolicy;
+
+    /**
+     * @param clusterName the name of the cluster
+     * @param namespace the namespace of the claims or empty for the default namespace of the cluster
+     * @param storageClass the storage class of the claims or empty for the default storage class
+     * @param size the requested storage of the claims such as <code>1Gi</code>
+     * @param minAvailable the number of claims kept ready
+     * @param releasePolicy one of {@link PvcPool.ReleasePolicy}
+     */
+    @DataBoundConstructor
+    public PvcPoolConfig(final String clusterName,
+                         final String namespace,
+                         final String storageClass,
+                         final String size,
+                         final int minAvailable,
+                         final String releasePolicy) {
+        this.clusterName = clusterName;
+        this.namespace = namespace;
+        this.storageClass = storageClass;
+        this.size = size;
+        this.minAvailable = minAvailable;
+        this.releasePolicy = releasePolicy;
+    }
+
+    public String getClusterName() {
+        if (Strings.isNullOrEmpty(clusterName)) {
+            return TektonUtils.DEFAULT_CLIENT_KEY;
+        }
+        return clusterName;
+    }
+
+    public String getNamespace() {
+        return Strings.emptyToNull(namespace);
+    }
+
+    public String getStorageClass() {
+        return Strings.nullToEmpty(storageClass);
+    }
+
+    public String getSize() {
+        return size;
+    }
+
+    public int getMinAvailable() {
+        return minAvailable;
+    }
+
+    public String getReleasePolicy() {
+        return getReleasePolicyValue().name();
+    }
+
+    public PvcPool.ReleasePolicy getReleasePolicyValue() {
+        try {
+            return PvcPool.ReleasePolicy.valueOf(Strings.nullToEmpty(releasePolicy));
+        } catch (IllegalArgumentException e) {
+            return PvcPool.ReleasePolicy.WIPE;
+        }
+    }
+
+    /**
+     * @param defaultNamespace the default namespace of the cluster used when this pool has no namespace
+     * @return true if this pool holds claims of the storage class and size in the namespace of the cluster
+     */
+    public boolean matches(String clusterName, String namespace, String storageClass, String size, String defaultNamespace) {
+        String poolNamespace = getNamespace() != null ? getNamespace() : defaultNamespace;
+        return getClusterName().equals(clusterName)
+                && Objects.equals(poolNamespace, namespace)
+                && getStorageClass().equals(Strings.nullToEmpty(storageClass))
+                && Objects.equals(this.size, size);
+    }
+
+    /**
+     * @return the configured pool matching the claims or null if there is none
+     */
+    public static PvcPoolConfig find(String clusterName, String namespace, String storageClass, String size) {
+        if (Jenkins.getInstanceOrNull() == null) {
+            // there is no global configuration outside of a running Jenkins
+            return null;
+        }
+        TektonGlobalConfiguration config = TektonGlobalConfiguration.get();
+        if (config == null) {
+            return null;
+        }
+        KubernetesClient client = TektonUtils.getKubernetesClient(clusterName);
+        String defaultNamespace = client != null ? client.getNamespace() : null;
+        for (PvcPoolConfig pool : config.getPvcPools()) {
+            if (pool.matches(clusterName, namespace, storageClass, size, defaultNamespace)) {
+                return pool;
+            }
+        }
+        return null;
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<PvcPoolConfig> {
+        public FormValidation doCheckSize(@QueryParameter(value = "size") final String size) {
+            if (Strings.isNullOrEmpty(size)) {
+                return FormValidation.error("Size is required");
+            }
+            try {
+                Quantity.getAmountInBytes(new Quantity(size));
+            } catch (IllegalArgumentException e) {
+                return FormValidation.error("Size must be a quantity such as 1Gi");
+            }
+            return FormValidation.ok();
+        }
+
+        public FormValidation doCheckMinAvailable(@QueryParameter(value = "minAvailable") final int minAvailable) {
+            if (minAvailable < 0) {
+                return FormValidation.error("Min Available must not be negative");
+            }
+            return FormValidation.ok();
+        }
+
+        public ListBoxModel doFillClusterNameItems(@QueryParameter(value = "clusterName") final String clusterName) {
+            ListBoxModel items = new ListBoxModel();
+            for (String cn : TektonUtils.getTektonClientMap().keySet()) {
+                items.add(cn);
+            }
+            return items;
+        }
+
+        public ListBoxModel doFillReleasePolicyItems(@QueryParameter(value = "releasePolicy") final String releasePolicy) {
+            ListBoxModel items = new ListBoxModel();
+            for (PvcPool.ReleasePolicy policy : PvcPool.ReleasePolicy.values()) {
+                items.add(policy.name());
+            }
+            return items;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "PVC pool";
+        }
+    }
+}
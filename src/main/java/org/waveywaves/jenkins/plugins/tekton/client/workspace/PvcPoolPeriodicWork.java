@@ -0,0 +1,72 @@
+package org.waveywaves.jenkins.plugins.tekton.client.workspace;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.tekton.client.TektonClient;
+import org.waveywaves.jenkins.plugins.tekton.client.TektonUtils;
+import org.waveywaves.jenkins.plugins.tekton.client.global.TektonGlobalConfiguration;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Keeps each {@link PvcPoolConfig} filled: reclaims the claims of completed TaskRuns, wipes used claims and
+ * provisions new claims in the background.
+ */
+@Extension
+public class PvcPoolPeriodicWork extends AsyncPeriodicWork {
+    private static final Logger LOGGER = Logger.getLogger(PvcPoolPeriodicWork.class.getName());
+
+    private static final long RECURRENCE_MINUTES = Long.getLong(PvcPoolPeriodicWork.class.getName() + ".recurrenceMinutes", 1);
+
+    public PvcPoolPeriodicWork() {
+        super("Tekton PVC pool refill");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return TimeUnit.MINUTES.toMillis(RECURRENCE_MINUTES);
+    }
+
+    /**
+     * Refills the pools now rather than at the next period, such as after a lease found a pool empty
+     */
+    public static void trigger() {
+        PvcPoolPeriodicWork work = ExtensionList.lookup(PvcPoolPeriodicWork.class).get(PvcPoolPeriodicWork.class);
+        if (work != null) {
+            work.doRun();
+        }
+    }
+
+    @Override
+    protected void execute(TaskListener listener) throws IOException, InterruptedException {
+        TektonGlobalConfiguration config = TektonGlobalConfiguration.get();
+        if (config == null) {
+            return;
+        }
+        for (PvcPoolConfig pool : config.getPvcPools()) {
+            KubernetesClient kubernetesClient = TektonUtils.getKubernetesClient(pool.getClusterName());
+            TektonClient tektonClient = TektonUtils.getTektonClient(pool.getClusterName());
+            if (kubernetesClient == null || tektonClient == null) {
+                listener.getLogger().println("No Kubernetes client for cluster " + pool.getClusterName());
+                continue;
+            }
+            String namespace = pool.getNamespace() != null ? pool.getNamespace() : kubernetesClient.getNamespace();
+            try {
+                new PvcPool(kubernetesClient, namespace, pool.getStorageClass(), pool.getSize(), pool.getReleasePolicyValue())
+                        .maintain(tektonClient, pool.getMinAvailable());
+            } catch (RuntimeException e) {
+                // lets carry on with the other pools
+                LOGGER.warning("failed to refill PVC pool " + pool.getStorageClass() + "/" + pool.getSize() + " in "
+                        + pool.getClusterName() + "/" + namespace + ": " + e);
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.waveywaves.jenkins.plugins.tekton.generator;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a CRD YAML file and keeps only what the generator needs: the kind, apiVersion and name of the CRD, the
+ * kind of its resources and the <code>/spec/versions/*&#47;schema/openAPIV3Schema</code> of each version.
+ *
+ * Everything else, such as the printer columns, conversion webhooks and status, is skipped while parsing, so only
+ * the schemas are ever held in memory rather than a tree of the whole document.
+ */
+final class CrdSchemaReader {
+    private final ObjectMapper yamlMapper;
+
+    /**
+     * @param yamlMapper The YAML mapper used to build the schema trees
+     */
+    CrdSchemaReader(ObjectMapper yamlMapper) {
+        this.yamlMapper = yamlMapper;
+    }
+
+    /**
+     * Read the first document of a CRD file.
+     *
+     * @param crdFile The CRD YAML file
+     * @return The CRD, or null if the file does not contain an object
+     * @throws IOException If the file cannot be read or parsed
+     */
+    Crd read(Path crdFile) throws IOException {
+        try (JsonParser parser = yamlMapper.createParser(crdFile.toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            Crd crd = new Crd();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "kind":
+                        crd.kind = parser.getValueAsString();
+                        break;
+                    case "apiVersion":
+                        crd.apiVersion = parser.getValueAsString();
+                        break;
+                    case "metadata":
+                        crd.name = readName(parser);
+                        break;
+                    case "spec":
+                        readSpec(parser, crd);
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+            return crd;
+        }
+    }
+
+    private static String readName(JsonParser parser) throws IOException {
+        String name = null;
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("name".equals(field)) {
+                name = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return name;
+    }
+
+    private static void readSpec(JsonParser parser, Crd crd) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("versions".equals(field) && token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    Version version = readVersion(parser);
+                    if (version != null) {
+                        crd.versions.add(version);
+                    }
+                }
+            } else if ("names".equals(field) && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String namesField = parser.currentName();
+                    parser.nextToken();
+                    if ("kind".equals(namesField)) {
+                        crd.resourceKind = parser.getValueAsString();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static Version readVersion(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        Version version = new Version();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("name".equals(field)) {
+                version.name = parser.getValueAsString();
+            } else if ("schema".equals(field) && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String schemaField = parser.currentName();
+                    parser.nextToken();
+                    if ("openAPIV3Schema".equals(schemaField)) {
+                        version.schema = parser.readValueAsTree();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return version;
+    }
+
+    /**
+     * The parts of a CRD needed to generate its classes.
+     */
+    static final class Crd {
+        private String kind;
+        private String apiVersion;
+        private String name;
+        private String resourceKind;
+        private final List<Version> versions = new ArrayList<>();
+
+        String getKind() {
+            return kind;
+        }
+
+        String getApiVersion() {
+            return apiVersion;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return The kind of the custom resources, such as <code>Task</code>
+         */
+        String getResourceKind() {
+            return resourceKind;
+        }
+
+        List<Version> getVersions() {
+            return versions;
+        }
+    }
+
+    /**
+     * A version of a CRD, whose schema is null if it has none.
+     */
+    static final class Version {
+        private String name;
+        private JsonNode schema;
+
+        String getName() {
+            return name;
+        }
+
+        JsonNode getSchema() {
+            return schema;
+        }
+    }
+}
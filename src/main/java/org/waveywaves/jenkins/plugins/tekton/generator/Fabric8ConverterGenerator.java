@@ -0,0 +1,474 @@
+package org.waveywaves.jenkins.plugins.tekton.generator;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.sun.codemodel.ClassType;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JInvocation;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import org.jsonschema2pojo.util.NameHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a <code>Fabric8Converter</code> in a version package which copies the generated root class to and from
+ * the matching fabric8 Tekton model class, such as <code>io.fabric8.tekton.pipeline.v1beta1.Task</code>, field by
+ * field without serializing it.
+ *
+ * The fabric8 classes are inspected by reflection while generating. Nested generated classes are converted by
+ * generated methods when the fabric8 property is a model class too; values of the same type are passed as they
+ * are. Only values whose types do not correspond, such as the metadata, int-or-string values and enums, are
+ * converted with Jackson's <code>convertValue</code>, which goes through a token buffer rather than text, with the
+ * <code>JacksonModule</code> of the version registered when the Jackson codecs are generated. Properties
+ * the fabric8 class does not know are kept in its additional properties.
+ */
+final class Fabric8ConverterGenerator {
+    static final String CONVERTER_CLASS_NAME = "Fabric8Converter";
+    static final String FABRIC8_TEKTON_PACKAGE = "io.fabric8.tekton.pipeline";
+
+    private static final Logger logger = LoggerFactory.getLogger(Fabric8ConverterGenerator.class);
+
+    private static final String ADDITIONAL_PROPERTIES = "additionalProperties";
+
+    private final NameHelper nameHelper;
+
+    private JCodeModel codeModel;
+    private JDefinedClass converter;
+    private JFieldVar mapper;
+    private JClass module;
+    private final Map<String, JFieldVar> javaTypes = new HashMap<>();
+    private final Map<String, JMethod> toMethods = new HashMap<>();
+    private final Map<String, JMethod> fromMethods = new HashMap<>();
+    private final Set<String> methodNames = new HashSet<>();
+    private final Deque<Pair> pending = new ArrayDeque<>();
+
+    /**
+     * @param nameHelper The name helper jsonschema2pojo generated the classes with
+     */
+    Fabric8ConverterGenerator(NameHelper nameHelper) {
+        this.nameHelper = nameHelper;
+    }
+
+    /**
+     * Find the fabric8 model class of a CRD version.
+     *
+     * @param versionName The version, such as <code>v1beta1</code>
+     * @param resourceKind The kind of the resources, such as <code>Task</code>
+     * @return The fabric8 class, or null if the fabric8 Tekton model has none
+     */
+    static Class<?> findFabric8Class(String versionName, String resourceKind) {
+        if (resourceKind == null || versionName == null || versionName.isEmpty()) {
+            return null;
+        }
+        try {
+            return Class.forName(FABRIC8_TEKTON_PACKAGE + "." + versionName + "." + resourceKind, false,
+                Fabric8ConverterGenerator.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Generate the converter of a root class.
+     *
+     * @param codeModel The code model the classes were generated into
+     * @param schema The schema the classes were generated from, with the shared types assigned
+     * @param packageName The package of the root class
+     * @param className The name of the root class
+     * @param fabric8Class The fabric8 model class to convert to and from
+     */
+    void generate(JCodeModel codeModel, JsonNode schema, String packageName, String className, Class<?> fabric8Class) {
+        JDefinedClass root = codeModel._getClass(packageName + "." + className);
+        if (root == null) {
+            return;
+        }
+        this.codeModel = codeModel;
+        try {
+            converter = codeModel._class(JMod.PUBLIC | JMod.FINAL, packageName + "." + CONVERTER_CLASS_NAME, ClassType.CLASS);
+        } catch (JClassAlreadyExistsException e) {
+            logger.warn("Class {} already exists in package {}, not generating the fabric8 converter", CONVERTER_CLASS_NAME, packageName);
+            return;
+        }
+        converter.javadoc().add("Converts " + className + " to and from {@link " + fabric8Class.getName() + "} without serializing it.");
+        converter.constructor(JMod.PRIVATE);
+        module = codeModel._getClass(packageName + "." + JacksonCodecGenerator.MODULE_CLASS_NAME);
+
+        Pair rootPair = new Pair(root, schema, fabric8Class);
+        toMethods.put(rootPair.key(), converter.method(JMod.PUBLIC | JMod.STATIC, codeModel.ref(fabric8Class), "toFabric8"));
+        fromMethods.put(rootPair.key(), converter.method(JMod.PUBLIC | JMod.STATIC, root, "fromFabric8"));
+        pending.add(rootPair);
+        while (!pending.isEmpty()) {
+            generatePair(pending.poll());
+        }
+        logger.info("Generated converter between {} and {}", className, fabric8Class.getName());
+    }
+
+    private void generatePair(Pair pair) {
+        JClass fabric8Type = codeModel.ref(pair.fabric8Class);
+        Map<String, Fabric8Property> fabric8Properties = fabric8Properties(pair.fabric8Class);
+        boolean fabric8Additional = hasAdditionalProperties(pair.fabric8Class);
+        JFieldVar additionalField = pair.type.fields().get(ADDITIONAL_PROPERTIES);
+        boolean generatedAdditional = additionalField != null && isObjectMap(additionalField.type());
+
+        JMethod to = toMethods.get(pair.key());
+        JVar toValue = to.param(pair.type, "value");
+        JBlock toBody = to.body();
+        toBody._if(toValue.eq(JExpr._null()))._then()._return(JExpr._null());
+        JVar toResult = toBody.decl(fabric8Type, "result", JExpr._new(fabric8Type));
+
+        JMethod from = fromMethods.get(pair.key());
+        JVar fromValue = from.param(fabric8Type, "value");
+        JBlock fromBody = from.body();
+        fromBody._if(fromValue.eq(JExpr._null()))._then()._return(JExpr._null());
+        JVar fromResult = fromBody.decl(pair.type, "result", JExpr._new(pair.type));
+
+        List<String> unknownToFabric8 = new ArrayList<>();
+        JsonNode properties = pair.schema.get("properties");
+        if (properties != null && properties.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = properties.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                GeneratedProperty property = GeneratedProperty.find(nameHelper, pair.type, field.getKey(), field.getValue());
+                if (property == null) {
+                    logger.info("Cannot match property {} of {}, not converting it", field.getKey(), pair.type.fullName());
+                    continue;
+                }
+                Fabric8Property fabric8Property = fabric8Properties.get(field.getKey());
+                if (fabric8Property != null) {
+                    toBody.invoke(toResult, fabric8Property.setter).arg(convert(
+                        toValue.invoke(property.getGetter()), property.getType(), field.getValue(), fabric8Property.type, true));
+                    fromBody.invoke(fromResult, property.getSetter()).arg(convert(
+                        fromValue.invoke(fabric8Property.getter), property.getType(), field.getValue(), fabric8Property.type, false));
+                } else if (fabric8Additional) {
+                    // Keep what the fabric8 model does not know about in its additional properties
+                    toBody._if(toValue.invoke(property.getGetter()).ne(JExpr._null()))._then()
+                        .invoke(toResult, "setAdditionalProperty").arg(JExpr.lit(field.getKey()))
+                        .arg(toValue.invoke(property.getGetter()));
+                    fromBody.invoke(fromResult, property.getSetter()).arg(convertValue(
+                        fromValue.invoke("getAdditionalProperties").invoke("get").arg(JExpr.lit(field.getKey())), property.getType()));
+                    unknownToFabric8.add(field.getKey());
+                } else {
+                    logger.info("{} has no property {}, not converting it", pair.fabric8Class.getName(), field.getKey());
+                }
+            }
+        }
+
+        if (generatedAdditional && fabric8Additional) {
+            copyAdditionalProperties(toBody, toValue, toResult, new ArrayList<>());
+            copyAdditionalProperties(fromBody, fromValue, fromResult, unknownToFabric8);
+        }
+        toBody._return(toResult);
+        fromBody._return(fromResult);
+    }
+
+    private void copyAdditionalProperties(JBlock body, JVar value, JVar result, List<String> skipped) {
+        JForEach forEach = body.forEach(codeModel.ref(Map.Entry.class).narrow(codeModel.ref(String.class), codeModel.ref(Object.class).wildcard()),
+            "entry", value.invoke("getAdditionalProperties").invoke("entrySet"));
+        JExpression copy = JExpr.TRUE;
+        for (String name : skipped) {
+            copy = copy.cand(JExpr.lit(name).invoke("equals").arg(forEach.var().invoke("getKey")).not());
+        }
+        JBlock target = skipped.isEmpty() ? forEach.body() : forEach.body()._if(copy)._then();
+        target.invoke(result, "setAdditionalProperty").arg(forEach.var().invoke("getKey")).arg(forEach.var().invoke("getValue"));
+    }
+
+    /**
+     * @param value The value to convert
+     * @param generatedType The type of the generated property
+     * @param schema The schema of the generated property
+     * @param fabric8Type The type of the fabric8 property
+     * @param toFabric8 Whether to convert from the generated to the fabric8 type, or back
+     * @return An expression converting the value
+     */
+    private JExpression convert(JExpression value, JType generatedType, JsonNode schema, Type fabric8Type, boolean toFabric8) {
+        JClass fabric8Class = ref(fabric8Type);
+        if (generatedType.fullName().equals(fabric8Class.fullName())) {
+            return value;
+        }
+        if (generatedType instanceof JDefinedClass && fabric8Type instanceof Class && isConvertible((JDefinedClass) generatedType, schema, (Class<?>) fabric8Type)) {
+            Pair pair = pair((JDefinedClass) generatedType, schema, (Class<?>) fabric8Type);
+            return codeModel.ref(converter.fullName()).staticInvoke(toFabric8 ? toMethods.get(pair.key()) : fromMethods.get(pair.key())).arg(value);
+        }
+        JDefinedClass element = elementType(generatedType);
+        Class<?> fabric8Element = elementClass(fabric8Type);
+        JsonNode elementSchema = isList(generatedType) ? schema.get("items") : schema.get(ADDITIONAL_PROPERTIES);
+        if (element != null && fabric8Element != null && elementSchema != null && isConvertible(element, elementSchema, fabric8Element)
+                && isList(generatedType) == isList(fabric8Class) && isMap(generatedType) == isMap(fabric8Class)) {
+            Pair pair = pair(element, elementSchema, fabric8Element);
+            return collectionMethod(pair, generatedType, fabric8Class, toFabric8).arg(value);
+        }
+        return convertValue(value, toFabric8 ? fabric8Class : generatedType);
+    }
+
+    private boolean isConvertible(JDefinedClass type, JsonNode schema, Class<?> fabric8Class) {
+        JsonNode properties = schema != null ? schema.get("properties") : null;
+        if (properties == null || properties.size() == 0 || type.getClassType() != ClassType.CLASS) {
+            // Classes with additional properties only, such as the metadata, are converted by Jackson
+            return false;
+        }
+        if (!fabric8Class.getName().startsWith("io.fabric8.") || fabric8Class.isEnum() || fabric8Class.isInterface()
+                || Modifier.isAbstract(fabric8Class.getModifiers())) {
+            return false;
+        }
+        JsonDeserialize deserialize = fabric8Class.getAnnotation(JsonDeserialize.class);
+        JsonSerialize serialize = fabric8Class.getAnnotation(JsonSerialize.class);
+        if ((deserialize != null && deserialize.using() != JsonDeserializer.None.class)
+                || (serialize != null && serialize.using() != JsonSerializer.None.class)) {
+            // Classes with custom Jackson handling, such as ArrayOrString, are converted by Jackson
+            return false;
+        }
+        try {
+            fabric8Class.getConstructor();
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+        return !fabric8Properties(fabric8Class).isEmpty();
+    }
+
+    private Pair pair(JDefinedClass type, JsonNode schema, Class<?> fabric8Class) {
+        Pair pair = new Pair(type, schema, fabric8Class);
+        if (!toMethods.containsKey(pair.key())) {
+            toMethods.put(pair.key(), converter.method(JMod.PRIVATE | JMod.STATIC, codeModel.ref(fabric8Class),
+                methodName("to" + fabric8Class.getSimpleName())));
+            fromMethods.put(pair.key(), converter.method(JMod.PRIVATE | JMod.STATIC, type,
+                methodName("from" + fabric8Class.getSimpleName())));
+            pending.add(pair);
+        }
+        return pair;
+    }
+
+    /**
+     * Generate, once, a method converting a list or map of a pair of types.
+     */
+    private JInvocation collectionMethod(Pair pair, JType generatedType, JClass fabric8Type, boolean toFabric8) {
+        boolean list = isList(generatedType);
+        String key = (toFabric8 ? "to:" : "from:") + (list ? "list:" : "map:") + pair.key();
+        JMethod method = toMethods.get(key);
+        if (method == null) {
+            JType source = toFabric8 ? generatedType : fabric8Type;
+            JClass target = (JClass) (toFabric8 ? fabric8Type : generatedType);
+            JClass targetElement = target.getTypeParameters().get(list ? 0 : 1);
+            method = converter.method(JMod.PRIVATE | JMod.STATIC, target,
+                methodName((toFabric8 ? "to" : "from") + pair.fabric8Class.getSimpleName() + (list ? "List" : "Map")));
+            JVar values = method.param(source, "values");
+            JBlock body = method.body();
+            body._if(values.eq(JExpr._null()))._then()._return(JExpr._null());
+            JMethod element = toFabric8 ? toMethods.get(pair.key()) : fromMethods.get(pair.key());
+            if (list) {
+                JVar result = body.decl(target, "result", JExpr._new(codeModel.ref(ArrayList.class).narrow(targetElement)).arg(values.invoke("size")));
+                JForEach forEach = body.forEach(((JClass) source).getTypeParameters().get(0), "value", values);
+                forEach.body().invoke(result, "add").arg(JExpr.invoke(element).arg(forEach.var()));
+                body._return(result);
+            } else {
+                JVar result = body.decl(target, "result", JExpr._new(codeModel.ref(LinkedHashMap.class).narrow(codeModel.ref(String.class), targetElement)));
+                JClass sourceElement = ((JClass) source).getTypeParameters().get(1);
+                JForEach forEach = body.forEach(codeModel.ref(Map.Entry.class).narrow(codeModel.ref(String.class), sourceElement),
+                    "entry", values.invoke("entrySet"));
+                forEach.body().invoke(result, "put").arg(forEach.var().invoke("getKey"))
+                    .arg(JExpr.invoke(element).arg(forEach.var().invoke("getValue")));
+                body._return(result);
+            }
+            toMethods.put(key, method);
+        }
+        return codeModel.ref(converter.fullName()).staticInvoke(method);
+    }
+
+    private JExpression convertValue(JExpression value, JType type) {
+        if (mapper == null) {
+            // The generated codecs read the generated values without introspecting them
+            JExpression newMapper = JExpr._new(codeModel.ref(ObjectMapper.class));
+            mapper = converter.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, ObjectMapper.class, "MAPPER",
+                module != null ? newMapper.invoke("registerModule").arg(JExpr._new(module)) : newMapper);
+        }
+        JExpression target;
+        if (type instanceof JClass && !((JClass) type).getTypeParameters().isEmpty()) {
+            JFieldVar javaType = javaTypes.get(type.fullName());
+            if (javaType == null) {
+                javaType = converter.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, JavaType.class, "TYPE_" + javaTypes.size(),
+                    JacksonCodecGenerator.javaType(codeModel, (JClass) type));
+                javaTypes.put(type.fullName(), javaType);
+            }
+            target = javaType;
+        } else {
+            target = JExpr.dotclass((JClass) type.boxify());
+        }
+        return mapper.invoke("convertValue").arg(value).arg(target);
+    }
+
+    private String methodName(String name) {
+        String methodName = name;
+        for (int i = 2; !methodNames.add(methodName); i++) {
+            methodName = name + i;
+        }
+        return methodName;
+    }
+
+    private JClass ref(Type type) {
+        if (type instanceof Class) {
+            return (JClass) codeModel._ref((Class<?>) type).boxify();
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            List<JClass> arguments = new ArrayList<>();
+            for (Type argument : parameterized.getActualTypeArguments()) {
+                arguments.add(ref(argument));
+            }
+            return codeModel.ref((Class<?>) parameterized.getRawType()).narrow(arguments);
+        }
+        if (type instanceof WildcardType) {
+            return ref(((WildcardType) type).getUpperBounds()[0]);
+        }
+        return codeModel.ref(Object.class);
+    }
+
+    private boolean isList(JType type) {
+        return type instanceof JClass && ((JClass) type).erasure().fullName().equals(List.class.getName());
+    }
+
+    private boolean isMap(JType type) {
+        return type instanceof JClass && ((JClass) type).erasure().fullName().equals(Map.class.getName());
+    }
+
+    private boolean isObjectMap(JType type) {
+        return isMap(type) && ((JClass) type).getTypeParameters().size() == 2
+            && ((JClass) type).getTypeParameters().get(1).fullName().equals(Object.class.getName());
+    }
+
+    private JDefinedClass elementType(JType type) {
+        if (!(type instanceof JClass)) {
+            return null;
+        }
+        List<JClass> parameters = ((JClass) type).getTypeParameters();
+        JClass element = isList(type) && parameters.size() == 1 ? parameters.get(0)
+            : isMap(type) && parameters.size() == 2 ? parameters.get(1) : null;
+        return element instanceof JDefinedClass ? (JDefinedClass) element : null;
+    }
+
+    private static Class<?> elementClass(Type type) {
+        if (!(type instanceof ParameterizedType)) {
+            return null;
+        }
+        Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+        Type element = arguments[arguments.length - 1];
+        return element instanceof Class ? (Class<?>) element : null;
+    }
+
+    /**
+     * @return The Jackson properties of a fabric8 model class with their accessors, by JSON name
+     */
+    static Map<String, Fabric8Property> fabric8Properties(Class<?> type) {
+        Map<String, Fabric8Property> properties = new LinkedHashMap<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                JsonProperty jsonProperty = field.getAnnotation(JsonProperty.class);
+                if (jsonProperty == null || Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                String name = jsonProperty.value().isEmpty() ? field.getName() : jsonProperty.value();
+                String capitalized = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+                Method getter = findMethod(type, "get" + capitalized);
+                if (getter == null) {
+                    getter = findMethod(type, "is" + capitalized);
+                }
+                Method setter = findMethod(type, "set" + capitalized, field.getType());
+                if (getter != null && setter != null && !properties.containsKey(name)) {
+                    properties.put(name, new Fabric8Property(field.getGenericType(), getter.getName(), setter.getName()));
+                }
+            }
+        }
+        return properties;
+    }
+
+    private static boolean hasAdditionalProperties(Class<?> type) {
+        return findMethod(type, "getAdditionalProperties") != null
+            && findMethod(type, "setAdditionalProperty", String.class, Object.class) != null;
+    }
+
+    private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A generated class with its schema and the fabric8 class it converts to and from.
+     */
+    private static final class Pair {
+        private final JDefinedClass type;
+        private final JsonNode schema;
+        private final Class<?> fabric8Class;
+
+        private Pair(JDefinedClass type, JsonNode schema, Class<?> fabric8Class) {
+            this.type = type;
+            this.schema = schema;
+            this.fabric8Class = fabric8Class;
+        }
+
+        private String key() {
+            return type.fullName() + "|" + fabric8Class.getName();
+        }
+    }
+
+    /**
+     * A property of a fabric8 model class.
+     */
+    static final class Fabric8Property {
+        private final Type type;
+        private final String getter;
+        private final String setter;
+
+        private Fabric8Property(Type type, String getter, String setter) {
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        Type getType() {
+            return type;
+        }
+
+        String getGetter() {
+            return getter;
+        }
+
+        String getSetter() {
+            return setter;
+        }
+    }
+}
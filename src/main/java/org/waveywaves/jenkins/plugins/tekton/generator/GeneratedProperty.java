@@ -0,0 +1,63 @@
+package org.waveywaves.jenkins.plugins.tekton.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JType;
+import org.jsonschema2pojo.util.NameHelper;
+
+/**
+ * A schema property matched to the field and accessors jsonschema2pojo generated for it.
+ */
+final class GeneratedProperty {
+    private final String jsonName;
+    private final JType type;
+    private final String getter;
+    private final String setter;
+
+    private GeneratedProperty(String jsonName, JType type, String getter, String setter) {
+        this.jsonName = jsonName;
+        this.type = type;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * Find the field and accessors generated for a schema property.
+     *
+     * @param nameHelper The name helper jsonschema2pojo generated the class with
+     * @param type The generated class
+     * @param jsonName The name of the property in the schema
+     * @param node The schema of the property
+     * @return The property, or null if the class has no such field or accessors
+     */
+    static GeneratedProperty find(NameHelper nameHelper, JDefinedClass type, String jsonName, JsonNode node) {
+        String fieldName = nameHelper.getPropertyName(jsonName, node);
+        JFieldVar field = type.fields().get(fieldName);
+        if (field == null) {
+            return null;
+        }
+        String getter = nameHelper.getGetterName(fieldName, field.type(), node);
+        String setter = nameHelper.getSetterName(fieldName, node);
+        if (type.getMethod(getter, new JType[0]) == null || type.getMethod(setter, new JType[] { field.type() }) == null) {
+            return null;
+        }
+        return new GeneratedProperty(jsonName, field.type(), getter, setter);
+    }
+
+    String getJsonName() {
+        return jsonName;
+    }
+
+    JType getType() {
+        return type;
+    }
+
+    String getGetter() {
+        return getter;
+    }
+
+    String getSetter() {
+        return setter;
+    }
+}
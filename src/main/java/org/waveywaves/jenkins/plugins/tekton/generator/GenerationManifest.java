@@ -0,0 +1,205 @@
+package org.waveywaves.jenkins.plugins.tekton.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records what was generated from which inputs, so that a build only regenerates the CRD versions whose
+ * inputs changed and skips generation entirely when nothing changed.
+ *
+ * The manifest is a sorted, tab separated text file kept in the output directory:
+ * <pre>
+ * generator  &lt;generator version and settings&gt;
+ * file       &lt;CRD file&gt;          &lt;SHA-256 of the file&gt;
+ * version    &lt;CRD file&gt;#&lt;version&gt; &lt;SHA-256 of the schema&gt;
+ * output     &lt;CRD file&gt;#&lt;version&gt; &lt;generated source&gt;
+ * </pre>
+ */
+final class GenerationManifest {
+    static final String FILE_NAME = ".tekton-generator-manifest";
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationManifest.class);
+
+    private final String generator;
+    private final Map<String, String> files = new TreeMap<>();
+    private final Map<String, String> versions = new TreeMap<>();
+    private final Map<String, List<String>> outputs = new TreeMap<>();
+
+    GenerationManifest(String generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Load the manifest of the previous generation.
+     *
+     * @param outputDirectory The output directory of the generated sources
+     * @return The manifest, empty if there is none or it cannot be read
+     */
+    static GenerationManifest load(Path outputDirectory) {
+        Path file = outputDirectory.resolve(FILE_NAME);
+        if (!Files.isRegularFile(file)) {
+            return new GenerationManifest("");
+        }
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            GenerationManifest manifest = null;
+            for (String line : lines) {
+                String[] fields = line.split("\t");
+                if (fields.length == 2 && fields[0].equals("generator")) {
+                    manifest = new GenerationManifest(fields[1]);
+                } else if (manifest != null && fields.length == 3) {
+                    switch (fields[0]) {
+                        case "file":
+                            manifest.files.put(fields[1], fields[2]);
+                            break;
+                        case "version":
+                            manifest.versions.put(fields[1], fields[2]);
+                            break;
+                        case "output":
+                            manifest.outputs.computeIfAbsent(fields[1], key -> new ArrayList<>()).add(fields[2]);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+            return manifest != null ? manifest : new GenerationManifest("");
+        } catch (IOException e) {
+            logger.warn("Cannot read generation manifest {}, regenerating everything", file, e);
+            return new GenerationManifest("");
+        }
+    }
+
+    /**
+     * Save the manifest to the output directory.
+     *
+     * @param outputDirectory The output directory of the generated sources
+     * @throws IOException If the manifest cannot be written
+     */
+    void save(Path outputDirectory) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("generator\t" + generator);
+        files.forEach((file, hash) -> lines.add("file\t" + file + "\t" + hash));
+        versions.forEach((version, hash) -> lines.add("version\t" + version + "\t" + hash));
+        outputs.forEach((version, sources) -> sources.stream().sorted()
+                .forEach(source -> lines.add("output\t" + version + "\t" + source)));
+        Files.createDirectories(outputDirectory);
+        Files.write(outputDirectory.resolve(FILE_NAME), lines, StandardCharsets.UTF_8);
+    }
+
+    String getGenerator() {
+        return generator;
+    }
+
+    Map<String, String> getFiles() {
+        return files;
+    }
+
+    void putFile(String file, String hash) {
+        files.put(file, hash);
+    }
+
+    String getVersionHash(String version) {
+        return versions.get(version);
+    }
+
+    List<String> getOutputs(String version) {
+        return outputs.getOrDefault(version, Collections.emptyList());
+    }
+
+    /**
+     * @return The CRD file and version keys of all versions recorded in this manifest
+     */
+    List<String> getVersions() {
+        return new ArrayList<>(versions.keySet());
+    }
+
+    void putVersion(String version, String hash, List<String> sources) {
+        versions.put(version, hash);
+        outputs.put(version, new ArrayList<>(sources));
+    }
+
+    /**
+     * @return Whether every source recorded for the version still exists in the output directory
+     */
+    boolean hasOutputs(String version, Path outputDirectory) {
+        return versions.containsKey(version)
+                && getOutputs(version).stream().allMatch(source -> Files.isRegularFile(outputDirectory.resolve(source)));
+    }
+
+    /**
+     * @return Whether every source recorded in this manifest still exists in the output directory
+     */
+    boolean hasAllOutputs(Path outputDirectory) {
+        return versions.keySet().stream().allMatch(version -> hasOutputs(version, outputDirectory));
+    }
+
+    static String sha256(byte[]... parts) {
+        MessageDigest digest = newDigest();
+        for (byte[] part : parts) {
+            digest.update(part);
+        }
+        return hex(digest);
+    }
+
+    /**
+     * Hash a file without reading all of it into memory.
+     */
+    static String sha256(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return hex(digest);
+    }
+
+    /**
+     * Hash the JSON of a tree as it is written, without holding the JSON in memory.
+     */
+    static String sha256(ObjectMapper mapper, JsonNode node) throws IOException {
+        MessageDigest digest = newDigest();
+        try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            mapper.writeValue(out, node);
+        }
+        return hex(digest);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String hex(MessageDigest digest) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    static String sha256(String... parts) {
+        return sha256(Arrays.stream(parts).map(part -> part.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new));
+    }
+}
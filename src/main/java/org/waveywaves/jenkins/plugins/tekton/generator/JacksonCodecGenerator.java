@@ -0,0 +1,354 @@
+package org.waveywaves.jenkins.plugins.tekton.generator;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.sun.codemodel.ClassType;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JCase;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JForLoop;
+import com.sun.codemodel.JInvocation;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JSwitch;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import org.jsonschema2pojo.util.NameHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates a Jackson serializer and deserializer for each class generated from a CRD version schema, and a
+ * <code>JacksonModule</code> in the version package which registers them.
+ *
+ * The codecs read and write each property through its getter and setter in schema order, so an ObjectMapper with
+ * the module registered does not introspect the generated classes. They are nested in the class they handle, so
+ * the codecs of shared types are shared with them.
+ */
+final class JacksonCodecGenerator {
+    static final String MODULE_CLASS_NAME = "JacksonModule";
+    static final String SERIALIZER_CLASS_NAME = "Serializer";
+    static final String DESERIALIZER_CLASS_NAME = "Deserializer";
+
+    private static final Logger logger = LoggerFactory.getLogger(JacksonCodecGenerator.class);
+
+    private static final String ADDITIONAL_PROPERTIES = "additionalProperties";
+
+    private final NameHelper nameHelper;
+
+    /**
+     * @param nameHelper The name helper used by jsonschema2pojo to name the fields and accessors of properties
+     */
+    JacksonCodecGenerator(NameHelper nameHelper) {
+        this.nameHelper = nameHelper;
+    }
+
+    /**
+     * Generate the codecs of the classes generated from a schema and the module registering them.
+     *
+     * @param codeModel The code model the classes were generated into
+     * @param schema The schema the classes were generated from, with the shared types assigned
+     * @param packageName The package of the root class
+     * @param className The name of the root class
+     */
+    void generate(JCodeModel codeModel, JsonNode schema, String packageName, String className) {
+        Map<JDefinedClass, JsonNode> types = new LinkedHashMap<>();
+        collectTypes(codeModel, schema, packageName + "." + className, types);
+
+        List<JDefinedClass> codecTypes = new ArrayList<>();
+        for (Map.Entry<JDefinedClass, JsonNode> type : types.entrySet()) {
+            if (generateCodecs(codeModel, type.getKey(), type.getValue())) {
+                codecTypes.add(type.getKey());
+            }
+        }
+
+        try {
+            JDefinedClass module = codeModel._class(JMod.PUBLIC, packageName + "." + MODULE_CLASS_NAME, ClassType.CLASS);
+            module._extends(SimpleModule.class);
+            module.javadoc().add("Registers the generated serializers and deserializers of " + className + " and its types.");
+            JMethod constructor = module.constructor(JMod.PUBLIC);
+            constructor.body().invoke("super").arg(JExpr.lit(packageName));
+            for (JDefinedClass type : codecTypes) {
+                constructor.body().invoke("addSerializer").arg(JExpr.dotclass(type))
+                    .arg(JExpr._new(codec(type, SERIALIZER_CLASS_NAME)));
+                constructor.body().invoke("addDeserializer").arg(JExpr.dotclass(type))
+                    .arg(JExpr._new(codec(type, DESERIALIZER_CLASS_NAME)));
+            }
+        } catch (JClassAlreadyExistsException e) {
+            logger.warn("Class {} already exists in package {}, not generating the Jackson module", MODULE_CLASS_NAME, packageName);
+        }
+    }
+
+    private void collectTypes(JCodeModel codeModel, JsonNode node, String javaType, Map<JDefinedClass, JsonNode> types) {
+        if (!node.isObject()) {
+            return;
+        }
+        if (javaType != null) {
+            JDefinedClass type = codeModel._getClass(javaType);
+            if (type != null && !types.containsKey(type) && type.getClassType() == ClassType.CLASS) {
+                types.put(type, node);
+            }
+        }
+        JsonNode properties = node.get("properties");
+        if (properties != null && properties.isObject()) {
+            for (JsonNode property : properties) {
+                collectTypes(codeModel, property, property.path("javaType").asText(null), types);
+            }
+        }
+        JsonNode items = node.get("items");
+        if (items != null) {
+            collectTypes(codeModel, items, items.path("javaType").asText(null), types);
+        }
+        JsonNode additionalProperties = node.get(ADDITIONAL_PROPERTIES);
+        if (additionalProperties != null) {
+            collectTypes(codeModel, additionalProperties, additionalProperties.path("javaType").asText(null), types);
+        }
+    }
+
+    /**
+     * @return Whether the codecs were generated, which they are not if a property cannot be matched to its accessors
+     */
+    private boolean generateCodecs(JCodeModel codeModel, JDefinedClass type, JsonNode schema) {
+        List<GeneratedProperty> properties = new ArrayList<>();
+        JsonNode schemaProperties = schema.get("properties");
+        if (schemaProperties != null && schemaProperties.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = schemaProperties.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                GeneratedProperty property = GeneratedProperty.find(nameHelper, type, field.getKey(), field.getValue());
+                if (property == null) {
+                    logger.info("Cannot match property {} of {}, using default Jackson binding", field.getKey(), type.fullName());
+                    return false;
+                }
+                properties.add(property);
+            }
+        }
+        if (hasNestedClass(type, SERIALIZER_CLASS_NAME) || hasNestedClass(type, DESERIALIZER_CLASS_NAME)) {
+            logger.info("{} already has a nested {} or {}, using default Jackson binding", type.fullName(),
+                SERIALIZER_CLASS_NAME, DESERIALIZER_CLASS_NAME);
+            return false;
+        }
+        JFieldVar additionalProperties = type.fields().get(ADDITIONAL_PROPERTIES);
+        JType additionalType = null;
+        if (additionalProperties != null && additionalProperties.type() instanceof JClass
+                && ((JClass) additionalProperties.type()).getTypeParameters().size() == 2) {
+            additionalType = ((JClass) additionalProperties.type()).getTypeParameters().get(1);
+        }
+
+        try {
+            generateSerializer(codeModel, type, properties, additionalType != null);
+            generateDeserializer(codeModel, type, properties, additionalType);
+            return true;
+        } catch (JClassAlreadyExistsException e) {
+            return false;
+        }
+    }
+
+    private static boolean hasNestedClass(JDefinedClass type, String name) {
+        Iterator<JDefinedClass> classes = type.classes();
+        while (classes.hasNext()) {
+            if (classes.next().name().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void generateSerializer(JCodeModel codeModel, JDefinedClass type, List<GeneratedProperty> properties, boolean hasAdditionalProperties) throws JClassAlreadyExistsException {
+        JDefinedClass serializer = type._class(JMod.PUBLIC | JMod.STATIC, SERIALIZER_CLASS_NAME);
+        serializer._extends(codeModel.ref(StdSerializer.class).narrow(type));
+        serializer.javadoc().add("Writes " + type.name() + " without introspection.");
+        serializer.constructor(JMod.PUBLIC).body().invoke("super").arg(JExpr.dotclass(type));
+
+        JMethod serialize = serializer.method(JMod.PUBLIC, codeModel.VOID, "serialize");
+        serialize.annotate(Override.class);
+        serialize._throws(IOException.class);
+        JVar value = serialize.param(type, "value");
+        JVar gen = serialize.param(JsonGenerator.class, "gen");
+        JVar provider = serialize.param(SerializerProvider.class, "provider");
+        JBlock body = serialize.body();
+
+        body.invoke(gen, "writeStartObject").arg(value);
+        for (int i = 0; i < properties.size(); i++) {
+            GeneratedProperty property = properties.get(i);
+            JVar propertyValue = body.decl(property.getType(), "value" + i, value.invoke(property.getGetter()));
+            JConditional notNull = body._if(propertyValue.ne(JExpr._null()));
+            notNull._then().invoke(gen, "writeFieldName").arg(JExpr.lit(property.getJsonName()));
+            writeValue(codeModel, notNull._then(), property.getType(), propertyValue, gen, provider);
+        }
+        if (hasAdditionalProperties) {
+            JForEach forEach = body.forEach(codeModel.ref(Map.Entry.class).narrow(codeModel.ref(String.class), codeModel.ref(Object.class).wildcard()),
+                "entry", value.invoke("getAdditionalProperties").invoke("entrySet"));
+            forEach.body().invoke(gen, "writeFieldName").arg(forEach.var().invoke("getKey"));
+            forEach.body().invoke(provider, "defaultSerializeValue").arg(forEach.var().invoke("getValue")).arg(gen);
+        }
+        body.invoke(gen, "writeEndObject");
+    }
+
+    private static void writeValue(JCodeModel codeModel, JBlock block, JType type, JVar value, JVar gen, JVar provider) {
+        String name = type.fullName();
+        if (name.equals(String.class.getName())) {
+            block.invoke(gen, "writeString").arg(value);
+        } else if (name.equals(Integer.class.getName())) {
+            block.invoke(gen, "writeNumber").arg(value.invoke("intValue"));
+        } else if (name.equals(Long.class.getName())) {
+            block.invoke(gen, "writeNumber").arg(value.invoke("longValue"));
+        } else if (name.equals(Double.class.getName())) {
+            block.invoke(gen, "writeNumber").arg(value.invoke("doubleValue"));
+        } else if (name.equals(Boolean.class.getName())) {
+            block.invoke(gen, "writeBoolean").arg(value.invoke("booleanValue"));
+        } else {
+            // Nested types, collections and enums go through the serializers registered with the provider
+            block.invoke(provider, "defaultSerializeValue").arg(value).arg(gen);
+        }
+    }
+
+    private void generateDeserializer(JCodeModel codeModel, JDefinedClass type, List<GeneratedProperty> properties, JType additionalType) throws JClassAlreadyExistsException {
+        JDefinedClass deserializer = type._class(JMod.PUBLIC | JMod.STATIC, DESERIALIZER_CLASS_NAME);
+        deserializer._extends(codeModel.ref(StdDeserializer.class).narrow(type));
+        deserializer._implements(ContextualDeserializer.class);
+        deserializer.javadoc().add("Reads " + type.name() + " without introspection. The deserializers of its properties are "
+            + "looked up once, when the mapper contextualizes it, rather than on every call.");
+        deserializer.constructor(JMod.PUBLIC).body().invoke("super").arg(JExpr.dotclass(type));
+
+        JMethod createContextual = deserializer.method(JMod.PUBLIC, codeModel.ref(JsonDeserializer.class).narrow(codeModel.wildcard()), "createContextual");
+        createContextual.annotate(Override.class);
+        createContextual._throws(JsonMappingException.class);
+        JVar contextualCtxt = createContextual.param(DeserializationContext.class, "ctxt");
+        createContextual.param(BeanProperty.class, "property");
+        JVar contextual = createContextual.body().decl(deserializer, "contextual", JExpr._new(deserializer));
+
+        List<JFieldVar> delegates = new ArrayList<>();
+        for (int i = 0; i < properties.size(); i++) {
+            delegates.add(delegate(codeModel, deserializer, createContextual.body(), contextual, contextualCtxt, properties.get(i).getType(), "TYPE_" + i, "deserializer" + i));
+        }
+        JFieldVar additionalDelegate = additionalType != null
+            ? delegate(codeModel, deserializer, createContextual.body(), contextual, contextualCtxt, additionalType, "TYPE_ADDITIONAL_PROPERTIES", "additionalPropertiesDeserializer")
+            : null;
+        createContextual.body()._return(contextual);
+
+        JMethod deserialize = deserializer.method(JMod.PUBLIC, type, "deserialize");
+        deserialize.annotate(Override.class);
+        deserialize.annotate(SuppressWarnings.class).param("value", "unchecked");
+        deserialize._throws(IOException.class);
+        JVar parser = deserialize.param(JsonParser.class, "p");
+        JVar ctxt = deserialize.param(DeserializationContext.class, "ctxt");
+        JBlock body = deserialize.body();
+        JClass jsonToken = codeModel.ref(JsonToken.class);
+
+        JVar value = body.decl(type, "value", JExpr._new(type));
+        JVar token = body.decl(jsonToken, "token", parser.invoke("currentToken"));
+        JConditional startObject = body._if(token.eq(jsonToken.staticRef("START_OBJECT")));
+        startObject._then().assign(token, parser.invoke("nextToken"));
+        startObject._else()._if(token.ne(jsonToken.staticRef("FIELD_NAME")).cand(token.ne(jsonToken.staticRef("END_OBJECT"))))
+            ._then()._return(JExpr.cast(type, ctxt.invoke("handleUnexpectedToken").arg(JExpr.dotclass(type)).arg(parser)));
+
+        JForLoop loop = body._for();
+        loop.test(token.eq(jsonToken.staticRef("FIELD_NAME")));
+        loop.update(token.assign(parser.invoke("nextToken")));
+        JVar name = loop.body().decl(codeModel.ref(String.class), "name", parser.invoke("currentName"));
+        loop.body().invoke(parser, "nextToken");
+        JSwitch fieldSwitch = loop.body()._switch(name);
+        for (int i = 0; i < properties.size(); i++) {
+            GeneratedProperty property = properties.get(i);
+            JCase fieldCase = fieldSwitch._case(JExpr.lit(property.getJsonName()));
+            fieldCase.body().invoke(value, property.getSetter()).arg(readValue(codeModel, property.getType(), delegates.get(i), parser, ctxt));
+            fieldCase.body()._break();
+        }
+        JCase otherCase = fieldSwitch._default();
+        if (additionalType != null) {
+            otherCase.body().invoke(value, "setAdditionalProperty").arg(name)
+                .arg(readValue(codeModel, additionalType, additionalDelegate, parser, ctxt));
+        } else {
+            otherCase.body().invoke(parser, "skipChildren");
+        }
+        otherCase.body()._break();
+        body._return(value);
+    }
+
+    /**
+     * Declare the field holding the deserializer of a property which is not a string, with the static field of its
+     * Jackson type, and look it up in <code>createContextual</code>.
+     *
+     * @return The field of the deserializer, or null for strings, which are read from the parser directly
+     */
+    private static JFieldVar delegate(JCodeModel codeModel, JDefinedClass deserializer, JBlock block, JVar contextual, JVar ctxt, JType type, String typeFieldName, String fieldName) {
+        if (isString(type)) {
+            return null;
+        }
+        JFieldVar javaType = deserializer.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, JavaType.class, typeFieldName,
+            javaType(codeModel, (JClass) type.boxify()));
+        JFieldVar delegate = deserializer.field(JMod.PRIVATE, codeModel.ref(JsonDeserializer.class).narrow(Object.class), fieldName);
+        block.assign(contextual.ref(delegate),
+            ctxt.invoke("findContextualValueDeserializer").arg(javaType).arg(JExpr._null()));
+        return delegate;
+    }
+
+    /**
+     * @return An expression constructing the Jackson type of a class, with its type parameters
+     */
+    static JExpression javaType(JCodeModel codeModel, JClass type) {
+        JExpression typeFactory = codeModel.ref(TypeFactory.class).staticInvoke("defaultInstance");
+        if (type.getTypeParameters().isEmpty()) {
+            return typeFactory.invoke("constructType").arg(JExpr.dotclass(type));
+        }
+        JInvocation parametric = typeFactory.invoke("constructParametricType").arg(JExpr.dotclass(type.erasure()));
+        for (JClass parameter : type.getTypeParameters()) {
+            parametric.arg(javaType(codeModel, parameter));
+        }
+        return parametric;
+    }
+
+    private static JExpression readValue(JCodeModel codeModel, JType type, JFieldVar delegate, JVar parser, JVar ctxt) {
+        if (isString(type)) {
+            return parser.invoke("getValueAsString");
+        }
+        // An explicit null, like an empty YAML mapping value, leaves the property unset as the default binding does
+        return JOp.cond(parser.invoke("currentToken").eq(codeModel.ref(JsonToken.class).staticRef("VALUE_NULL")), JExpr._null(),
+            JExpr.cast(type.boxify(), delegate.invoke("deserialize").arg(parser).arg(ctxt)));
+    }
+
+    private static boolean isString(JType type) {
+        return type.fullName().equals(String.class.getName());
+    }
+
+    private static JClass codec(JDefinedClass type, String name) {
+        Iterator<JDefinedClass> classes = type.classes();
+        while (classes.hasNext()) {
+            JDefinedClass nested = classes.next();
+            if (nested.name().equals(name)) {
+                return nested;
+            }
+        }
+        throw new IllegalStateException(type.fullName() + " has no " + name);
+    }
+}
@@ -1,6 +1,8 @@
 package org.waveywaves.jenkins.plugins.tekton.generator;
 
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.jsonschema2pojo.util.NameHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,6 +18,9 @@ import java.util.stream.Stream;
 /**
  * Generator for Jenkins Jelly UI configuration files.
  * Creates sophisticated UI forms with proper nesting, sections, and field grouping.
+ *
+ * The forms are rendered either from the CRD schema a class is generated from, which
+ * {@link TektonCrdToJavaProcessor} does while generating the classes, or from a compiled class.
  */
 public class JellyConfigGenerator {
     
@@ -28,22 +33,70 @@ public class JellyConfigGenerator {
     public void generateJellyConfig(Class<?> clazz, Path outputPath) throws IOException {
         logger.info("Generating Jelly config for: {}", clazz.getSimpleName());
         
+        List<JellyField> fields = new ArrayList<>();
+        for (Field field : clazz.getDeclaredFields()) {
+            fields.add(new JellyField(field.getName(), controlOf(field.getType()), getFieldDescription(field), shouldSkipField(field)));
+        }
+        
+        writeJellyConfig(renderJellyConfig(fields), outputPath);
+    }
+
+    /**
+     * Render the Jelly config of a class from the schema it is generated from, without loading the class.
+     *
+     * @param schema The schema of the class
+     * @param nameHelper The name helper jsonschema2pojo generates the class with, which names its fields
+     * @return The content of the config.jelly
+     */
+    public String generateJellyConfig(JsonNode schema, NameHelper nameHelper) {
+        List<JellyField> fields = new ArrayList<>();
+        JsonNode properties = schema.get("properties");
+        if (properties != null && properties.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> iterator = properties.fields();
+            while (iterator.hasNext()) {
+                Map.Entry<String, JsonNode> property = iterator.next();
+                String fieldName = nameHelper.getPropertyName(property.getKey(), property.getValue());
+                JsonNode description = property.getValue().get("description");
+                fields.add(new JellyField(fieldName, controlOf(property.getValue()),
+                    description != null ? description.asText() : null, shouldSkipField(fieldName)));
+            }
+        }
+        JsonNode additionalProperties = schema.get("additionalProperties");
+        if (additionalProperties == null || !additionalProperties.isBoolean() || additionalProperties.asBoolean()) {
+            // The generated class holds the additional properties in a field of its own
+            fields.add(new JellyField("additionalProperties", Control.TEXTBOX, null, true));
+        }
+        return renderJellyConfig(fields);
+    }
+
+    /**
+     * Write a rendered Jelly config.
+     */
+    public void writeJellyConfig(String jelly, Path outputPath) throws IOException {
+        Path parent = outputPath.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(outputPath, jelly);
+        
+        logger.info("Generated Jelly config at: {}", outputPath);
+        System.out.println("  [OK] Generated: " + outputPath);
+    }
+
+    private String renderJellyConfig(List<JellyField> fields) {
         StringBuilder jelly = new StringBuilder();
         
         // Header
         jelly.append("<?jelly escape-by-default='true'?>\n");
         jelly.append("<j:jelly xmlns:j=\"jelly:core\" xmlns:f=\"/lib/form\">\n");
         
-        // Get all fields
-        Field[] fields = clazz.getDeclaredFields();
-        
         // Group fields by category
-        Map<String, List<Field>> fieldGroups = groupFields(fields);
+        Map<String, List<JellyField>> fieldGroups = groupFields(fields);
         
         // Generate UI for each group
-        for (Map.Entry<String, List<Field>> entry : fieldGroups.entrySet()) {
+        for (Map.Entry<String, List<JellyField>> entry : fieldGroups.entrySet()) {
             String groupName = entry.getKey();
-            List<Field> groupFields = entry.getValue();
+            List<JellyField> groupFields = entry.getValue();
             
             if (groupFields.isEmpty()) {
                 continue;
@@ -53,8 +106,8 @@ public class JellyConfigGenerator {
             if (shouldCreateSection(groupName, groupFields)) {
                 jelly.append("    <f:section title=\"").append(groupName).append("\">\n");
                 
-                for (Field field : groupFields) {
-                    if (shouldSkipField(field)) {
+                for (JellyField field : groupFields) {
+                    if (field.skipped) {
                         continue;
                     }
                     jelly.append(generateFieldControl(field, 2));
@@ -63,8 +116,8 @@ public class JellyConfigGenerator {
                 jelly.append("    </f:section>\n");
             } else {
                 // Regular fields without section
-                for (Field field : groupFields) {
-                    if (shouldSkipField(field)) {
+                for (JellyField field : groupFields) {
+                    if (field.skipped) {
                         continue;
                     }
                     jelly.append(generateFieldControl(field, 1));
@@ -74,31 +127,22 @@ public class JellyConfigGenerator {
         
         // Footer
         jelly.append("</j:jelly>\n");
-        
-        // Write file
-        Path parent = outputPath.getParent();
-        if (parent != null) {
-            Files.createDirectories(parent);
-        }
-        Files.writeString(outputPath, jelly.toString());
-        
-        logger.info("Generated Jelly config at: {}", outputPath);
-        System.out.println("  [OK] Generated: " + outputPath);
+        return jelly.toString();
     }
     
     /**
      * Group fields by their semantic categories.
      */
-    private Map<String, List<Field>> groupFields(Field[] fields) {
-        Map<String, List<Field>> groups = new LinkedHashMap<>();
+    private Map<String, List<JellyField>> groupFields(List<JellyField> fields) {
+        Map<String, List<JellyField>> groups = new LinkedHashMap<>();
         
         groups.put("Basic", new ArrayList<>());
         groups.put("Metadata", new ArrayList<>());
         groups.put("Spec", new ArrayList<>());
         groups.put("Advanced", new ArrayList<>());
         
-        for (Field field : fields) {
-            String fieldName = field.getName();
+        for (JellyField field : fields) {
+            String fieldName = field.name;
             
             // Determine group
             if (fieldName.equals("apiVersion") || fieldName.equals("kind")) {
@@ -121,7 +165,7 @@ public class JellyConfigGenerator {
     /**
      * Determine if a group should be rendered as a section.
      */
-    private boolean shouldCreateSection(String groupName, List<Field> fields) {
+    private boolean shouldCreateSection(String groupName, List<JellyField> fields) {
         // Create section if more than 2 fields
         return fields.size() > 2 && !groupName.equals("Basic");
     }
@@ -129,19 +173,16 @@ public class JellyConfigGenerator {
     /**
      * Generate control for a single field with proper indentation.
      */
-    private String generateFieldControl(Field field, int indentLevel) {
+    private String generateFieldControl(JellyField field, int indentLevel) {
         StringBuilder control = new StringBuilder();
         String indent = "    ".repeat(indentLevel);
         
-        String fieldName = field.getName();
+        String fieldName = field.name;
         String fieldTitle = toTitle(fieldName);
-        Class<?> fieldType = field.getType();
-        
-        // Get description from annotation if available
-        String description = getFieldDescription(field);
+        String description = field.description;
         
         // Determine control type
-        if (List.class.isAssignableFrom(fieldType)) {
+        if (field.control == Control.REPEATABLE) {
             // List - use repeatableProperty with block
             control.append(indent).append("<f:block>\n");
             control.append(indent).append("    <f:entry title=\"").append(fieldTitle).append("\"");
@@ -154,7 +195,7 @@ public class JellyConfigGenerator {
             control.append(indent).append("    </f:entry>\n");
             control.append(indent).append("</f:block>\n");
             
-        } else if (isComplexType(fieldType)) {
+        } else if (field.control == Control.OPTIONAL_BLOCK) {
             // Complex object - use nested property or advanced button
             control.append(indent).append("<f:optionalBlock title=\"").append(fieldTitle);
             control.append("\" field=\"").append(fieldName).append("\"");
@@ -167,7 +208,7 @@ public class JellyConfigGenerator {
             control.append(indent).append("    </f:nested>\n");
             control.append(indent).append("</f:optionalBlock>\n");
             
-        } else if (fieldType == Boolean.class || fieldType == boolean.class) {
+        } else if (field.control == Control.CHECKBOX) {
             // Boolean - checkbox
             control.append(indent).append("<f:entry field=\"").append(fieldName);
             control.append("\" title=\"").append(fieldTitle).append("\"");
@@ -223,12 +264,8 @@ public class JellyConfigGenerator {
      * Check if field should be skipped.
      */
     private boolean shouldSkipField(Field field) {
-        String fieldName = field.getName();
-        
         // Skip internal fields
-        if (fieldName.equals("additionalProperties") || 
-            fieldName.startsWith("_") ||
-            fieldName.equals("status") ||
+        if (shouldSkipField(field.getName()) ||
             java.lang.reflect.Modifier.isStatic(field.getModifiers())) {
             return true;
         }
@@ -240,6 +277,42 @@ public class JellyConfigGenerator {
         
         return false;
     }
+
+    private boolean shouldSkipField(String fieldName) {
+        return fieldName.equals("additionalProperties") ||
+            fieldName.startsWith("_") ||
+            fieldName.equals("status");
+    }
+
+    /**
+     * Determine the control of a field from its type.
+     */
+    private Control controlOf(Class<?> fieldType) {
+        if (List.class.isAssignableFrom(fieldType)) {
+            return Control.REPEATABLE;
+        } else if (isComplexType(fieldType)) {
+            return Control.OPTIONAL_BLOCK;
+        } else if (fieldType == Boolean.class || fieldType == boolean.class) {
+            return Control.CHECKBOX;
+        }
+        return Control.TEXTBOX;
+    }
+
+    /**
+     * Determine the control of a field from its schema, as jsonschema2pojo types it: arrays are lists and
+     * objects are generated classes.
+     */
+    private Control controlOf(JsonNode schema) {
+        String type = schema.path("type").asText("");
+        if (type.equals("array")) {
+            return Control.REPEATABLE;
+        } else if (type.equals("object") || (type.isEmpty() && schema.has("properties"))) {
+            return Control.OPTIONAL_BLOCK;
+        } else if (type.equals("boolean")) {
+            return Control.CHECKBOX;
+        }
+        return Control.TEXTBOX;
+    }
     
     /**
      * Check if type is complex.
@@ -278,7 +351,12 @@ public class JellyConfigGenerator {
     
     /**
      * Generate for all Create*Typed classes.
+     *
+     * @deprecated This compiles and loads every generated class, use
+     * {@link TektonCrdToJavaProcessor#setJellyOutputDirectory(Path)} to render the configs from the CRD schemas
+     * while generating the classes instead.
      */
+    @Deprecated
     public void generateAllConfigs(Path generatedSourcesDir, Path resourcesDir, ClassLoader classLoader) 
             throws IOException {
         
@@ -331,6 +409,30 @@ public class JellyConfigGenerator {
         System.out.println("   Failed: " + failCount);
     }
     
+    /**
+     * The Jelly control of a field.
+     */
+    private enum Control {
+        REPEATABLE, OPTIONAL_BLOCK, CHECKBOX, TEXTBOX
+    }
+
+    /**
+     * A field of a class rendered in its form.
+     */
+    private static final class JellyField {
+        private final String name;
+        private final Control control;
+        private final String description;
+        private final boolean skipped;
+
+        private JellyField(String name, Control control, String description, boolean skipped) {
+            this.name = name;
+            this.control = control;
+            this.description = description;
+            this.skipped = skipped;
+        }
+    }
+
     /**
      * Main method.
      */
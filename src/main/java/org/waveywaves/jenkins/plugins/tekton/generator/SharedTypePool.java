@@ -0,0 +1,195 @@
+package org.waveywaves.jenkins.plugins.tekton.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Deduplicates the classes generated for nested schemas across CRDs and versions.
+ *
+ * Every nested object schema is assigned a <code>javaType</code> in a shared package, named after the property it
+ * is found at and a hash of its structure. Structurally identical schemas, such as the steps, params and pod
+ * templates a TaskRun embeds from a Task, therefore map to the same class wherever they occur and are generated
+ * once, while each CRD version keeps its own root class.
+ */
+final class SharedTypePool {
+    static final String SHARED_PACKAGE = "shared";
+
+    private static final int HASH_LENGTH = 10;
+
+    /** Keywords whose values are maps of names to schemas */
+    private static final Set<String> PROPERTY_MAPS = Set.of("properties", "patternProperties", "definitions");
+
+    /** Keywords whose values are schemas or arrays of schemas */
+    private static final Set<String> SCHEMA_KEYWORDS = Set.of("items", "additionalProperties", "not", "allOf", "anyOf", "oneOf");
+
+    private final String sharedPackage;
+
+    /**
+     * @param basePackage The base package of the generated classes
+     */
+    SharedTypePool(String basePackage) {
+        this.sharedPackage = basePackage + "." + SHARED_PACKAGE;
+    }
+
+    /**
+     * Assign shared types to the nested object schemas of a CRD version schema.
+     *
+     * @param schema The openAPIV3Schema of the CRD version, which is left unchanged
+     * @return A copy of the schema whose nested object schemas have a <code>javaType</code>
+     */
+    JsonNode assignSharedTypes(JsonNode schema) {
+        JsonNode copy = schema.deepCopy();
+        visit(copy, null);
+        return copy;
+    }
+
+    private void visit(JsonNode node, String name) {
+        if (!node.isObject()) {
+            return;
+        }
+        ObjectNode schema = (ObjectNode) node;
+        // Hash before the nested schemas are assigned their own types
+        String javaType = name != null && isObject(schema) ? javaTypeOf(schema, name) : null;
+
+        JsonNode properties = schema.get("properties");
+        if (properties != null && properties.isObject()) {
+            Iterator<String> propertyNames = properties.fieldNames();
+            while (propertyNames.hasNext()) {
+                String propertyName = propertyNames.next();
+                visit(properties.get(propertyName), propertyName);
+            }
+        }
+        JsonNode items = schema.get("items");
+        if (items != null) {
+            visit(items, singular(name != null ? name : "item"));
+        }
+        JsonNode additionalProperties = schema.get("additionalProperties");
+        if (additionalProperties != null) {
+            visit(additionalProperties, (name != null ? name : "") + "Value");
+        }
+
+        if (javaType != null && !schema.has("javaType") && !schema.has("existingJavaType")) {
+            schema.put("javaType", javaType);
+        }
+    }
+
+    private String javaTypeOf(ObjectNode schema, String name) {
+        String hash = GenerationManifest.sha256(canonical(schema)).substring(0, HASH_LENGTH);
+        return sharedPackage + "." + className(name) + "_" + hash;
+    }
+
+    private static boolean isObject(ObjectNode schema) {
+        return "object".equals(schema.path("type").asText()) || schema.has("properties");
+    }
+
+    /**
+     * Serialise a schema with its fields in a fixed order, so that the same structure always has the same hash.
+     *
+     * Descriptions are left out, so that schemas which only differ in their documentation, such as the same type
+     * embedded by two CRD versions, still share a class.
+     */
+    static String canonical(JsonNode schema) {
+        StringBuilder json = new StringBuilder();
+        appendCanonical(schema, json, true);
+        return json.toString();
+    }
+
+    /**
+     * @param schema whether the node is a schema rather than a map of property schemas or a value such as a default
+     */
+    private static void appendCanonical(JsonNode node, StringBuilder json, boolean schema) {
+        if (node.isObject()) {
+            List<String> fieldNames = new ArrayList<>();
+            node.fieldNames().forEachRemaining(fieldNames::add);
+            if (schema) {
+                fieldNames.remove("description");
+            }
+            Collections.sort(fieldNames);
+            json.append('{');
+            for (int i = 0; i < fieldNames.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                String fieldName = fieldNames.get(i);
+                json.append(TextNode.valueOf(fieldName).toString()).append(':');
+                JsonNode value = node.get(fieldName);
+                if (schema && PROPERTY_MAPS.contains(fieldName)) {
+                    appendProperties(value, json);
+                } else {
+                    appendCanonical(value, json, schema && SCHEMA_KEYWORDS.contains(fieldName));
+                }
+            }
+            json.append('}');
+        } else if (node.isArray()) {
+            json.append('[');
+            for (int i = 0; i < node.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                appendCanonical(node.get(i), json, schema);
+            }
+            json.append(']');
+        } else {
+            json.append(node.toString());
+        }
+    }
+
+    private static void appendProperties(JsonNode properties, StringBuilder json) {
+        if (!properties.isObject()) {
+            appendCanonical(properties, json, false);
+            return;
+        }
+        List<String> propertyNames = new ArrayList<>();
+        properties.fieldNames().forEachRemaining(propertyNames::add);
+        Collections.sort(propertyNames);
+        json.append('{');
+        for (int i = 0; i < propertyNames.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(TextNode.valueOf(propertyNames.get(i)).toString()).append(':');
+            appendCanonical(properties.get(propertyNames.get(i)), json, true);
+        }
+        json.append('}');
+    }
+
+    /**
+     * Turn a property name such as <code>pod-template</code> into a class name such as <code>PodTemplate</code>.
+     */
+    static String className(String name) {
+        StringBuilder className = new StringBuilder();
+        boolean upper = true;
+        for (char c : name.toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                className.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            } else {
+                upper = true;
+            }
+        }
+        if (className.length() == 0) {
+            return "Type";
+        }
+        if (Character.isDigit(className.charAt(0))) {
+            className.insert(0, '_');
+        }
+        return className.toString();
+    }
+
+    private static String singular(String name) {
+        if (name.endsWith("ies") && name.length() > 3) {
+            return name.substring(0, name.length() - 3) + "y";
+        }
+        if (name.endsWith("s") && !name.endsWith("ss") && name.length() > 1) {
+            return name.substring(0, name.length() - 1);
+        }
+        return name;
+    }
+}
@@ -24,10 +24,11 @@ public class TektonPojoGenerator {
      * args[0] - CRD directory path (e.g., "src/main/resources/crds")
      * args[1] - Output directory path (e.g., "target/generated-sources/tekton")  
      * args[2] - Base package name (e.g., "org.waveywaves.jenkins.plugins.tekton.generated")
+     * args[3] - Optional resources directory to render the config.jelly of each step into (e.g., "src/main/resources")
      */
     public static void main(String[] args) throws Exception {
         if (args.length < 3) {
-            String usage = "Usage: TektonPojoGenerator <crd-directory> <output-directory> <base-package>\n" +
+            String usage = "Usage: TektonPojoGenerator <crd-directory> <output-directory> <base-package> [<jelly-resources-directory>]\n" +
                           "Example: TektonPojoGenerator src/main/resources/crds target/generated-sources/tekton org.example.generated";
             throw new IllegalArgumentException(usage);
         }
@@ -75,6 +76,20 @@ public class TektonPojoGenerator {
             
             // Configure for Jenkins plugin integration
             configureJenkinsIntegration(processor, basePackage);
+
+            // Generate the CRD versions on as many threads as requested, all processors by default
+            Integer parallelism = Integer.getInteger("tekton.generator.parallelism");
+            if (parallelism != null) {
+                processor.setParallelism(parallelism);
+            }
+
+            // Render the Jelly forms from the CRD schemas in the same pass
+            if (args.length > 3) {
+                Path jellyDirectory = Paths.get(args[3]);
+                logger.info("Jelly Resources Directory: {}", jellyDirectory.toAbsolutePath());
+                System.out.println("Jelly Resources Directory: " + jellyDirectory.toAbsolutePath());
+                processor.setJellyOutputDirectory(jellyDirectory);
+            }
             
             // Process all CRD files with enhanced features
             processor.processDirectory(
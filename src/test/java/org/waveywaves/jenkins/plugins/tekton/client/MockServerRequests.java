@@ -0,0 +1,37 @@
+package org.waveywaves.jenkins.plugins.tekton.client;
+
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Reads back the requests a mock server received so tests can assert on what was sent to the API server.
+ */
+public final class MockServerRequests {
+
+    private MockServerRequests() {
+    }
+
+    /**
+     * @return the requests received since the last call, in the order they were received
+     */
+    public static List<RecordedRequest> take(KubernetesMockServer server) throws InterruptedException {
+        List<RecordedRequest> answer = new ArrayList<>();
+        RecordedRequest request;
+        while ((request = server.takeRequest(10, TimeUnit.MILLISECONDS)) != null) {
+            answer.add(request);
+        }
+        return answer;
+    }
+
+    /**
+     * @return the requests received since the last call with the given method
+     */
+    public static List<RecordedRequest> take(KubernetesMockServer server, String method) throws InterruptedException {
+        return take(server).stream().filter(r -> method.equals(r.getMethod())).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,25 @@
+package org.waveywaves.jenkins.plugins.tekton.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixedOutputStreamTest {
+
+    @Test void testLinesArePrefixed() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrefixedOutputStream a = new PrefixedOutputStream(out, "[a] ");
+        PrefixedOutputStream b = new PrefixedOutputStream(out, "[b] ");
+
+        a.write("hel".getBytes(StandardCharsets.UTF_8));
+        b.write("one\ntw".getBytes(StandardCharsets.UTF_8));
+        a.write("lo\nworld\n".getBytes(StandardCharsets.UTF_8));
+        b.write('o');
+        b.close();
+
+        assertThat(out.toString(StandardCharsets.UTF_8.name())).isEqualTo("[b] one\n[a] hello\n[a] world\n[b] two\n");
+    }
+}
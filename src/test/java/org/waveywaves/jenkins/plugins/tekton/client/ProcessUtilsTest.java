@@ -0,0 +1,62 @@
+package org.waveywaves.jenkins.plugins.tekton.client;
+
+import org.apache.commons.lang.SystemUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ */
+class ProcessUtilsTest {
+    private final Logger logger = Logger.getLogger(ProcessUtilsTest.class.getName());
+
+    @BeforeEach void before() {
+        assumeFalse(SystemUtils.IS_OS_WINDOWS);
+    }
+
+    @Test void testLargeOutputDoesNotBlock() throws Exception {
+        // the output is drained on two threads so count the lines rather than collecting them
+        AtomicInteger lines = new AtomicInteger();
+        logger.setFilter(record -> {
+            lines.incrementAndGet();
+            return false;
+        });
+        ProcessUtils.ProcessResult result = ProcessUtils.run(Arrays.asList("sh", "-c", "seq 1 100000; seq 1 100000 >&2"),
+                null, ProcessUtils.filterEnvironment(null), 60, TimeUnit.SECONDS, logger);
+
+        assertThat(result.getExitCode()).isEqualTo(0);
+        assertThat(lines.get()).isEqualTo(200000);
+    }
+
+    @Test void testTimeout() {
+        assertThatThrownBy(() -> ProcessUtils.run(Arrays.asList("sh", "-c", "sleep 30"),
+                null, ProcessUtils.filterEnvironment(null), 1, TimeUnit.SECONDS, logger))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("timed out");
+    }
+
+    @Test void testFilterEnvironment() {
+        Map<String, String> envVars = new HashMap<>();
+        envVars.put("BUILD_ID", "12");
+        envVars.put("PULL_BASE_REF", "main");
+        envVars.put("AWS_SECRET_ACCESS_KEY", "secret");
+        envVars.put("GIT_TOKEN", "token");
+
+        Map<String, String> env = ProcessUtils.filterEnvironment(envVars);
+        assertThat(env).containsEntry("BUILD_ID", "12")
+                .containsEntry("PULL_BASE_REF", "main")
+                .doesNotContainKey("AWS_SECRET_ACCESS_KEY")
+                .doesNotContainKey("GIT_TOKEN");
+    }
+}
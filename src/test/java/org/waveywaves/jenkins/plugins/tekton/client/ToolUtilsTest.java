@@ -1,8 +1,12 @@
 package org.waveywaves.jenkins.plugins.tekton.client;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.logging.Logger;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -12,6 +16,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 class ToolUtilsTest {
     private static final Logger logger = Logger.getLogger(ToolUtilsTest.class.getName());
 
+    @TempDir
+    Path cacheDir;
+
     @Test void testToolUtils() throws Exception {
         String path = ToolUtils.getJXPipelineBinary(ToolUtilsTest.class.getClassLoader());
         assertThat(path).isNotEmpty();
@@ -20,4 +27,57 @@ class ToolUtilsTest {
         assertThat(file).isFile();
         logger.info("got jx pipeline binary " + path + " with size " + file.length());
     }
+
+    @Test void testCachedBinaryIsReused() throws Exception {
+        String path = ToolUtils.extractJXPipelineBinary(ToolUtilsTest.class.getClassLoader(), cacheDir.toFile(), "1.2.3");
+        File file = new File(path);
+        assertThat(file).isFile();
+        assertThat(file.canExecute()).isTrue();
+        long lastModified = file.lastModified();
+
+        String cachedPath = ToolUtils.extractJXPipelineBinary(ToolUtilsTest.class.getClassLoader(), cacheDir.toFile(), "1.2.3");
+        assertThat(cachedPath).isEqualTo(path);
+        assertThat(new File(cachedPath).lastModified()).isEqualTo(lastModified);
+    }
+
+    @Test void testCorruptBinaryIsReplaced() throws Exception {
+        String path = ToolUtils.extractJXPipelineBinary(ToolUtilsTest.class.getClassLoader(), cacheDir.toFile(), "1.2.3");
+        long size = new File(path).length();
+        Files.write(new File(path).toPath(), "corrupt".getBytes(StandardCharsets.UTF_8));
+
+        String repairedPath = ToolUtils.extractJXPipelineBinary(ToolUtilsTest.class.getClassLoader(), cacheDir.toFile(), "1.2.3");
+        assertThat(repairedPath).isEqualTo(path);
+        assertThat(new File(repairedPath).length()).isEqualTo(size);
+    }
+
+    @Test void testCacheIsKeyedByVersionWithChecksumFile() throws Exception {
+        String path = ToolUtils.extractJXPipelineBinary(ToolUtilsTest.class.getClassLoader(), cacheDir.toFile(), "1.2.3");
+        File file = new File(path);
+        assertThat(file.getParentFile().getParentFile().getName()).isEqualTo("1.2.3");
+
+        File checksumFile = new File(file.getParentFile(), file.getName() + ".sha256");
+        assertThat(checksumFile).isFile();
+        assertThat(new String(Files.readAllBytes(checksumFile.toPath()), StandardCharsets.UTF_8)).matches("[0-9a-f]{64}  jx-pipeline-effective\\n");
+
+        // a newer version is extracted alongside rather than reusing the older binary
+        String newerPath = ToolUtils.extractJXPipelineBinary(ToolUtilsTest.class.getClassLoader(), cacheDir.toFile(), "1.2.4");
+        assertThat(newerPath).isNotEqualTo(path);
+        assertThat(new File(newerPath)).isFile();
+    }
+
+    @Test void testBinaryWithoutChecksumFileIsExtractedAgain() throws Exception {
+        String path = ToolUtils.extractJXPipelineBinary(ToolUtilsTest.class.getClassLoader(), cacheDir.toFile(), "1.2.3");
+        long size = new File(path).length();
+        Files.delete(new File(path + ".sha256").toPath());
+        Files.write(new File(path).toPath(), "partial".getBytes(StandardCharsets.UTF_8));
+
+        String extractedPath = ToolUtils.extractJXPipelineBinary(ToolUtilsTest.class.getClassLoader(), cacheDir.toFile(), "1.2.3");
+        assertThat(new File(extractedPath).length()).isEqualTo(size);
+        assertThat(new File(path + ".sha256")).isFile();
+    }
+
+    @Test void testSnapshotVersionsAreKeyedByChecksum() throws Exception {
+        String path = ToolUtils.extractJXPipelineBinary(ToolUtilsTest.class.getClassLoader(), cacheDir.toFile(), "1.2.4-SNAPSHOT");
+        assertThat(new File(path).getParentFile().getParentFile().getName()).matches("[0-9a-f]{64}");
+    }
 }
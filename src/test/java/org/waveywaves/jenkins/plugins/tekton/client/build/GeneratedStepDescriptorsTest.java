@@ -0,0 +1,104 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build;
+
+import hudson.ExtensionComponent;
+import hudson.ExtensionComponentSet;
+import hudson.model.AbstractProject;
+import hudson.model.Descriptor;
+import hudson.model.PeriodicWork;
+import hudson.tasks.BuildStepDescriptor;
+import hudson.tasks.Builder;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for GeneratedStepDescriptors.
+ */
+class GeneratedStepDescriptorsTest {
+
+    @Test
+    void testDescriptorsAreMaterializedOnFirstLookup() {
+        // Arrange
+        FakeStep.DescriptorImpl.instances = 0;
+        GeneratedStepDescriptors finder = new GeneratedStepDescriptors();
+
+        // Act
+        Collection<ExtensionComponent<Descriptor>> first = finder.find(Descriptor.class, null);
+        Collection<ExtensionComponent<Descriptor>> second = finder.find(Descriptor.class, null);
+
+        // Assert - The indexed descriptor is instantiated once and reused
+        assertThat(first).extracting(ExtensionComponent::getInstance).hasAtLeastOneElementOfType(FakeStep.DescriptorImpl.class);
+        assertThat(second).extracting(ExtensionComponent::getInstance)
+            .containsExactlyElementsOf(first.stream().map(ExtensionComponent::getInstance).toList());
+        assertThat(FakeStep.DescriptorImpl.instances).isEqualTo(1);
+    }
+
+    @Test
+    void testOtherExtensionTypesDoNotMaterializeDescriptors() {
+        // Arrange
+        FakeStep.DescriptorImpl.instances = 0;
+        GeneratedStepDescriptors finder = new GeneratedStepDescriptors();
+
+        // Act & Assert
+        assertThat(finder.find(PeriodicWork.class, null)).isEmpty();
+        assertThat(finder.find(Object.class, null)).isEmpty();
+        assertThat(FakeStep.DescriptorImpl.instances).isZero();
+    }
+
+    @Test
+    void testFirstRefreshHandsOutDescriptorsOnDynamicInstall() throws Exception {
+        // Arrange
+        FakeStep.DescriptorImpl.instances = 0;
+        GeneratedStepDescriptors finder = new GeneratedStepDescriptors();
+
+        // Act - Jenkins only refreshes the finders of a plugin installed without a restart
+        ExtensionComponentSet first = finder.refresh();
+        ExtensionComponentSet second = finder.refresh();
+
+        // Assert - The descriptors are handed out once
+        assertThat(first.find(Descriptor.class)).extracting(ExtensionComponent::getInstance)
+            .hasAtLeastOneElementOfType(FakeStep.DescriptorImpl.class);
+        assertThat(first.find(PeriodicWork.class)).isEmpty();
+        assertThat(second.find(Descriptor.class)).isEmpty();
+        assertThat(finder.find(Descriptor.class, null)).extracting(ExtensionComponent::getInstance)
+            .containsExactlyElementsOf(first.find(Descriptor.class).stream().map(ExtensionComponent::getInstance).toList());
+        assertThat(FakeStep.DescriptorImpl.instances).isEqualTo(1);
+    }
+
+    @Test
+    void testRefreshAfterLookupFindsNothingNew() throws Exception {
+        // Arrange
+        GeneratedStepDescriptors finder = new GeneratedStepDescriptors();
+        assertThat(finder.find(Descriptor.class, null)).isNotEmpty();
+
+        // Act & Assert - The descriptors already came from the lookup
+        assertThat(finder.refresh().find(Descriptor.class)).isEmpty();
+    }
+
+    /**
+     * A step shaped like the generated ones.
+     */
+    public static class FakeStep extends Builder {
+
+        @GeneratedStepDescriptor
+        public static final class DescriptorImpl extends BuildStepDescriptor<Builder> {
+            static int instances;
+
+            public DescriptorImpl() {
+                instances++;
+            }
+
+            @Override
+            public String getDisplayName() {
+                return "Tekton: Fake Step";
+            }
+
+            @Override
+            public boolean isApplicable(Class<? extends AbstractProject> jobType) {
+                return true;
+            }
+        }
+    }
+}
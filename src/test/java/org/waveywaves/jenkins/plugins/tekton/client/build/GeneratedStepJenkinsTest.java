@@ -0,0 +1,169 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.AbstractProject;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.tasks.BuildStepDescriptor;
+import hudson.tasks.Builder;
+import io.fabric8.knative.internal.pkg.apis.ConditionBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.fabric8.tekton.pipeline.v1beta1.PipelineRun;
+import io.fabric8.tekton.pipeline.v1beta1.PipelineRunBuilder;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.waveywaves.jenkins.plugins.tekton.client.MockServerRequests;
+import org.waveywaves.jenkins.plugins.tekton.client.TektonUtils;
+import org.waveywaves.jenkins.plugins.tekton.client.global.ClusterConfig;
+import org.waveywaves.jenkins.plugins.tekton.client.retention.TektonRunLabels;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a step shaped like the ones generated from the Tekton CRDs in a build against the mock API server.
+ */
+@WithJenkins
+@EnableKubernetesMockClient
+class GeneratedStepJenkinsTest {
+    private static final String NAME = "build";
+    private static final String PIPELINERUNS = "/apis/tekton.dev/v1beta1/namespaces/ci/pipelineruns";
+
+    KubernetesMockServer server;
+    KubernetesClient client;
+
+    @AfterEach void after() {
+        TektonUtils.shutdownKubeClients();
+    }
+
+    @Test void testStepCreatesInItsClusterAndNamespace(JenkinsRule j) throws Exception {
+        expectPipelineRun("True", "Succeeded", "Tasks Completed: 0");
+
+        FreeStyleBuild build = j.buildAndAssertSuccess(project(j));
+
+        List<RecordedRequest> requests = MockServerRequests.take(server, "POST");
+        assertThat(requests).hasSize(1);
+        assertThat(requests.get(0).getPath()).isEqualTo(PIPELINERUNS);
+        assertThat(requests.get(0).getBody().readUtf8()).contains("\"" + TektonRunLabels.BUILD_LABEL + "\":\"1\"");
+        j.assertLogNotContains("Failed:", build);
+    }
+
+    @Test void testFailedPipelineRunFailsTheBuild(JenkinsRule j) throws Exception {
+        expectPipelineRun("False", "Failed", "Tasks Completed: 1 (Failed: 1)");
+
+        FreeStyleBuild build = j.buildAndAssertStatus(Result.FAILURE, project(j));
+
+        j.assertLogContains("Failed: Failed: Tasks Completed: 1 (Failed: 1)", build);
+    }
+
+    @Test void testUnknownClusterFailsTheBuild(JenkinsRule j) throws Exception {
+        FreeStyleProject project = project(j);
+        ((CreatePipelineRunTyped) project.getBuildersList().get(0)).setClusterName("east");
+
+        FreeStyleBuild build = j.buildAndAssertStatus(Result.FAILURE, project);
+
+        j.assertLogContains("no tektonClient for cluster east", build);
+        assertThat(MockServerRequests.take(server, "POST")).isEmpty();
+    }
+
+    private FreeStyleProject project(JenkinsRule j) throws IOException {
+        // after Jenkins has started, which would configure the clusters of the global configuration
+        TektonUtils.initializeKubeClients(Collections.singletonList(
+                new ClusterConfig("west", client.getConfiguration().getMasterUrl(), "test")));
+
+        CreatePipelineRunTyped step = new CreatePipelineRunTyped();
+        step.setClusterName("west");
+        step.setNamespace("ci");
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.getBuildersList().add(step);
+        return project;
+    }
+
+    /**
+     * Answers as the API server of a cluster whose Tekton controller completes the PipelineRun immediately
+     */
+    private void expectPipelineRun(String status, String reason, String message) {
+        PipelineRun created = pipelineRun();
+        created.getMetadata().setNamespace("ci");
+        created.getMetadata().setUid("7b2d1f9e-0c4a-4f57-9a3e-1d2c3b4a5f60");
+        server.expect().post().withPath(PIPELINERUNS).andReturn(HttpURLConnection.HTTP_CREATED, created).once();
+
+        PipelineRun completed = new PipelineRunBuilder(created)
+                .withNewStatus()
+                    .addToConditions(new ConditionBuilder().withType("Succeeded").withStatus(status).withReason(reason).withMessage(message).build())
+                .endStatus()
+                .build();
+        server.expect().get().withPath(PIPELINERUNS + "/" + NAME).andReturn(HttpURLConnection.HTTP_OK, completed).always();
+    }
+
+    private static PipelineRun pipelineRun() {
+        // no tasks, so there are no TaskRun logs to wait for
+        return new PipelineRunBuilder()
+                .withApiVersion("tekton.dev/v1beta1")
+                .withKind("PipelineRun")
+                .withNewMetadata().withName(NAME).endMetadata()
+                .withNewSpec().withNewPipelineSpec().withTasks(Collections.emptyList()).endPipelineSpec().endSpec()
+                .build();
+    }
+
+    /**
+     * Like the generated steps, converts itself to the Tekton model and creates it through {@link GeneratedStepSupport}
+     */
+    public static class CreatePipelineRunTyped extends BaseStep {
+        private String clusterName;
+        private String namespace;
+
+        @DataBoundConstructor
+        public CreatePipelineRunTyped() {
+        }
+
+        public String getClusterName() {
+            return clusterName;
+        }
+
+        @DataBoundSetter
+        public void setClusterName(String clusterName) {
+            this.clusterName = clusterName;
+        }
+
+        public String getNamespace() {
+            return namespace;
+        }
+
+        @DataBoundSetter
+        public void setNamespace(String namespace) {
+            this.namespace = namespace;
+        }
+
+        @Override
+        public void perform(@NonNull Run<?, ?> run, @NonNull FilePath workspace, @NonNull EnvVars envVars, @NonNull Launcher launcher, @NonNull TaskListener listener) throws InterruptedException, IOException {
+            GeneratedStepSupport.create(pipelineRun(), clusterName, namespace, run, envVars, listener);
+        }
+
+        @TestExtension
+        public static class DescriptorImpl extends BuildStepDescriptor<Builder> {
+            @Override
+            public boolean isApplicable(Class<? extends AbstractProject> jobType) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build.create;
+
+import io.fabric8.knative.internal.pkg.apis.ConditionBuilder;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaim;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.PodStatusBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.fabric8.tekton.client.TektonClient;
+import io.fabric8.tekton.pipeline.v1beta1.TaskRun;
+import io.fabric8.tekton.pipeline.v1beta1.TaskRunStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.waveywaves.jenkins.plugins.tekton.client.workspace.PvcPool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Creates a TaskRun and waits for it to complete, time out or be cancelled against the mock API server.
+ */
+@EnableKubernetesMockClient(crud = true)
+class CreateCustomTaskrunMockServerTest {
+    private static final String NAME = "build";
+
+    KubernetesMockServer server;
+    KubernetesClient client;
+
+    private TektonClient tektonClient;
+    private final ByteArrayOutputStream console = new ByteArrayOutputStream();
+    private final ExecutorService controller = Executors.newSingleThreadExecutor();
+
+    @BeforeEach void before() {
+        tektonClient = client.adapt(TektonClient.class);
+        // a pod which already ran so the log watch does not wait for one
+        Pod pod = client.pods().create(new PodBuilder()
+                .withNewMetadata()
+                    .withName(NAME + "-pod")
+                    .addToLabels("tekton.dev/taskRun", NAME)
+                    .addNewOwnerReference().withKind("TaskRun").withName(NAME).endOwnerReference()
+                .endMetadata()
+                .withNewSpec().withContainers(Collections.emptyList()).endSpec()
+                .build());
+        pod.setStatus(new PodStatusBuilder().withPhase("Succeeded").build());
+        client.pods().withName(NAME + "-pod").updateStatus(pod);
+    }
+
+    @AfterEach void after() {
+        controller.shutdownNow();
+    }
+
+    @Test void testWaitsUntilTheTaskRunSucceeds() throws InterruptedException {
+        completeWhenCreated("True", "Succeeded", "All Steps have completed executing");
+
+        CreateCustomTaskrun step = newStep();
+
+        CreateCustomTaskrun.TaskRunResult result = step.runTaskRun(step.buildTaskRun(null), logger());
+
+        assertThat(result.isSucceeded()).isTrue();
+        assertThat(result.getStatus()).isEqualTo("Succeeded");
+        assertThat(taskRun().getSpec().getStatus()).isNull();
+    }
+
+    @Test void testWaitsUntilTheTaskRunFails() throws InterruptedException {
+        completeWhenCreated("False", "Failed", "\"step-build\" exited with code 1");
+
+        CreateCustomTaskrun step = newStep();
+
+        CreateCustomTaskrun.TaskRunResult result = step.runTaskRun(step.buildTaskRun(null), logger());
+
+        assertThat(result.isSucceeded()).isFalse();
+        assertThat(result.getStatus()).isEqualTo("Failed");
+        assertThat(result.getMessage()).contains("exited with code 1");
+    }
+
+    @Test void testDoesNotWaitWhenDisabled() throws InterruptedException {
+        CreateCustomTaskrun step = newStep();
+        step.setWaitForCompletion(false);
+
+        CreateCustomTaskrun.TaskRunResult result = step.runTaskRun(step.buildTaskRun(null), logger());
+
+        assertThat(result.isSucceeded()).isTrue();
+        assertThat(result.getStatus()).isEqualTo("Created");
+        assertThat(taskRun()).isNotNull();
+        assertThat(taskRun().getSpec().getStatus()).isNull();
+    }
+
+    @Test void testTaskRunIsCancelledWhenItTimesOut() throws InterruptedException {
+        CreateCustomTaskrun step = newStep();
+        step.setTimeoutMinutes(0);
+
+        CreateCustomTaskrun.TaskRunResult result = step.runTaskRun(step.buildTaskRun(null), logger());
+
+        assertThat(result.isSucceeded()).isFalse();
+        assertThat(result.getStatus()).isEqualTo("TimedOut");
+        assertThat(taskRun().getSpec().getStatus()).isEqualTo("TaskRunCancelled");
+        assertThat(console.toString(StandardCharsets.UTF_8)).contains("[Tekton] Cancelled TaskRun " + NAME);
+    }
+
+    @Test void testLeaseIsReleasedOnceTheTaskRunCompletes() throws InterruptedException {
+        completeWhenCreated("True", "Succeeded", "All Steps have completed executing");
+
+        CreateCustomTaskrun step = newPooledStep();
+
+        CreateCustomTaskrun.TaskRunResult result = step.runTaskRun(step.buildTaskRun(null), logger());
+
+        assertThat(result.isFinished()).isTrue();
+        // without a configured pool the claim is deleted once released
+        assertThat(client.persistentVolumeClaims().inNamespace("test").list().getItems()).isEmpty();
+    }
+
+    @Test void testLeaseIsKeptWhenInterruptedWhileTheTaskRunRuns() throws Exception {
+        CreateCustomTaskrun step = newPooledStep();
+        ExecutorService build = Executors.newSingleThreadExecutor();
+        Future<CreateCustomTaskrun.TaskRunResult> run = build.submit(() -> step.runTaskRun(step.buildTaskRun(null), logger()));
+        while (leasedTo() == null) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+
+        // as when the build is aborted
+        run.cancel(true);
+        build.shutdown();
+        assertThat(build.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // the claim is reclaimed by the pool maintenance once the TaskRun completes
+        assertThat(leasedTo()).isEqualTo(NAME);
+        assertThat(taskRun().getSpec().getStatus()).isNull();
+    }
+
+    private CreateCustomTaskrun newPooledStep() {
+        TektonWorkspaceBind workspace = new TektonWorkspaceBind("source", null);
+        workspace.setSize("1Gi");
+        CreateCustomTaskrun step = new CreateCustomTaskrun(NAME, null, "test", null, Collections.singletonList(workspace), null, "build-task");
+        step.setTektonClient(tektonClient);
+        step.setKubernetesClient(client);
+        return step;
+    }
+
+    private String leasedTo() {
+        List<PersistentVolumeClaim> claims = client.persistentVolumeClaims().inNamespace("test").list().getItems();
+        return claims.isEmpty() ? null : claims.get(0).getMetadata().getAnnotations().get(PvcPool.LEASED_TO_ANNOTATION);
+    }
+
+    private CreateCustomTaskrun newStep() {
+        CreateCustomTaskrun step = new CreateCustomTaskrun(NAME, null, "test", null, null, null, "build-task");
+        step.setTektonClient(tektonClient);
+        step.setKubernetesClient(client);
+        return step;
+    }
+
+    /**
+     * Acts as the Tekton controller, completing the TaskRun once it has been created
+     */
+    private void completeWhenCreated(String status, String reason, String message) {
+        controller.submit(() -> {
+            while (taskRun() == null) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+            TaskRun taskRun = taskRun();
+            taskRun.setStatus(new TaskRunStatus());
+            taskRun.getStatus().setConditions(Collections.singletonList(new ConditionBuilder()
+                    .withType("Succeeded").withStatus(status).withReason(reason).withMessage(message).build()));
+            tektonClient.v1beta1().taskRuns().inNamespace("test").withName(NAME).updateStatus(taskRun);
+            return null;
+        });
+    }
+
+    private TaskRun taskRun() {
+        return tektonClient.v1beta1().taskRuns().inNamespace("test").withName(NAME).get();
+    }
+
+    private PrintStream logger() {
+        return new PrintStream(console, true, StandardCharsets.UTF_8);
+    }
+}
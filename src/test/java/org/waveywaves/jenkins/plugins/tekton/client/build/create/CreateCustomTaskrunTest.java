@@ -0,0 +1,62 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build.create;
+
+import io.fabric8.tekton.pipeline.v1beta1.Param;
+import io.fabric8.tekton.pipeline.v1beta1.TaskRun;
+import org.junit.jupiter.api.Test;
+import org.waveywaves.jenkins.plugins.tekton.client.logwatch.TaskRunLogWatch;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CreateCustomTaskrunTest {
+
+    @Test void testBatchTaskRunOverridesParamsAndGeneratesName() {
+        CreateCustomTaskrun step = new CreateCustomTaskrun("tests", null, "ns", null, Collections.emptyList(),
+                Arrays.asList(new TektonParam("SHARD", "0"), new TektonParam("TOTAL", "50")), "run-tests");
+
+        TaskRun taskRun = step.buildBatchTaskRun(new TektonParamSet(Collections.singletonList(new TektonParam("SHARD", "7"))));
+
+        assertThat(taskRun.getMetadata().getName()).isNull();
+        assertThat(taskRun.getMetadata().getGenerateName()).isEqualTo("tests-");
+        assertThat(taskRun.getMetadata().getNamespace()).isEqualTo("ns");
+        assertThat(taskRun.getSpec().getTaskRef().getName()).isEqualTo("run-tests");
+        Map<String, String> params = taskRun.getSpec().getParams().stream()
+                .collect(Collectors.toMap(Param::getName, p -> p.getValue().getStringVal()));
+        assertThat(params).containsEntry("SHARD", "7").containsEntry("TOTAL", "50").hasSize(2);
+    }
+
+    @Test void testBatchTaskRunKeepsGenerateName() {
+        CreateCustomTaskrun step = new CreateCustomTaskrun(null, "shard-", "ns", null, null, null, "run-tests");
+
+        TaskRun taskRun = step.buildBatchTaskRun(new TektonParamSet(Collections.singletonList(new TektonParam("SHARD", "1"))));
+
+        assertThat(taskRun.getMetadata().getGenerateName()).isEqualTo("shard-");
+        assertThat(taskRun.getSpec().getParams()).extracting(Param::getName).containsExactly("SHARD");
+    }
+
+    @Test void testLoadedStepGetsDefaults() throws Exception {
+        CreateCustomTaskrun step = new CreateCustomTaskrun(null, "shard-", "ns", null, null, null, "run-tests");
+        // as left by XStream for a step saved before the completion and pending pod settings existed
+        Field waitForCompletion = CreateCustomTaskrun.class.getDeclaredField("waitForCompletion");
+        waitForCompletion.setAccessible(true);
+        waitForCompletion.set(step, null);
+        step.setTimeoutMinutes(0);
+        step.setMaxConcurrency(0);
+        step.setPendingPodPolicy(null);
+        step.setPendingGraceSeconds(0);
+
+        step.readResolve();
+
+        assertThat(waitForCompletion.get(step)).isEqualTo(Boolean.TRUE);
+        assertThat(step.isWaitForCompletion()).isTrue();
+        assertThat(step.getTimeoutMinutes()).isEqualTo(CreateCustomTaskrun.DEFAULT_TIMEOUT_MINUTES);
+        assertThat(step.getMaxConcurrency()).isEqualTo(CreateCustomTaskrun.DEFAULT_MAX_CONCURRENCY);
+        assertThat(step.getPendingPodPolicy()).isEqualTo("WAIT");
+        assertThat(step.getPendingGraceSeconds()).isEqualTo(TaskRunLogWatch.DEFAULT_PENDING_GRACE_SECONDS);
+    }
+}
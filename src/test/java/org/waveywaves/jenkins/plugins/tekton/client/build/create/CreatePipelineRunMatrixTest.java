@@ -0,0 +1,63 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build.create;
+
+import org.junit.jupiter.api.Test;
+import org.waveywaves.jenkins.plugins.tekton.client.logwatch.TaskRunLogWatch;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CreatePipelineRunMatrixTest {
+
+    @Test void testCellsAreCartesianProduct() {
+        CreatePipelineRunMatrix step = new CreatePipelineRunMatrix("", "YAML", Arrays.asList(
+                new TektonMatrixAxis("os", "linux, windows"),
+                new TektonMatrixAxis("jdk", "11\n17\n21")));
+
+        List<Map<String, String>> cells = step.getCells();
+        assertThat(cells).hasSize(6);
+        assertThat(cells.get(0)).containsEntry("os", "linux").containsEntry("jdk", "11");
+        assertThat(cells.get(5)).containsEntry("os", "windows").containsEntry("jdk", "21");
+    }
+
+    @Test void testEmptyMatrixHasNoCells() {
+        CreatePipelineRunMatrix step = new CreatePipelineRunMatrix("", "YAML", Collections.singletonList(
+                new TektonMatrixAxis("os", " , ")));
+
+        assertThat(step.getCells()).isEmpty();
+    }
+
+    @Test void testCellsInheritRunSettings() {
+        CreatePipelineRunMatrix step = new CreatePipelineRunMatrix("", "YAML", Collections.singletonList(
+                new TektonMatrixAxis("os", "linux")));
+        step.setNamespace("ci");
+        step.setPendingPodPolicy("FAIL");
+        step.setPendingGraceSeconds(600);
+        step.setCacheWorkspaces(Collections.singletonList(new TektonCacheWorkspace("cache", "1Gi")));
+        step.setCacheKey("folder/job", "main");
+
+        CreateRaw cell = step.createCell("", new CreatePipelineRunMatrix.MatrixCellResult(step.getCells().get(0)));
+
+        assertThat(cell.getNamespace()).isEqualTo("ci");
+        assertThat(cell.getPendingPodPolicy()).isEqualTo("FAIL");
+        assertThat(cell.getPendingGraceSeconds()).isEqualTo(600);
+        assertThat(cell.getCacheWorkspaces()).extracting(TektonCacheWorkspace::getName).containsExactly("cache");
+        assertThat(cell.getCacheJob()).isEqualTo("folder/job");
+        assertThat(cell.getCacheBranch()).isEqualTo("main");
+    }
+
+    @Test void testLoadedStepGetsPendingPodDefaults() {
+        CreatePipelineRunMatrix step = new CreatePipelineRunMatrix("", "YAML", Collections.emptyList());
+        // as left by XStream for a step saved before the pending pod settings existed
+        step.setPendingPodPolicy(null);
+        step.setPendingGraceSeconds(0);
+
+        step.readResolve();
+
+        assertThat(step.getPendingPodPolicy()).isEqualTo("WAIT");
+        assertThat(step.getPendingGraceSeconds()).isEqualTo(TaskRunLogWatch.DEFAULT_PENDING_GRACE_SECONDS);
+    }
+}
@@ -0,0 +1,51 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build.create;
+
+import hudson.FilePath;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResolveTektonDataCallableTest {
+    private static final String TASK_YAML = "apiVersion: tekton.dev/v1beta1\n" +
+            "kind: Task\n" +
+            "metadata:\n" +
+            "  name: testTask\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test void testReadsFileInWorkspace() throws Exception {
+        Files.write(tempDir.resolve("task.yaml"), TASK_YAML.getBytes(StandardCharsets.UTF_8));
+        FilePath workspace = new FilePath(tempDir.toFile());
+
+        byte[] data = workspace.act(new ResolveTektonDataCallable("task.yaml", null, false, Collections.emptyMap(), 60));
+
+        assertThat(new String(data, StandardCharsets.UTF_8)).isEqualTo(TASK_YAML);
+    }
+
+    @Test void testRejectsMultipleResources() {
+        byte[] data = (TASK_YAML + "---\n" + TASK_YAML).getBytes(StandardCharsets.UTF_8);
+        FilePath workspace = new FilePath(tempDir.toFile());
+
+        assertThatThrownBy(() -> workspace.act(new ResolveTektonDataCallable(null, data, false, Collections.emptyMap(), 60)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Multiple Objects");
+    }
+
+    @Test void testRejectsUnsupportedKind() {
+        byte[] data = "apiVersion: v1\nkind: ConfigMap\n".getBytes(StandardCharsets.UTF_8);
+        FilePath workspace = new FilePath(tempDir.toFile());
+
+        assertThatThrownBy(() -> workspace.act(new ResolveTektonDataCallable(null, data, false, Collections.emptyMap(), 60)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("ConfigMap");
+    }
+}
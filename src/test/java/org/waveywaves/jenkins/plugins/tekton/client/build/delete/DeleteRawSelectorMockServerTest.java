@@ -0,0 +1,126 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build.delete;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.fabric8.tekton.client.TektonClient;
+import io.fabric8.tekton.pipeline.v1beta1.TaskRunBuilder;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.waveywaves.jenkins.plugins.tekton.client.MockServerRequests;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Deletes by name or selector against the mock API server.
+ */
+@EnableKubernetesMockClient(crud = true)
+class DeleteRawSelectorMockServerTest {
+
+    KubernetesMockServer server;
+    KubernetesClient client;
+
+    private TektonClient tektonClient;
+
+    @BeforeEach void before() throws InterruptedException {
+        tektonClient = client.adapt(TektonClient.class);
+        createTaskRun("build-1", "build");
+        createTaskRun("build-2", "build");
+        createTaskRun("test-1", "test");
+        MockServerRequests.take(server);
+    }
+
+    @Test void testSetBasedSelectorIsSentToTheServerAsIs() throws InterruptedException {
+        // the mock server cannot evaluate set-based requirements, so check what the API server would be asked
+        for (int pageSize : new int[] { 0, 2 }) {
+            DeleteRaw step = newStep();
+            step.setPageSize(pageSize);
+            step.setLabelSelector("app in (build,deploy),!canary");
+            step.setFieldSelector("metadata.name!=keep");
+
+            step.runDelete();
+
+            // without paging the collection is deleted directly
+            List<RecordedRequest> requests = MockServerRequests.take(server, pageSize == 0 ? "DELETE" : "GET");
+            assertThat(requests).isNotEmpty();
+            assertThat(requests.get(0).getRequestUrl().queryParameter("labelSelector")).isEqualTo("app in (build,deploy),!canary");
+            assertThat(requests.get(0).getRequestUrl().queryParameter("fieldSelector")).isEqualTo("metadata.name!=keep");
+        }
+    }
+
+    @Test void testUnpagedSelectorDeletesTheCollectionInASingleRequest() throws InterruptedException {
+        DeleteRaw step = newStep();
+        step.setPageSize(0);
+        step.setLabelSelector("app=build");
+
+        assertThat(step.runDelete()).isTrue();
+
+        List<RecordedRequest> requests = MockServerRequests.take(server);
+        assertThat(requests).extracting(RecordedRequest::getMethod).containsExactly("DELETE");
+        assertThat(requests.get(0).getPath()).startsWith("/apis/tekton.dev/v1beta1/namespaces/test/taskruns?");
+    }
+
+    @Test void testUnpagedSelectorDeletesOnlyMatches() throws InterruptedException {
+        DeleteRaw step = newStep();
+        step.setPageSize(0);
+        step.setLabelSelector("app=build");
+
+        assertThat(step.runDelete()).isTrue();
+
+        assertThat(taskRunNames()).containsExactly("test-1");
+    }
+
+    @Test void testPagedSelectorDeletesOnlyMatches() throws InterruptedException {
+        DeleteRaw step = newStep();
+        step.setLabelSelector("app!=build");
+
+        assertThat(step.runDelete()).isTrue();
+
+        assertThat(taskRunNames()).containsExactlyInAnyOrder("build-1", "build-2");
+    }
+
+    @Test void testSelectorMatchingNothingDeletesNothing() throws InterruptedException {
+        DeleteRaw step = newStep();
+        step.setPageSize(0);
+        step.setLabelSelector("app=deploy");
+
+        assertThat(step.runDelete()).isFalse();
+
+        assertThat(taskRunNames()).hasSize(3);
+    }
+
+    @Test void testNamedResourceIsDeletedWithoutListing() throws InterruptedException {
+        DeleteRaw step = new DeleteRaw("taskrun", "default", new DeleteRaw.DeleteAllBlock("test-1"));
+        step.setTektonClient(tektonClient);
+
+        assertThat(step.runDelete()).isTrue();
+
+        List<RecordedRequest> requests = MockServerRequests.take(server);
+        assertThat(requests).extracting(RecordedRequest::getMethod).containsExactly("DELETE");
+        assertThat(requests.get(0).getPath()).endsWith("/taskruns/test-1");
+        assertThat(taskRunNames()).containsExactlyInAnyOrder("build-1", "build-2");
+    }
+
+    private DeleteRaw newStep() {
+        DeleteRaw step = new DeleteRaw("taskrun", "default", null);
+        step.setTektonClient(tektonClient);
+        return step;
+    }
+
+    private void createTaskRun(String name, String app) {
+        tektonClient.v1beta1().taskRuns().create(new TaskRunBuilder()
+                .withNewMetadata().withName(name).addToLabels("app", app).endMetadata()
+                .build());
+    }
+
+    private List<String> taskRunNames() {
+        return tektonClient.v1beta1().taskRuns().list().getItems().stream()
+                .map(HasMetadata::getMetadata).map(ObjectMeta::getName).collect(Collectors.toList());
+    }
+}
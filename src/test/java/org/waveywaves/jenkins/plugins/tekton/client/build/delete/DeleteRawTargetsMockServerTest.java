@@ -0,0 +1,137 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build.delete;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesCrudDispatcher;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.fabric8.mockwebserver.Context;
+import io.fabric8.tekton.client.TektonClient;
+import io.fabric8.tekton.pipeline.v1beta1.TaskRun;
+import io.fabric8.tekton.pipeline.v1beta1.TaskRunBuilder;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.waveywaves.jenkins.plugins.tekton.client.TektonUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Deletes from several clusters and namespaces against mock API servers.
+ */
+@EnableKubernetesMockClient(crud = true)
+class DeleteRawTargetsMockServerTest {
+
+    KubernetesMockServer server;
+    KubernetesClient client;
+
+    private KubernetesMockServer westServer;
+    private KubernetesClient westClient;
+
+    @BeforeEach void before() {
+        westServer = new KubernetesMockServer(new Context(), new MockWebServer(), new HashMap<>(),
+                new KubernetesCrudDispatcher(Collections.emptyList()), false);
+        westServer.init();
+        westClient = westServer.createClient();
+
+        TektonUtils.getTektonClientMap().put("east", client.adapt(TektonClient.class));
+        TektonUtils.getTektonClientMap().put("west", westClient.adapt(TektonClient.class));
+        for (String cluster : new String[] { "east", "west" }) {
+            for (String ns : new String[] { "ns1", "ns2", "ns3" }) {
+                createTaskRun(cluster, ns, "build-" + ns, "build");
+                createTaskRun(cluster, ns, "test-" + ns, "test");
+            }
+        }
+    }
+
+    @AfterEach void after() {
+        TektonUtils.getTektonClientMap().remove("east");
+        TektonUtils.getTektonClientMap().remove("west");
+        westClient.close();
+        westServer.destroy();
+    }
+
+    @Test void testDeletesFromEveryClusterAndNamespace() throws InterruptedException {
+        DeleteRaw step = newStep();
+        step.setClusterNames("east,west");
+        step.setNamespaces("ns1\nns2");
+        step.setMaxConcurrentTargets(2);
+
+        assertThat(step.runDelete()).isTrue();
+
+        for (String cluster : new String[] { "east", "west" }) {
+            assertThat(taskRunNames(cluster, "ns1")).containsExactly("test-ns1");
+            assertThat(taskRunNames(cluster, "ns2")).containsExactly("test-ns2");
+            // namespaces which were not targeted are left alone
+            assertThat(taskRunNames(cluster, "ns3")).containsExactlyInAnyOrder("build-ns3", "test-ns3");
+        }
+    }
+
+    @Test void testUnpagedDeletesFromEveryTarget() throws InterruptedException {
+        DeleteRaw step = newStep();
+        step.setClusterNames("east\nwest");
+        step.setNamespaces("ns3");
+        step.setPageSize(0);
+
+        assertThat(step.runDelete()).isTrue();
+
+        assertThat(taskRunNames("east", "ns3")).containsExactly("test-ns3");
+        assertThat(taskRunNames("west", "ns3")).containsExactly("test-ns3");
+    }
+
+    @Test void testFailedTargetDoesNotStopTheOthers() throws InterruptedException {
+        DeleteRaw step = newStep();
+        step.setClusterNames("east,missing,west");
+        step.setNamespaces("ns1");
+
+        assertThat(step.runDelete()).isFalse();
+
+        assertThat(taskRunNames("east", "ns1")).containsExactly("test-ns1");
+        assertThat(taskRunNames("west", "ns1")).containsExactly("test-ns1");
+    }
+
+    @Test void testInterruptionIsNotReportedAsAFailedTarget() {
+        DeleteRaw step = newStep();
+        step.setClusterNames("east,west");
+        step.setNamespaces("ns1");
+
+        // as when the build is aborted while waiting for the targets
+        Thread.currentThread().interrupt();
+
+        assertThatThrownBy(step::runDelete).isInstanceOf(InterruptedException.class);
+    }
+
+    @Test void testTargetsAreEveryClusterAndNamespace() {
+        DeleteRaw step = newStep();
+        step.setClusterNames("east, west, east");
+        step.setNamespaces("ns1,ns2");
+
+        List<String> labels = step.getTargets().stream().map(DeleteRaw.DeleteTargetResult::getLabel).collect(Collectors.toList());
+
+        assertThat(labels).containsExactly("east/ns1", "east/ns2", "west/ns1", "west/ns2");
+    }
+
+    private DeleteRaw newStep() {
+        DeleteRaw step = new DeleteRaw("taskrun", "east", null);
+        step.setLabelSelector("app=build");
+        return step;
+    }
+
+    private void createTaskRun(String cluster, String ns, String name, String app) {
+        TaskRun taskRun = new TaskRunBuilder()
+                .withNewMetadata().withName(name).withNamespace(ns).addToLabels("app", app).endMetadata()
+                .build();
+        TektonUtils.getTektonClient(cluster).v1beta1().taskRuns().inNamespace(ns).create(taskRun);
+    }
+
+    private List<String> taskRunNames(String cluster, String ns) {
+        return TektonUtils.getTektonClient(cluster).v1beta1().taskRuns().inNamespace(ns).list().getItems().stream()
+                .map(taskRun -> taskRun.getMetadata().getName()).collect(Collectors.toList());
+    }
+}
@@ -6,6 +6,8 @@ import org.waveywaves.jenkins.plugins.tekton.client.TektonUtils;
 import org.waveywaves.jenkins.plugins.tekton.client.build.delete.DeleteRaw.DeleteAllBlock;
 import org.waveywaves.jenkins.plugins.tekton.client.build.delete.mock.DeleteRawMock;
 
+import java.lang.reflect.Field;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
@@ -13,31 +15,58 @@ class DeleteRawTest {
 
     DeleteRaw.DeleteAllBlock deleteAllBlock;
 
-    @Test void runDeleteTaskTest(){
+    @Test void runDeleteTaskTest() throws InterruptedException {
         deleteAllBlock = new DeleteRaw.DeleteAllBlock("test");
         DeleteRaw deleteRaw = new DeleteRawMock(TektonUtils.TektonResourceType.task.toString(), TektonUtils.DEFAULT_CLIENT_KEY, deleteAllBlock);
         Boolean isDeleted = deleteRaw.runDelete();
         assertThat(isDeleted, is(true));
     }
 
-    @Test void runDeleteTaskRunTest(){
+    @Test void runDeleteTaskRunTest() throws InterruptedException {
         deleteAllBlock = new DeleteRaw.DeleteAllBlock("test");
         DeleteRaw deleteRaw = new DeleteRawMock(TektonUtils.TektonResourceType.taskrun.toString(),TektonUtils.DEFAULT_CLIENT_KEY, deleteAllBlock);
         Boolean isDeleted = deleteRaw.runDelete();
         assertThat(isDeleted, is(true));
     }
 
-    @Test void runDeletePipelineTest(){
+    @Test void runDeletePipelineTest() throws InterruptedException {
         deleteAllBlock = new DeleteRaw.DeleteAllBlock("test");
         DeleteRaw deleteRaw = new DeleteRawMock(TektonUtils.TektonResourceType.pipeline.toString(),TektonUtils.DEFAULT_CLIENT_KEY, deleteAllBlock);
         Boolean isDeleted = deleteRaw.runDelete();
         assertThat(isDeleted, is(true));
     }
 
-    @Test void runDeletePipelineRunTest(){
+    @Test void runDeletePipelineRunTest() throws InterruptedException {
         deleteAllBlock = new DeleteRaw.DeleteAllBlock("test");
         DeleteRaw deleteRaw = new DeleteRawMock(TektonUtils.TektonResourceType.pipelinerun.toString(),TektonUtils.DEFAULT_CLIENT_KEY, deleteAllBlock);
         Boolean isDeleted = deleteRaw.runDelete();
         assertThat(isDeleted, is(true));
     }
+
+    @Test void loadedStepGetsDefaultsTest() throws Exception {
+        DeleteRaw deleteRaw = new DeleteRaw(TektonUtils.TektonResourceType.taskrun.toString(), TektonUtils.DEFAULT_CLIENT_KEY, null);
+        // as left by XStream for a step saved before paging and deleting from several targets existed
+        Field pageSize = DeleteRaw.class.getDeclaredField("pageSize");
+        pageSize.setAccessible(true);
+        pageSize.set(deleteRaw, null);
+        deleteRaw.setDeleteConcurrency(0);
+        deleteRaw.setMaxConcurrentTargets(0);
+        deleteRaw.setDeletionTimeoutSeconds(0);
+
+        deleteRaw.readResolve();
+
+        assertThat(deleteRaw.getPageSize(), is(PaginatedDeleter.DEFAULT_PAGE_SIZE));
+        assertThat(deleteRaw.getDeleteConcurrency(), is(PaginatedDeleter.DEFAULT_PARALLELISM));
+        assertThat(deleteRaw.getMaxConcurrentTargets(), is(DeleteRaw.DEFAULT_MAX_CONCURRENT_TARGETS));
+        assertThat(deleteRaw.getDeletionTimeoutSeconds(), is(DeleteRaw.DEFAULT_DELETION_TIMEOUT_SECONDS));
+    }
+
+    @Test void loadedStepKeepsUnpagedDeletionTest() {
+        DeleteRaw deleteRaw = new DeleteRaw(TektonUtils.TektonResourceType.taskrun.toString(), TektonUtils.DEFAULT_CLIENT_KEY, null);
+        deleteRaw.setPageSize(0);
+
+        deleteRaw.readResolve();
+
+        assertThat(deleteRaw.getPageSize(), is(0));
+    }
 }
@@ -0,0 +1,170 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build.delete;
+
+import io.fabric8.kubernetes.api.model.ListMetaBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.fabric8.tekton.client.TektonClient;
+import io.fabric8.tekton.pipeline.v1beta1.TaskRun;
+import io.fabric8.tekton.pipeline.v1beta1.TaskRunBuilder;
+import io.fabric8.tekton.pipeline.v1beta1.TaskRunListBuilder;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.waveywaves.jenkins.plugins.tekton.client.MockServerRequests;
+
+import java.net.HttpURLConnection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Deletes with a propagation policy and waits for the deleted resources to be gone against mock API servers.
+ */
+@EnableKubernetesMockClient(crud = true)
+class DeleteRawWaitMockServerTest {
+    private static final String TASKRUNS = "/apis/tekton.dev/v1beta1/namespaces/test/taskruns";
+
+    KubernetesMockServer server;
+    KubernetesClient client;
+
+    private TektonClient tektonClient;
+
+    // answers as if the deleted resources were held back by a finalizer
+    private KubernetesMockServer finalizerServer;
+    private KubernetesClient finalizerClient;
+
+    @BeforeEach void before() throws InterruptedException {
+        tektonClient = client.adapt(TektonClient.class);
+        for (String name : new String[] { "a", "b", "c" }) {
+            tektonClient.v1beta1().taskRuns().create(taskRun(name));
+        }
+        MockServerRequests.take(server);
+
+        finalizerServer = new KubernetesMockServer(false);
+        finalizerServer.init();
+        finalizerClient = finalizerServer.createClient();
+    }
+
+    @AfterEach void after() {
+        finalizerClient.close();
+        finalizerServer.destroy();
+    }
+
+    @Test void testPropagationPolicyIsSentWithEveryDelete() throws InterruptedException {
+        DeleteRaw named = new DeleteRaw("taskrun", "default", new DeleteRaw.DeleteAllBlock("a"));
+        named.setPropagationPolicy("Foreground");
+        assertPropagationPolicy(named, "Foreground");
+
+        DeleteRaw unpaged = newStep();
+        unpaged.setPageSize(0);
+        unpaged.setLabelSelector("app=b");
+        unpaged.setPropagationPolicy("Orphan");
+        assertPropagationPolicy(unpaged, "Orphan");
+
+        // only c is left to delete
+        DeleteRaw paged = newStep();
+        paged.setPageSize(1);
+        paged.setPropagationPolicy("Background");
+        assertPropagationPolicy(paged, "Background");
+    }
+
+    @Test void testWaitsUntilDeletedResourcesAreGone() throws InterruptedException {
+        for (int pageSize : new int[] { 0, 2 }) {
+            DeleteRaw step = newStep();
+            step.setPageSize(pageSize);
+            step.setLabelSelector(pageSize == 0 ? "app=a" : "app!=a");
+            step.setWaitForDeletion(true);
+            step.setDeletionTimeoutSeconds(10);
+
+            assertThat(step.runDelete()).isTrue();
+        }
+
+        assertThat(tektonClient.v1beta1().taskRuns().list().getItems()).isEmpty();
+    }
+
+    @Test void testNamedDeleteTimesOutWhileTheResourceRemains() {
+        expectFinalizer("a");
+
+        DeleteRaw step = new DeleteRaw("taskrun", "default", new DeleteRaw.DeleteAllBlock("a"));
+        step.setTektonClient(finalizerClient.adapt(TektonClient.class));
+        step.setWaitForDeletion(true);
+        step.setDeletionTimeoutSeconds(1);
+
+        assertThatThrownBy(step::runDelete)
+                .isInstanceOf(DeleteRaw.DeletionTimeoutException.class)
+                .hasMessage("Timed out after 1s waiting for a to be deleted");
+    }
+
+    @Test void testPagedDeleteTimesOutWhileResourcesRemain() {
+        finalizerServer.expect().get().withPath(TASKRUNS + "?limit=2")
+                .andReturn(HttpURLConnection.HTTP_OK, new TaskRunListBuilder().withMetadata(new ListMetaBuilder().build())
+                        .addToItems(taskRun("a"), taskRun("b")).build())
+                .once();
+        expectFinalizer("a");
+        expectFinalizer("b");
+
+        DeleteRaw step = new DeleteRaw("taskrun", "default", null);
+        step.setTektonClient(finalizerClient.adapt(TektonClient.class));
+        step.setPageSize(2);
+        step.setWaitForDeletion(true);
+        step.setDeletionTimeoutSeconds(1);
+
+        assertThatThrownBy(step::runDelete)
+                .isInstanceOf(DeleteRaw.DeletionTimeoutException.class)
+                .hasMessage("Timed out after 1s waiting for 2 taskrun(s) to be deleted");
+    }
+
+    @Test void testUnpagedDeleteWaitsForTheDeletedResources() {
+        // the API server answers a collection delete with the resources it deleted
+        finalizerServer.expect().delete().withPath(TASKRUNS + "?labelSelector=app%3Da")
+                .andReturn(HttpURLConnection.HTTP_OK, new TaskRunListBuilder().withMetadata(new ListMetaBuilder().build())
+                        .addToItems(taskRun("a")).build())
+                .once();
+        expectFinalizer("a");
+
+        DeleteRaw step = new DeleteRaw("taskrun", "default", null);
+        step.setTektonClient(finalizerClient.adapt(TektonClient.class));
+        step.setPageSize(0);
+        step.setLabelSelector("app=a");
+        step.setWaitForDeletion(true);
+        step.setDeletionTimeoutSeconds(1);
+
+        assertThatThrownBy(step::runDelete)
+                .isInstanceOf(DeleteRaw.DeletionTimeoutException.class)
+                .hasMessage("Timed out after 1s waiting for a to be deleted");
+    }
+
+    private void assertPropagationPolicy(DeleteRaw step, String policy) throws InterruptedException {
+        step.setTektonClient(tektonClient);
+
+        assertThat(step.runDelete()).isTrue();
+
+        List<RecordedRequest> requests = MockServerRequests.take(server, "DELETE");
+        assertThat(requests).hasSize(1);
+        assertThat(requests).allSatisfy(request ->
+                assertThat(request.getBody().readUtf8()).contains("\"propagationPolicy\":\"" + policy + "\""));
+    }
+
+    private void expectFinalizer(String name) {
+        finalizerServer.expect().delete().withPath(TASKRUNS + "/" + name).andReturn(HttpURLConnection.HTTP_OK, taskRun(name)).once();
+        finalizerServer.expect().get().withPath(TASKRUNS + "/" + name).andReturn(HttpURLConnection.HTTP_OK, taskRun(name)).always();
+        // the watch stays open without reporting the deletion
+        finalizerServer.expect().get().withPath(TASKRUNS + "?fieldSelector=metadata.name%3D" + name + "&watch=true")
+                .andUpgradeToWebSocket().open().done().always();
+    }
+
+    private DeleteRaw newStep() {
+        DeleteRaw step = new DeleteRaw("taskrun", "default", null);
+        step.setTektonClient(tektonClient);
+        return step;
+    }
+
+    private static TaskRun taskRun(String name) {
+        return new TaskRunBuilder()
+                .withNewMetadata().withName(name).withNamespace("test").addToLabels("app", name).endMetadata()
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package org.waveywaves.jenkins.plugins.tekton.client.build.delete;
+
+import io.fabric8.kubernetes.api.model.ListMetaBuilder;
+import io.fabric8.kubernetes.api.model.StatusBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.fabric8.tekton.client.TektonClient;
+import io.fabric8.tekton.pipeline.v1beta1.TaskRun;
+import io.fabric8.tekton.pipeline.v1beta1.TaskRunBuilder;
+import io.fabric8.tekton.pipeline.v1beta1.TaskRunListBuilder;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.waveywaves.jenkins.plugins.tekton.client.MockServerRequests;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pages through and deletes resources against the mock API server.
+ */
+@EnableKubernetesMockClient
+class PaginatedDeleterMockServerTest {
+    private static final String TASKRUNS = "/apis/tekton.dev/v1beta1/namespaces/test/taskruns";
+
+    KubernetesMockServer server;
+    KubernetesClient client;
+
+    private TektonClient tektonClient;
+    private final List<String> progress = new ArrayList<>();
+
+    @BeforeEach void before() {
+        tektonClient = client.adapt(TektonClient.class);
+    }
+
+    @Test void testDeletesEveryPage() throws InterruptedException {
+        expectPage(TASKRUNS + "?limit=2", "c1", "a", "b");
+        expectPage(TASKRUNS + "?limit=2&continue=c1", null, "c");
+        expectDeletes("a", "b", "c");
+
+        PaginatedDeleter.Outcome outcome = new PaginatedDeleter(2, 2, progress::add).delete(tektonClient.v1beta1().taskRuns(), null, null, null);
+
+        assertThat(outcome.getDeleted()).isEqualTo(3);
+        assertThat(outcome.getFailed()).isZero();
+        assertThat(listPaths()).containsExactly(TASKRUNS + "?limit=2", TASKRUNS + "?limit=2&continue=c1");
+        assertThat(progress).hasSize(2);
+    }
+
+    @Test void testRestartsListingWhenContinueTokenExpires() throws InterruptedException {
+        expectPage(TASKRUNS + "?limit=2", "c1", "a", "b");
+        server.expect().get().withPath(TASKRUNS + "?limit=2&continue=c1")
+                .andReturn(HttpURLConnection.HTTP_GONE, new StatusBuilder().withCode(HttpURLConnection.HTTP_GONE).withReason("Expired").build()).once();
+        // the deleted resources are no longer listed once the listing restarts
+        expectPage(TASKRUNS + "?limit=2", null, "c");
+        expectDeletes("a", "b", "c");
+
+        PaginatedDeleter.Outcome outcome = new PaginatedDeleter(2, 2, progress::add).delete(tektonClient.v1beta1().taskRuns(), null, null, null);
+
+        assertThat(outcome.getDeleted()).isEqualTo(3);
+        assertThat(outcome.getFailed()).isZero();
+        assertThat(listPaths()).containsExactly(TASKRUNS + "?limit=2", TASKRUNS + "?limit=2&continue=c1", TASKRUNS + "?limit=2");
+    }
+
+    @Test void testGoneWithoutContinueTokenFails() {
+        server.expect().get().withPath(TASKRUNS + "?limit=2")
+                .andReturn(HttpURLConnection.HTTP_GONE, new StatusBuilder().withCode(HttpURLConnection.HTTP_GONE).build()).once();
+
+        assertThatThrownBy(() -> new PaginatedDeleter(2, 2, null).delete(tektonClient.v1beta1().taskRuns(), null, null, null))
+                .isInstanceOf(KubernetesClientException.class);
+    }
+
+    @Test void testFailedDeletesAreCounted() throws InterruptedException {
+        expectPage(TASKRUNS + "?limit=2&labelSelector=app%3Dbuild", null, "a", "b");
+        expectDeletes("a");
+        server.expect().delete().withPath(TASKRUNS + "/b")
+                .andReturn(HttpURLConnection.HTTP_FORBIDDEN, new StatusBuilder().withCode(HttpURLConnection.HTTP_FORBIDDEN).build()).once();
+
+        PaginatedDeleter.Outcome outcome = new PaginatedDeleter(2, 2, null).delete(tektonClient.v1beta1().taskRuns(), "app=build", null, null);
+
+        assertThat(outcome.getDeleted()).isEqualTo(1);
+        assertThat(outcome.getFailed()).isEqualTo(1);
+    }
+
+    private void expectPage(String path, String continueToken, String... names) {
+        TaskRunListBuilder page = new TaskRunListBuilder().withMetadata(new ListMetaBuilder().withContinue(continueToken).build());
+        for (String name : names) {
+            page.addToItems(taskRun(name));
+        }
+        server.expect().get().withPath(path).andReturn(HttpURLConnection.HTTP_OK, page.build()).once();
+    }
+
+    private void expectDeletes(String... names) {
+        for (String name : names) {
+            server.expect().delete().withPath(TASKRUNS + "/" + name).andReturn(HttpURLConnection.HTTP_OK, taskRun(name)).once();
+        }
+    }
+
+    private static TaskRun taskRun(String name) {
+        return new TaskRunBuilder().withNewMetadata().withName(name).withNamespace("test").endMetadata().build();
+    }
+
+    private List<String> listPaths() throws InterruptedException {
+        List<String> answer = new ArrayList<>();
+        for (RecordedRequest request : MockServerRequests.take(server, "GET")) {
+            answer.add(request.getPath());
+        }
+        return answer;
+    }
+}
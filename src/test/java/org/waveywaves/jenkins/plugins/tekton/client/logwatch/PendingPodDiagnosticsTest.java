@@ -0,0 +1,132 @@
+package org.waveywaves.jenkins.plugins.tekton.client.logwatch;
+
+import io.fabric8.kubernetes.api.model.Event;
+import io.fabric8.kubernetes.api.model.EventBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PendingPodDiagnosticsTest {
+
+    @Test void testImagePullBackOff() {
+        Pod pod = new PodBuilder()
+                .withNewStatus()
+                    .withPhase("Pending")
+                    .addNewContainerStatus()
+                        .withName("step-build")
+                        .withNewState()
+                            .withNewWaiting()
+                                .withReason("ImagePullBackOff")
+                                .withMessage("Back-off pulling image \"does-not-exist\"")
+                            .endWaiting()
+                        .endState()
+                    .endContainerStatus()
+                .endStatus()
+                .build();
+
+        PendingPodDiagnostics.Diagnosis diagnosis = PendingPodDiagnostics.diagnose(pod, Collections.emptyList());
+
+        assertThat(diagnosis).isNotNull();
+        assertThat(diagnosis.getReason()).isEqualTo("ImagePullBackOff");
+        assertThat(diagnosis.getMessage()).contains("step-build").contains("does-not-exist");
+    }
+
+    @Test void testContainerCreatingIsNotStuck() {
+        Pod pod = new PodBuilder()
+                .withNewStatus()
+                    .withPhase("Pending")
+                    .addNewInitContainerStatus()
+                        .withName("prepare")
+                        .withNewState()
+                            .withNewWaiting()
+                                .withReason("PodInitializing")
+                            .endWaiting()
+                        .endState()
+                    .endInitContainerStatus()
+                .endStatus()
+                .build();
+
+        assertThat(PendingPodDiagnostics.diagnose(pod, Collections.emptyList())).isNull();
+    }
+
+    @Test void testUnschedulable() {
+        Pod pod = unschedulablePod();
+
+        PendingPodDiagnostics.Diagnosis diagnosis = PendingPodDiagnostics.diagnose(pod, Collections.emptyList());
+
+        assertThat(diagnosis).isNotNull();
+        assertThat(diagnosis.getReason()).isEqualTo("Unschedulable");
+        assertThat(diagnosis.toString()).isEqualTo("Unschedulable: 0/3 nodes are available: 3 Insufficient cpu.");
+    }
+
+    @Test void testUnschedulableWhileScalingUpIsNotStuck() {
+        Event scaleUp = event("Normal", "TriggeredScaleUp", "pod triggered scale-up");
+
+        assertThat(PendingPodDiagnostics.diagnose(unschedulablePod(), Collections.singletonList(scaleUp))).isNull();
+    }
+
+    @Test void testFailedMountEvent() {
+        Pod pod = new PodBuilder().withNewStatus().withPhase("Pending").endStatus().build();
+        Event scheduled = event("Normal", "Scheduled", "Successfully assigned");
+        Event failedMount = event("Warning", "FailedMount", "persistentvolumeclaim \"missing\" not found");
+
+        PendingPodDiagnostics.Diagnosis diagnosis = PendingPodDiagnostics.diagnose(pod, Arrays.asList(scheduled, failedMount));
+
+        assertThat(diagnosis).isNotNull();
+        assertThat(diagnosis.getReason()).isEqualTo("FailedMount");
+        assertThat(diagnosis.getMessage()).contains("missing");
+    }
+
+    @Test void testEventsBeforeLastStateChangeAreIgnored() {
+        // the volume was mounted in the end and the pod moved on to initializing
+        Pod pod = new PodBuilder()
+                .withNewStatus()
+                    .withPhase("Pending")
+                    .addNewCondition().withType("PodScheduled").withStatus("True").withLastTransitionTime("2024-01-01T10:00:00Z").endCondition()
+                    .addNewCondition().withType("Initialized").withStatus("False").withLastTransitionTime("2024-01-01T10:05:00Z").endCondition()
+                .endStatus()
+                .build();
+        Event failedMount = event("Warning", "FailedMount", "persistentvolumeclaim \"cache\" is being provisioned");
+        failedMount.setLastTimestamp("2024-01-01T10:04:00Z");
+
+        assertThat(PendingPodDiagnostics.diagnose(pod, Collections.singletonList(failedMount))).isNull();
+
+        failedMount.setLastTimestamp("2024-01-01T10:06:00Z");
+
+        assertThat(PendingPodDiagnostics.diagnose(pod, Collections.singletonList(failedMount))).isNotNull();
+    }
+
+    @Test void testPolicyOf() {
+        assertThat(PendingPodDiagnostics.Policy.of("FAIL")).isEqualTo(PendingPodDiagnostics.Policy.FAIL);
+        assertThat(PendingPodDiagnostics.Policy.of(null)).isEqualTo(PendingPodDiagnostics.Policy.WAIT);
+        assertThat(PendingPodDiagnostics.Policy.of("bogus")).isEqualTo(PendingPodDiagnostics.Policy.WAIT);
+    }
+
+    private static Pod unschedulablePod() {
+        return new PodBuilder()
+                .withNewStatus()
+                    .withPhase("Pending")
+                    .addNewCondition()
+                        .withType("PodScheduled")
+                        .withStatus("False")
+                        .withReason("Unschedulable")
+                        .withMessage("0/3 nodes are available: 3 Insufficient cpu.")
+                    .endCondition()
+                .endStatus()
+                .build();
+    }
+
+    private static Event event(String type, String reason, String message) {
+        return new EventBuilder()
+                .withNewMetadata().withName(reason.toLowerCase()).endMetadata()
+                .withType(type)
+                .withReason(reason)
+                .withMessage(message)
+                .build();
+    }
+}
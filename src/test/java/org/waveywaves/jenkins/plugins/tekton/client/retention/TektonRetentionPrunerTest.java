@@ -0,0 +1,89 @@
+package org.waveywaves.jenkins.plugins.tekton.client.retention;
+
+import io.fabric8.knative.internal.pkg.apis.ConditionBuilder;
+import io.fabric8.tekton.pipeline.v1beta1.PipelineRun;
+import io.fabric8.tekton.pipeline.v1beta1.PipelineRunBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TektonRetentionPrunerTest {
+
+    private final Instant now = Instant.parse("2024-06-01T12:00:00Z");
+
+    @Test void testKeepLastPerJob() {
+        List<PipelineRun> runs = Arrays.asList(
+                pipelineRun("a-1", "a", 5, "True"),
+                pipelineRun("a-2", "a", 4, "False"),
+                pipelineRun("a-3", "a", 3, "True"),
+                pipelineRun("a-4", "a", 2, "True"),
+                pipelineRun("b-1", "b", 1, "True"));
+
+        assertThat(deleted(runs, new TektonRetentionPruner.Limits(2, 0), name -> null)).containsExactly("a-1", "a-2");
+    }
+
+    @Test void testMaxAgeIgnoresRunningRuns() {
+        List<PipelineRun> runs = Arrays.asList(
+                pipelineRun("old", "a", 24 * 10, "True"),
+                pipelineRun("still-running", "a", 24 * 10, "Unknown"),
+                pipelineRun("recent", "a", 1, "True"));
+
+        assertThat(deleted(runs, new TektonRetentionPruner.Limits(0, 7), name -> null)).containsExactly("old");
+    }
+
+    @Test void testJobLimitsOverrideDefaults() {
+        List<PipelineRun> runs = Arrays.asList(
+                pipelineRun("a-1", "a", 3, "True"),
+                pipelineRun("a-2", "a", 2, "True"),
+                pipelineRun("b-1", "b", 3, "True"),
+                pipelineRun("b-2", "b", 2, "True"));
+
+        TektonRetentionPruner.Limits keepOne = new TektonRetentionPruner.Limits(1, 0);
+        assertThat(deleted(runs, new TektonRetentionPruner.Limits(0, 0), name -> name.equals("folder/b") ? keepOne : null))
+                .containsExactly("b-1");
+    }
+
+    @Test void testRunsCompletedAfterTheFirstPassAreKept() {
+        TektonRetentionPruner.Selection<PipelineRun> selection = selection(new TektonRetentionPruner.Limits(1, 0), name -> null);
+        selection.observe(pipelineRun("a-1", "a", 3, "True"));
+
+        assertThat(selection.shouldDelete(pipelineRun("a-2", "a", 1, "True"))).isFalse();
+        assertThat(selection.shouldDelete(pipelineRun("a-0", "a", 4, "True"))).isTrue();
+    }
+
+    private List<String> deleted(List<PipelineRun> runs, TektonRetentionPruner.Limits defaults, Function<String, TektonRetentionPruner.Limits> jobLimits) {
+        TektonRetentionPruner.Selection<PipelineRun> selection = selection(defaults, jobLimits);
+        runs.forEach(selection::observe);
+        return runs.stream()
+                .filter(selection::shouldDelete)
+                .map(pr -> pr.getMetadata().getName())
+                .collect(Collectors.toList());
+    }
+
+    private TektonRetentionPruner.Selection<PipelineRun> selection(TektonRetentionPruner.Limits defaults, Function<String, TektonRetentionPruner.Limits> jobLimits) {
+        return new TektonRetentionPruner.Selection<>(defaults, jobLimits, pr -> pr.getStatus().getConditions(), now.toEpochMilli());
+    }
+
+    private PipelineRun pipelineRun(String name, String job, int ageHours, String succeeded) {
+        Map<String, String> labels = TektonRunLabels.forJob("folder/" + job, 1);
+        PipelineRun pipelineRun = new PipelineRunBuilder()
+                .withNewMetadata()
+                    .withName(name)
+                    .withCreationTimestamp(now.minus(ageHours, ChronoUnit.HOURS).toString())
+                .endMetadata()
+                .withNewStatus()
+                    .withConditions(new ConditionBuilder().withType("Succeeded").withStatus(succeeded).build())
+                .endStatus()
+                .build();
+        TektonRunLabels.apply(pipelineRun.getMetadata(), labels);
+        return pipelineRun;
+    }
+}
@@ -0,0 +1,49 @@
+package org.waveywaves.jenkins.plugins.tekton.client.retention;
+
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TektonRunLabelsTest {
+
+    @Test void testToLabelValue() {
+        assertThat(TektonRunLabels.toLabelValue("my-job")).isEqualTo("my-job");
+        assertThat(TektonRunLabels.toLabelValue("folder/my job")).isEqualTo("folder-my-job");
+        assertThat(TektonRunLabels.toLabelValue("/_folder/job_")).isEqualTo("folder-job");
+    }
+
+    @Test void testLongLabelValuesAreTruncatedAndUnique() {
+        String prefix = "organisation/repository/";
+        String first = TektonRunLabels.toLabelValue(prefix + "a-very-long-branch-name-that-goes-on-and-on-and-on-1");
+        String second = TektonRunLabels.toLabelValue(prefix + "a-very-long-branch-name-that-goes-on-and-on-and-on-2");
+
+        assertThat(first).hasSizeLessThanOrEqualTo(63).matches("[A-Za-z0-9][-A-Za-z0-9_.]*[A-Za-z0-9]");
+        assertThat(second).hasSizeLessThanOrEqualTo(63);
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test void testApplyKeepsExistingLabels() {
+        ObjectMeta metadata = new ObjectMetaBuilder()
+                .withName("my-run")
+                .addToLabels(TektonRunLabels.JOB_LABEL, "custom")
+                .build();
+
+        Map<String, String> labels = TektonRunLabels.forJob("folder/my-job", 42);
+        TektonRunLabels.apply(metadata, labels);
+
+        assertThat(metadata.getLabels())
+                .containsEntry(TektonRunLabels.MANAGED_BY_LABEL, TektonRunLabels.MANAGED_BY_VALUE)
+                .containsEntry(TektonRunLabels.JOB_LABEL, "custom")
+                .containsEntry(TektonRunLabels.BUILD_LABEL, "42")
+                .doesNotContainKey(TektonRunLabels.JOB_ANNOTATION);
+        assertThat(metadata.getAnnotations()).containsEntry(TektonRunLabels.JOB_ANNOTATION, "folder/my-job");
+    }
+
+    @Test void testForRunWithoutRun() {
+        assertThat(TektonRunLabels.forRun(null)).isEmpty();
+    }
+}
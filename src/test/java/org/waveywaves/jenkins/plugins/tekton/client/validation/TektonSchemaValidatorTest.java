@@ -0,0 +1,79 @@
+package org.waveywaves.jenkins.plugins.tekton.client.validation;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TektonSchemaValidatorTest {
+
+    private final TektonSchemaValidator validator = TektonSchemaValidator.get();
+
+    @Test void testValidTask() throws Exception {
+        String yaml = "apiVersion: tekton.dev/v1beta1\n" +
+                "kind: Task\n" +
+                "metadata:\n" +
+                "  name: testTask\n" +
+                "spec:\n" +
+                "  params:\n" +
+                "    - name: greeting\n" +
+                "      type: string\n" +
+                "  steps:\n" +
+                "    - name: hello\n" +
+                "      image: alpine\n" +
+                "      script: echo $(params.greeting)\n";
+
+        TektonSchemaValidator.Result result = validate(yaml);
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(result.isValid()).isTrue();
+    }
+
+    @Test void testWrongTypeAndMissingRequiredField() throws Exception {
+        String yaml = "apiVersion: tekton.dev/v1\n" +
+                "kind: Task\n" +
+                "metadata:\n" +
+                "  name: testTask\n" +
+                "spec:\n" +
+                "  steps:\n" +
+                "    - image: alpine\n" +
+                "      args: echo\n";
+
+        TektonSchemaValidator.Result result = validate(yaml);
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getErrors()).containsExactlyInAnyOrder(
+                ".spec.steps[0].name: missing required field",
+                ".spec.steps[0].args: expected array but was string");
+    }
+
+    @Test void testUnknownFieldIsWarning() throws Exception {
+        String yaml = "apiVersion: tekton.dev/v1beta1\n" +
+                "kind: PipelineRun\n" +
+                "metadata:\n" +
+                "  name: testPipelineRun\n" +
+                "spec:\n" +
+                "  pipelineRef:\n" +
+                "    name: testPipeline\n" +
+                "  cheese: edam\n";
+
+        TektonSchemaValidator.Result result = validate(yaml);
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getWarnings()).containsExactly(".spec.cheese: unknown field will be ignored by the API server");
+    }
+
+    @Test void testUnsupportedVersion() throws Exception {
+        String yaml = "apiVersion: tekton.dev/v2\n" +
+                "kind: TaskRun\n" +
+                "metadata:\n" +
+                "  name: testTaskRun\n";
+
+        TektonSchemaValidator.Result result = validate(yaml);
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getErrors()).hasSize(1);
+        assertThat(result.getErrors().get(0)).startsWith(".apiVersion: unsupported version tekton.dev/v2");
+    }
+
+    private TektonSchemaValidator.Result validate(String yaml) throws Exception {
+        return validator.validate(yaml.getBytes(StandardCharsets.UTF_8));
+    }
+}
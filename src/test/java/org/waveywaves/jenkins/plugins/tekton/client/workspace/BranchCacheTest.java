@@ -0,0 +1,93 @@
+package org.waveywaves.jenkins.plugins.tekton.client.workspace;
+
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaim;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaimBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BranchCacheTest {
+    private static final long NOW = Instant.parse("2024-06-01T12:00:00Z").toEpochMilli();
+
+    @Test void testClaimName() {
+        String name = BranchCache.claimName("maven-cache", "org/repo", "feature/My_Branch");
+
+        assertThat(name).isEqualTo(BranchCache.claimName("maven-cache", "org/repo", "feature/My_Branch"));
+        assertThat(name).startsWith("cache-maven-cache-feature-my-branch-").matches("[a-z0-9]([-a-z0-9]*[a-z0-9])?");
+        assertThat(name).isNotEqualTo(BranchCache.claimName("maven-cache", "org/other", "feature/My_Branch"));
+    }
+
+    @Test void testLongClaimNamesAreValid() {
+        String name = BranchCache.claimName("npm", "org/repo", "a-very-long-branch-name-that-goes-on-and-on-and-on-and-on");
+
+        assertThat(name).hasSizeLessThanOrEqualTo(63).matches("[a-z0-9]([-a-z0-9]*[a-z0-9])?");
+    }
+
+    @Test void testJobOf() {
+        assertThat(BranchCache.jobOf("org/repo/feature-x", "feature-x")).isEqualTo("org/repo");
+        assertThat(BranchCache.jobOf("org/repo/feature%2Fx", "feature/x")).isEqualTo("org/repo");
+        assertThat(BranchCache.jobOf("my-job", null)).isEqualTo("my-job");
+        assertThat(BranchCache.jobOf("my-job", "main")).isEqualTo("my-job");
+    }
+
+    @Test void testSelectEvictionsLeastRecentlyUsedFirst() {
+        PersistentVolumeClaim main = claim("main", "5Gi", true, "2024-05-01T00:00:00Z", null);
+        PersistentVolumeClaim old = claim("old", "5Gi", false, "2024-05-02T00:00:00Z", null);
+        PersistentVolumeClaim recent = claim("recent", "5Gi", false, "2024-05-30T00:00:00Z", null);
+        PersistentVolumeClaim leased = claim("leased", "5Gi", false, "2024-04-01T00:00:00Z", "2024-06-01T11:00:00Z");
+
+        List<PersistentVolumeClaim> evictions = BranchCache.selectEvictions(Arrays.asList(main, old, recent, leased),
+                Quantity.getAmountInBytes(new Quantity("12Gi")), NOW);
+
+        assertThat(names(evictions)).containsExactly("old", "recent");
+    }
+
+    @Test void testSelectEvictionsDefaultBranchLast() {
+        PersistentVolumeClaim main = claim("main", "5Gi", true, "2024-05-01T00:00:00Z", null);
+        PersistentVolumeClaim branch = claim("branch", "5Gi", false, "2024-05-30T00:00:00Z", null);
+
+        assertThat(names(BranchCache.selectEvictions(Arrays.asList(main, branch),
+                Quantity.getAmountInBytes(new Quantity("1Gi")), NOW))).containsExactly("branch", "main");
+        assertThat(BranchCache.selectEvictions(Arrays.asList(main, branch),
+                new BigDecimal(Long.MAX_VALUE), NOW)).isEmpty();
+    }
+
+    @Test void testStaleLeasesCanBeEvicted() {
+        PersistentVolumeClaim stale = claim("stale", "5Gi", false, "2024-05-01T00:00:00Z", "2024-05-01T00:00:00Z");
+
+        assertThat(names(BranchCache.selectEvictions(Arrays.asList(stale),
+                Quantity.getAmountInBytes(new Quantity("1Gi")), NOW))).containsExactly("stale");
+    }
+
+    private static PersistentVolumeClaim claim(String name, String size, boolean defaultBranch, String lastUsed, String leasedAt) {
+        PersistentVolumeClaimBuilder builder = new PersistentVolumeClaimBuilder()
+                .withNewMetadata()
+                    .withName(name)
+                    .addToLabels(BranchCache.DEFAULT_BRANCH_LABEL, String.valueOf(defaultBranch))
+                    .addToAnnotations(BranchCache.LAST_USED_ANNOTATION, lastUsed)
+                .endMetadata()
+                .withNewSpec()
+                    .withNewResources()
+                        .addToRequests("storage", new Quantity(size))
+                    .endResources()
+                .endSpec();
+        if (leasedAt != null) {
+            builder.editMetadata()
+                    .addToAnnotations(BranchCache.LEASED_BY_ANNOTATION, "job#1")
+                    .addToAnnotations(PvcPool.LEASED_AT_ANNOTATION, leasedAt)
+                    .endMetadata();
+        }
+        return builder.build();
+    }
+
+    private static List<String> names(List<PersistentVolumeClaim> claims) {
+        return claims.stream().map(pvc -> pvc.getMetadata().getName()).collect(Collectors.toList());
+    }
+}
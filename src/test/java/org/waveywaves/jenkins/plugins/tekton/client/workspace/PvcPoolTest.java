@@ -0,0 +1,149 @@
+package org.waveywaves.jenkins.plugins.tekton.client.workspace;
+
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaim;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaimBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.api.model.StatusBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.fabric8.tekton.client.TektonClient;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Test;
+import org.waveywaves.jenkins.plugins.tekton.client.MockServerRequests;
+import org.waveywaves.jenkins.plugins.tekton.client.retention.TektonRunLabels;
+
+import java.net.HttpURLConnection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EnableKubernetesMockClient(crud = true)
+class PvcPoolTest {
+
+    KubernetesMockServer server;
+    KubernetesClient client;
+
+    @Test void testPoolName() {
+        assertThat(PvcPool.poolName("fast-ssd", "1Gi")).isEqualTo("fast-ssd-1Gi");
+        assertThat(PvcPool.poolName("", "10Gi")).isEqualTo("default-10Gi");
+        assertThat(PvcPool.poolName(null, "10Gi")).isEqualTo(PvcPool.poolName("", "10Gi"));
+    }
+
+    @Test void testNewClaim() {
+        PvcPool pool = new PvcPool(null, "ci", "fast-ssd", "2Gi", PvcPool.ReleasePolicy.WIPE);
+
+        PersistentVolumeClaim pvc = pool.newClaim(PvcPool.STATE_LEASED, "folder/my-job");
+
+        assertThat(pvc.getMetadata().getNamespace()).isEqualTo("ci");
+        assertThat(pvc.getMetadata().getGenerateName()).isEqualTo("tekton-pool-");
+        assertThat(pvc.getMetadata().getLabels())
+                .containsEntry(PvcPool.POOL_LABEL, "fast-ssd-2Gi")
+                .containsEntry(PvcPool.STATE_LABEL, PvcPool.STATE_LEASED);
+        assertThat(pvc.getMetadata().getAnnotations()).containsKey(PvcPool.LEASED_AT_ANNOTATION);
+        assertThat(pvc.getSpec().getStorageClassName()).isEqualTo("fast-ssd");
+        assertThat(pvc.getSpec().getResources().getRequests()).containsEntry("storage", new Quantity("2Gi"));
+    }
+
+    @Test void testNewClaimUsesDefaultStorageClass() {
+        PvcPool pool = new PvcPool(null, "ci", "", "2Gi", null);
+
+        PersistentVolumeClaim pvc = pool.newClaim(PvcPool.STATE_DIRTY, null);
+
+        assertThat(pvc.getSpec().getStorageClassName()).isNull();
+        assertThat(pvc.getMetadata().getLabels()).containsEntry(PvcPool.STATE_LABEL, PvcPool.STATE_DIRTY);
+    }
+
+    @Test void testConfigMatches() {
+        PvcPoolConfig config = new PvcPoolConfig("", "", "fast-ssd", "1Gi", 2, "RECYCLE");
+
+        assertThat(config.matches("default", "ci", "fast-ssd", "1Gi", "ci")).isTrue();
+        assertThat(config.matches("default", "other", "fast-ssd", "1Gi", "ci")).isFalse();
+        assertThat(config.matches("default", "ci", "fast-ssd", "2Gi", "ci")).isFalse();
+        assertThat(config.matches("default", "ci", "", "1Gi", "ci")).isFalse();
+        assertThat(config.getReleasePolicyValue()).isEqualTo(PvcPool.ReleasePolicy.RECYCLE);
+        assertThat(new PvcPoolConfig("", "", "", "1Gi", 2, "bogus").getReleasePolicyValue()).isEqualTo(PvcPool.ReleasePolicy.WIPE);
+    }
+
+    @Test void testReleaseAfterReclaimLeavesTheNewLease() {
+        PvcPool pool = new PvcPool(client, "test", "fast-ssd", "1Gi", PvcPool.ReleasePolicy.RECYCLE);
+        PvcPool.Lease first = pool.lease("job#1");
+        pool.markLeasedTo(first, "run-1");
+
+        // run-1 does not exist so maintenance reclaims the claim, which is then leased again
+        pool.maintain(client.adapt(TektonClient.class), 1);
+        PvcPool.Lease second = pool.lease("job#2");
+        pool.markLeasedTo(second, "run-2");
+        assertThat(second.getClaimName()).isEqualTo(first.getClaimName());
+
+        pool.release(first);
+
+        PersistentVolumeClaim pvc = claim(first.getClaimName());
+        assertThat(pvc.getMetadata().getLabels()).containsEntry(PvcPool.STATE_LABEL, PvcPool.STATE_LEASED);
+        assertThat(pvc.getMetadata().getAnnotations())
+                .containsEntry(PvcPool.LEASED_TO_ANNOTATION, "run-2")
+                .containsEntry(TektonRunLabels.JOB_ANNOTATION, "job#2");
+
+        pool.release(second);
+
+        assertThat(claim(second.getClaimName()).getMetadata().getLabels()).containsEntry(PvcPool.STATE_LABEL, PvcPool.STATE_AVAILABLE);
+    }
+
+    @Test void testReleaseOfReclaimedClaimIsIgnored() {
+        PvcPool pool = new PvcPool(client, "test", "fast-ssd", "1Gi", PvcPool.ReleasePolicy.DELETE);
+        PvcPool.Lease lease = pool.lease("job#1");
+        pool.markLeasedTo(lease, "run-1");
+        pool.maintain(client.adapt(TektonClient.class), 0);
+
+        pool.release(lease);
+
+        assertThat(claim(lease.getClaimName())).isNull();
+    }
+
+    @Test void testReleaseConflictMeansAlreadyReclaimed() throws InterruptedException {
+        KubernetesMockServer expectations = new KubernetesMockServer(false);
+        expectations.init();
+        try (KubernetesClient expectationsClient = expectations.createClient()) {
+            String path = "/api/v1/namespaces/test/persistentvolumeclaims/tekton-pool-a";
+            PersistentVolumeClaim leased = new PersistentVolumeClaimBuilder()
+                    .withNewMetadata()
+                        .withName("tekton-pool-a").withNamespace("test").withResourceVersion("1")
+                        .addToLabels(PvcPool.STATE_LABEL, PvcPool.STATE_LEASED)
+                        .addToAnnotations(TektonRunLabels.JOB_ANNOTATION, "job#1")
+                        .addToAnnotations(PvcPool.LEASED_TO_ANNOTATION, "run-1")
+                    .endMetadata()
+                    .build();
+            expectations.expect().get().withPath(path).andReturn(HttpURLConnection.HTTP_OK, leased).always();
+            expectations.expect().put().withPath(path).andReturn(HttpURLConnection.HTTP_CONFLICT,
+                    new StatusBuilder().withCode(HttpURLConnection.HTTP_CONFLICT).withReason("Conflict").build()).always();
+            PvcPool pool = new PvcPool(expectationsClient, "test", "fast-ssd", "1Gi", PvcPool.ReleasePolicy.DELETE);
+            PvcPool.Lease lease = new PvcPool.Lease(pool, "tekton-pool-a", "job#1", false);
+            lease.setTaskRunName("run-1");
+
+            pool.release(lease);
+
+            // the claim changed since it was read, so it is neither replaced nor deleted
+            assertThat(MockServerRequests.take(expectations)).extracting(RecordedRequest::getMethod).doesNotContain("DELETE");
+        } finally {
+            expectations.destroy();
+        }
+    }
+
+    @Test void testIsHeldBy() {
+        PvcPool pool = new PvcPool(null, "ci", "fast-ssd", "2Gi", PvcPool.ReleasePolicy.WIPE);
+        PersistentVolumeClaim pvc = pool.newClaim(PvcPool.STATE_LEASED, "job#1");
+        PvcPool.Lease lease = new PvcPool.Lease(pool, "tekton-pool-a", "job#1", false);
+
+        assertThat(PvcPool.isHeldBy(pvc, lease)).isTrue();
+        lease.setTaskRunName("run-1");
+        assertThat(PvcPool.isHeldBy(pvc, lease)).isFalse();
+        pvc.getMetadata().getAnnotations().put(PvcPool.LEASED_TO_ANNOTATION, "run-1");
+        assertThat(PvcPool.isHeldBy(pvc, lease)).isTrue();
+        pvc.getMetadata().getLabels().put(PvcPool.STATE_LABEL, PvcPool.STATE_AVAILABLE);
+        assertThat(PvcPool.isHeldBy(pvc, lease)).isFalse();
+        assertThat(PvcPool.isHeldBy(pool.newClaim(PvcPool.STATE_LEASED, "job#2"), new PvcPool.Lease(pool, "a", "job#1", false))).isFalse();
+    }
+
+    private PersistentVolumeClaim claim(String name) {
+        return client.persistentVolumeClaims().inNamespace("test").withName(name).get();
+    }
+}
@@ -0,0 +1,99 @@
+package org.waveywaves.jenkins.plugins.tekton.generator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for CrdSchemaReader.
+ */
+class CrdSchemaReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+    private final CrdSchemaReader reader = new CrdSchemaReader(yamlMapper);
+
+    @Test
+    void testReadsOnlyVersionSchemas() throws IOException {
+        // Arrange - Fields in an unusual order with sections the generator does not need
+        Path crdFile = tempDir.resolve("crd.yaml");
+        Files.writeString(crdFile, """
+            spec:
+              group: tekton.dev
+              conversion:
+                strategy: Webhook
+              versions:
+              - schema:
+                  openAPIV3Schema:
+                    type: object
+                    properties:
+                      spec:
+                        type: object
+                additionalPrinterColumns:
+                - name: Succeeded
+                  type: string
+                name: v1
+              - name: v1beta1
+                served: false
+              names:
+                kind: Task
+            metadata:
+              labels:
+                app: tekton
+              name: tasks.tekton.dev
+            apiVersion: apiextensions.k8s.io/v1
+            kind: CustomResourceDefinition
+            """);
+
+        // Act
+        CrdSchemaReader.Crd crd = reader.read(crdFile);
+
+        // Assert
+        assertThat(crd.getKind()).isEqualTo("CustomResourceDefinition");
+        assertThat(crd.getApiVersion()).isEqualTo("apiextensions.k8s.io/v1");
+        assertThat(crd.getName()).isEqualTo("tasks.tekton.dev");
+        assertThat(crd.getResourceKind()).isEqualTo("Task");
+        assertThat(crd.getVersions()).hasSize(2);
+        assertThat(crd.getVersions().get(0).getName()).isEqualTo("v1");
+        assertThat(crd.getVersions().get(0).getSchema().at("/properties/spec/type").asText()).isEqualTo("object");
+        assertThat(crd.getVersions().get(1).getName()).isEqualTo("v1beta1");
+        assertThat(crd.getVersions().get(1).getSchema()).isNull();
+    }
+
+    @Test
+    void testMatchesWholeDocumentRead() throws IOException {
+        // Arrange
+        Path crdFile = Paths.get("src/main/resources/crds/300-task.yaml");
+
+        // Act
+        CrdSchemaReader.Crd crd = reader.read(crdFile);
+
+        // Assert - The streamed schemas equal those of the whole document
+        var versions = yamlMapper.readTree(crdFile.toFile()).at("/spec/versions");
+        assertThat(crd.getVersions()).hasSize(versions.size());
+        for (int i = 0; i < versions.size(); i++) {
+            assertThat(crd.getVersions().get(i).getName()).isEqualTo(versions.get(i).at("/name").asText());
+            assertThat(crd.getVersions().get(i).getSchema()).isEqualTo(versions.get(i).at("/schema/openAPIV3Schema"));
+        }
+    }
+
+    @Test
+    void testNotAnObject() throws IOException {
+        // Arrange
+        Path crdFile = tempDir.resolve("list.yaml");
+        Files.writeString(crdFile, "- a\n- b\n");
+
+        // Act & Assert
+        assertThat(reader.read(crdFile)).isNull();
+    }
+}
@@ -0,0 +1,177 @@
+package org.waveywaves.jenkins.plugins.tekton.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.tekton.pipeline.v1beta1.Task;
+import io.fabric8.tekton.pipeline.v1beta1.TaskBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for Fabric8ConverterGenerator.
+ */
+class Fabric8ConverterGeneratorTest {
+
+    private static final String BASE_PACKAGE = "org.waveywaves.jenkins.plugins.tekton.generated";
+    private static final String V1BETA1_PACKAGE = BASE_PACKAGE + ".tasks.v1beta1";
+
+    @TempDir
+    Path tempDir;
+
+    private TektonCrdToJavaProcessor processor;
+    private Path crdDirectory;
+    private Path outputDirectory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        processor = new TektonCrdToJavaProcessor();
+        crdDirectory = tempDir.resolve("crds");
+        outputDirectory = tempDir.resolve("generated-sources");
+        Files.createDirectories(crdDirectory);
+        Files.copy(Paths.get("src/main/resources/crds/300-task.yaml"), crdDirectory.resolve("300-task.yaml"));
+    }
+
+    @Test
+    void testFindFabric8Class() {
+        assertThat(Fabric8ConverterGenerator.findFabric8Class("v1beta1", "Task")).isEqualTo(Task.class);
+        assertThat(Fabric8ConverterGenerator.findFabric8Class("v1beta1", "NoSuchKind")).isNull();
+        assertThat(Fabric8ConverterGenerator.findFabric8Class("", "Task")).isNull();
+        assertThat(Fabric8ConverterGenerator.findFabric8Class("v1beta1", null)).isNull();
+    }
+
+    @Test
+    void testGeneratesConverterForVersionsWithFabric8Model() throws IOException {
+        // Act
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, false);
+
+        // Assert - Only v1beta1 has a fabric8 model class
+        Path converter = outputDirectory.resolve(V1BETA1_PACKAGE.replace('.', '/') + "/Fabric8Converter.java");
+        assertThat(converter).exists();
+        String content = Files.readString(converter);
+        assertThat(content).contains("public static Task toFabric8(CreateTask value)");
+        assertThat(content).contains("public static CreateTask fromFabric8(Task value)");
+        assertThat(content).containsPattern("private static \\S*TaskSpec toTaskSpec\\(");
+        assertThat(content).contains("MAPPER = new ObjectMapper();");
+        assertThat(outputDirectory.resolve(BASE_PACKAGE.replace('.', '/') + "/tasks/v1/Fabric8Converter.java")).doesNotExist();
+    }
+
+    @Test
+    void testConvertersCanBeDisabled() throws IOException {
+        // Act
+        processor.setGenerateFabric8Converters(false);
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, false);
+
+        // Assert
+        Path versionDirectory = outputDirectory.resolve(V1BETA1_PACKAGE.replace('.', '/'));
+        assertThat(versionDirectory.resolve("CreateTask.java")).exists();
+        assertThat(versionDirectory.resolve("Fabric8Converter.java")).doesNotExist();
+    }
+
+    @Test
+    void testTypedStepsCreateThroughConverter() throws Exception {
+        // Arrange
+        TektonPojoGenerator.configureJenkinsIntegration(processor, BASE_PACKAGE);
+
+        // Act
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, true);
+
+        // Assert - Only the step with a fabric8 model submits it directly
+        String step = Files.readString(outputDirectory.resolve(V1BETA1_PACKAGE.replace('.', '/') + "/CreateTaskTyped.java"));
+        assertThat(step).contains("extends BaseStep");
+        assertThat(step).containsPattern("public void perform\\(Run<[^>]*> run, FilePath workspace, EnvVars envVars, Launcher launcher, TaskListener listener\\)");
+        assertThat(step).contains("GeneratedStepSupport.create(Fabric8Converter.toFabric8(this), clusterName, namespace, run, envVars, listener);");
+        assertThat(step).containsPattern("@DataBoundSetter\\s+public void setClusterName\\(String clusterName\\)");
+        assertThat(step).containsPattern("@DataBoundSetter\\s+public void setSpec\\(");
+        String v1Step = Files.readString(outputDirectory.resolve(BASE_PACKAGE.replace('.', '/') + "/tasks/v1/CreateTaskTyped.java"));
+        assertThat(v1Step).doesNotContain("perform(");
+
+        // Assert - The nested types can be bound from the step's form and from Pipeline scripts
+        List<Path> sharedTypes;
+        try (Stream<Path> files = Files.list(outputDirectory.resolve(BASE_PACKAGE.replace('.', '/') + "/shared"))) {
+            sharedTypes = files.filter(p -> p.toString().endsWith(".java")).collect(Collectors.toList());
+        }
+        assertThat(sharedTypes).isNotEmpty();
+        for (Path sharedType : sharedTypes) {
+            assertThat(Files.readString(sharedType)).as(sharedType.getFileName().toString()).contains("@DataBoundConstructor");
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(compiler != null, "Java compiler not available");
+        Path classesDirectory = tempDir.resolve("classes");
+        Files.createDirectories(classesDirectory);
+        List<String> arguments = new ArrayList<>(List.of(
+            "-d", classesDirectory.toString(), "-cp", System.getProperty("java.class.path"), "-proc:none"));
+        try (Stream<Path> files = Files.walk(outputDirectory)) {
+            files.filter(p -> p.toString().endsWith(".java")).forEach(p -> arguments.add(p.toString()));
+        }
+        assertThat(compiler.run(null, null, null, arguments.toArray(new String[0]))).isZero();
+    }
+
+    @Test
+    void testRoundTripThroughGeneratedConverter() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(compiler != null, "Java compiler not available");
+
+        // Arrange - Generate and compile the classes, converting the values which do not correspond with the codecs
+        processor.setGenerateJacksonCodecs(true);
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, false);
+        assertThat(Files.readString(outputDirectory.resolve(V1BETA1_PACKAGE.replace('.', '/') + "/Fabric8Converter.java")))
+            .contains("MAPPER = new ObjectMapper().registerModule(new JacksonModule())");
+        Path classesDirectory = tempDir.resolve("classes");
+        Files.createDirectories(classesDirectory);
+        List<String> arguments = new ArrayList<>(List.of(
+            "-d", classesDirectory.toString(), "-cp", System.getProperty("java.class.path"), "-proc:none"));
+        try (Stream<Path> files = Files.walk(outputDirectory)) {
+            files.filter(p -> p.toString().endsWith(".java")).forEach(p -> arguments.add(p.toString()));
+        }
+        assertThat(compiler.run(null, null, null, arguments.toArray(new String[0]))).isZero();
+
+        Task task = new TaskBuilder()
+            .withApiVersion("tekton.dev/v1beta1")
+            .withKind("Task")
+            .withNewMetadata().withName("build").withNamespace("ci").addToLabels("app", "build").endMetadata()
+            .withNewSpec()
+                .withDescription("Builds the project")
+                .addNewStep().withName("maven").withImage("maven:3").withArgs("-B", "$(params.goal)").endStep()
+            .endSpec()
+            .build();
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { classesDirectory.toUri().toURL() }, getClass().getClassLoader())) {
+            Class<?> converter = loader.loadClass(V1BETA1_PACKAGE + ".Fabric8Converter");
+            Class<?> generatedClass = loader.loadClass(V1BETA1_PACKAGE + ".CreateTask");
+            Method fromFabric8 = converter.getMethod("fromFabric8", Task.class);
+            Method toFabric8 = converter.getMethod("toFabric8", generatedClass);
+
+            // Act
+            Object generated = fromFabric8.invoke(null, task);
+            Task converted = (Task) toFabric8.invoke(null, generated);
+
+            // Assert - Nothing is lost converting to the generated classes and back
+            ObjectMapper mapper = new ObjectMapper();
+            JsonNode expected = mapper.valueToTree(task);
+            JsonNode actual = mapper.valueToTree(converted);
+            assertThat(actual).isEqualTo(expected);
+            JsonNode generatedTree = mapper.valueToTree(generated);
+            assertThat(generatedTree.at("/spec/steps/0/image").asText()).isEqualTo("maven:3");
+            assertThat(toFabric8.invoke(null, (Object) null)).isNull();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.waveywaves.jenkins.plugins.tekton.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for JacksonCodecGenerator.
+ */
+class JacksonCodecGeneratorTest {
+
+    private static final String BASE_PACKAGE = "org.waveywaves.jenkins.plugins.tekton.generated";
+    private static final String VERSION_PACKAGE = BASE_PACKAGE + ".widgets.v1";
+
+    @TempDir
+    Path tempDir;
+
+    private TektonCrdToJavaProcessor processor;
+    private Path crdDirectory;
+    private Path outputDirectory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        processor = new TektonCrdToJavaProcessor();
+        processor.setGenerateJacksonCodecs(true);
+        crdDirectory = tempDir.resolve("crds");
+        outputDirectory = tempDir.resolve("generated-sources");
+        Files.createDirectories(crdDirectory);
+        Files.writeString(crdDirectory.resolve("widget-crd.yaml"), """
+            apiVersion: apiextensions.k8s.io/v1
+            kind: CustomResourceDefinition
+            metadata:
+              name: widgets.example.dev
+            spec:
+              group: example.dev
+              versions:
+              - name: v1
+                served: true
+                storage: true
+                schema:
+                  openAPIV3Schema:
+                    type: object
+                    properties:
+                      apiVersion:
+                        type: string
+                      spec:
+                        type: object
+                        properties:
+                          replicas:
+                            type: integer
+                          enabled:
+                            type: boolean
+                          steps:
+                            type: array
+                            items:
+                              type: object
+                              properties:
+                                name:
+                                  type: string
+                                args:
+                                  type: array
+                                  items:
+                                    type: string
+                          labels:
+                            type: object
+                            additionalProperties:
+                              type: string
+              names:
+                plural: widgets
+                kind: Widget
+            """);
+    }
+
+    @Test
+    void testGeneratesCodecsAndModule() throws IOException {
+        // Act
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, false);
+
+        // Assert
+        Path module = outputDirectory.resolve(VERSION_PACKAGE.replace('.', '/') + "/JacksonModule.java");
+        assertThat(module).exists();
+        String moduleContent = Files.readString(module);
+        assertThat(moduleContent).contains("extends SimpleModule");
+        assertThat(moduleContent).containsPattern("addSerializer\\(Widgets\\.class, new [\\w.]*Serializer\\(\\)\\)");
+        assertThat(moduleContent).containsPattern("addDeserializer\\(Widgets\\.class, new [\\w.]*Deserializer\\(\\)\\)");
+
+        String root = Files.readString(module.resolveSibling("Widgets.java"));
+        assertThat(root).contains("public static class Serializer");
+        assertThat(root).contains("extends StdSerializer<Widgets>");
+        assertThat(root).contains("public static class Deserializer");
+    }
+
+    @Test
+    void testCodecsAreNotGeneratedByDefault() throws IOException {
+        // Act
+        new TektonCrdToJavaProcessor().processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, false);
+
+        // Assert
+        Path versionDirectory = outputDirectory.resolve(VERSION_PACKAGE.replace('.', '/'));
+        assertThat(versionDirectory.resolve("Widgets.java")).exists();
+        assertThat(versionDirectory.resolve("JacksonModule.java")).doesNotExist();
+        assertThat(Files.readString(versionDirectory.resolve("Widgets.java"))).doesNotContain("class Serializer");
+    }
+
+    @Test
+    void testRoundTripThroughGeneratedModule() throws Exception {
+        Path classesDirectory = generateAndCompile();
+
+        String json = "{\"apiVersion\":\"example.dev/v1\",\"spec\":{\"replicas\":3,\"enabled\":true,"
+            + "\"steps\":[{\"name\":\"build\",\"args\":[\"-B\",\"verify\"]}],\"labels\":{\"app\":\"widget\"},\"extra\":1}}";
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { classesDirectory.toUri().toURL() }, getClass().getClassLoader())) {
+            ObjectMapper mapper = new ObjectMapper();
+            mapper.registerModule((Module) loader.loadClass(VERSION_PACKAGE + ".JacksonModule").getConstructor().newInstance());
+            Class<?> widgetClass = loader.loadClass(VERSION_PACKAGE + ".Widgets");
+
+            // Act
+            Object widget = mapper.readValue(json, widgetClass);
+            JsonNode written = mapper.valueToTree(widget);
+
+            // Assert - The generated codecs are used and the document survives the round trip
+            assertThat(mapper.getSerializerProviderInstance().findValueSerializer(widgetClass).getClass().getName())
+                .isEqualTo(VERSION_PACKAGE + ".Widgets$Serializer");
+            assertThat(written).isEqualTo(mapper.readTree(json));
+        }
+    }
+
+    @Test
+    void testExplicitNullsLeaveThePropertiesUnset() throws Exception {
+        Path classesDirectory = generateAndCompile();
+
+        // An empty YAML mapping value, like "spec:" or "steps:", is read as an explicit null
+        String json = "{\"apiVersion\":null,\"spec\":{\"replicas\":null,\"enabled\":null,"
+            + "\"steps\":[{\"name\":\"build\",\"args\":null},null],\"labels\":null}}";
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { classesDirectory.toUri().toURL() }, getClass().getClassLoader())) {
+            ObjectMapper mapper = new ObjectMapper();
+            mapper.registerModule((Module) loader.loadClass(VERSION_PACKAGE + ".JacksonModule").getConstructor().newInstance());
+            Class<?> widgetClass = loader.loadClass(VERSION_PACKAGE + ".Widgets");
+
+            // Act
+            JsonNode written = mapper.valueToTree(mapper.readValue(json, widgetClass));
+            JsonNode writtenWithoutSpec = mapper.valueToTree(mapper.readValue("{\"spec\":null}", widgetClass));
+
+            // Assert
+            assertThat(written).isEqualTo(mapper.readTree("{\"spec\":{\"steps\":[{\"name\":\"build\"},null]}}"));
+            assertThat(writtenWithoutSpec).isEqualTo(mapper.readTree("{}"));
+        }
+    }
+
+    private Path generateAndCompile() throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(compiler != null, "Java compiler not available");
+
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, false);
+        Path classesDirectory = tempDir.resolve("classes");
+        Files.createDirectories(classesDirectory);
+        List<String> arguments = new ArrayList<>(List.of(
+            "-d", classesDirectory.toString(), "-cp", System.getProperty("java.class.path"), "-proc:none"));
+        try (Stream<Path> files = Files.walk(outputDirectory)) {
+            files.filter(p -> p.toString().endsWith(".java")).forEach(p -> arguments.add(p.toString()));
+        }
+        assertThat(compiler.run(null, null, null, arguments.toArray(new String[0]))).isZero();
+        return classesDirectory;
+    }
+}
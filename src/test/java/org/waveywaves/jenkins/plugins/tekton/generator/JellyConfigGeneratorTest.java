@@ -0,0 +1,120 @@
+package org.waveywaves.jenkins.plugins.tekton.generator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for JellyConfigGenerator.
+ */
+class JellyConfigGeneratorTest {
+
+    private static final String BASE_PACKAGE = "org.waveywaves.jenkins.plugins.tekton.generated";
+    private static final String TASK_CLASS = BASE_PACKAGE + ".tasks.v1beta1.CreateTask";
+
+    @TempDir
+    Path tempDir;
+
+    private TektonCrdToJavaProcessor processor;
+    private Path crdDirectory;
+    private Path outputDirectory;
+    private Path resourcesDirectory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        processor = new TektonCrdToJavaProcessor();
+        crdDirectory = tempDir.resolve("crds");
+        outputDirectory = tempDir.resolve("generated-sources");
+        resourcesDirectory = tempDir.resolve("resources");
+        Files.createDirectories(crdDirectory);
+        Files.copy(Paths.get("src/main/resources/crds/300-task.yaml"), crdDirectory.resolve("300-task.yaml"));
+    }
+
+    @Test
+    void testRendersJellyFromSchemaWhileGenerating() throws IOException {
+        // Act
+        processor.setJellyOutputDirectory(resourcesDirectory);
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, false);
+
+        // Assert - A form for the root class of each version, nothing among the sources
+        Path jelly = resourcesDirectory.resolve(TASK_CLASS.replace('.', '/') + "/config.jelly");
+        assertThat(jelly).exists();
+        assertThat(resourcesDirectory.resolve(BASE_PACKAGE.replace('.', '/') + "/tasks/v1/CreateTask/config.jelly")).exists();
+        String content = Files.readString(jelly);
+        assertThat(content).startsWith("<?jelly escape-by-default='true'?>");
+        assertThat(content).contains("<f:entry field=\"apiVersion\" title=\"Api Version\"");
+        assertThat(content).contains("<f:optionalBlock title=\"Spec\" field=\"spec\"");
+        assertThat(content).doesNotContain("additionalProperties");
+        try (Stream<Path> files = Files.walk(outputDirectory)) {
+            assertThat(files.filter(p -> p.toString().endsWith(".jelly"))).isEmpty();
+        }
+    }
+
+    @Test
+    void testRemovedJellyIsRegenerated() throws IOException {
+        // Arrange
+        processor.setJellyOutputDirectory(resourcesDirectory);
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, false);
+        Path jelly = resourcesDirectory.resolve(TASK_CLASS.replace('.', '/') + "/config.jelly");
+        Files.delete(jelly);
+
+        // Act
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, false);
+
+        // Assert - The form is tracked like a generated source
+        assertThat(jelly).exists();
+    }
+
+    @Test
+    void testNoJellyWithoutOutputDirectory() throws IOException {
+        // Act
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, false);
+
+        // Assert
+        assertThat(resourcesDirectory).doesNotExist();
+    }
+
+    @Test
+    void testSchemaJellyMatchesCompiledClassJelly() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(compiler != null, "Java compiler not available");
+
+        // Arrange - Render from the schemas, then compile the classes
+        processor.setJellyOutputDirectory(resourcesDirectory);
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, false);
+        Path classesDirectory = tempDir.resolve("classes");
+        Files.createDirectories(classesDirectory);
+        List<String> arguments = new ArrayList<>(List.of(
+            "-d", classesDirectory.toString(), "-cp", System.getProperty("java.class.path"), "-proc:none"));
+        try (Stream<Path> files = Files.walk(outputDirectory)) {
+            files.filter(p -> p.toString().endsWith(".java")).forEach(p -> arguments.add(p.toString()));
+        }
+        assertThat(compiler.run(null, null, null, arguments.toArray(new String[0]))).isZero();
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { classesDirectory.toUri().toURL() }, getClass().getClassLoader())) {
+            Path reflected = tempDir.resolve("reflected/config.jelly");
+
+            // Act
+            new JellyConfigGenerator().generateJellyConfig(loader.loadClass(TASK_CLASS), reflected);
+
+            // Assert - Rendering from the schema gives the form rendering from the loaded class gave
+            assertThat(Files.readString(resourcesDirectory.resolve(TASK_CLASS.replace('.', '/') + "/config.jelly")))
+                .isEqualTo(Files.readString(reflected));
+        }
+    }
+}
@@ -70,8 +70,9 @@ class ParameterGenerationTest {
         // Assert - Check field generation
         assertThat(content).contains("private String apiVersion");
         assertThat(content).contains("private String kind");
-        assertThat(content).contains("private Metadata metadata");
-        assertThat(content).contains("private Spec spec");
+        // Nested types are shared classes named after the property and a hash of their schema
+        assertThat(content).containsPattern("private Metadata_[0-9a-f]{10} metadata;");
+        assertThat(content).containsPattern("private Spec_[0-9a-f]{10} spec;");
         
         // Check field annotations
         assertThat(content).contains("@JsonProperty(\"apiVersion\")");
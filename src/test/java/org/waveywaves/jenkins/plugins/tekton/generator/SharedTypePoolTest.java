@@ -0,0 +1,103 @@
+package org.waveywaves.jenkins.plugins.tekton.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for SharedTypePool.
+ */
+class SharedTypePoolTest {
+
+    private static final String BASE_PACKAGE = "org.waveywaves.jenkins.plugins.tekton.generated";
+    private static final String STEP = "{\"type\":\"object\",\"properties\":{\"name\":{\"type\":\"string\"},\"image\":{\"type\":\"string\"}}}";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SharedTypePool pool = new SharedTypePool(BASE_PACKAGE);
+
+    @Test
+    void testIdenticalSchemasShareType() throws Exception {
+        // Arrange - A task and a task run embedding the same steps
+        JsonNode task = mapper.readTree("{\"type\":\"object\",\"properties\":{\"spec\":{\"type\":\"object\",\"properties\":{"
+            + "\"steps\":{\"type\":\"array\",\"items\":" + STEP + "}}}}}");
+        JsonNode taskRun = mapper.readTree("{\"type\":\"object\",\"properties\":{\"spec\":{\"type\":\"object\",\"properties\":{"
+            + "\"taskSpec\":{\"type\":\"object\",\"properties\":{\"steps\":{\"type\":\"array\",\"items\":" + STEP + "}}}}}}}");
+
+        // Act
+        JsonNode taskTypes = pool.assignSharedTypes(task);
+        JsonNode taskRunTypes = pool.assignSharedTypes(taskRun);
+
+        // Assert
+        String taskStep = taskTypes.at("/properties/spec/properties/steps/items/javaType").asText();
+        String taskRunStep = taskRunTypes.at("/properties/spec/properties/taskSpec/properties/steps/items/javaType").asText();
+        assertThat(taskStep).startsWith(BASE_PACKAGE + ".shared.Step_");
+        assertThat(taskRunStep).isEqualTo(taskStep);
+        assertThat(taskTypes.at("/properties/spec/javaType").asText())
+            .isNotEqualTo(taskRunTypes.at("/properties/spec/javaType").asText());
+    }
+
+    @Test
+    void testRootAndInputAreUnchanged() throws Exception {
+        // Arrange
+        JsonNode schema = mapper.readTree("{\"type\":\"object\",\"properties\":{\"step\":" + STEP + "}}");
+
+        // Act
+        JsonNode typed = pool.assignSharedTypes(schema);
+
+        // Assert
+        assertThat(typed.has("javaType")).isFalse();
+        assertThat(typed.at("/properties/step/javaType").isTextual()).isTrue();
+        assertThat(schema.at("/properties/step/javaType").isMissingNode()).isTrue();
+    }
+
+    @Test
+    void testDifferentStructuresGetDifferentTypes() throws Exception {
+        // Arrange
+        JsonNode schema = mapper.readTree("{\"type\":\"object\",\"properties\":{"
+            + "\"a\":{\"type\":\"object\",\"properties\":{\"step\":" + STEP + "}},"
+            + "\"b\":{\"type\":\"object\",\"properties\":{\"step\":{\"type\":\"object\",\"properties\":{\"name\":{\"type\":\"string\"}}}}}}}");
+
+        // Act
+        JsonNode typed = pool.assignSharedTypes(schema);
+
+        // Assert
+        assertThat(typed.at("/properties/a/properties/step/javaType").asText())
+            .isNotEqualTo(typed.at("/properties/b/properties/step/javaType").asText());
+    }
+
+    @Test
+    void testDescriptionsDoNotChangeTheType() throws Exception {
+        // Arrange - The same step documented differently by two versions, and a step with a description property
+        JsonNode schema = mapper.readTree("{\"type\":\"object\",\"properties\":{"
+            + "\"a\":{\"type\":\"object\",\"properties\":{\"step\":" + STEP + "}},"
+            + "\"b\":{\"type\":\"object\",\"properties\":{\"step\":{\"type\":\"object\",\"description\":\"A step\",\"properties\":{"
+            + "\"name\":{\"type\":\"string\",\"description\":\"The name\"},\"image\":{\"type\":\"string\"}}}}},"
+            + "\"c\":{\"type\":\"object\",\"properties\":{\"step\":{\"type\":\"object\",\"properties\":{"
+            + "\"name\":{\"type\":\"string\"},\"image\":{\"type\":\"string\"},\"description\":{\"type\":\"string\"}}}}}}}");
+
+        // Act
+        JsonNode typed = pool.assignSharedTypes(schema);
+
+        // Assert
+        assertThat(typed.at("/properties/b/properties/step/javaType").asText())
+            .isEqualTo(typed.at("/properties/a/properties/step/javaType").asText());
+        assertThat(typed.at("/properties/c/properties/step/javaType").asText())
+            .isNotEqualTo(typed.at("/properties/a/properties/step/javaType").asText());
+    }
+
+    @Test
+    void testCanonicalIgnoresFieldOrder() throws Exception {
+        assertThat(SharedTypePool.canonical(mapper.readTree("{\"b\":1,\"a\":{\"d\":[1,2],\"c\":\"x\"}}")))
+            .isEqualTo(SharedTypePool.canonical(mapper.readTree("{\"a\":{\"c\":\"x\",\"d\":[1,2]},\"b\":1}")));
+    }
+
+    @Test
+    void testClassName() {
+        assertThat(SharedTypePool.className("podTemplate")).isEqualTo("PodTemplate");
+        assertThat(SharedTypePool.className("x-kubernetes-fields")).isEqualTo("XKubernetesFields");
+        assertThat(SharedTypePool.className("1st")).isEqualTo("_1st");
+        assertThat(SharedTypePool.className("$")).isEqualTo("Type");
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -231,6 +232,36 @@ class TektonCrdToJavaProcessorTest {
         assertThat(typedFiles).isGreaterThan(0);
     }
 
+    @Test
+    void testStepDescriptorsAreRegisteredLazily() throws IOException {
+        // Arrange
+        TektonPojoGenerator.configureJenkinsIntegration(processor, BASE_PACKAGE);
+
+        // Act
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, true);
+
+        // Assert - Descriptors are indexed for GeneratedStepDescriptors rather than extensions loading at startup
+        List<String> steps;
+        try (Stream<Path> files = Files.walk(outputDirectory)) {
+            steps = files.filter(p -> p.toString().endsWith(".java"))
+                .map(p -> {
+                    try {
+                        return Files.readString(p);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .filter(content -> content.contains("class DescriptorImpl"))
+                .toList();
+        }
+        assertThat(steps).isNotEmpty();
+        assertThat(steps).allSatisfy(content -> {
+            assertThat(content).contains("@GeneratedStepDescriptor");
+            assertThat(content).doesNotContain("@Extension");
+            assertThat(content).doesNotContain("load()");
+        });
+    }
+
     @Test
     void testInvalidCrdGracefulHandling() throws IOException {
         // Arrange - Create invalid YAML
@@ -255,6 +286,129 @@ class TektonCrdToJavaProcessorTest {
         }).doesNotThrowAnyException();
     }
 
+    @Test
+    void testParallelGenerationMatchesSequential() throws IOException {
+        // Arrange
+        Path sequentialDirectory = tempDir.resolve("sequential");
+        Path parallelDirectory = tempDir.resolve("parallel");
+
+        // Act
+        processor.setParallelism(1);
+        processor.processDirectory(crdDirectory, sequentialDirectory, BASE_PACKAGE, true);
+        processor.setParallelism(4);
+        processor.processDirectory(crdDirectory, parallelDirectory, BASE_PACKAGE, true);
+
+        // Assert - Same files with the same content
+        List<Path> sequentialFiles = listRelative(sequentialDirectory);
+        assertThat(sequentialFiles).isNotEmpty();
+        assertThat(listRelative(parallelDirectory)).isEqualTo(sequentialFiles);
+        for (Path file : sequentialFiles) {
+            assertThat(parallelDirectory.resolve(file)).hasSameTextualContentAs(sequentialDirectory.resolve(file));
+        }
+    }
+
+    @Test
+    void testIdenticalNestedTypesAreGeneratedOnce() throws IOException {
+        // Act
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, true);
+
+        // Assert - metadata is the same in both versions of the complex pipeline, only documented in one of them
+        Path sharedDirectory = outputDirectory.resolve("org/waveywaves/jenkins/plugins/tekton/generated/shared");
+        List<Path> metadataTypes = listRelative(sharedDirectory).stream()
+            .filter(p -> p.getFileName().toString().startsWith("Metadata_"))
+            .toList();
+        assertThat(metadataTypes).hasSize(1);
+        assertThat(listRelative(outputDirectory).stream()
+            .filter(p -> p.getFileName().toString().equals("Metadata.java")))
+            .isEmpty();
+
+        String metadataType = metadataTypes.get(0).getFileName().toString().replace(".java", "");
+        Path pipelines = outputDirectory.resolve("org/waveywaves/jenkins/plugins/tekton/generated/complexpipelines");
+        for (String version : new String[] { "v1", "v1beta1" }) {
+            assertThat(Files.readString(pipelines.resolve(version + "/Complexpipelines.java")))
+                .as(version)
+                .contains("import " + BASE_PACKAGE + ".shared." + metadataType + ";")
+                .containsPattern("private " + metadataType + " metadata;");
+        }
+    }
+
+    @Test
+    void testUnchangedCrdsSkipGeneration() throws IOException {
+        // Arrange
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, true);
+        Path simpleTask = outputDirectory.resolve("org/waveywaves/jenkins/plugins/tekton/generated/simpletasks/v1/Simpletasks.java");
+        Files.writeString(simpleTask, "// untouched");
+
+        // Act
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, true);
+
+        // Assert - Nothing was regenerated
+        assertThat(outputDirectory.resolve(GenerationManifest.FILE_NAME)).exists();
+        assertThat(simpleTask).hasContent("// untouched");
+    }
+
+    @Test
+    void testOnlyChangedCrdIsRegenerated() throws IOException {
+        // Arrange
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, true);
+        Path simpleTask = outputDirectory.resolve("org/waveywaves/jenkins/plugins/tekton/generated/simpletasks/v1/Simpletasks.java");
+        Files.writeString(simpleTask, "// untouched");
+        List<Path> edgeCaseFiles = listRelative(outputDirectory).stream()
+            .filter(p -> p.toString().contains("edge"))
+            .toList();
+        for (Path file : edgeCaseFiles) {
+            Files.writeString(outputDirectory.resolve(file), "// stale");
+        }
+
+        // Act - Change the schema of the edge case CRD only
+        String changedCrd = createEdgeCaseCrd().replace("\"special-field\":",
+            "\"added-field\":\n" + " ".repeat(16) + "type: string\n" + " ".repeat(14) + "\"special-field\":");
+        Files.write(crdDirectory.resolve("edge-case-crd.yaml"), changedCrd.getBytes());
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, true);
+
+        // Assert
+        assertThat(simpleTask).hasContent("// untouched");
+        assertThat(edgeCaseFiles).isNotEmpty();
+        for (Path file : edgeCaseFiles) {
+            assertThat(Files.readString(outputDirectory.resolve(file))).contains("package ");
+        }
+    }
+
+    @Test
+    void testMissingOutputIsRegenerated() throws IOException {
+        // Arrange
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, true);
+        Path simpleTask = outputDirectory.resolve("org/waveywaves/jenkins/plugins/tekton/generated/simpletasks/v1/Simpletasks.java");
+        Files.delete(simpleTask);
+
+        // Act
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, true);
+
+        // Assert
+        assertThat(simpleTask).exists();
+    }
+
+    @Test
+    void testRemovedCrdOutputsAreDeleted() throws IOException {
+        // Arrange
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, true);
+        Path simpleTask = outputDirectory.resolve("org/waveywaves/jenkins/plugins/tekton/generated/simpletasks/v1/Simpletasks.java");
+        assertThat(simpleTask).exists();
+
+        // Act
+        Files.delete(crdDirectory.resolve("simple-task-crd.yaml"));
+        processor.processDirectory(crdDirectory, outputDirectory, BASE_PACKAGE, true);
+
+        // Assert
+        assertThat(simpleTask).doesNotExist();
+    }
+
+    private static List<Path> listRelative(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).map(directory::relativize).sorted().toList();
+        }
+    }
+
     @ParameterizedTest
     @MethodSource("getCompilationTestData")
     void testGeneratedCodeCompilation(String crdName, String expectedClassName, boolean shouldHaveConstructor) throws IOException {
@@ -420,6 +574,7 @@ class TektonCrdToJavaProcessorTest {
                       kind:
                         type: string
                       metadata:
+                        description: Standard object metadata
                         type: object
                       spec:
                         type: object